@@ -1,5 +1,8 @@
 package com.pilatesapp.app.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +13,669 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Schedule schedule = new Schedule();
+
+    private final SessionSweeper sessionSweeper = new SessionSweeper();
+
+    private final Reminder reminder = new Reminder();
+
+    private final Indexer indexer = new Indexer();
+
+    private final Suggest suggest = new Suggest();
+
+    private final SearchCache searchCache = new SearchCache();
+
+    private final SearchBreaker searchBreaker = new SearchBreaker();
+
+    private final UserDetailsCache userDetailsCache = new UserDetailsCache();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final LoginThrottle loginThrottle = new LoginThrottle();
+
+    private final AuthorityCache authorityCache = new AuthorityCache();
+
     // jhipster-needle-application-properties-property
+
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    public SessionSweeper getSessionSweeper() {
+        return sessionSweeper;
+    }
+
+    public Reminder getReminder() {
+        return reminder;
+    }
+
+    public Indexer getIndexer() {
+        return indexer;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    public SearchBreaker getSearchBreaker() {
+        return searchBreaker;
+    }
+
+    public UserDetailsCache getUserDetailsCache() {
+        return userDetailsCache;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public LoginThrottle getLoginThrottle() {
+        return loginThrottle;
+    }
+
+    public AuthorityCache getAuthorityCache() {
+        return authorityCache;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Schedule {
+
+        /**
+         * The time zone of the studio, which defines the day a session belongs to in the daily schedule.
+         * Changing it requires emptying the {@code daily_schedule} table, which is refilled at startup.
+         */
+        private String timeZone = "UTC";
+
+        public String getTimeZone() {
+            return timeZone;
+        }
+
+        public void setTimeZone(String timeZone) {
+            this.timeZone = timeZone;
+        }
+    }
+
+    public static class SessionSweeper {
+
+        /**
+         * Whether the overdue waiting sessions are moved to undone periodically.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The delay between the end of a sweep and the start of the next one.
+         */
+        private Duration interval = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    public static class Reminder {
+
+        /**
+         * Whether the athletes are reminded of their upcoming sessions by email.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long before its start a session is reminded.
+         */
+        private Duration horizon = Duration.ofHours(24);
+
+        /**
+         * The delay between the end of a run and the start of the next one.
+         */
+        private Duration interval = Duration.ofMinutes(5);
+
+        /**
+         * The maximum number of emails being sent at once by a node.
+         */
+        private int concurrency = 4;
+
+        /**
+         * The language of the reminders.
+         */
+        private String langKey = "en";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getHorizon() {
+            return horizon;
+        }
+
+        public void setHorizon(Duration horizon) {
+            this.horizon = horizon;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public String getLangKey() {
+            return langKey;
+        }
+
+        public void setLangKey(String langKey) {
+            this.langKey = langKey;
+        }
+    }
+
+    public static class Indexer {
+
+        /**
+         * The maximum number of outbox entries, or of rows of an index rebuild, indexed by a single bulk request.
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the indexer waits for entries once the outbox is empty, which bounds the delay of the index.
+         */
+        private Duration linger = Duration.ofSeconds(1);
+
+        /**
+         * The number of times a failed bulk request is retried, with an exponential backoff, before the batch is given
+         * back to the outbox.
+         */
+        private int retries = 3;
+
+        /**
+         * The number of failed batches after which an entry is left in the outbox for investigation.
+         */
+        private int maxAttempts = 10;
+
+        /**
+         * How long a node holds the outbox entries it claimed, after which the entries not yet indexed may be claimed
+         * again by any node. It must exceed the duration of a batch, retries included.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Whether the written indices are refreshed after each batch, so that the changes are searchable at once
+         * rather than after the refresh interval of the index.
+         */
+        private boolean refresh = false;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLinger() {
+            return linger;
+        }
+
+        public void setLinger(Duration linger) {
+            this.linger = linger;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public boolean isRefresh() {
+            return refresh;
+        }
+
+        public void setRefresh(boolean refresh) {
+            this.refresh = refresh;
+        }
+    }
+
+    public static class Suggest {
+
+        /**
+         * The delay between two rebuilds of the typeahead index from the database, which bounds how long the writes
+         * of the other nodes take to be suggested.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(10);
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class SearchCache {
+
+        /**
+         * The maximum number of hits held by the cached search pages, which bounds the memory of the cache.
+         */
+        private long maxHits = 20_000;
+
+        /**
+         * The time a search page stays cached, which bounds how long a write made by another node takes to be found.
+         */
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        public long getMaxHits() {
+            return maxHits;
+        }
+
+        public void setMaxHits(long maxHits) {
+            this.maxHits = maxHits;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class SearchBreaker {
+
+        /**
+         * The time after which a request to Elasticsearch fails, well below the timeout of the client.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * The time after which a request to Elasticsearch counts as slow.
+         */
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+
+        /**
+         * The percentage of slow requests opening the breaker.
+         */
+        private float slowCallRateThreshold = 50;
+
+        /**
+         * The percentage of failed requests opening the breaker.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * The number of the last requests the rates are computed over.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * The number of requests below which the rates are not computed.
+         */
+        private int minimumNumberOfCalls = 10;
+
+        /**
+         * The time the breaker stays open before letting trial requests through.
+         */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+        /**
+         * The number of trial requests deciding whether the breaker closes again.
+         */
+        private int permittedNumberOfCallsInHalfOpenState = 5;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedNumberOfCallsInHalfOpenState() {
+            return permittedNumberOfCallsInHalfOpenState;
+        }
+
+        public void setPermittedNumberOfCallsInHalfOpenState(int permittedNumberOfCallsInHalfOpenState) {
+            this.permittedNumberOfCallsInHalfOpenState = permittedNumberOfCallsInHalfOpenState;
+        }
+    }
+
+    public static class UserDetailsCache {
+
+        /**
+         * The maximum number of users held by the cache of the authentication.
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * The time a user stays cached, which bounds how long a change made by another node takes to apply to the logins.
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class JwtCache {
+
+        /**
+         * The maximum number of verified tokens held by the cache of the API requests.
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * The maximum time a verified token stays cached, which is otherwise until its expiry.
+         */
+        private Duration maxTimeToLive = Duration.ofMinutes(10);
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxTimeToLive() {
+            return maxTimeToLive;
+        }
+
+        public void setMaxTimeToLive(Duration maxTimeToLive) {
+            this.maxTimeToLive = maxTimeToLive;
+        }
+    }
+    public static class PasswordHashing {
+
+        /**
+         * The number of threads hashing the passwords, as the hashes are bound by the CPU.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The maximum number of hashes waiting for a thread, beyond which they are rejected.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * The time after which the clients of the rejected hashes are told to try again.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * The BCrypt cost of the new hashes, as the log2 of its number of rounds.
+         */
+        private int strength = 10;
+
+        /**
+         * Whether a login hashes the password again when its hash was made with a lower cost.
+         */
+        private boolean rehashOnLogin = true;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public boolean isRehashOnLogin() {
+            return rehashOnLogin;
+        }
+
+        public void setRehashOnLogin(boolean rehashOnLogin) {
+            this.rehashOnLogin = rehashOnLogin;
+        }
+    }
+
+    public static class LoginThrottle {
+
+        /**
+         * The number of logins a login can attempt at once.
+         */
+        private int loginCapacity = 5;
+
+        /**
+         * The time after which a login can attempt one more login.
+         */
+        private Duration loginRefillPeriod = Duration.ofMinutes(1);
+
+        /**
+         * The number of logins a remote address can attempt at once.
+         */
+        private int addressCapacity = 20;
+
+        /**
+         * The time after which a remote address can attempt one more login.
+         */
+        private Duration addressRefillPeriod = Duration.ofSeconds(6);
+
+        /**
+         * The maximum time a login or remote address is blocked for, after being throttled again and again.
+         */
+        private Duration maxBackoff = Duration.ofMinutes(15);
+
+        /**
+         * The maximum number of logins, and of remote addresses, whose attempts are tracked.
+         */
+        private long maxKeys = 100_000;
+
+        /**
+         * The addresses or CIDR ranges of the reverse proxies, whose {@code X-Forwarded-For} header tells the address of
+         * the clients. Only the loopback addresses by default, so the deployments behind a proxy must add its addresses.
+         */
+        private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.0/8", "::1"));
+
+        public int getLoginCapacity() {
+            return loginCapacity;
+        }
+
+        public void setLoginCapacity(int loginCapacity) {
+            this.loginCapacity = loginCapacity;
+        }
+
+        public Duration getLoginRefillPeriod() {
+            return loginRefillPeriod;
+        }
+
+        public void setLoginRefillPeriod(Duration loginRefillPeriod) {
+            this.loginRefillPeriod = loginRefillPeriod;
+        }
+
+        public int getAddressCapacity() {
+            return addressCapacity;
+        }
+
+        public void setAddressCapacity(int addressCapacity) {
+            this.addressCapacity = addressCapacity;
+        }
+
+        public Duration getAddressRefillPeriod() {
+            return addressRefillPeriod;
+        }
+
+        public void setAddressRefillPeriod(Duration addressRefillPeriod) {
+            this.addressRefillPeriod = addressRefillPeriod;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public long getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(long maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+    }
+
+    public static class AuthorityCache {
+
+        /**
+         * The time after which the authorities are read again, which bounds how long a new authority takes to be resolved.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
@@ -4,7 +4,11 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
 import com.pilatesapp.app.security.AuthoritiesConstants;
+import com.pilatesapp.app.security.LoginThrottle;
+import com.pilatesapp.app.security.PasswordHasher;
 import com.pilatesapp.app.web.filter.SpaWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
@@ -13,6 +17,7 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,21 +34,43 @@ public class SecurityConfiguration {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public SecurityConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public SecurityConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(applicationProperties.getPasswordHashing().getStrength());
+    }
+
+    @Bean
+    public PasswordHasher passwordHasher(MeterRegistry registry) {
+        return new PasswordHasher(passwordEncoder(), applicationProperties, registry);
+    }
+
+    @Bean
+    public LoginThrottle loginThrottle(MeterRegistry registry) {
+        return new LoginThrottle(applicationProperties, registry);
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsService userDetailsService) {
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(
+        ReactiveUserDetailsService userDetailsService,
+        PasswordHasher passwordHasher,
+        ObjectProvider<ReactiveUserDetailsPasswordService> userDetailsPasswordService
+    ) {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
             userDetailsService
         );
-        authenticationManager.setPasswordEncoder(passwordEncoder());
+        authenticationManager.setPasswordEncoder(passwordHasher.getPasswordEncoder());
+        // the passwords are verified on the bounded hashing pool, rather than on the shared bounded elastic scheduler
+        authenticationManager.setScheduler(passwordHasher.getScheduler());
+        if (applicationProperties.getPasswordHashing().isRehashOnLogin()) {
+            userDetailsPasswordService.ifAvailable(authenticationManager::setUserDetailsPasswordService);
+        }
         return authenticationManager;
     }
 
@@ -4,50 +4,56 @@ import static com.pilatesapp.app.security.SecurityUtils.AUTHORITIES_KEY;
 import static com.pilatesapp.app.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.proc.BadJOSEException;
 import com.nimbusds.jose.util.Base64;
 import com.pilatesapp.app.management.SecurityMetersService;
+import com.pilatesapp.app.security.CachingJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.text.ParseException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtGrantedAuthoritiesConverterAdapter;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class SecurityJwtConfiguration {
 
+    /**
+     * The start of the description of the error of an expired token, see {@link JwtTimestampValidator}.
+     */
+    private static final String JWT_EXPIRED_DESCRIPTION = "Jwt expired at";
+
     @Value("${jhipster.security.authentication.jwt.base64-secret}")
     private String jwtKey;
 
     @Bean
-    public ReactiveJwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public ReactiveJwtDecoder jwtDecoder(
+        SecurityMetersService metersService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
         NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
-            try {
-                return jwtDecoder
-                    .decode(token)
-                    .doOnError(e -> {
-                        if (e.getMessage().contains("Jwt expired at")) {
-                            metersService.trackTokenExpired();
-                        } else if (e.getMessage().contains("Failed to validate the token")) {
-                            metersService.trackTokenInvalidSignature();
-                        }
-                    });
-            } catch (Exception e) {
-                if (e.getMessage().contains("An error occurred while attempting to decode the Jwt")) {
-                    metersService.trackTokenMalformed();
-                } else if (e.getMessage().contains("Failed to validate the token")) {
-                    metersService.trackTokenInvalidSignature();
-                }
-                throw e;
-            }
-        };
+        ApplicationProperties.JwtCache properties = applicationProperties.getJwtCache();
+        return new CachingJwtDecoder(
+            token -> Mono.defer(() -> jwtDecoder.decode(token)).doOnError(JwtException.class, e -> trackInvalidToken(metersService, e)),
+            properties.getMaxSize(),
+            properties.getMaxTimeToLive(),
+            registry
+        );
     }
 
     @Bean
@@ -69,6 +75,29 @@ public class SecurityJwtConfiguration {
         return jwtAuthenticationConverter;
     }
 
+    private static void trackInvalidToken(SecurityMetersService metersService, JwtException e) {
+        if (e instanceof JwtValidationException validationException) {
+            // the timestamp validator rejects the tokens used before their "nbf" claim as well as the expired ones,
+            // with the same error code, so the expired ones are only told by the description of their error
+            if (validationException.getErrors().stream().anyMatch(SecurityJwtConfiguration::isExpiry)) {
+                metersService.trackTokenExpired();
+            } else {
+                metersService.trackTokenInvalidClaims();
+            }
+        } else if (e.getCause() instanceof ParseException) {
+            metersService.trackTokenMalformed();
+        } else if (e.getCause() instanceof BadJOSEException) {
+            metersService.trackTokenInvalidSignature();
+        } else if (e instanceof BadJwtException) {
+            // an unsigned token
+            metersService.trackTokenUnsupported();
+        }
+    }
+
+    private static boolean isExpiry(OAuth2Error error) {
+        return error.getDescription() != null && error.getDescription().startsWith(JWT_EXPIRED_DESCRIPTION);
+    }
+
     private SecretKey getSecretKey() {
         byte[] keyBytes = Base64.from(jwtKey).decode();
         return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
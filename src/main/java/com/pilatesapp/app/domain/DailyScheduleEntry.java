@@ -0,0 +1,198 @@
+package com.pilatesapp.app.domain;
+
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the daily schedule read model: a scheduled {@link Session}, with the names of its staff and athlete,
+ * filed under its local date so that the timetable of a day is read without joining the whole session history.
+ */
+@Table("daily_schedule")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class DailyScheduleEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("session_id")
+    private Long sessionId;
+
+    @Column("schedule_date")
+    private LocalDate scheduleDate;
+
+    @Column("staff_id")
+    private Long staffId;
+
+    @Column("staff_name")
+    private String staffName;
+
+    @Column("athlete_id")
+    private Long athleteId;
+
+    @Column("athlete_name")
+    private String athleteName;
+
+    @Column("start_date")
+    private Instant startDate;
+
+    @Column("end_date")
+    private Instant endDate;
+
+    @Column("session_status")
+    private SessionStatus sessionStatus;
+
+    public Long getSessionId() {
+        return this.sessionId;
+    }
+
+    public DailyScheduleEntry sessionId(Long sessionId) {
+        this.setSessionId(sessionId);
+        return this;
+    }
+
+    public void setSessionId(Long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public LocalDate getScheduleDate() {
+        return this.scheduleDate;
+    }
+
+    public DailyScheduleEntry scheduleDate(LocalDate scheduleDate) {
+        this.setScheduleDate(scheduleDate);
+        return this;
+    }
+
+    public void setScheduleDate(LocalDate scheduleDate) {
+        this.scheduleDate = scheduleDate;
+    }
+
+    public Long getStaffId() {
+        return this.staffId;
+    }
+
+    public DailyScheduleEntry staffId(Long staffId) {
+        this.setStaffId(staffId);
+        return this;
+    }
+
+    public void setStaffId(Long staffId) {
+        this.staffId = staffId;
+    }
+
+    public String getStaffName() {
+        return this.staffName;
+    }
+
+    public DailyScheduleEntry staffName(String staffName) {
+        this.setStaffName(staffName);
+        return this;
+    }
+
+    public void setStaffName(String staffName) {
+        this.staffName = staffName;
+    }
+
+    public Long getAthleteId() {
+        return this.athleteId;
+    }
+
+    public DailyScheduleEntry athleteId(Long athleteId) {
+        this.setAthleteId(athleteId);
+        return this;
+    }
+
+    public void setAthleteId(Long athleteId) {
+        this.athleteId = athleteId;
+    }
+
+    public String getAthleteName() {
+        return this.athleteName;
+    }
+
+    public DailyScheduleEntry athleteName(String athleteName) {
+        this.setAthleteName(athleteName);
+        return this;
+    }
+
+    public void setAthleteName(String athleteName) {
+        this.athleteName = athleteName;
+    }
+
+    public Instant getStartDate() {
+        return this.startDate;
+    }
+
+    public DailyScheduleEntry startDate(Instant startDate) {
+        this.setStartDate(startDate);
+        return this;
+    }
+
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+
+    public Instant getEndDate() {
+        return this.endDate;
+    }
+
+    public DailyScheduleEntry endDate(Instant endDate) {
+        this.setEndDate(endDate);
+        return this;
+    }
+
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+
+    public SessionStatus getSessionStatus() {
+        return this.sessionStatus;
+    }
+
+    public DailyScheduleEntry sessionStatus(SessionStatus sessionStatus) {
+        this.setSessionStatus(sessionStatus);
+        return this;
+    }
+
+    public void setSessionStatus(SessionStatus sessionStatus) {
+        this.sessionStatus = sessionStatus;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailyScheduleEntry)) {
+            return false;
+        }
+        return getSessionId() != null && getSessionId().equals(((DailyScheduleEntry) o).getSessionId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DailyScheduleEntry{" +
+            "sessionId=" + getSessionId() +
+            ", scheduleDate='" + getScheduleDate() + "'" +
+            ", staffId=" + getStaffId() +
+            ", staffName='" + getStaffName() + "'" +
+            ", athleteId=" + getAthleteId() +
+            ", athleteName='" + getAthleteName() + "'" +
+            ", startDate='" + getStartDate() + "'" +
+            ", endDate='" + getEndDate() + "'" +
+            ", sessionStatus='" + getSessionStatus() + "'" +
+            "}";
+    }
+}
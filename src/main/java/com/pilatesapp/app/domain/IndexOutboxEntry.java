@@ -0,0 +1,144 @@
+package com.pilatesapp.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * An entity to reindex, written to the index outbox in the transaction of its change.
+ */
+@Table("index_outbox")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class IndexOutboxEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("entity_type")
+    private String entityType;
+
+    @Column("entity_id")
+    private String entityId;
+
+    @Column("attempts")
+    private Integer attempts;
+
+    @Column("created_at")
+    private Instant createdAt;
+
+    @Column("claimed_until")
+    private Instant claimedUntil;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public IndexOutboxEntry id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return this.entityType;
+    }
+
+    public IndexOutboxEntry entityType(String entityType) {
+        this.setEntityType(entityType);
+        return this;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() {
+        return this.entityId;
+    }
+
+    public IndexOutboxEntry entityId(String entityId) {
+        this.setEntityId(entityId);
+        return this;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public Integer getAttempts() {
+        return this.attempts;
+    }
+
+    public IndexOutboxEntry attempts(Integer attempts) {
+        this.setAttempts(attempts);
+        return this;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    public IndexOutboxEntry createdAt(Instant createdAt) {
+        this.setCreatedAt(createdAt);
+        return this;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getClaimedUntil() {
+        return this.claimedUntil;
+    }
+
+    public IndexOutboxEntry claimedUntil(Instant claimedUntil) {
+        this.setClaimedUntil(claimedUntil);
+        return this;
+    }
+
+    public void setClaimedUntil(Instant claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexOutboxEntry)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((IndexOutboxEntry) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IndexOutboxEntry{" +
+            "id=" + getId() +
+            ", entityType='" + getEntityType() + "'" +
+            ", entityId='" + getEntityId() + "'" +
+            ", attempts=" + getAttempts() +
+            ", createdAt='" + getCreatedAt() + "'" +
+            ", claimedUntil='" + getClaimedUntil() + "'" +
+            "}";
+    }
+}
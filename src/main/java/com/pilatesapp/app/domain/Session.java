@@ -10,10 +10,9 @@ import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
 /**
- * A Session.
+ * A Session, indexed as a {@link SessionDocument}.
  */
 @Table("session")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "session")
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Session implements Serializable {
 
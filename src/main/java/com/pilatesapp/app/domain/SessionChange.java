@@ -0,0 +1,134 @@
+package com.pilatesapp.app.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A change of a {@link Session}, as published to the subscribers of the session change feed.
+ * <p>
+ * The ids are increasing, so they are used as the event ids from which a subscriber resumes the feed.
+ */
+@Table("session_change")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SessionChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("session_id")
+    private Long sessionId;
+
+    @Column("change_type")
+    private SessionChangeType changeType;
+
+    @Column("changed_at")
+    private Instant changedAt;
+
+    @Transient
+    @JsonIgnoreProperties(value = { "staff", "athlete" }, allowSetters = true)
+    private Session session;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public SessionChange id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSessionId() {
+        return this.sessionId;
+    }
+
+    public SessionChange sessionId(Long sessionId) {
+        this.setSessionId(sessionId);
+        return this;
+    }
+
+    public void setSessionId(Long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public SessionChangeType getChangeType() {
+        return this.changeType;
+    }
+
+    public SessionChange changeType(SessionChangeType changeType) {
+        this.setChangeType(changeType);
+        return this;
+    }
+
+    public void setChangeType(SessionChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public Instant getChangedAt() {
+        return this.changedAt;
+    }
+
+    public SessionChange changedAt(Instant changedAt) {
+        this.setChangedAt(changedAt);
+        return this;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public Session getSession() {
+        return this.session;
+    }
+
+    public SessionChange session(Session session) {
+        this.setSession(session);
+        return this;
+    }
+
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionChange)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((SessionChange) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SessionChange{" +
+            "id=" + getId() +
+            ", sessionId=" + getSessionId() +
+            ", changeType='" + getChangeType() + "'" +
+            ", changedAt='" + getChangedAt() + "'" +
+            "}";
+    }
+}
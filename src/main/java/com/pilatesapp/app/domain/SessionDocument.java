@@ -0,0 +1,123 @@
+package com.pilatesapp.app.domain;
+
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+
+/**
+ * The search document of a {@link Session}: the session, with the names of its athlete, staff and session package, so
+ * that a single search matches sessions by the people involved. The names are read with the session, and kept up to
+ * date by the index outbox when the athlete, staff or session package is renamed.
+ */
+@Document(indexName = "session")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class SessionDocument extends Session {
+
+    private static final long serialVersionUID = 1L;
+
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = { @InnerField(suffix = "keyword", type = FieldType.Keyword) })
+    private String athleteName;
+
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = { @InnerField(suffix = "keyword", type = FieldType.Keyword) })
+    private String staffName;
+
+    @Field(type = FieldType.Keyword)
+    private String sessionPackageId;
+
+    @MultiField(mainField = @Field(type = FieldType.Text), otherFields = { @InnerField(suffix = "keyword", type = FieldType.Keyword) })
+    private String packageName;
+
+    /**
+     * Copies a session, with the names of its staff and athlete when they are loaded.
+     *
+     * @param session the session.
+     * @return the document of the session.
+     */
+    public static SessionDocument of(Session session) {
+        SessionDocument document = new SessionDocument();
+        document.setId(session.getId());
+        document.setStartDate(session.getStartDate());
+        document.setEndDate(session.getEndDate());
+        document.setQrCode(session.getQrCode());
+        document.setSessionStatus(session.getSessionStatus());
+        document.setIsNotified(session.getIsNotified());
+        document.setStaffId(session.getStaffId());
+        document.setAthleteId(session.getAthleteId());
+        if (session.getStaff() != null) {
+            document.setStaffName(session.getStaff().getName());
+        }
+        if (session.getAthlete() != null) {
+            document.setAthleteName(session.getAthlete().getName());
+            document.setSessionPackageId(session.getAthlete().getSessionPackageId());
+        }
+        return document;
+    }
+
+    public String getAthleteName() {
+        return this.athleteName;
+    }
+
+    public SessionDocument athleteName(String athleteName) {
+        this.setAthleteName(athleteName);
+        return this;
+    }
+
+    public void setAthleteName(String athleteName) {
+        this.athleteName = athleteName;
+    }
+
+    public String getStaffName() {
+        return this.staffName;
+    }
+
+    public SessionDocument staffName(String staffName) {
+        this.setStaffName(staffName);
+        return this;
+    }
+
+    public void setStaffName(String staffName) {
+        this.staffName = staffName;
+    }
+
+    public String getSessionPackageId() {
+        return this.sessionPackageId;
+    }
+
+    public SessionDocument sessionPackageId(String sessionPackageId) {
+        this.setSessionPackageId(sessionPackageId);
+        return this;
+    }
+
+    public void setSessionPackageId(String sessionPackageId) {
+        this.sessionPackageId = sessionPackageId;
+    }
+
+    public String getPackageName() {
+        return this.packageName;
+    }
+
+    public SessionDocument packageName(String packageName) {
+        this.setPackageName(packageName);
+        return this;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SessionDocument{" +
+            "id=" + getId() +
+            ", startDate='" + getStartDate() + "'" +
+            ", endDate='" + getEndDate() + "'" +
+            ", sessionStatus='" + getSessionStatus() + "'" +
+            ", athleteName='" + getAthleteName() + "'" +
+            ", staffName='" + getStaffName() + "'" +
+            ", packageName='" + getPackageName() + "'" +
+            "}";
+    }
+}
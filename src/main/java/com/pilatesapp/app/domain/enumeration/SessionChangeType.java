@@ -0,0 +1,14 @@
+package com.pilatesapp.app.domain.enumeration;
+
+/**
+ * The SessionChangeType enumeration.
+ */
+public enum SessionChangeType {
+    CREATE,
+    UPDATE,
+    DELETE,
+    /**
+     * Not logged: tells a resuming subscriber that its missed changes cannot be replayed, so it must reload the sessions.
+     */
+    RESET,
+}
@@ -0,0 +1,43 @@
+package com.pilatesapp.app.management;
+
+import com.pilatesapp.app.repository.search.SearchCircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.AbstractReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Health of the {@link SearchCircuitBreaker}: the application is {@value #DEGRADED_CODE} while the breaker is open, as
+ * searches are then served from the database and index writes deferred, and still answers with {@code 200 (OK)}.
+ */
+@Component
+public class SearchCircuitBreakerHealthIndicator extends AbstractReactiveHealthIndicator {
+
+    public static final String DEGRADED_CODE = "DEGRADED";
+
+    public static final Status DEGRADED = new Status(DEGRADED_CODE, "Searches are served from the database");
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    public SearchCircuitBreakerHealthIndicator(SearchCircuitBreaker searchCircuitBreaker) {
+        super("Search circuit breaker health check failed");
+        this.searchCircuitBreaker = searchCircuitBreaker;
+    }
+
+    @Override
+    protected Mono<Health> doHealthCheck(Health.Builder builder) {
+        CircuitBreaker circuitBreaker = searchCircuitBreaker.getCircuitBreaker();
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        return Mono.just(
+            builder
+                .status(searchCircuitBreaker.isOpen() ? DEGRADED : Status.UP)
+                .withDetail("state", circuitBreaker.getState())
+                .withDetail("failureRate", metrics.getFailureRate())
+                .withDetail("slowCallRate", metrics.getSlowCallRate())
+                .withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+                .build()
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package com.pilatesapp.app.repository;
+
+import java.io.Serializable;
+
+/**
+ * Filter for searches over the {@link com.pilatesapp.app.domain.Athlete} entity.
+ */
+public class AthleteFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String city;
+
+    public String getCity() {
+        return city;
+    }
+
+    public AthleteFilter city(String city) {
+        this.city = city;
+        return this;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AthleteFilter{" +
+            "city='" + city + "'" +
+            "}";
+    }
+}
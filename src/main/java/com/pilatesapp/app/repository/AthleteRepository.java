@@ -1,6 +1,7 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.repository.projection.AthleteSummary;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -20,6 +21,24 @@ public interface AthleteRepository extends ReactiveCrudRepository<Athlete, Long>
     @Query("SELECT * FROM athlete entity WHERE entity.session_package_id IS NULL")
     Flux<Athlete> findAllWhereSessionPackageIsNull();
 
+    /**
+     * Get a page of the athletes matching a pattern, in the order of their ids, for the searches made while
+     * Elasticsearch is unavailable. The patterns use the trigram indices of the searched columns.
+     *
+     * @param pattern the {@code ILIKE} pattern of the name, email, phone or city, or {@code null} to match all.
+     * @param city the city, ignoring case, or {@code null}.
+     * @param after the id after which the page starts.
+     * @param offset the number of matches skipped after it.
+     * @param limit the size of the page.
+     * @return the athletes.
+     */
+    @Query(
+        "SELECT * FROM athlete entity WHERE (:pattern IS NULL OR entity.name ILIKE :pattern OR entity.email ILIKE :pattern" +
+        " OR entity.phone ILIKE :pattern OR entity.city ILIKE :pattern) AND (:city IS NULL OR lower(entity.city) = lower(:city))" +
+        " AND entity.id > :after ORDER BY entity.id LIMIT :limit OFFSET :offset"
+    )
+    Flux<Athlete> searchByText(String pattern, String city, long after, long offset, int limit);
+
     @Override
     <S extends Athlete> Mono<S> save(S entity);
 
@@ -38,6 +57,8 @@ interface AthleteRepositoryInternal {
 
     Flux<Athlete> findAllBy(Pageable pageable);
 
+    Flux<AthleteSummary> findAllSummaries();
+
     Flux<Athlete> findAll();
 
     Mono<Athlete> findById(Long id);
@@ -1,27 +1,34 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.SessionPackage;
+import com.pilatesapp.app.repository.projection.AthleteSummary;
 import com.pilatesapp.app.repository.rowmapper.AthleteRowMapper;
+import com.pilatesapp.app.repository.rowmapper.ColumnConverter;
+import com.pilatesapp.app.repository.rowmapper.CompiledRowMapper;
+import com.pilatesapp.app.repository.rowmapper.RowLayout;
 import com.pilatesapp.app.repository.rowmapper.SessionPackageRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.List;
+import java.util.function.Function;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -37,15 +44,19 @@ class AthleteRepositoryInternalImpl extends SimpleR2dbcRepository<Athlete, Long>
 
     private final SessionPackageRowMapper sessionpackageMapper;
     private final AthleteRowMapper athleteMapper;
+    private final CompiledRowMapper<Athlete> compiledMapper;
+    private final CompiledRowMapper<AthleteSummary> compiledSummaryMapper;
 
     private static final Table entityTable = Table.aliased("athlete", EntityManager.ENTITY_ALIAS);
     private static final Table sessionPackageTable = Table.aliased("session_package", "sessionPackage");
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
 
     public AthleteRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         SessionPackageRowMapper sessionpackageMapper,
         AthleteRowMapper athleteMapper,
+        ColumnConverter columnConverter,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -59,14 +70,23 @@ class AthleteRepositoryInternalImpl extends SimpleR2dbcRepository<Athlete, Long>
         this.entityManager = entityManager;
         this.sessionpackageMapper = sessionpackageMapper;
         this.athleteMapper = athleteMapper;
+        this.compiledMapper = new CompiledRowMapper<>(columnConverter, this::compile);
+        this.compiledSummaryMapper =
+            new CompiledRowMapper<>(columnConverter, layout -> athleteMapper.compileSummary(layout, EntityManager.ENTITY_ALIAS));
     }
 
     @Override
     public Flux<Athlete> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<Athlete> createQuery(Pageable pageable, Condition whereClause) {
+    GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(() -> createSelectFrom(whereClause), Athlete.class, shape, pageable);
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    private static SelectOrdered createSelectFrom(Condition whereClause) {
         List<Expression> columns = AthleteSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(SessionPackageSqlHelper.getColumns(sessionPackageTable, "sessionPackage"));
         SelectFromAndJoinCondition selectFrom = Select
@@ -76,9 +96,18 @@ class AthleteRepositoryInternalImpl extends SimpleR2dbcRepository<Athlete, Long>
             .leftOuterJoin(sessionPackageTable)
             .on(Column.create("session_package_id", entityTable))
             .equals(Column.create("id", sessionPackageTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Athlete.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return whereClause == null ? selectFrom : selectFrom.where(whereClause);
+    }
+
+    @Override
+    public Flux<AthleteSummary> findAllSummaries() {
+        String select = entityManager.createSelect(
+            () -> Select.builder().select(AthleteSqlHelper.getSummaryColumns(entityTable, EntityManager.ENTITY_ALIAS)).from(entityTable),
+            Athlete.class,
+            "summary",
+            null
+        );
+        return db.sql(select).map(compiledSummaryMapper).all();
     }
 
     @Override
@@ -88,14 +117,21 @@ class AthleteRepositoryInternalImpl extends SimpleR2dbcRepository<Athlete, Long>
 
     @Override
     public Mono<Athlete> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery("id", null, idCondition).bind("id", id).map(this::process).one();
     }
 
     private Athlete process(Row row, RowMetadata metadata) {
-        Athlete entity = athleteMapper.apply(row, "e");
-        entity.setSessionPackage(sessionpackageMapper.apply(row, "sessionPackage"));
-        return entity;
+        return compiledMapper.apply(row, metadata);
+    }
+
+    private Function<Row, Athlete> compile(RowLayout layout) {
+        Function<Row, Athlete> athlete = athleteMapper.compile(layout, "e");
+        Function<Row, SessionPackage> sessionPackage = sessionpackageMapper.compile(layout, "sessionPackage");
+        return row -> {
+            Athlete entity = athlete.apply(row);
+            entity.setSessionPackage(sessionPackage.apply(row));
+            return entity;
+        };
     }
 
     @Override
@@ -21,4 +21,13 @@ public class AthleteSqlHelper {
         columns.add(Column.aliased("session_package_id", table, columnPrefix + "_session_package_id"));
         return columns;
     }
+
+    public static List<Expression> getSummaryColumns(Table table, String columnPrefix) {
+        List<Expression> columns = new ArrayList<>();
+        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
+        columns.add(Column.aliased("name", table, columnPrefix + "_name"));
+        columns.add(Column.aliased("email", table, columnPrefix + "_email"));
+        columns.add(Column.aliased("phone", table, columnPrefix + "_phone"));
+        return columns;
+    }
 }
@@ -0,0 +1,50 @@
+package com.pilatesapp.app.repository;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Authority;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * In-memory table of the {@link Authority} rows, which almost never change, so that the authorities of the saved users
+ * are resolved without a query each.
+ * <p>
+ * The rows are read at once, shared by all the callers, and read again after
+ * {@code application.authority-cache.time-to-live}. A failed read is not cached.
+ */
+@Component
+public class AuthorityCache {
+
+    private final Mono<Map<String, Authority>> authorities;
+
+    public AuthorityCache(AuthorityRepository authorityRepository, ApplicationProperties applicationProperties) {
+        Duration timeToLive = applicationProperties.getAuthorityCache().getTimeToLive();
+        this.authorities =
+            authorityRepository
+                .findAll()
+                .collectMap(Authority::getName)
+                // the rows are read outside of the transaction of the first caller, as they are shared with the others
+                .contextWrite(context -> Context.empty())
+                .cache(table -> timeToLive, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Resolve the authorities of their names, ignoring the unknown names.
+     *
+     * @param names the names of the authorities.
+     * @return the authorities.
+     */
+    public Mono<Set<Authority>> resolve(Collection<String> names) {
+        return authorities.map(table ->
+            names.stream().map(table::get).filter(Objects::nonNull).collect(Collectors.toCollection(HashSet::new))
+        );
+    }
+}
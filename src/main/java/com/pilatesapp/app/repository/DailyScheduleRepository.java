@@ -0,0 +1,61 @@
+package com.pilatesapp.app.repository;
+
+import com.pilatesapp.app.domain.DailyScheduleEntry;
+import java.time.LocalDate;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the daily schedule read model.
+ * <p>
+ * Entries are projected from the {@code session}, {@code staff} and {@code athlete} tables by session id, and the
+ * local date of a session is its UTC start date converted to the given time zone.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface DailyScheduleRepository extends ReactiveCrudRepository<DailyScheduleEntry, Long> {
+    String PROJECTION =
+        "INSERT INTO daily_schedule" +
+        " (session_id, schedule_date, staff_id, staff_name, athlete_id, athlete_name, start_date, end_date, session_status)" +
+        " SELECT s.id, CAST((s.start_date AT TIME ZONE 'UTC') AT TIME ZONE :zone AS DATE)," +
+        " s.staff_id, st.name, s.athlete_id, a.name, s.start_date, s.end_date, s.session_status" +
+        " FROM session s LEFT JOIN staff st ON st.id = s.staff_id LEFT JOIN athlete a ON a.id = s.athlete_id" +
+        " WHERE s.start_date IS NOT NULL";
+
+    @Query("SELECT * FROM daily_schedule entity WHERE entity.schedule_date = :date ORDER BY entity.start_date, entity.session_id")
+    Flux<DailyScheduleEntry> findAllByScheduleDate(LocalDate date);
+
+    @Query(
+        "SELECT * FROM daily_schedule entity WHERE entity.schedule_date = :date AND entity.staff_id = :staffId" +
+        " ORDER BY entity.start_date, entity.session_id"
+    )
+    Flux<DailyScheduleEntry> findAllByScheduleDateAndStaffId(LocalDate date, Long staffId);
+
+    @Modifying
+    @Query("DELETE FROM daily_schedule WHERE session_id IN (:sessionIds)")
+    Mono<Long> deleteAllBySessionIds(Collection<Long> sessionIds);
+
+    @Modifying
+    @Query(PROJECTION + " AND s.id IN (:sessionIds)")
+    Mono<Long> insertAllBySessionIds(Collection<Long> sessionIds, String zone);
+
+    /**
+     * Projects the scheduled sessions which are not in the read model yet, e.g. created before it existed.
+     */
+    @Modifying
+    @Query(PROJECTION + " AND NOT EXISTS (SELECT 1 FROM daily_schedule d WHERE d.session_id = s.id)")
+    Mono<Long> insertAllMissing(String zone);
+
+    @Modifying
+    @Query("UPDATE daily_schedule SET staff_name = :name WHERE staff_id = :staffId")
+    Mono<Long> updateStaffName(Long staffId, String name);
+
+    @Modifying
+    @Query("UPDATE daily_schedule SET athlete_name = :name WHERE athlete_id = :athleteId")
+    Mono<Long> updateAthleteName(Long athleteId, String name);
+}
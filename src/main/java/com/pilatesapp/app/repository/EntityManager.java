@@ -1,8 +1,14 @@
 package com.pilatesapp.app.repository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -19,6 +25,7 @@ import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJ
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
@@ -27,7 +34,8 @@ import reactor.core.publisher.Mono;
 
 /**
  * Helper class to create SQL selects based on the entity, paging parameters and criteria.
- *
+ * <p>
+ * Selects created by shape are rendered once and cached, see {@link #createSelect(Supplier, Class, String, Pageable)}.
  */
 @Component
 public class EntityManager {
@@ -35,6 +43,27 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    public static final String SELECT_CACHE_METER_NAME = "repository.select.cache";
+    public static final String SELECT_CACHE_METER_DESCRIPTION = "Indicates the lookups of rendered SQL selects in the select cache.";
+    public static final String SELECT_CACHE_METER_RESULT_DIMENSION = "result";
+
+    /**
+     * The maximum number of cached selects; selects of further shapes, e.g. with unusual sorts, are rendered on each call.
+     */
+    public static final int SELECT_CACHE_MAX_SIZE = 1024;
+
+    private static final String LIMIT_PARAMETER = "pageLimit";
+    private static final String OFFSET_PARAMETER = "pageOffset";
+
+    /**
+     * Key of a rendered select.
+     * @param entityType the queried entity type.
+     * @param shape the name of the joins and of the where clause of the select, unique for the entity type.
+     * @param sort the sort of the select.
+     * @param paged whether the select is limited to a page.
+     */
+    record SelectKey(Class<?> entityType, String shape, Sort sort, boolean paged) {}
+
     public static class LinkTable {
 
         final String tableName;
@@ -55,12 +84,70 @@ public class EntityManager {
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final Map<SelectKey, String> selectCache = new ConcurrentHashMap<>();
+    private final Counter selectCacheHitCounter;
+    private final Counter selectCacheMissCounter;
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        MeterRegistry meterRegistry
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.selectCacheHitCounter = selectCacheCounterForResultBuilder("hit").register(meterRegistry);
+        this.selectCacheMissCounter = selectCacheCounterForResultBuilder("miss").register(meterRegistry);
+        Gauge.builder(SELECT_CACHE_METER_NAME + ".size", selectCache, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the SQL of the select of the given shape, rendering it only on the first call for the shape.
+     * <p>
+     * Values must not be inlined in the select, but passed as named bind markers, e.g. {@code SQL.bindMarker(":id")},
+     * so that every call of the same shape shares the same statement text, and the database can reuse its plan.
+     * The limit and the offset of the page are bind markers as well, see {@link #bindPage(GenericExecuteSpec, Pageable)}.
+     *
+     * @param select builds the select, with its joins, where clause and default order but without limit; only called on a cache miss.
+     * @param entityType the entity type which holds the table name.
+     * @param shape the name of the joins and of the where clause built by {@code select}, unique for the entity type.
+     * @param pageable page parameter, or null, if everything needs to be returned.
+     * @return sql select statement
+     */
+    public String createSelect(Supplier<? extends SelectOrdered> select, Class<?> entityType, String shape, Pageable pageable) {
+        boolean paged = pageable != null && pageable.isPaged();
+        Sort sort = paged ? pageable.getSort() : Sort.unsorted();
+        SelectKey key = new SelectKey(entityType, shape, sort, paged);
+        String sql = selectCache.get(key);
+        if (sql != null) {
+            selectCacheHitCounter.increment();
+            return sql;
+        }
+        selectCacheMissCounter.increment();
+        sql = createSelectImpl(select.get(), entityType, sort);
+        if (paged) {
+            // appended after the rendering, as the select renderer inlines limits and offsets
+            sql = sql + " LIMIT :" + LIMIT_PARAMETER + " OFFSET :" + OFFSET_PARAMETER;
+        }
+        if (selectCache.size() < SELECT_CACHE_MAX_SIZE) {
+            selectCache.putIfAbsent(key, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Binds the limit and the offset of a select created by {@link #createSelect(Supplier, Class, String, Pageable)}.
+     * @param spec the statement of the select.
+     * @param pageable the page parameter given to the select, or null.
+     * @return the statement with the page bound.
+     */
+    public GenericExecuteSpec bindPage(GenericExecuteSpec spec, Pageable pageable) {
+        if (pageable == null || pageable.isUnpaged()) {
+            return spec;
+        }
+        return spec.bind(LIMIT_PARAMETER, pageable.getPageSize()).bind(OFFSET_PARAMETER, pageable.getOffset());
     }
 
     /**
@@ -214,6 +301,13 @@ public class EntityManager {
         return createSelect(selectFrom.build());
     }
 
+    private Counter.Builder selectCacheCounterForResultBuilder(String result) {
+        return Counter
+            .builder(SELECT_CACHE_METER_NAME)
+            .description(SELECT_CACHE_METER_DESCRIPTION)
+            .tag(SELECT_CACHE_METER_RESULT_DIMENSION, result);
+    }
+
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
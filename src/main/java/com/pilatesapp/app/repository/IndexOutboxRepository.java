@@ -0,0 +1,98 @@
+package com.pilatesapp.app.repository;
+
+import com.pilatesapp.app.domain.IndexOutboxEntry;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the IndexOutboxEntry entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface IndexOutboxRepository extends ReactiveCrudRepository<IndexOutboxEntry, Long> {
+    @Modifying
+    @Query(
+        "INSERT INTO index_outbox (entity_type, entity_id, attempts, created_at)" +
+        " SELECT :entityType, changed.entity_id, 0, now() AT TIME ZONE 'UTC'" +
+        " FROM unnest(CAST(:entityIds AS varchar[])) AS changed (entity_id)"
+    )
+    Mono<Long> enqueueAll(String entityType, String[] entityIds);
+
+    /**
+     * Leases the oldest entries which have failed less than the given number of times, skipping the entries leased by
+     * another node until their lease expires.
+     *
+     * @param maxAttempts the number of failures after which an entry is left in the outbox.
+     * @param limit the maximum number of entries to claim.
+     * @param leaseSeconds the duration of the lease.
+     * @return the claimed entries.
+     */
+    @Query(
+        "UPDATE index_outbox SET claimed_until = now() AT TIME ZONE 'UTC' + :leaseSeconds * interval '1 second' WHERE id IN (" +
+        "SELECT pending.id FROM index_outbox pending WHERE pending.attempts < :maxAttempts" +
+        " AND (pending.claimed_until IS NULL OR pending.claimed_until < now() AT TIME ZONE 'UTC')" +
+        " ORDER BY pending.id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *"
+    )
+    Flux<IndexOutboxEntry> claim(int maxAttempts, int limit, long leaseSeconds);
+
+    /**
+     * Counts a failure of claimed entries, and gives them back to the outbox.
+     *
+     * @param ids the ids of the entries.
+     * @return the entries, with their new number of attempts.
+     */
+    @Query("UPDATE index_outbox SET attempts = attempts + 1, claimed_until = NULL WHERE id IN (:ids) RETURNING *")
+    Flux<IndexOutboxEntry> incrementAttempts(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE index_outbox SET claimed_until = NULL WHERE id IN (:ids)")
+    Mono<Long> release(Collection<Long> ids);
+
+    /**
+     * Marks the index of a type as being rebuilt, replacing the marker left by a rebuild which did not finish.
+     *
+     * @param entityType the type of the entities.
+     * @return the number of written markers.
+     */
+    @Modifying
+    @Query(
+        "INSERT INTO index_rebuild (entity_type, started_at) VALUES (:entityType, now() AT TIME ZONE 'UTC')" +
+        " ON CONFLICT (entity_type) DO UPDATE SET started_at = EXCLUDED.started_at"
+    )
+    Mono<Long> markRebuild(String entityType);
+
+    /**
+     * Get the types whose index is being rebuilt, holding their markers until the end of the transaction, so that a
+     * rebuild neither starts nor finishes while the entities of a claimed batch are being recorded.
+     *
+     * @return the types of the entities.
+     */
+    @Query("SELECT entity_type FROM index_rebuild FOR SHARE")
+    Flux<String> lockRebuilds();
+
+    @Modifying
+    @Query(
+        "INSERT INTO index_rebuild_change (entity_type, entity_id)" +
+        " SELECT :entityType, changed.entity_id FROM unnest(CAST(:entityIds AS varchar[])) AS changed (entity_id)" +
+        " ON CONFLICT DO NOTHING"
+    )
+    Mono<Long> recordRebuildChanges(String entityType, String[] entityIds);
+
+    @Modifying
+    @Query("DELETE FROM index_rebuild WHERE entity_type = :entityType")
+    Mono<Long> unmarkRebuild(String entityType);
+
+    /**
+     * Removes the entities of a type indexed from the outbox while its index was being rebuilt.
+     *
+     * @param entityType the type of the entities.
+     * @return the ids of the entities.
+     */
+    @Query("DELETE FROM index_rebuild_change WHERE entity_type = :entityType RETURNING entity_id")
+    Flux<String> takeRebuildChanges(String entityType);
+}
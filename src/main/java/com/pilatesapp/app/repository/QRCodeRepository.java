@@ -2,6 +2,7 @@ package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.QRCode;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -13,6 +14,22 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface QRCodeRepository extends ReactiveCrudRepository<QRCode, Long>, QRCodeRepositoryInternal {
+    /**
+     * Get a page of the QR codes matching a pattern, in the order of their ids, for the searches made while
+     * Elasticsearch is unavailable. The patterns use the trigram indices of the searched columns.
+     *
+     * @param pattern the {@code ILIKE} pattern of the code, or {@code null} to match all.
+     * @param after the id after which the page starts.
+     * @param offset the number of matches skipped after it.
+     * @param limit the size of the page.
+     * @return the QR codes.
+     */
+    @Query(
+        "SELECT * FROM qr_code entity WHERE (:pattern IS NULL OR entity.code ILIKE :pattern)" +
+        " AND entity.id > :after ORDER BY entity.id LIMIT :limit OFFSET :offset"
+    )
+    Flux<QRCode> searchByText(String pattern, long after, long offset, int limit);
+
     @Override
     <S extends QRCode> Mono<S> save(S entity);
 
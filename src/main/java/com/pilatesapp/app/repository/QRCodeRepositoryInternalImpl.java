@@ -1,6 +1,8 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.QRCode;
+import com.pilatesapp.app.repository.rowmapper.ColumnConverter;
+import com.pilatesapp.app.repository.rowmapper.CompiledRowMapper;
 import com.pilatesapp.app.repository.rowmapper.QRCodeRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
@@ -10,16 +12,17 @@ import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -34,13 +37,16 @@ class QRCodeRepositoryInternalImpl extends SimpleR2dbcRepository<QRCode, Long> i
     private final EntityManager entityManager;
 
     private final QRCodeRowMapper qrcodeMapper;
+    private final CompiledRowMapper<QRCode> compiledMapper;
 
     private static final Table entityTable = Table.aliased("qr_code", EntityManager.ENTITY_ALIAS);
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
 
     public QRCodeRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         QRCodeRowMapper qrcodeMapper,
+        ColumnConverter columnConverter,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -53,19 +59,24 @@ class QRCodeRepositoryInternalImpl extends SimpleR2dbcRepository<QRCode, Long> i
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.qrcodeMapper = qrcodeMapper;
+        this.compiledMapper = new CompiledRowMapper<>(columnConverter, layout -> qrcodeMapper.compile(layout, EntityManager.ENTITY_ALIAS));
     }
 
     @Override
     public Flux<QRCode> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<QRCode> createQuery(Pageable pageable, Condition whereClause) {
+    GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(() -> createSelectFrom(whereClause), QRCode.class, shape, pageable);
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    private static SelectOrdered createSelectFrom(Condition whereClause) {
         List<Expression> columns = QRCodeSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, QRCode.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return whereClause == null ? selectFrom : selectFrom.where(whereClause);
     }
 
     @Override
@@ -75,13 +86,11 @@ class QRCodeRepositoryInternalImpl extends SimpleR2dbcRepository<QRCode, Long> i
 
     @Override
     public Mono<QRCode> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery("id", null, idCondition).bind("id", id).map(this::process).one();
     }
 
     private QRCode process(Row row, RowMetadata metadata) {
-        QRCode entity = qrcodeMapper.apply(row, "e");
-        return entity;
+        return compiledMapper.apply(row, metadata);
     }
 
     @Override
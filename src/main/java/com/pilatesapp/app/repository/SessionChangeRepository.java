@@ -0,0 +1,53 @@
+package com.pilatesapp.app.repository;
+
+import com.pilatesapp.app.domain.SessionChange;
+import java.time.Instant;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the SessionChange entity.
+ * <p>
+ * Changes are logged and published on the {@value #CHANNEL} channel by the same statement, so they are only notified
+ * if the transaction of the session write commits. The payload of a notification is
+ * {@code id,sessionId,changeType,changedAtEpochMilli}.
+ * <p>
+ * The purge keeps the last expired change, whose id tells the oldest change a subscriber can resume the feed from.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface SessionChangeRepository extends ReactiveCrudRepository<SessionChange, Long> {
+    String CHANNEL = "session_change";
+
+    @Query(
+        "WITH change AS (" +
+        "INSERT INTO session_change (session_id, change_type, changed_at)" +
+        " SELECT changed.session_id, :changeType, now() AT TIME ZONE 'UTC'" +
+        " FROM unnest(CAST(:sessionIds AS bigint[])) AS changed (session_id)" +
+        " RETURNING id, session_id, change_type, changed_at)" +
+        " SELECT change.id FROM change CROSS JOIN LATERAL (SELECT pg_notify('" +
+        CHANNEL +
+        "', concat_ws(',', change.id, change.session_id, change.change_type," +
+        " CAST(extract(EPOCH FROM change.changed_at) * 1000 AS bigint)))) AS notified"
+    )
+    Flux<Long> publishAll(Long[] sessionIds, String changeType);
+
+    @Query("SELECT * FROM session_change entity WHERE entity.id > :id ORDER BY entity.id LIMIT :limit")
+    Flux<SessionChange> findAllByIdAfter(Long id, int limit);
+
+    Mono<SessionChange> findFirstByOrderByIdDesc();
+
+    @Query("SELECT id FROM session_change WHERE changed_at < :before ORDER BY changed_at DESC, id DESC LIMIT 1")
+    Mono<Long> findLastIdChangedBefore(Instant before);
+
+    @Modifying
+    @Query(
+        "DELETE FROM session_change WHERE changed_at < :before AND id <" +
+        " (SELECT id FROM session_change WHERE changed_at < :before ORDER BY changed_at DESC, id DESC LIMIT 1)"
+    )
+    Mono<Long> deleteAllByChangedAtBefore(Instant before);
+}
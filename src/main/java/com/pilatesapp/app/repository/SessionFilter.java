@@ -0,0 +1,109 @@
+package com.pilatesapp.app.repository;
+
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Filter for time-window queries over the {@link com.pilatesapp.app.domain.Session} entity.
+ * <p>
+ * Sessions are returned ordered by {@code (start_date, id)}; {@code afterStartDate} and {@code afterId}
+ * hold the keyset of the last row of the previous page, so deep pages cost the same as the first one.
+ */
+public class SessionFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Instant from;
+
+    private Instant to;
+
+    private Long staffId;
+
+    private Long athleteId;
+
+    private SessionStatus status;
+
+    private Instant afterStartDate;
+
+    private Long afterId;
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public SessionFilter from(Instant from) {
+        this.from = from;
+        return this;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public SessionFilter to(Instant to) {
+        this.to = to;
+        return this;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public SessionFilter staffId(Long staffId) {
+        this.staffId = staffId;
+        return this;
+    }
+
+    public Long getAthleteId() {
+        return athleteId;
+    }
+
+    public SessionFilter athleteId(Long athleteId) {
+        this.athleteId = athleteId;
+        return this;
+    }
+
+    public SessionStatus getStatus() {
+        return status;
+    }
+
+    public SessionFilter status(SessionStatus status) {
+        this.status = status;
+        return this;
+    }
+
+    public Instant getAfterStartDate() {
+        return afterStartDate;
+    }
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * Continue after the given keyset, as returned by the last row of the previous page.
+     * @param startDate the start date of the last returned session.
+     * @param id the id of the last returned session.
+     * @return this filter.
+     */
+    public SessionFilter after(Instant startDate, Long id) {
+        this.afterStartDate = startDate;
+        this.afterId = id;
+        return this;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SessionFilter{" +
+            "from=" + from +
+            ", to=" + to +
+            ", staffId=" + staffId +
+            ", athleteId=" + athleteId +
+            ", status=" + status +
+            ", afterStartDate=" + afterStartDate +
+            ", afterId=" + afterId +
+            "}";
+    }
+}
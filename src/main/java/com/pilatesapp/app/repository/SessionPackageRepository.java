@@ -17,6 +17,22 @@ public interface SessionPackageRepository extends ReactiveCrudRepository<Session
     @Query("SELECT * FROM session_package entity WHERE entity.id not in (select athlete_id from athlete)")
     Flux<SessionPackage> findAllWhereAthleteIsNull();
 
+    /**
+     * Get a page of the session packages matching a pattern, in the order of their ids, for the searches made while
+     * Elasticsearch is unavailable. The patterns use the trigram indices of the searched columns.
+     *
+     * @param pattern the {@code ILIKE} pattern of the name, or {@code null} to match all.
+     * @param after the id after which the page starts.
+     * @param offset the number of matches skipped after it.
+     * @param limit the size of the page.
+     * @return the session packages.
+     */
+    @Query(
+        "SELECT * FROM session_package entity WHERE (:pattern IS NULL OR entity.name ILIKE :pattern)" +
+        " AND entity.id > :after ORDER BY entity.id LIMIT :limit OFFSET :offset"
+    )
+    Flux<SessionPackage> searchByText(String pattern, String after, long offset, int limit);
+
     @Override
     <S extends SessionPackage> Mono<S> save(S entity);
 
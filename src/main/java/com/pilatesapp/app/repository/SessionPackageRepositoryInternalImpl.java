@@ -1,26 +1,28 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.SessionPackage;
+import com.pilatesapp.app.repository.rowmapper.ColumnConverter;
+import com.pilatesapp.app.repository.rowmapper.CompiledRowMapper;
 import com.pilatesapp.app.repository.rowmapper.SessionPackageRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.List;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -37,13 +39,16 @@ class SessionPackageRepositoryInternalImpl
     private final EntityManager entityManager;
 
     private final SessionPackageRowMapper sessionpackageMapper;
+    private final CompiledRowMapper<SessionPackage> compiledMapper;
 
     private static final Table entityTable = Table.aliased("session_package", EntityManager.ENTITY_ALIAS);
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
 
     public SessionPackageRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         SessionPackageRowMapper sessionpackageMapper,
+        ColumnConverter columnConverter,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -56,19 +61,25 @@ class SessionPackageRepositoryInternalImpl
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.sessionpackageMapper = sessionpackageMapper;
+        this.compiledMapper =
+            new CompiledRowMapper<>(columnConverter, layout -> sessionpackageMapper.compile(layout, EntityManager.ENTITY_ALIAS));
     }
 
     @Override
     public Flux<SessionPackage> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<SessionPackage> createQuery(Pageable pageable, Condition whereClause) {
+    GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(() -> createSelectFrom(whereClause), SessionPackage.class, shape, pageable);
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    private static SelectOrdered createSelectFrom(Condition whereClause) {
         List<Expression> columns = SessionPackageSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, SessionPackage.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return whereClause == null ? selectFrom : selectFrom.where(whereClause);
     }
 
     @Override
@@ -78,13 +89,11 @@ class SessionPackageRepositoryInternalImpl
 
     @Override
     public Mono<SessionPackage> findById(String id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(StringUtils.wrap(id.toString(), "'")));
-        return createQuery(null, whereClause).one();
+        return createQuery("id", null, idCondition).bind("id", id).map(this::process).one();
     }
 
     private SessionPackage process(Row row, RowMetadata metadata) {
-        SessionPackage entity = sessionpackageMapper.apply(row, "e");
-        return entity;
+        return compiledMapper.apply(row, metadata);
     }
 
     @Override
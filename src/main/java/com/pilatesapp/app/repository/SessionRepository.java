@@ -1,7 +1,14 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.repository.projection.SessionReminder;
+import com.pilatesapp.app.repository.projection.SessionSummary;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -14,6 +21,11 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface SessionRepository extends ReactiveCrudRepository<Session, Long>, SessionRepositoryInternal {
+    String SESSION_DOCUMENTS =
+        "SELECT s.*, a.name AS athlete_name, st.name AS staff_name, a.session_package_id, p.name AS package_name FROM session s" +
+        " LEFT JOIN athlete a ON a.id = s.athlete_id LEFT JOIN staff st ON st.id = s.staff_id" +
+        " LEFT JOIN session_package p ON p.id = a.session_package_id";
+
     @Query("SELECT * FROM session entity WHERE entity.staff_id = :id")
     Flux<Session> findByStaff(Long id);
 
@@ -26,6 +38,110 @@ public interface SessionRepository extends ReactiveCrudRepository<Session, Long>
     @Query("SELECT * FROM session entity WHERE entity.athlete_id IS NULL")
     Flux<Session> findAllWhereAthleteIsNull();
 
+    @Query("SELECT * FROM session entity WHERE entity.start_date IS NOT NULL AND entity.end_date IS NOT NULL")
+    Flux<Session> findAllScheduled();
+
+    /**
+     * Moves a chunk of the sessions still waiting after their end to undone, skipping the rows locked by a concurrent
+     * sweep or write rather than waiting for them.
+     *
+     * @param limit the maximum number of sessions to move.
+     * @return the ids of the moved sessions.
+     */
+    @Query(
+        "UPDATE session SET session_status = 'Undone' WHERE id IN (" +
+        "SELECT overdue.id FROM session overdue" +
+        " WHERE overdue.session_status = 'Waiting' AND overdue.end_date < now() AT TIME ZONE 'UTC'" +
+        " ORDER BY overdue.end_date LIMIT :limit FOR UPDATE SKIP LOCKED)" +
+        " AND session_status = 'Waiting' RETURNING id"
+    )
+    Flux<Long> sweepOverdue(int limit);
+
+    /**
+     * Locks a chunk of the waiting sessions starting within the horizon whose athlete has not been reminded yet, in
+     * the order of their ids, skipping the rows locked by another node sending reminders at the same time.
+     *
+     * @param horizonSeconds the horizon, in seconds from now.
+     * @param after the id after which the chunk starts.
+     * @param limit the maximum number of sessions to lock.
+     * @return the sessions due for a reminder.
+     */
+    @Query(
+        "SELECT s.id AS session_id, s.start_date, s.end_date, a.name AS athlete_name, a.email AS athlete_email," +
+        " st.name AS staff_name FROM session s JOIN athlete a ON a.id = s.athlete_id LEFT JOIN staff st ON st.id = s.staff_id" +
+        " WHERE s.is_notified = false AND s.session_status = 'Waiting' AND a.email IS NOT NULL AND s.id > :after" +
+        " AND s.start_date >= now() AT TIME ZONE 'UTC'" +
+        " AND s.start_date < now() AT TIME ZONE 'UTC' + make_interval(secs => CAST(:horizonSeconds AS double precision))" +
+        " ORDER BY s.id LIMIT :limit FOR UPDATE OF s SKIP LOCKED"
+    )
+    Flux<SessionReminder> lockDueReminders(long horizonSeconds, long after, int limit);
+
+    /**
+     * Get the search documents of sessions, with the names of their athlete, staff and session package.
+     *
+     * @param ids the ids of the sessions.
+     * @return the documents of the existing sessions.
+     */
+    @Query(SESSION_DOCUMENTS + " WHERE s.id IN (:ids)")
+    Flux<SessionDocument> findAllDocumentsById(Collection<Long> ids);
+
+    /**
+     * Get a page of the search documents of the sessions, in the order of their ids.
+     *
+     * @param after the id after which the page starts.
+     * @param limit the size of the page.
+     * @return the documents of the sessions.
+     */
+    @Query(SESSION_DOCUMENTS + " WHERE s.id > :after ORDER BY s.id LIMIT :limit")
+    Flux<SessionDocument> findAllDocumentsAfter(long after, int limit);
+
+    /**
+     * Get a page of the search documents of the sessions matching a pattern and a filter, in the order of their ids,
+     * for the searches made while Elasticsearch is unavailable. The pattern is matched by a union of the ids found
+     * through the trigram index of each searched table, as a disjunction across the joined tables would scan them all.
+     *
+     * @param pattern the {@code ILIKE} pattern of the names of the athlete, staff or session package, or of the QR code,
+     * or {@code null} to match all.
+     * @param from the inclusive lower bound of the start date, or {@code null}.
+     * @param to the exclusive upper bound of the start date, or {@code null}.
+     * @param staffId the id of the staff, or {@code null}.
+     * @param athleteId the id of the athlete, or {@code null}.
+     * @param status the name of the status, or {@code null}.
+     * @param after the id after which the page starts.
+     * @param offset the number of matches skipped after it.
+     * @param limit the size of the page.
+     * @return the documents of the sessions.
+     */
+    @Query(
+        SESSION_DOCUMENTS +
+        " WHERE (:pattern IS NULL OR s.id IN (SELECT id FROM session WHERE qr_code ILIKE :pattern" +
+        " UNION SELECT id FROM session WHERE staff_id IN (SELECT id FROM staff WHERE name ILIKE :pattern)" +
+        " UNION SELECT id FROM session WHERE athlete_id IN (SELECT id FROM athlete WHERE name ILIKE :pattern" +
+        " UNION SELECT id FROM athlete WHERE session_package_id IN (SELECT id FROM session_package WHERE name ILIKE :pattern))))" +
+        " AND (:from IS NULL OR s.start_date >= :from) AND (:to IS NULL OR s.start_date < :to)" +
+        " AND (:staffId IS NULL OR s.staff_id = :staffId) AND (:athleteId IS NULL OR s.athlete_id = :athleteId)" +
+        " AND (:status IS NULL OR s.session_status = :status) AND s.id > :after ORDER BY s.id LIMIT :limit OFFSET :offset"
+    )
+    Flux<SessionDocument> searchDocuments(
+        String pattern,
+        Instant from,
+        Instant to,
+        Long staffId,
+        Long athleteId,
+        String status,
+        long after,
+        long offset,
+        int limit
+    );
+
+    @Modifying
+    @Query("UPDATE session SET is_notified = true WHERE id IN (:ids)")
+    Mono<Long> markNotified(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE session SET is_notified = false WHERE id IN (:ids)")
+    Mono<Long> clearNotified(Collection<Long> ids);
+
     @Override
     <S extends Session> Mono<S> save(S entity);
 
@@ -44,6 +160,14 @@ interface SessionRepositoryInternal {
 
     Flux<Session> findAllBy(Pageable pageable);
 
+    Flux<Session> findAllBy(SessionFilter filter, int limit);
+
+    Flux<SessionSummary> findAllSummaries();
+
+    Flux<SessionSummary> findAllSummariesBy(SessionFilter filter, int limit);
+
+    Flux<Session> insertAll(List<Session> sessions);
+
     Flux<Session> findAll();
 
     Mono<Session> findById(Long id);
@@ -1,28 +1,43 @@
 package com.pilatesapp.app.repository;
 
+import com.pilatesapp.app.domain.Athlete;
 import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.projection.SessionSummary;
 import com.pilatesapp.app.repository.rowmapper.AthleteRowMapper;
+import com.pilatesapp.app.repository.rowmapper.ColumnConverter;
+import com.pilatesapp.app.repository.rowmapper.CompiledRowMapper;
+import com.pilatesapp.app.repository.rowmapper.RowLayout;
 import com.pilatesapp.app.repository.rowmapper.SessionRowMapper;
 import com.pilatesapp.app.repository.rowmapper.StaffRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
 import org.springframework.data.relational.core.sql.Column;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -39,10 +54,16 @@ class SessionRepositoryInternalImpl extends SimpleR2dbcRepository<Session, Long>
     private final StaffRowMapper staffMapper;
     private final AthleteRowMapper athleteMapper;
     private final SessionRowMapper sessionMapper;
+    private final CompiledRowMapper<Session> compiledMapper;
+    private final CompiledRowMapper<SessionSummary> compiledSummaryMapper;
+
+    private static final String INSERT_COLUMNS = "start_date, end_date, qr_code, session_status, is_notified, staff_id, athlete_id";
+    private static final String[] INSERT_PARAMETERS = { "startDate", "endDate", "qrCode", "status", "notified", "staffId", "athleteId" };
 
     private static final Table entityTable = Table.aliased("session", EntityManager.ENTITY_ALIAS);
     private static final Table staffTable = Table.aliased("staff", "staff");
     private static final Table athleteTable = Table.aliased("athlete", "athlete");
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
 
     public SessionRepositoryInternalImpl(
         R2dbcEntityTemplate template,
@@ -50,6 +71,7 @@ class SessionRepositoryInternalImpl extends SimpleR2dbcRepository<Session, Long>
         StaffRowMapper staffMapper,
         AthleteRowMapper athleteMapper,
         SessionRowMapper sessionMapper,
+        ColumnConverter columnConverter,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -64,18 +86,169 @@ class SessionRepositoryInternalImpl extends SimpleR2dbcRepository<Session, Long>
         this.staffMapper = staffMapper;
         this.athleteMapper = athleteMapper;
         this.sessionMapper = sessionMapper;
+        this.compiledMapper = new CompiledRowMapper<>(columnConverter, this::compile);
+        this.compiledSummaryMapper =
+            new CompiledRowMapper<>(columnConverter, layout -> sessionMapper.compileSummary(layout, EntityManager.ENTITY_ALIAS));
     }
 
     @Override
     public Flux<Session> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null).map(this::process).all();
+    }
+
+    @Override
+    public Flux<Session> findAllBy(SessionFilter filter, int limit) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        Condition whereClause = windowCondition(filter, bindings);
+        Pageable page = PageRequest.ofSize(limit);
+        String select = entityManager.createSelect(
+            () -> createSelectFrom().where(whereClause).orderBy(keysetOrder()),
+            Session.class,
+            windowShape("window", bindings),
+            page
+        );
+        return bind(entityManager.bindPage(db.sql(select), page), bindings).map(this::process).all();
+    }
+
+    @Override
+    public Flux<SessionSummary> findAllSummaries() {
+        String select = entityManager.createSelect(SessionRepositoryInternalImpl::createSummarySelectFrom, Session.class, "summary", null);
+        return db.sql(select).map(this::processSummary).all();
+    }
+
+    @Override
+    public Flux<SessionSummary> findAllSummariesBy(SessionFilter filter, int limit) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        Condition whereClause = windowCondition(filter, bindings);
+        Pageable page = PageRequest.ofSize(limit);
+        String select = entityManager.createSelect(
+            () -> createSummarySelectFrom().where(whereClause).orderBy(keysetOrder()),
+            Session.class,
+            windowShape("summary-window", bindings),
+            page
+        );
+        return bind(entityManager.bindPage(db.sql(select), page), bindings).map(this::processSummary).all();
+    }
+
+    // the where clause of a window only depends on which of its parameters are set
+    private static String windowShape(String name, Map<String, Object> bindings) {
+        return name + bindings.keySet();
+    }
+
+    private static Condition windowCondition(SessionFilter filter, Map<String, Object> bindings) {
+        Column startDate = entityTable.column("start_date");
+        // sessions without a start date cannot be placed on the (start_date, id) keyset
+        Condition whereClause = Conditions.isNull(startDate).not();
+        if (filter.getFrom() != null) {
+            whereClause = whereClause.and(Conditions.isGreaterOrEqualTo(startDate, SQL.bindMarker(":from")));
+            bindings.put("from", toDatabaseTime(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            whereClause = whereClause.and(Conditions.isLess(startDate, SQL.bindMarker(":to")));
+            bindings.put("to", toDatabaseTime(filter.getTo()));
+        }
+        if (filter.getStaffId() != null) {
+            whereClause = whereClause.and(Conditions.isEqual(entityTable.column("staff_id"), SQL.bindMarker(":staffId")));
+            bindings.put("staffId", filter.getStaffId());
+        }
+        if (filter.getAthleteId() != null) {
+            whereClause = whereClause.and(Conditions.isEqual(entityTable.column("athlete_id"), SQL.bindMarker(":athleteId")));
+            bindings.put("athleteId", filter.getAthleteId());
+        }
+        if (filter.getStatus() != null) {
+            whereClause = whereClause.and(Conditions.isEqual(entityTable.column("session_status"), SQL.bindMarker(":status")));
+            bindings.put("status", filter.getStatus().name());
+        }
+        if (filter.getAfterStartDate() != null && filter.getAfterId() != null) {
+            whereClause =
+                whereClause.and(
+                    Conditions.nest(
+                        Conditions
+                            .isGreater(startDate, SQL.bindMarker(":afterStartDate"))
+                            .or(
+                                Conditions
+                                    .isEqual(startDate, SQL.bindMarker(":afterStartDate"))
+                                    .and(Conditions.isGreater(entityTable.column("id"), SQL.bindMarker(":afterId")))
+                            )
+                    )
+                );
+            bindings.put("afterStartDate", toDatabaseTime(filter.getAfterStartDate()));
+            bindings.put("afterId", filter.getAfterId());
+        }
+        return whereClause;
+    }
+
+    private static OrderByField[] keysetOrder() {
+        return new OrderByField[] {
+            OrderByField.from(entityTable.column("start_date")).asc(),
+            OrderByField.from(entityTable.column("id")).asc(),
+        };
+    }
+
+    @Override
+    public Flux<Session> insertAll(List<Session> sessions) {
+        if (sessions.isEmpty()) {
+            return Flux.empty();
+        }
+        // each row is numbered and given its id from the sequence before the insert, and the ids are returned with the
+        // number of their row, as Postgres does not guarantee that RETURNING follows the order of the inserted rows
+        StringBuilder sql = new StringBuilder(
+            "WITH input AS (SELECT nextval(pg_get_serial_sequence('session', 'id')) AS id, v.* FROM (VALUES "
+        );
+        for (int index = 0; index < sessions.size(); index++) {
+            sql
+                .append(index == 0 ? "(" : ", (")
+                .append(index)
+                .append(", ")
+                .append(String.join(", ", bindMarkers(index, INSERT_PARAMETERS)))
+                .append(')');
+        }
+        sql
+            .append(") AS v (ordinal, ")
+            .append(INSERT_COLUMNS)
+            .append(")), inserted AS (INSERT INTO session (id, ")
+            .append(INSERT_COLUMNS)
+            .append(") SELECT id, ")
+            .append(INSERT_COLUMNS)
+            .append(" FROM input RETURNING id)")
+            .append(" SELECT input.ordinal, inserted.id FROM inserted JOIN input ON input.id = inserted.id ORDER BY input.ordinal");
+
+        GenericExecuteSpec spec = db.sql(sql.toString());
+        for (int index = 0; index < sessions.size(); index++) {
+            Session session = sessions.get(index);
+            String status = session.getSessionStatus() == null ? null : session.getSessionStatus().name();
+            spec = bind(spec, "startDate" + index, toDatabaseTime(session.getStartDate()), LocalDateTime.class);
+            spec = bind(spec, "endDate" + index, toDatabaseTime(session.getEndDate()), LocalDateTime.class);
+            spec = bind(spec, "qrCode" + index, session.getQrCode(), String.class);
+            spec = bind(spec, "status" + index, status, String.class);
+            spec = bind(spec, "notified" + index, session.getIsNotified(), Boolean.class);
+            spec = bind(spec, "staffId" + index, session.getStaffId(), Long.class);
+            spec = bind(spec, "athleteId" + index, session.getAthleteId(), Long.class);
+        }
+        return spec.map(row -> sessions.get(row.get("ordinal", Integer.class)).id(row.get("id", Long.class))).all();
+    }
+
+    GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(
+            () -> whereClause == null ? createSelectFrom() : createSelectFrom().where(whereClause),
+            Session.class,
+            shape,
+            pageable
+        );
+        return entityManager.bindPage(db.sql(select), pageable);
     }
 
-    RowsFetchSpec<Session> createQuery(Pageable pageable, Condition whereClause) {
+    // summaries only read the session row itself, so they need neither the staff nor the athlete join
+    private static SelectFromAndJoin createSummarySelectFrom() {
+        return Select.builder().select(SessionSqlHelper.getSummaryColumns(entityTable, EntityManager.ENTITY_ALIAS)).from(entityTable);
+    }
+
+    private static SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = SessionSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(StaffSqlHelper.getColumns(staffTable, "staff"));
         columns.addAll(AthleteSqlHelper.getColumns(athleteTable, "athlete"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
@@ -85,9 +258,30 @@ class SessionRepositoryInternalImpl extends SimpleR2dbcRepository<Session, Long>
             .leftOuterJoin(athleteTable)
             .on(Column.create("athlete_id", entityTable))
             .equals(Column.create("id", athleteTable));
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Session.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+    }
+
+    private static String[] bindMarkers(int index, String... names) {
+        String[] markers = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            markers[i] = ":" + names[i] + index;
+        }
+        return markers;
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, Map<String, Object> bindings) {
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    // timestamps are stored as UTC local date-times, see DatabaseConfiguration.InstantWriteConverter
+    private static LocalDateTime toDatabaseTime(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
     }
 
     @Override
@@ -97,15 +291,27 @@ class SessionRepositoryInternalImpl extends SimpleR2dbcRepository<Session, Long>
 
     @Override
     public Mono<Session> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery("id", null, idCondition).bind("id", id).map(this::process).one();
     }
 
     private Session process(Row row, RowMetadata metadata) {
-        Session entity = sessionMapper.apply(row, "e");
-        entity.setStaff(staffMapper.apply(row, "staff"));
-        entity.setAthlete(athleteMapper.apply(row, "athlete"));
-        return entity;
+        return compiledMapper.apply(row, metadata);
+    }
+
+    private Function<Row, Session> compile(RowLayout layout) {
+        Function<Row, Session> session = sessionMapper.compile(layout, "e");
+        Function<Row, Staff> staff = staffMapper.compile(layout, "staff");
+        Function<Row, Athlete> athlete = athleteMapper.compile(layout, "athlete");
+        return row -> {
+            Session entity = session.apply(row);
+            entity.setStaff(staff.apply(row));
+            entity.setAthlete(athlete.apply(row));
+            return entity;
+        };
+    }
+
+    private SessionSummary processSummary(Row row, RowMetadata metadata) {
+        return compiledSummaryMapper.apply(row, metadata);
     }
 
     @Override
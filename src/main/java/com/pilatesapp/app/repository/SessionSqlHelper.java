@@ -21,4 +21,15 @@ public class SessionSqlHelper {
         columns.add(Column.aliased("athlete_id", table, columnPrefix + "_athlete_id"));
         return columns;
     }
+
+    public static List<Expression> getSummaryColumns(Table table, String columnPrefix) {
+        List<Expression> columns = new ArrayList<>();
+        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
+        columns.add(Column.aliased("start_date", table, columnPrefix + "_start_date"));
+        columns.add(Column.aliased("end_date", table, columnPrefix + "_end_date"));
+        columns.add(Column.aliased("session_status", table, columnPrefix + "_session_status"));
+        columns.add(Column.aliased("staff_id", table, columnPrefix + "_staff_id"));
+        columns.add(Column.aliased("athlete_id", table, columnPrefix + "_athlete_id"));
+        return columns;
+    }
 }
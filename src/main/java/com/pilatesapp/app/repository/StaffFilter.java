@@ -0,0 +1,42 @@
+package com.pilatesapp.app.repository;
+
+import java.io.Serializable;
+
+/**
+ * Filter for searches over the {@link com.pilatesapp.app.domain.Staff} entity.
+ */
+public class StaffFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String city;
+
+    private Boolean status;
+
+    public String getCity() {
+        return city;
+    }
+
+    public StaffFilter city(String city) {
+        this.city = city;
+        return this;
+    }
+
+    public Boolean getStatus() {
+        return status;
+    }
+
+    public StaffFilter status(Boolean status) {
+        this.status = status;
+        return this;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StaffFilter{" +
+            "city='" + city + "'" +
+            ", status=" + status +
+            "}";
+    }
+}
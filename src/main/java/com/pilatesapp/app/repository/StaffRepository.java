@@ -1,7 +1,9 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.projection.StaffSummary;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -13,6 +15,25 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("unused")
 @Repository
 public interface StaffRepository extends ReactiveCrudRepository<Staff, Long>, StaffRepositoryInternal {
+    /**
+     * Get a page of the staff matching a pattern, in the order of their ids, for the searches made while
+     * Elasticsearch is unavailable. The patterns use the trigram indices of the searched columns.
+     *
+     * @param pattern the {@code ILIKE} pattern of the name, email, phone or city, or {@code null} to match all.
+     * @param city the city, ignoring case, or {@code null}.
+     * @param status the status, or {@code null}.
+     * @param after the id after which the page starts.
+     * @param offset the number of matches skipped after it.
+     * @param limit the size of the page.
+     * @return the staff.
+     */
+    @Query(
+        "SELECT * FROM staff entity WHERE (:pattern IS NULL OR entity.name ILIKE :pattern OR entity.email ILIKE :pattern" +
+        " OR entity.phone ILIKE :pattern OR entity.city ILIKE :pattern) AND (:city IS NULL OR lower(entity.city) = lower(:city))" +
+        " AND (:status IS NULL OR entity.status = :status) AND entity.id > :after ORDER BY entity.id LIMIT :limit OFFSET :offset"
+    )
+    Flux<Staff> searchByText(String pattern, String city, Boolean status, long after, long offset, int limit);
+
     @Override
     <S extends Staff> Mono<S> save(S entity);
 
@@ -31,6 +52,8 @@ interface StaffRepositoryInternal {
 
     Flux<Staff> findAllBy(Pageable pageable);
 
+    Flux<StaffSummary> findAllSummaries();
+
     Flux<Staff> findAll();
 
     Mono<Staff> findById(Long id);
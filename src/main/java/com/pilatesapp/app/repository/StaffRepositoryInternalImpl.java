@@ -1,6 +1,9 @@
 package com.pilatesapp.app.repository;
 
 import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.projection.StaffSummary;
+import com.pilatesapp.app.repository.rowmapper.ColumnConverter;
+import com.pilatesapp.app.repository.rowmapper.CompiledRowMapper;
 import com.pilatesapp.app.repository.rowmapper.StaffRowMapper;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
@@ -10,16 +13,17 @@ import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.support.SimpleR2dbcRepository;
-import org.springframework.data.relational.core.sql.Comparison;
 import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.repository.support.MappingRelationalEntityInformation;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.r2dbc.core.RowsFetchSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -34,13 +38,17 @@ class StaffRepositoryInternalImpl extends SimpleR2dbcRepository<Staff, Long> imp
     private final EntityManager entityManager;
 
     private final StaffRowMapper staffMapper;
+    private final CompiledRowMapper<Staff> compiledMapper;
+    private final CompiledRowMapper<StaffSummary> compiledSummaryMapper;
 
     private static final Table entityTable = Table.aliased("staff", EntityManager.ENTITY_ALIAS);
+    private static final Condition idCondition = Conditions.isEqual(entityTable.column("id"), SQL.bindMarker(":id"));
 
     public StaffRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         StaffRowMapper staffMapper,
+        ColumnConverter columnConverter,
         R2dbcEntityOperations entityOperations,
         R2dbcConverter converter
     ) {
@@ -53,19 +61,37 @@ class StaffRepositoryInternalImpl extends SimpleR2dbcRepository<Staff, Long> imp
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.staffMapper = staffMapper;
+        this.compiledMapper = new CompiledRowMapper<>(columnConverter, layout -> staffMapper.compile(layout, EntityManager.ENTITY_ALIAS));
+        this.compiledSummaryMapper =
+            new CompiledRowMapper<>(columnConverter, layout -> staffMapper.compileSummary(layout, EntityManager.ENTITY_ALIAS));
     }
 
     @Override
     public Flux<Staff> findAllBy(Pageable pageable) {
-        return createQuery(pageable, null).all();
+        return createQuery("all", pageable, null).map(this::process).all();
     }
 
-    RowsFetchSpec<Staff> createQuery(Pageable pageable, Condition whereClause) {
+    GenericExecuteSpec createQuery(String shape, Pageable pageable, Condition whereClause) {
+        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
+        String select = entityManager.createSelect(() -> createSelectFrom(whereClause), Staff.class, shape, pageable);
+        return entityManager.bindPage(db.sql(select), pageable);
+    }
+
+    private static SelectOrdered createSelectFrom(Condition whereClause) {
         List<Expression> columns = StaffSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-        // we do not support Criteria here for now as of https://github.com/jhipster/generator-jhipster/issues/18269
-        String select = entityManager.createSelect(selectFrom, Staff.class, pageable, whereClause);
-        return db.sql(select).map(this::process);
+        return whereClause == null ? selectFrom : selectFrom.where(whereClause);
+    }
+
+    @Override
+    public Flux<StaffSummary> findAllSummaries() {
+        String select = entityManager.createSelect(
+            () -> Select.builder().select(StaffSqlHelper.getSummaryColumns(entityTable, EntityManager.ENTITY_ALIAS)).from(entityTable),
+            Staff.class,
+            "summary",
+            null
+        );
+        return db.sql(select).map(compiledSummaryMapper).all();
     }
 
     @Override
@@ -75,13 +101,11 @@ class StaffRepositoryInternalImpl extends SimpleR2dbcRepository<Staff, Long> imp
 
     @Override
     public Mono<Staff> findById(Long id) {
-        Comparison whereClause = Conditions.isEqual(entityTable.column("id"), Conditions.just(id.toString()));
-        return createQuery(null, whereClause).one();
+        return createQuery("id", null, idCondition).bind("id", id).map(this::process).one();
     }
 
     private Staff process(Row row, RowMetadata metadata) {
-        Staff entity = staffMapper.apply(row, "e");
-        return entity;
+        return compiledMapper.apply(row, metadata);
     }
 
     @Override
@@ -24,4 +24,14 @@ public class StaffSqlHelper {
 
         return columns;
     }
+
+    public static List<Expression> getSummaryColumns(Table table, String columnPrefix) {
+        List<Expression> columns = new ArrayList<>();
+        columns.add(Column.aliased("id", table, columnPrefix + "_id"));
+        columns.add(Column.aliased("name", table, columnPrefix + "_name"));
+        columns.add(Column.aliased("email", table, columnPrefix + "_email"));
+        columns.add(Column.aliased("phone", table, columnPrefix + "_phone"));
+        columns.add(Column.aliased("status", table, columnPrefix + "_status"));
+        return columns;
+    }
 }
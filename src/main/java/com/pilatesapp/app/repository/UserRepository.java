@@ -5,23 +5,24 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.pilatesapp.app.domain.Authority;
 import com.pilatesapp.app.domain.User;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuples;
 
 /**
  * Spring Data R2DBC repository for the {@link User} entity.
@@ -44,6 +45,49 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     Mono<Long> count();
 
+    /**
+     * Get a page of the users matching a pattern, in the order of their ids, for the searches made while
+     * Elasticsearch is unavailable. The patterns use the trigram indices of the searched columns.
+     *
+     * @param pattern the {@code ILIKE} pattern of the login, first name, last name or email, or {@code null} to match all.
+     * @param after the id after which the page starts.
+     * @param offset the number of matches skipped after it.
+     * @param limit the size of the page.
+     * @return the users.
+     */
+    @Query(
+        "SELECT * FROM jhi_user entity WHERE (:pattern IS NULL OR entity.login ILIKE :pattern OR entity.first_name ILIKE :pattern" +
+        " OR entity.last_name ILIKE :pattern OR entity.email ILIKE :pattern)" +
+        " AND entity.id > :after ORDER BY entity.id LIMIT :limit OFFSET :offset"
+    )
+    Flux<User> searchByText(String pattern, long after, long offset, int limit);
+
+    /**
+     * Replace the password hash of a user, unless it has changed since it was read.
+     *
+     * @param login the login of the user.
+     * @param oldHash the hash read by the authentication.
+     * @param newHash the new hash.
+     * @return the number of updated users, {@code 0} if the hash had changed.
+     */
+    @Modifying
+    @Query("UPDATE jhi_user SET password_hash = :newHash WHERE login = :login AND password_hash = :oldHash")
+    Mono<Integer> updatePasswordHash(String login, String oldHash, String newHash);
+
+    /**
+     * Replace the authorities of a user in a single statement, deleting the ones it no longer has and inserting the
+     * ones it does not have yet, so that its unchanged authorities are not written.
+     *
+     * @param userId the id of the user.
+     * @param authorities the names of all its authorities.
+     * @return a completed {@link Mono}.
+     */
+    @Query(
+        "WITH removed AS (DELETE FROM jhi_user_authority WHERE user_id = :userId AND authority_name <> ALL(:authorities))" +
+        " INSERT INTO jhi_user_authority (user_id, authority_name) SELECT :userId, unnest(:authorities) ON CONFLICT DO NOTHING"
+    )
+    Mono<Void> replaceUserAuthorities(Long userId, String[] authorities);
+
     @Query("INSERT INTO jhi_user_authority VALUES(:userId, :authority)")
     Mono<Void> saveUserAuthority(Long userId, String authority);
 
@@ -68,6 +112,34 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    // the columns of the sortable properties, so that only them reach the ORDER BY clause
+    private static final Map<String, String> SORTED_COLUMNS = Map.ofEntries(
+        Map.entry("id", "id"),
+        Map.entry("login", "login"),
+        Map.entry("firstName", "first_name"),
+        Map.entry("lastName", "last_name"),
+        Map.entry("email", "email"),
+        Map.entry("activated", "activated"),
+        Map.entry("langKey", "lang_key"),
+        Map.entry("createdBy", "created_by"),
+        Map.entry("createdDate", "created_date"),
+        Map.entry("lastModifiedBy", "last_modified_by"),
+        Map.entry("lastModifiedDate", "last_modified_date")
+    );
+
+    // the names of the authorities of a user, aggregated in the database so that each user is a single row
+    private static final String AUTHORITIES =
+        "(SELECT array_agg(ua.authority_name) FROM jhi_user_authority ua WHERE ua.user_id = u.id) AS authorities";
+
+    private static final String FIND_BY_LOGIN = "SELECT u.*, " + AUTHORITIES + " FROM jhi_user u WHERE u.login = :login";
+
+    private static final String FIND_BY_EMAIL = "SELECT u.*, " + AUTHORITIES + " FROM jhi_user u WHERE u.email = :email";
+
+    // the pages are cached by sort like the selects of the EntityManager, and bounded the same way
+    private final Map<PageKey, String> pageCache = new ConcurrentHashMap<>();
+
+    record PageKey(Sort sort, boolean paged) {}
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
@@ -80,38 +152,37 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Mono<User> findOneWithAuthoritiesByLogin(String login) {
-        return findOneWithAuthoritiesBy("login", login);
+        return db.sql(FIND_BY_LOGIN).bind("login", login).map(this::toUserWithAuthorities).one();
     }
 
     @Override
     public Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
-        return findOneWithAuthoritiesBy("email", email.toLowerCase());
+        return db.sql(FIND_BY_EMAIL).bind("email", email.toLowerCase()).map(this::toUserWithAuthorities).one();
     }
 
+    /**
+     * Get a page of the users with their authorities. The page is sorted, limited and offset by the database before
+     * the authorities of its users are aggregated, so its cost does not grow with the number of users. The select is
+     * rendered once per sort, with the limit and the offset bound, so that every page shares its statement text.
+     *
+     * @param pageable the pagination information, sorted by the properties of {@link #SORTED_COLUMNS} only.
+     * @return the users of the page.
+     */
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().orElse("id");
-        String direction = String.valueOf(
-            pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().orElse(Sort.DEFAULT_DIRECTION)
-        );
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
-
-        return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
-            .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+        PageKey key = new PageKey(pageable.getSort(), pageable.isPaged());
+        String sql = pageCache.get(key);
+        if (sql == null) {
+            sql = pageSelect(key);
+            if (pageCache.size() < EntityManager.SELECT_CACHE_MAX_SIZE) {
+                pageCache.putIfAbsent(key, sql);
+            }
+        }
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql);
+        if (pageable.isPaged()) {
+            spec = spec.bind("pageLimit", pageable.getPageSize()).bind("pageOffset", pageable.getOffset());
+        }
+        return spec.map(this::toUserWithAuthorities).all();
     }
 
     @Override
@@ -123,32 +194,53 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .then(r2dbcEntityTemplate.delete(User.class).matching(query(where("id").is(user.getId()))).all().then());
     }
 
-    private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
-        return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
-            .bind(fieldName, fieldValue)
-            .map((row, metadata) ->
-                Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
-            )
-            .all()
-            .collectList()
-            .filter(l -> !l.isEmpty())
-            .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
+    private static String pageSelect(PageKey key) {
+        String orderBy = orderBy(key.sort());
+        String page = "SELECT * FROM jhi_user" + orderBy;
+        if (key.paged()) {
+            page += " LIMIT :pageLimit OFFSET :pageOffset";
+        }
+        return "SELECT u.*, " + AUTHORITIES + " FROM (" + page + ") u" + orderBy;
     }
 
-    private User updateUserWithAuthorities(User user, List<Tuple2<User, Optional<String>>> tuples) {
-        user.setAuthorities(
-            tuples
-                .stream()
-                .filter(t -> t.getT2().isPresent())
-                .map(t -> {
-                    Authority authority = new Authority();
-                    authority.setName(t.getT2().orElseThrow());
-                    return authority;
-                })
-                .collect(Collectors.toSet())
-        );
-
+    private User toUserWithAuthorities(Row row, RowMetadata metadata) {
+        User user = r2dbcConverter.read(User.class, row, metadata);
+        String[] names = row.get("authorities", String[].class);
+        Set<Authority> authorities = new HashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                Authority authority = new Authority();
+                authority.setName(name);
+                authorities.add(authority);
+            }
+        }
+        user.setAuthorities(authorities);
         return user;
     }
+
+    /**
+     * Render the {@code ORDER BY} clause of a sort, ending with the id so that the pages are stable. The id follows the
+     * direction of the last property, so that the sort can be read backwards from an index of the property and the id.
+     *
+     * @param sort the sort, by the properties of {@link #SORTED_COLUMNS} only.
+     * @return the clause.
+     * @throws IllegalArgumentException if a property of the sort cannot be sorted by.
+     */
+    static String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        String direction = " ASC";
+        for (Sort.Order order : sort) {
+            String column = SORTED_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Users cannot be sorted by " + order.getProperty());
+            }
+            direction = order.isAscending() ? " ASC" : " DESC";
+            orderBy.append(column).append(direction);
+            if ("id".equals(column)) {
+                return orderBy.toString();
+            }
+            orderBy.append(", ");
+        }
+        return orderBy.append("id").append(direction).toString();
+    }
 }
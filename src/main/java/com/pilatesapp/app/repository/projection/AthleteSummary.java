@@ -0,0 +1,6 @@
+package com.pilatesapp.app.repository.projection;
+
+/**
+ * A summary of the {@link com.pilatesapp.app.domain.Athlete} entity, for list views and pickers.
+ */
+public record AthleteSummary(Long id, String name, String email, String phone) {}
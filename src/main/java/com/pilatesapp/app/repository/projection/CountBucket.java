@@ -0,0 +1,6 @@
+package com.pilatesapp.app.repository.projection;
+
+/**
+ * The number of documents of a bucket of a search aggregation, such as the sessions of a status or of an hour.
+ */
+public record CountBucket<K>(K key, long count) {}
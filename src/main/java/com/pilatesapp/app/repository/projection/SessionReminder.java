@@ -0,0 +1,15 @@
+package com.pilatesapp.app.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * A {@link com.pilatesapp.app.domain.Session} due for a reminder, with the athlete to remind and the name of the staff.
+ */
+public record SessionReminder(
+    Long sessionId,
+    Instant startDate,
+    Instant endDate,
+    String athleteName,
+    String athleteEmail,
+    String staffName
+) {}
@@ -0,0 +1,9 @@
+package com.pilatesapp.app.repository.projection;
+
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import java.time.Instant;
+
+/**
+ * A summary of the {@link com.pilatesapp.app.domain.Session} entity, with only what a calendar needs.
+ */
+public record SessionSummary(Long id, Instant startDate, Instant endDate, SessionStatus sessionStatus, Long staffId, Long athleteId) {}
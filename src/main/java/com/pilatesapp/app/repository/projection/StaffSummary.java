@@ -0,0 +1,6 @@
+package com.pilatesapp.app.repository.projection;
+
+/**
+ * A summary of the {@link com.pilatesapp.app.domain.Staff} entity, for list views and pickers.
+ */
+public record StaffSummary(Long id, String name, String email, String phone, Boolean status) {}
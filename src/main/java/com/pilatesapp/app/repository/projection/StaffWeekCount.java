@@ -0,0 +1,8 @@
+package com.pilatesapp.app.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * The number of sessions of a {@link com.pilatesapp.app.domain.Staff} during a week, starting on the given Monday.
+ */
+public record StaffWeekCount(Long staffId, String staffName, LocalDate week, long count) {}
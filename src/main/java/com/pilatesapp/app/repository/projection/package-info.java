@@ -0,0 +1,4 @@
+/**
+ * Lightweight read-only projections of the entities, for list views and dashboards.
+ */
+package com.pilatesapp.app.repository.projection;
@@ -1,9 +1,11 @@
 package com.pilatesapp.app.repository.rowmapper;
 
 import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.repository.projection.AthleteSummary;
 import io.r2dbc.spi.Row;
 import java.time.Instant;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -35,4 +37,43 @@ public class AthleteRowMapper implements BiFunction<Row, String, Athlete> {
         entity.setSessionPackageId(converter.fromRow(row, prefix + "_session_package_id", String.class));
         return entity;
     }
+
+    /**
+     * Read an athlete by column index; the join queries also use it for the athlete of each session row.
+     * @return the function extracting the {@link Athlete} from each row.
+     */
+    public Function<Row, Athlete> compile(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, String> name = layout.column(prefix + "_name", String.class);
+        Function<Row, String> email = layout.column(prefix + "_email", String.class);
+        Function<Row, String> phone = layout.column(prefix + "_phone", String.class);
+        Function<Row, String> city = layout.column(prefix + "_city", String.class);
+        Function<Row, String> address = layout.column(prefix + "_address", String.class);
+        Function<Row, Instant> birthday = layout.column(prefix + "_birthday", Instant.class);
+        Function<Row, String> sessionPackageId = layout.column(prefix + "_session_package_id", String.class);
+        return row -> {
+            Athlete entity = new Athlete();
+            entity.setId(id.apply(row));
+            entity.setName(name.apply(row));
+            entity.setEmail(email.apply(row));
+            entity.setPhone(phone.apply(row));
+            entity.setCity(city.apply(row));
+            entity.setAddress(address.apply(row));
+            entity.setBirthday(birthday.apply(row));
+            entity.setSessionPackageId(sessionPackageId.apply(row));
+            return entity;
+        };
+    }
+
+    /**
+     * Read the list view of an athlete, without the address, the birthday and the package of the full entity.
+     * @return the function extracting the {@link AthleteSummary} from each row.
+     */
+    public Function<Row, AthleteSummary> compileSummary(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, String> name = layout.column(prefix + "_name", String.class);
+        Function<Row, String> email = layout.column(prefix + "_email", String.class);
+        Function<Row, String> phone = layout.column(prefix + "_phone", String.class);
+        return row -> new AthleteSummary(id.apply(row), name.apply(row), email.apply(row), phone.apply(row));
+    }
 }
@@ -1,6 +1,8 @@
 package com.pilatesapp.app.repository.rowmapper;
 
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.function.Function;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
@@ -48,6 +50,40 @@ public class ColumnConverter implements ColumnConverterReactive {
         return conversionService.convert(value, target);
     }
 
+    /**
+     * Resolves once how to convert the values the driver returns for a column to a type, with the same rules as
+     * {@link #convert(Object, Class)}, so that rows can be decoded without looking the conversion up for each value.
+     * @param source the Java type the driver returns for the column, or null if unknown.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the function converting a non-null value of the column.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Function<Object, T> converterFor(@Nullable Class<?> source, Class<T> target) {
+        if (source == null) {
+            return value -> convert(value, target);
+        }
+        if (ClassUtils.isAssignable(target, source)) {
+            return value -> (T) value;
+        }
+        if (conversions.hasCustomReadTarget(source, target)) {
+            return value -> conversionService.convert(value, target);
+        }
+        if (Enum.class.isAssignableFrom(target)) {
+            return value -> (T) Enum.valueOf((Class<Enum>) target, value.toString());
+        }
+        return value -> conversionService.convert(value, target);
+    }
+
+    /**
+     * Resolves the column positions of rows with the given metadata, see {@link RowLayout}.
+     * @param metadata the metadata of the rows.
+     * @return the layout of the rows.
+     */
+    public RowLayout layout(RowMetadata metadata) {
+        return new RowLayout(metadata, this);
+    }
+
     /**
      * Convert a value from the {@link Row} to a type - throws an exception, if it's impossible.
      * @param row which contains the column values.
@@ -0,0 +1,56 @@
+package com.pilatesapp.app.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Maps rows with readers compiled once per query shape, i.e. per list of selected columns, by the given compiler.
+ * <p>
+ * Rows of the same result share their {@link RowMetadata}, so the reader is only looked up when a new result starts.
+ *
+ * @param <T> the type of the mapped rows.
+ */
+public final class CompiledRowMapper<T> implements BiFunction<Row, RowMetadata, T> {
+
+    private record Compiled<T>(RowMetadata metadata, Function<Row, T> reader) {}
+
+    private final ColumnConverter converter;
+
+    private final Function<RowLayout, Function<Row, T>> compiler;
+
+    private final Map<List<String>, Function<Row, T>> readers = new ConcurrentHashMap<>();
+
+    private volatile Compiled<T> last;
+
+    public CompiledRowMapper(ColumnConverter converter, Function<RowLayout, Function<Row, T>> compiler) {
+        this.converter = converter;
+        this.compiler = compiler;
+    }
+
+    @Override
+    public T apply(Row row, RowMetadata metadata) {
+        Compiled<T> compiled = last;
+        if (compiled == null || compiled.metadata() != metadata) {
+            Function<Row, T> reader = readers.computeIfAbsent(columnNames(metadata), names -> compiler.apply(converter.layout(metadata)));
+            compiled = new Compiled<>(metadata, reader);
+            last = compiled;
+        }
+        return compiled.reader().apply(row);
+    }
+
+    private static List<String> columnNames(RowMetadata metadata) {
+        List<? extends ColumnMetadata> columns = metadata.getColumnMetadatas();
+        List<String> names = new ArrayList<>(columns.size());
+        for (ColumnMetadata column : columns) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+}
@@ -4,6 +4,7 @@ import com.pilatesapp.app.domain.QRCode;
 import io.r2dbc.spi.Row;
 import java.util.UUID;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -32,4 +33,25 @@ public class QRCodeRowMapper implements BiFunction<Row, String, QRCode> {
         entity.setCoachId(converter.fromRow(row, prefix + "_coach_id", UUID.class));
         return entity;
     }
+
+    /**
+     * Read a QR code by column index, the columns being resolved once per query rather than once per row.
+     * @return the function extracting the {@link QRCode} from each row.
+     */
+    public Function<Row, QRCode> compile(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, String> code = layout.column(prefix + "_code", String.class);
+        Function<Row, UUID> sessionId = layout.column(prefix + "_session_id", UUID.class);
+        Function<Row, UUID> athleteId = layout.column(prefix + "_athlete_id", UUID.class);
+        Function<Row, UUID> coachId = layout.column(prefix + "_coach_id", UUID.class);
+        return row -> {
+            QRCode entity = new QRCode();
+            entity.setId(id.apply(row));
+            entity.setCode(code.apply(row));
+            entity.setSessionId(sessionId.apply(row));
+            entity.setAthleteId(athleteId.apply(row));
+            entity.setCoachId(coachId.apply(row));
+            return entity;
+        };
+    }
 }
@@ -0,0 +1,54 @@
+package com.pilatesapp.app.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The column positions of the rows of a query, resolved once from their {@link RowMetadata}, so that the fields of
+ * each row are read by index, and converted with a conversion chosen from the type the driver returns for the column.
+ */
+public final class RowLayout {
+
+    private final List<? extends ColumnMetadata> columns;
+
+    private final Map<String, Integer> indexes;
+
+    private final ColumnConverter converter;
+
+    RowLayout(RowMetadata metadata, ColumnConverter converter) {
+        this.columns = metadata.getColumnMetadatas();
+        this.indexes = new HashMap<>(columns.size() * 2);
+        this.converter = converter;
+        for (int index = 0; index < columns.size(); index++) {
+            // unquoted aliases are folded to lower case by the database
+            indexes.putIfAbsent(columns.get(index).getName().toLowerCase(Locale.ROOT), index);
+        }
+    }
+
+    /**
+     * Resolve the reader of a column.
+     * @param columnName the name of the column to read.
+     * @param target class.
+     * @param <T> the parameter for the intended type.
+     * @return the function reading the column from a row, and converting it to the target type.
+     * @throws IllegalArgumentException if the rows have no such column.
+     */
+    public <T> Function<Row, T> column(String columnName, Class<T> target) {
+        Integer index = indexes.get(columnName.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new IllegalArgumentException("No column " + columnName + " in the rows");
+        }
+        int position = index;
+        Function<Object, T> conversion = converter.converterFor(columns.get(position).getJavaType(), target);
+        return row -> {
+            Object value = row.get(position);
+            return value == null ? null : conversion.apply(value);
+        };
+    }
+}
@@ -4,6 +4,7 @@ import com.pilatesapp.app.domain.SessionPackage;
 import io.r2dbc.spi.Row;
 import java.time.Instant;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -35,4 +36,31 @@ public class SessionPackageRowMapper implements BiFunction<Row, String, SessionP
         entity.setCancelCount(converter.fromRow(row, prefix + "_cancel_count", Integer.class));
         return entity;
     }
+
+    /**
+     * Read a session package by column index, for its own queries and for the package joined to an athlete.
+     * @return the function extracting the {@link SessionPackage} from each row.
+     */
+    public Function<Row, SessionPackage> compile(RowLayout layout, String prefix) {
+        Function<Row, String> id = layout.column(prefix + "_id", String.class);
+        Function<Row, String> name = layout.column(prefix + "_name", String.class);
+        Function<Row, Long> price = layout.column(prefix + "_price", Long.class);
+        Function<Row, Integer> credits = layout.column(prefix + "_credits", Integer.class);
+        Function<Row, Instant> startDate = layout.column(prefix + "_start_date", Instant.class);
+        Function<Row, Instant> endDate = layout.column(prefix + "_end_date", Instant.class);
+        Function<Row, Integer> reviseCount = layout.column(prefix + "_revise_count", Integer.class);
+        Function<Row, Integer> cancelCount = layout.column(prefix + "_cancel_count", Integer.class);
+        return row -> {
+            SessionPackage entity = new SessionPackage();
+            entity.setId(id.apply(row));
+            entity.setName(name.apply(row));
+            entity.setPrice(price.apply(row));
+            entity.setCredits(credits.apply(row));
+            entity.setStartDate(startDate.apply(row));
+            entity.setEndDate(endDate.apply(row));
+            entity.setReviseCount(reviseCount.apply(row));
+            entity.setCancelCount(cancelCount.apply(row));
+            return entity;
+        };
+    }
 }
@@ -2,9 +2,11 @@ package com.pilatesapp.app.repository.rowmapper;
 
 import com.pilatesapp.app.domain.Session;
 import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.projection.SessionSummary;
 import io.r2dbc.spi.Row;
 import java.time.Instant;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -36,4 +38,53 @@ public class SessionRowMapper implements BiFunction<Row, String, Session> {
         entity.setAthleteId(converter.fromRow(row, prefix + "_athlete_id", Long.class));
         return entity;
     }
+
+    /**
+     * Read a session by column index; the staff and athlete columns of the join are read by their own mappers.
+     * @return the function extracting the {@link Session} from each row.
+     */
+    public Function<Row, Session> compile(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, Instant> startDate = layout.column(prefix + "_start_date", Instant.class);
+        Function<Row, Instant> endDate = layout.column(prefix + "_end_date", Instant.class);
+        Function<Row, String> qrCode = layout.column(prefix + "_qr_code", String.class);
+        Function<Row, SessionStatus> sessionStatus = layout.column(prefix + "_session_status", SessionStatus.class);
+        Function<Row, Boolean> isNotified = layout.column(prefix + "_is_notified", Boolean.class);
+        Function<Row, Long> staffId = layout.column(prefix + "_staff_id", Long.class);
+        Function<Row, Long> athleteId = layout.column(prefix + "_athlete_id", Long.class);
+        return row -> {
+            Session entity = new Session();
+            entity.setId(id.apply(row));
+            entity.setStartDate(startDate.apply(row));
+            entity.setEndDate(endDate.apply(row));
+            entity.setQrCode(qrCode.apply(row));
+            entity.setSessionStatus(sessionStatus.apply(row));
+            entity.setIsNotified(isNotified.apply(row));
+            entity.setStaffId(staffId.apply(row));
+            entity.setAthleteId(athleteId.apply(row));
+            return entity;
+        };
+    }
+
+    /**
+     * Read the summary of a session listed by {@code findAllSummaries}, without the QR code and the notification flag.
+     * @return the function extracting the {@link SessionSummary} from each row.
+     */
+    public Function<Row, SessionSummary> compileSummary(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, Instant> startDate = layout.column(prefix + "_start_date", Instant.class);
+        Function<Row, Instant> endDate = layout.column(prefix + "_end_date", Instant.class);
+        Function<Row, SessionStatus> sessionStatus = layout.column(prefix + "_session_status", SessionStatus.class);
+        Function<Row, Long> staffId = layout.column(prefix + "_staff_id", Long.class);
+        Function<Row, Long> athleteId = layout.column(prefix + "_athlete_id", Long.class);
+        return row ->
+            new SessionSummary(
+                id.apply(row),
+                startDate.apply(row),
+                endDate.apply(row),
+                sessionStatus.apply(row),
+                staffId.apply(row),
+                athleteId.apply(row)
+            );
+    }
 }
@@ -1,9 +1,11 @@
 package com.pilatesapp.app.repository.rowmapper;
 
 import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.projection.StaffSummary;
 import io.r2dbc.spi.Row;
 import java.time.Instant;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -38,4 +40,50 @@ public class StaffRowMapper implements BiFunction<Row, String, Staff> {
         entity.setStatus(converter.fromRow(row, prefix + "_status", Boolean.class));
         return entity;
     }
+
+    /**
+     * Read a staff member by column index; the session join reads the coach of each row through it.
+     * @return the function extracting the {@link Staff} from each row.
+     */
+    public Function<Row, Staff> compile(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, String> name = layout.column(prefix + "_name", String.class);
+        Function<Row, String> email = layout.column(prefix + "_email", String.class);
+        Function<Row, String> phone = layout.column(prefix + "_phone", String.class);
+        Function<Row, String> city = layout.column(prefix + "_city", String.class);
+        Function<Row, String> address = layout.column(prefix + "_address", String.class);
+        Function<Row, Instant> birthday = layout.column(prefix + "_birthday", Instant.class);
+        Function<Row, Instant> hireDate = layout.column(prefix + "_hire_date", Instant.class);
+        Function<Row, Long> salary = layout.column(prefix + "_salary", Long.class);
+        Function<Row, Instant> role = layout.column(prefix + "_role", Instant.class);
+        Function<Row, Boolean> status = layout.column(prefix + "_status", Boolean.class);
+        return row -> {
+            Staff entity = new Staff();
+            entity.setId(id.apply(row));
+            entity.setName(name.apply(row));
+            entity.setEmail(email.apply(row));
+            entity.setPhone(phone.apply(row));
+            entity.setCity(city.apply(row));
+            entity.setAddress(address.apply(row));
+            entity.setBirthday(birthday.apply(row));
+            entity.setHireDate(hireDate.apply(row));
+            entity.setSalary(salary.apply(row));
+            entity.setRole(role.apply(row));
+            entity.setStatus(status.apply(row));
+            return entity;
+        };
+    }
+
+    /**
+     * Read the list view of a staff member: only the fields the staff table shows, including the status.
+     * @return the function extracting the {@link StaffSummary} from each row.
+     */
+    public Function<Row, StaffSummary> compileSummary(RowLayout layout, String prefix) {
+        Function<Row, Long> id = layout.column(prefix + "_id", Long.class);
+        Function<Row, String> name = layout.column(prefix + "_name", String.class);
+        Function<Row, String> email = layout.column(prefix + "_email", String.class);
+        Function<Row, String> phone = layout.column(prefix + "_phone", String.class);
+        Function<Row, Boolean> status = layout.column(prefix + "_status", Boolean.class);
+        return row -> new StaffSummary(id.apply(row), name.apply(row), email.apply(row), phone.apply(row), status.apply(row));
+    }
 }
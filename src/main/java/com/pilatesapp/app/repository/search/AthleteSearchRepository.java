@@ -1,13 +1,19 @@
 package com.pilatesapp.app.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
 import com.pilatesapp.app.domain.Athlete;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import com.pilatesapp.app.repository.AthleteFilter;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Athlete} entity.
@@ -17,6 +23,10 @@ public interface AthleteSearchRepository extends ReactiveElasticsearchRepository
 interface AthleteSearchRepositoryInternal {
     Flux<Athlete> search(String query);
 
+    Mono<SearchPage<Athlete>> search(String query, AthleteFilter filter, Pageable pageable);
+
+    Mono<SearchPage<Athlete>> searchAfter(String query, AthleteFilter filter, List<Object> searchAfter, int size);
+
     Flux<Athlete> search(Query query);
 }
 
@@ -24,18 +34,65 @@ class AthleteSearchRepositoryInternalImpl implements AthleteSearchRepositoryInte
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    AthleteSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    AthleteSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
     }
 
     @Override
     public Flux<Athlete> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        return searchCircuitBreaker.protect(SearchQueries.stream(reactiveElasticsearchTemplate, query, Athlete.class));
+    }
+
+    @Override
+    public Mono<SearchPage<Athlete>> search(String query, AthleteFilter filter, Pageable pageable) {
+        return searchResultCache.page(
+            Athlete.class,
+            query,
+            filter,
+            pageable,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPage(reactiveElasticsearchTemplate, query, filters(filter), pageable, Athlete.class)
+                )
+        );
+    }
+
+    @Override
+    public Mono<SearchPage<Athlete>> searchAfter(String query, AthleteFilter filter, List<Object> searchAfter, int size) {
+        return searchResultCache.pageAfter(
+            Athlete.class,
+            query,
+            filter,
+            searchAfter,
+            size,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPageAfter(reactiveElasticsearchTemplate, query, filters(filter), searchAfter, size, Athlete.class)
+                )
+        );
     }
 
     @Override
     public Flux<Athlete> search(Query query) {
-        return reactiveElasticsearchTemplate.search(query, Athlete.class).map(SearchHit::getContent);
+        return searchCircuitBreaker.protect(reactiveElasticsearchTemplate.search(query, Athlete.class).map(SearchHit::getContent));
+    }
+
+    private static List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters(AthleteFilter filter) {
+        List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters = new ArrayList<>();
+        if (filter.getCity() != null) {
+            // the city is analyzed, so all its terms must match
+            filters.add(MatchQuery.of(match -> match.field("city").query(filter.getCity()).operator(Operator.And))._toQuery());
+        }
+        return filters;
     }
 }
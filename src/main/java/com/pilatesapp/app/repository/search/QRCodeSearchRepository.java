@@ -1,13 +1,15 @@
 package com.pilatesapp.app.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import com.pilatesapp.app.domain.QRCode;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link QRCode} entity.
@@ -17,6 +19,10 @@ public interface QRCodeSearchRepository extends ReactiveElasticsearchRepository<
 interface QRCodeSearchRepositoryInternal {
     Flux<QRCode> search(String query);
 
+    Mono<SearchPage<QRCode>> search(String query, Pageable pageable);
+
+    Mono<SearchPage<QRCode>> searchAfter(String query, List<Object> searchAfter, int size);
+
     Flux<QRCode> search(Query query);
 }
 
@@ -24,18 +30,53 @@ class QRCodeSearchRepositoryInternalImpl implements QRCodeSearchRepositoryIntern
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    QRCodeSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    QRCodeSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
     }
 
     @Override
     public Flux<QRCode> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        return searchCircuitBreaker.protect(SearchQueries.stream(reactiveElasticsearchTemplate, query, QRCode.class));
+    }
+
+    @Override
+    public Mono<SearchPage<QRCode>> search(String query, Pageable pageable) {
+        return searchResultCache.page(
+            QRCode.class,
+            query,
+            null,
+            pageable,
+            () -> searchCircuitBreaker.protect(SearchQueries.searchPage(reactiveElasticsearchTemplate, query, pageable, QRCode.class))
+        );
+    }
+
+    @Override
+    public Mono<SearchPage<QRCode>> searchAfter(String query, List<Object> searchAfter, int size) {
+        return searchResultCache.pageAfter(
+            QRCode.class,
+            query,
+            null,
+            searchAfter,
+            size,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPageAfter(reactiveElasticsearchTemplate, query, searchAfter, size, QRCode.class)
+                )
+        );
     }
 
     @Override
     public Flux<QRCode> search(Query query) {
-        return reactiveElasticsearchTemplate.search(query, QRCode.class).map(SearchHit::getContent);
+        return searchCircuitBreaker.protect(reactiveElasticsearchTemplate.search(query, QRCode.class).map(SearchHit::getContent));
     }
 }
@@ -0,0 +1,120 @@
+package com.pilatesapp.app.repository.search;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker of the requests to Elasticsearch, so that a slow or failing cluster costs the callers a quick error
+ * instead of a request hanging until the timeout of the client, with a database connection held meanwhile.
+ * <p>
+ * Every request is bounded by {@code application.search-breaker.timeout}. The breaker opens once too many of the last
+ * requests were slow or failed, and then rejects the requests with a {@link CallNotPermittedException} until it lets a
+ * few trial requests through. Invalid queries are the fault of the client, so they do not count as failures.
+ * <p>
+ * The state of the breaker is published as the {@code resilience4j.circuitbreaker.*} meters of the
+ * {@value #NAME} breaker.
+ */
+@Component
+public class SearchCircuitBreaker {
+
+    public static final String NAME = "elasticsearch";
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Duration timeout;
+
+    public SearchCircuitBreaker(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.SearchBreaker properties = applicationProperties.getSearchBreaker();
+        CircuitBreakerConfig config = CircuitBreakerConfig
+            .custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(properties.getSlidingWindowSize())
+            .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+            .slowCallDurationThreshold(properties.getSlowCallDuration())
+            .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+            .failureRateThreshold(properties.getFailureRateThreshold())
+            .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+            .permittedNumberOfCallsInHalfOpenState(properties.getPermittedNumberOfCallsInHalfOpenState())
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .recordException(SearchCircuitBreaker::isFailure)
+            .build();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(config);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.timeout = properties.getTimeout();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+    }
+
+    /**
+     * Runs a request to Elasticsearch through the breaker.
+     *
+     * @param request the request.
+     * @return the result of the request, or a {@link CallNotPermittedException} if the breaker is open, or a
+     * {@link TimeoutException} if the request is too slow.
+     */
+    public <T> Mono<T> protect(Mono<T> request) {
+        return request.timeout(timeout).transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Streams the results of requests to Elasticsearch, unless the breaker is open. A stream lasts as long as its
+     * consumer, so its duration does not count as a call of the breaker.
+     *
+     * @param requests the requests.
+     * @return the results of the requests, or a {@link CallNotPermittedException} if the breaker is open.
+     */
+    public <T> Flux<T> protect(Flux<T> requests) {
+        return Flux.defer(() ->
+            isOpen() ? Flux.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)) : requests
+        );
+    }
+
+    /**
+     * Checks whether the requests to Elasticsearch are currently rejected.
+     *
+     * @return {@code true} if the breaker is open.
+     */
+    public boolean isOpen() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Checks whether a request failed because Elasticsearch is unavailable, rather than because of the request, in
+     * which case the caller may fall back to the database.
+     *
+     * @param e the failure of the request.
+     * @return {@code true} if the breaker is open, or the request timed out or could not reach the cluster.
+     */
+    public static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof TimeoutException || e instanceof DataAccessResourceFailureException;
+    }
+
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ElasticsearchException elasticsearchException) {
+                return elasticsearchException.status() >= 500;
+            }
+        }
+        return true;
+    }
+}
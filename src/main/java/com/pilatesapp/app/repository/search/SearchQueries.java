@@ -0,0 +1,278 @@
+package com.pilatesapp.app.repository.search;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.json.JsonData;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for the bounded full-text searches shared by the search repositories.
+ * <p>
+ * Hits are sorted by score, then by id, so that the order of the pages is stable and a search can be resumed after
+ * the sort values of its last hit ({@code search_after}) instead of skipping the previous hits. Every request is
+ * limited to a page, so no search reads all its hits at once.
+ * <p>
+ * Structured criteria are compiled by the repositories to {@code bool.filter} clauses: they are not scored, and
+ * Elasticsearch caches their matches across requests, so only the free-text part of a search is parsed and scored.
+ * <p>
+ * Aggregations read no hit at all: only their buckets are returned, so their cost for the client does not depend on
+ * the number of matching documents.
+ */
+public final class SearchQueries {
+
+    /**
+     * The maximum number of hits of a page.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * The maximum number of hits reachable by page number, which is the default result window of Elasticsearch. The
+     * hits beyond it are reachable with {@code search_after}.
+     */
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    /**
+     * The maximum number of hits of a streamed search.
+     */
+    public static final int MAX_STREAMED_HITS = 100_000;
+
+    /**
+     * The number of hits read by each request of a streamed search.
+     */
+    static final int STREAM_PAGE_SIZE = 500;
+
+    private static final Pattern FIELD_NAME = Pattern.compile("[\\w.]+:");
+
+    // the operators of the query string syntax, keeping the hyphens and slashes within words
+    private static final Pattern QUERY_SYNTAX = Pattern.compile("(?<!\\S)[+\\-!]|[(){}\\[\\]^\"~*?\\\\]|&&|\\|\\||\\b(AND|OR|NOT)\\b");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchQueries() {}
+
+    /**
+     * Get a page of the hits of a query string, see {@link #searchPage(ReactiveElasticsearchTemplate, String, List, Pageable, Class)}.
+     */
+    static <T> Mono<SearchPage<T>> searchPage(ReactiveElasticsearchTemplate template, String query, Pageable pageable, Class<T> type) {
+        return searchPage(template, query, List.of(), pageable, type);
+    }
+
+    /**
+     * Get a page of the hits of a query string, restricted by filters.
+     *
+     * @param template the template.
+     * @param query the query string, or {@code null} to only filter.
+     * @param filters the filters, which do not change the score.
+     * @param pageable the page, whose sort is ignored.
+     * @param type the type of the documents.
+     * @return the page of the hits.
+     * @throws IllegalArgumentException if the page is larger than {@link #MAX_PAGE_SIZE} or beyond {@link #MAX_RESULT_WINDOW}.
+     */
+    static <T> Mono<SearchPage<T>> searchPage(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        List<Query> filters,
+        Pageable pageable,
+        Class<T> type
+    ) {
+        checkPageSize(pageable.getPageSize());
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Pages beyond the first " + MAX_RESULT_WINDOW + " hits require search_after");
+        }
+        PageRequest page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return template.searchForPage(nativeQuery(query, filters, page, null), type);
+    }
+
+    /**
+     * Get the page of the hits of a query string following a hit, see
+     * {@link #searchPageAfter(ReactiveElasticsearchTemplate, String, List, List, int, Class)}.
+     */
+    static <T> Mono<SearchPage<T>> searchPageAfter(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        List<Object> searchAfter,
+        int size,
+        Class<T> type
+    ) {
+        return searchPageAfter(template, query, List.of(), searchAfter, size, type);
+    }
+
+    /**
+     * Get the page of the hits of a query string, restricted by filters, following a hit.
+     *
+     * @param template the template.
+     * @param query the query string, or {@code null} to only filter.
+     * @param filters the filters, which do not change the score.
+     * @param searchAfter the sort values of the last hit of the previous page.
+     * @param size the size of the page.
+     * @param type the type of the documents.
+     * @return the page of the hits.
+     * @throws IllegalArgumentException if the page is larger than {@link #MAX_PAGE_SIZE}.
+     */
+    static <T> Mono<SearchPage<T>> searchPageAfter(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        List<Query> filters,
+        List<Object> searchAfter,
+        int size,
+        Class<T> type
+    ) {
+        checkPageSize(size);
+        return template.searchForPage(nativeQuery(query, filters, PageRequest.ofSize(size), searchAfter), type);
+    }
+
+    /**
+     * Streams the hits of a query string, one page after the other, up to {@link #MAX_STREAMED_HITS}. A page is only
+     * requested once the previous one is consumed.
+     *
+     * @param template the template.
+     * @param query the query string.
+     * @param type the type of the documents.
+     * @return the documents.
+     */
+    static <T> Flux<T> stream(ReactiveElasticsearchTemplate template, String query, Class<T> type) {
+        return streamPage(template, query, null, type)
+            .expand(hits -> {
+                if (hits.size() < STREAM_PAGE_SIZE) {
+                    return Mono.empty();
+                }
+                return streamPage(template, query, hits.get(hits.size() - 1).getSortValues(), type);
+            })
+            .concatMapIterable(hits -> hits, 1)
+            .map(SearchHit::getContent)
+            .take(MAX_STREAMED_HITS, true);
+    }
+
+    private static <T> Mono<List<SearchHit<T>>> streamPage(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        List<Object> searchAfter,
+        Class<T> type
+    ) {
+        return template.search(nativeQuery(query, List.of(), PageRequest.ofSize(STREAM_PAGE_SIZE), searchAfter), type).collectList();
+    }
+
+    /**
+     * Runs aggregations over the documents matching filters, without reading any hit.
+     *
+     * @param template the template.
+     * @param filters the filters of the aggregated documents.
+     * @param aggregations the aggregations, by name.
+     * @param type the type of the documents.
+     * @return the results of the aggregations, by name.
+     */
+    static Mono<Map<String, Aggregate>> aggregate(
+        ReactiveElasticsearchTemplate template,
+        List<Query> filters,
+        Map<String, Aggregation> aggregations,
+        Class<?> type
+    ) {
+        NativeQueryBuilder builder = NativeQuery.builder().withQuery(query(null, filters)).withMaxResults(0);
+        aggregations.forEach(builder::withAggregation);
+        return template
+            .aggregate(builder.build(), type)
+            .map(container -> ((ElasticsearchAggregation) container).aggregation())
+            .collectMap(
+                org.springframework.data.elasticsearch.client.elc.Aggregation::getName,
+                org.springframework.data.elasticsearch.client.elc.Aggregation::getAggregate
+            );
+    }
+
+    /**
+     * Get a filter on the instants of a date field.
+     *
+     * @param field the date field.
+     * @param from the instant the values start at, inclusive, or {@code null}.
+     * @param to the instant the values end before, exclusive, or {@code null}.
+     * @return the filter, or {@code null} if the range is unbounded.
+     */
+    static Query range(String field, Instant from, Instant to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return RangeQuery.of(range -> {
+            range.field(field);
+            if (from != null) {
+                range.gte(JsonData.of(from.toString()));
+            }
+            if (to != null) {
+                range.lt(JsonData.of(to.toString()));
+            }
+            return range;
+        })
+            ._toQuery();
+    }
+
+    /**
+     * Get the {@code ILIKE} pattern matching the text of a query string, for the database searches used while
+     * Elasticsearch is unavailable. Field names and operators are dropped, so the pattern matches the values containing
+     * the remaining words, in this order.
+     *
+     * @param query the query string, or {@code null}.
+     * @return the pattern, or {@code null} if the query matches everything.
+     */
+    public static String likePattern(String query) {
+        if (query == null) {
+            return null;
+        }
+        String text = FIELD_NAME.matcher(query).replaceAll(" ");
+        text = QUERY_SYNTAX.matcher(text).replaceAll(" ");
+        text = WHITESPACE.matcher(text).replaceAll(" ").strip();
+        if (text.isEmpty()) {
+            return null;
+        }
+        // backslashes are dropped with the syntax, so they are left to escape the wildcards
+        return "%" + text.replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static void checkPageSize(int size) {
+        if (size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Pages are limited to " + MAX_PAGE_SIZE + " hits");
+        }
+    }
+
+    private static NativeQuery nativeQuery(String query, List<Query> filters, Pageable pageable, List<Object> searchAfter) {
+        NativeQueryBuilder builder = NativeQuery
+            .builder()
+            .withQuery(query(query, filters))
+            .withSort(sort -> sort.score(score -> score.order(SortOrder.Desc)))
+            .withSort(sort -> sort.field(field -> field.field("id").order(SortOrder.Asc)))
+            .withPageable(pageable);
+        if (searchAfter != null) {
+            builder.withSearchAfter(searchAfter);
+        }
+        return builder.build();
+    }
+
+    private static Query query(String query, List<Query> filters) {
+        boolean freeText = query != null && !query.isBlank();
+        if (filters.isEmpty()) {
+            return freeText ? QueryStringQuery.of(qs -> qs.query(query))._toQuery() : Query.of(q -> q.matchAll(all -> all));
+        }
+        return Query.of(q ->
+            q.bool(bool -> {
+                if (freeText) {
+                    bool.must(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
+                }
+                return bool.filter(filters);
+            })
+        );
+    }
+}
@@ -0,0 +1,127 @@
+package com.pilatesapp.app.repository.search;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache of the pages returned by the search repositories, so that the bursts of identical searches, such as every
+ * coach opening the same filter in the morning, cost a single Elasticsearch request.
+ * <p>
+ * Pages are cached by document type, normalized query string, filters and page, and weighed by their number of hits,
+ * so that the cache holds at most {@code application.search-cache.max-hits} hits. Concurrent identical searches share
+ * the same request. The pages of a type are dropped whenever its index is written, and otherwise expire after
+ * {@code application.search-cache.time-to-live}, which bounds the staleness of the writes made by other nodes.
+ * <p>
+ * The hits, misses and evictions are published as the {@code cache.*} meters of the {@value #CACHE_NAME} cache.
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String CACHE_NAME = "search";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AsyncCache<Key, SearchPage<?>> cache;
+
+    /**
+     * A cached search.
+     *
+     * @param type the type of the documents.
+     * @param query the normalized query string.
+     * @param filter the filter, or {@code null}.
+     * @param offset the offset of the page, or {@code -1} for a page following a hit.
+     * @param size the size of the page.
+     * @param searchAfter the sort values of the hit the page follows, or {@code null}.
+     */
+    record Key(Class<?> type, String query, String filter, long offset, int size, List<Object> searchAfter) {}
+
+    public SearchResultCache(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.SearchCache properties = applicationProperties.getSearchCache();
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumWeight(properties.getMaxHits())
+                .weigher((Key key, SearchPage<?> page) -> 1 + page.getNumberOfElements())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get a page of the hits of a search, from the cache or from the search.
+     *
+     * @param type the type of the documents.
+     * @param query the query string, or {@code null}.
+     * @param filter the filter, whose {@code toString} describes all its criteria, or {@code null}.
+     * @param pageable the page.
+     * @param search the search, run on a miss.
+     * @return the page of the hits.
+     */
+    public <T> Mono<SearchPage<T>> page(
+        Class<T> type,
+        String query,
+        Object filter,
+        Pageable pageable,
+        Supplier<Mono<SearchPage<T>>> search
+    ) {
+        return get(new Key(type, normalize(query), filterKey(filter), pageable.getOffset(), pageable.getPageSize(), null), search);
+    }
+
+    /**
+     * Get the page of the hits of a search following a hit, from the cache or from the search.
+     *
+     * @param type the type of the documents.
+     * @param query the query string, or {@code null}.
+     * @param filter the filter, whose {@code toString} describes all its criteria, or {@code null}.
+     * @param searchAfter the sort values of the last hit of the previous page.
+     * @param size the size of the page.
+     * @param search the search, run on a miss.
+     * @return the page of the hits.
+     */
+    public <T> Mono<SearchPage<T>> pageAfter(
+        Class<T> type,
+        String query,
+        Object filter,
+        List<Object> searchAfter,
+        int size,
+        Supplier<Mono<SearchPage<T>>> search
+    ) {
+        return get(new Key(type, normalize(query), filterKey(filter), -1, size, searchAfter), search);
+    }
+
+    /**
+     * Drops the cached pages of a type, including the searches in flight, once its index has been written.
+     *
+     * @param type the type of the documents.
+     */
+    public void invalidate(Class<?> type) {
+        cache.asMap().keySet().removeIf(key -> key.type() == type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<SearchPage<T>> get(Key key, Supplier<Mono<SearchPage<T>>> search) {
+        // the request is shared with the other subscribers, so it is not cancelled with one of them
+        return Mono
+            .fromFuture(() -> cache.get(key, (k, executor) -> search.get().toFuture()), true)
+            .map(page -> (SearchPage<T>) page);
+    }
+
+    static String normalize(String query) {
+        return query == null ? "" : WHITESPACE.matcher(query.strip()).replaceAll(" ");
+    }
+
+    private static String filterKey(Object filter) {
+        return filter == null ? null : filter.toString();
+    }
+}
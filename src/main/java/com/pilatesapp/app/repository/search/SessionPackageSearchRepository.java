@@ -1,13 +1,22 @@
 package com.pilatesapp.app.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
 import com.pilatesapp.app.domain.SessionPackage;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import com.pilatesapp.app.repository.projection.CountBucket;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link SessionPackage} entity.
@@ -18,25 +27,98 @@ public interface SessionPackageSearchRepository
 interface SessionPackageSearchRepositoryInternal {
     Flux<SessionPackage> search(String query);
 
+    Mono<SearchPage<SessionPackage>> search(String query, Pageable pageable);
+
+    Mono<SearchPage<SessionPackage>> searchAfter(String query, List<Object> searchAfter, int size);
+
     Flux<SessionPackage> search(Query query);
+
+    Flux<CountBucket<YearMonth>> countByMonth(Instant from, Instant to, ZoneId zone);
 }
 
 class SessionPackageSearchRepositoryInternalImpl implements SessionPackageSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    SessionPackageSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    SessionPackageSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
     }
 
     @Override
     public Flux<SessionPackage> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        return searchCircuitBreaker.protect(SearchQueries.stream(reactiveElasticsearchTemplate, query, SessionPackage.class));
+    }
+
+    @Override
+    public Mono<SearchPage<SessionPackage>> search(String query, Pageable pageable) {
+        return searchResultCache.page(
+            SessionPackage.class,
+            query,
+            null,
+            pageable,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPage(reactiveElasticsearchTemplate, query, pageable, SessionPackage.class)
+                )
+        );
+    }
+
+    @Override
+    public Mono<SearchPage<SessionPackage>> searchAfter(String query, List<Object> searchAfter, int size) {
+        return searchResultCache.pageAfter(
+            SessionPackage.class,
+            query,
+            null,
+            searchAfter,
+            size,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPageAfter(reactiveElasticsearchTemplate, query, searchAfter, size, SessionPackage.class)
+                )
+        );
     }
 
     @Override
     public Flux<SessionPackage> search(Query query) {
-        return reactiveElasticsearchTemplate.search(query, SessionPackage.class).map(SearchHit::getContent);
+        return searchCircuitBreaker.protect(reactiveElasticsearchTemplate.search(query, SessionPackage.class).map(SearchHit::getContent));
+    }
+
+    /**
+     * Counts the session packages sold per month, by the month they start in a time zone.
+     *
+     * @param from the instant the packages start at, inclusive, or {@code null}.
+     * @param to the instant the packages start before, exclusive, or {@code null}.
+     * @param zone the time zone of the months.
+     * @return the number of packages of each month, from the first to the last month having any.
+     */
+    @Override
+    public Flux<CountBucket<YearMonth>> countByMonth(Instant from, Instant to, ZoneId zone) {
+        co.elastic.clients.elasticsearch._types.query_dsl.Query range = SearchQueries.range("startDate", from, to);
+        Aggregation byMonth = Aggregation.of(aggregation ->
+            aggregation.dateHistogram(histogram ->
+                histogram.field("startDate").calendarInterval(CalendarInterval.Month).timeZone(zone.getId()).minDocCount(0)
+            )
+        );
+        return searchCircuitBreaker
+            .protect(
+                SearchQueries.aggregate(
+                    reactiveElasticsearchTemplate,
+                    range != null ? List.of(range) : List.of(),
+                    Map.of("months", byMonth),
+                    SessionPackage.class
+                )
+            )
+            .flatMapIterable(aggregates -> aggregates.get("months").dateHistogram().buckets().array())
+            .map(bucket -> new CountBucket<>(YearMonth.from(Instant.ofEpochMilli(bucket.key()).atZone(zone)), bucket.docCount()));
     }
 }
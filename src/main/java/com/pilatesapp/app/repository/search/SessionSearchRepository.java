@@ -1,41 +1,280 @@
 package com.pilatesapp.app.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
-import com.pilatesapp.app.domain.Session;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.ExistsQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermsQuery;
+import co.elastic.clients.json.JsonData;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.SessionFilter;
+import com.pilatesapp.app.repository.projection.CountBucket;
+import com.pilatesapp.app.repository.projection.StaffWeekCount;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.ScriptType;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.query.ByQueryResponse;
 import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
- * Spring Data Elasticsearch repository for the {@link Session} entity.
+ * Spring Data Elasticsearch repository for the {@link SessionDocument} entity.
  */
-public interface SessionSearchRepository extends ReactiveElasticsearchRepository<Session, Long>, SessionSearchRepositoryInternal {}
+public interface SessionSearchRepository extends ReactiveElasticsearchRepository<SessionDocument, Long>, SessionSearchRepositoryInternal {}
 
 interface SessionSearchRepositoryInternal {
-    Flux<Session> search(String query);
+    Flux<SessionDocument> search(String query);
 
-    Flux<Session> search(Query query);
+    Mono<SearchPage<SessionDocument>> search(String query, SessionFilter filter, Pageable pageable);
+
+    Mono<SearchPage<SessionDocument>> searchAfter(String query, SessionFilter filter, List<Object> searchAfter, int size);
+
+    Flux<SessionDocument> search(Query query);
+
+    Mono<Long> updateAll(String idField, Map<String, Map<String, Object>> fieldsById);
+
+    Flux<CountBucket<SessionStatus>> countByStatus(SessionFilter filter);
+
+    Flux<StaffWeekCount> countByStaffAndWeek(SessionFilter filter, ZoneId zone);
+
+    Flux<CountBucket<Integer>> countByHour(SessionFilter filter, ZoneId zone);
 }
 
 class SessionSearchRepositoryInternalImpl implements SessionSearchRepositoryInternal {
 
+    /**
+     * Sets the fields mapped to the id found in a field of the document, or leaves it untouched.
+     */
+    private static final String UPDATE_SCRIPT =
+        "def fields = params.fields[String.valueOf(ctx._source[params.idField])];" +
+        " if (fields == null) { ctx.op = 'noop' }" +
+        " else { for (entry in fields.entrySet()) { ctx._source[entry.getKey()] = entry.getValue() } }";
+
+    /**
+     * The hour of the start of a session, in a time zone.
+     */
+    private static final String HOUR_SCRIPT = "doc['startDate'].value.withZoneSameInstant(ZoneId.of(params.zone)).getHour()";
+
+    /**
+     * The maximum number of staff counted per week, far above the staff of a studio.
+     */
+    private static final int MAX_STAFF_BUCKETS = 1_000;
+
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    SessionSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    SessionSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
+    }
+
+    @Override
+    public Flux<SessionDocument> search(String query) {
+        return searchCircuitBreaker.protect(SearchQueries.stream(reactiveElasticsearchTemplate, query, SessionDocument.class));
     }
 
     @Override
-    public Flux<Session> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+    public Mono<SearchPage<SessionDocument>> search(String query, SessionFilter filter, Pageable pageable) {
+        return searchResultCache.page(
+            SessionDocument.class,
+            query,
+            filter,
+            pageable,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPage(reactiveElasticsearchTemplate, query, filters(filter), pageable, SessionDocument.class)
+                )
+        );
     }
 
     @Override
-    public Flux<Session> search(Query query) {
-        return reactiveElasticsearchTemplate.search(query, Session.class).map(SearchHit::getContent);
+    public Mono<SearchPage<SessionDocument>> searchAfter(String query, SessionFilter filter, List<Object> searchAfter, int size) {
+        return searchResultCache.pageAfter(
+            SessionDocument.class,
+            query,
+            filter,
+            searchAfter,
+            size,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPageAfter(
+                        reactiveElasticsearchTemplate,
+                        query,
+                        filters(filter),
+                        searchAfter,
+                        size,
+                        SessionDocument.class
+                    )
+                )
+        );
+    }
+
+    @Override
+    public Flux<SessionDocument> search(Query query) {
+        return searchCircuitBreaker.protect(reactiveElasticsearchTemplate.search(query, SessionDocument.class).map(SearchHit::getContent));
+    }
+
+    /**
+     * Sets fields of all the documents referencing some ids, such as the name of a renamed athlete, with a single
+     * {@code update_by_query} request, which refreshes the index before it returns, so that the updated documents are
+     * searchable once the cached pages are dropped. Version conflicts are ignored, as a conflicting document has just
+     * been indexed from the database.
+     *
+     * @param idField the field holding the referenced id.
+     * @param fieldsById the fields to set, by referenced id.
+     * @return the number of updated documents.
+     */
+    @Override
+    public Mono<Long> updateAll(String idField, Map<String, Map<String, Object>> fieldsById) {
+        if (fieldsById.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<FieldValue> ids = fieldsById.keySet().stream().map(FieldValue::of).toList();
+        NativeQuery query = NativeQuery
+            .builder()
+            .withQuery(TermsQuery.of(terms -> terms.field(idField).terms(values -> values.value(ids)))._toQuery())
+            .build();
+        UpdateQuery updateQuery = UpdateQuery
+            .builder(query)
+            .withScriptType(ScriptType.INLINE)
+            .withLang("painless")
+            .withScript(UPDATE_SCRIPT)
+            .withParams(Map.of("idField", idField, "fields", fieldsById))
+            .withAbortOnVersionConflict(false)
+            .withRefreshPolicy(RefreshPolicy.IMMEDIATE)
+            .build();
+        return reactiveElasticsearchTemplate
+            .updateByQuery(updateQuery, reactiveElasticsearchTemplate.getIndexCoordinatesFor(SessionDocument.class))
+            .map(ByQueryResponse::getUpdated);
+    }
+
+    /**
+     * Counts the sessions of each status.
+     *
+     * @param filter the filter of the sessions.
+     * @return the number of sessions of each status having any.
+     */
+    @Override
+    public Flux<CountBucket<SessionStatus>> countByStatus(SessionFilter filter) {
+        Aggregation byStatus = Aggregation.of(aggregation ->
+            aggregation.terms(terms -> terms.field("sessionStatus").size(SessionStatus.values().length))
+        );
+        return searchCircuitBreaker
+            .protect(
+                SearchQueries.aggregate(reactiveElasticsearchTemplate, filters(filter), Map.of("status", byStatus), SessionDocument.class)
+            )
+            .flatMapIterable(aggregates -> aggregates.get("status").sterms().buckets().array())
+            .map(bucket -> new CountBucket<>(SessionStatus.valueOf(bucket.key().stringValue()), bucket.docCount()));
+    }
+
+    /**
+     * Counts the sessions of each staff per week, the weeks starting on Monday in a time zone.
+     *
+     * @param filter the filter of the sessions.
+     * @param zone the time zone of the weeks.
+     * @return the number of sessions of each staff for the weeks having any.
+     */
+    @Override
+    public Flux<StaffWeekCount> countByStaffAndWeek(SessionFilter filter, ZoneId zone) {
+        Aggregation byStaff = Aggregation.of(aggregation ->
+            aggregation
+                .terms(terms -> terms.field("staffId").size(MAX_STAFF_BUCKETS))
+                .aggregations("name", Aggregation.of(name -> name.terms(terms -> terms.field("staffName.keyword").size(1))))
+                .aggregations(
+                    "weeks",
+                    Aggregation.of(weeks ->
+                        weeks.dateHistogram(histogram ->
+                            histogram.field("startDate").calendarInterval(CalendarInterval.Week).timeZone(zone.getId()).minDocCount(1)
+                        )
+                    )
+                )
+        );
+        return searchCircuitBreaker
+            .protect(
+                SearchQueries.aggregate(reactiveElasticsearchTemplate, filters(filter), Map.of("staff", byStaff), SessionDocument.class)
+            )
+            .flatMapIterable(aggregates -> aggregates.get("staff").lterms().buckets().array())
+            .flatMapIterable(staff -> {
+                List<StringTermsBucket> names = staff.aggregations().get("name").sterms().buckets().array();
+                String name = names.isEmpty() ? null : names.get(0).key().stringValue();
+                return staff
+                    .aggregations()
+                    .get("weeks")
+                    .dateHistogram()
+                    .buckets()
+                    .array()
+                    .stream()
+                    .map(week ->
+                        new StaffWeekCount(staff.key(), name, Instant.ofEpochMilli(week.key()).atZone(zone).toLocalDate(), week.docCount())
+                    )
+                    .toList();
+            });
+    }
+
+    /**
+     * Counts the sessions starting at each hour of the day in a time zone, whichever the day.
+     *
+     * @param filter the filter of the sessions.
+     * @param zone the time zone of the hours.
+     * @return the number of sessions of the hours having any, by hour.
+     */
+    @Override
+    public Flux<CountBucket<Integer>> countByHour(SessionFilter filter, ZoneId zone) {
+        List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters = filters(filter);
+        filters.add(ExistsQuery.of(exists -> exists.field("startDate"))._toQuery());
+        Aggregation byHour = Aggregation.of(aggregation ->
+            aggregation.terms(terms ->
+                terms
+                    .script(script -> script.inline(inline -> inline.source(HOUR_SCRIPT).params("zone", JsonData.of(zone.getId()))))
+                    .valueType("long")
+                    .size(24)
+            )
+        );
+        return searchCircuitBreaker
+            .protect(SearchQueries.aggregate(reactiveElasticsearchTemplate, filters, Map.of("hours", byHour), SessionDocument.class))
+            .flatMapIterable(aggregates -> aggregates.get("hours").lterms().buckets().array())
+            .map(bucket -> new CountBucket<>((int) bucket.key(), bucket.docCount()))
+            .sort(Comparator.comparing(CountBucket::key));
+    }
+
+    private static List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters(SessionFilter filter) {
+        List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters = new ArrayList<>();
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            filters.add(SearchQueries.range("startDate", filter.getFrom(), filter.getTo()));
+        }
+        if (filter.getStatus() != null) {
+            filters.add(TermQuery.of(term -> term.field("sessionStatus").value(filter.getStatus().name()))._toQuery());
+        }
+        if (filter.getStaffId() != null) {
+            filters.add(TermQuery.of(term -> term.field("staffId").value(filter.getStaffId()))._toQuery());
+        }
+        if (filter.getAthleteId() != null) {
+            filters.add(TermQuery.of(term -> term.field("athleteId").value(filter.getAthleteId()))._toQuery());
+        }
+        return filters;
     }
 }
@@ -1,13 +1,20 @@
 package com.pilatesapp.app.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
 import com.pilatesapp.app.domain.Staff;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import com.pilatesapp.app.repository.StaffFilter;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link Staff} entity.
@@ -17,6 +24,10 @@ public interface StaffSearchRepository extends ReactiveElasticsearchRepository<S
 interface StaffSearchRepositoryInternal {
     Flux<Staff> search(String query);
 
+    Mono<SearchPage<Staff>> search(String query, StaffFilter filter, Pageable pageable);
+
+    Mono<SearchPage<Staff>> searchAfter(String query, StaffFilter filter, List<Object> searchAfter, int size);
+
     Flux<Staff> search(Query query);
 }
 
@@ -24,18 +35,68 @@ class StaffSearchRepositoryInternalImpl implements StaffSearchRepositoryInternal
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    StaffSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    StaffSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
     }
 
     @Override
     public Flux<Staff> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return search(nativeQuery);
+        return searchCircuitBreaker.protect(SearchQueries.stream(reactiveElasticsearchTemplate, query, Staff.class));
+    }
+
+    @Override
+    public Mono<SearchPage<Staff>> search(String query, StaffFilter filter, Pageable pageable) {
+        return searchResultCache.page(
+            Staff.class,
+            query,
+            filter,
+            pageable,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPage(reactiveElasticsearchTemplate, query, filters(filter), pageable, Staff.class)
+                )
+        );
+    }
+
+    @Override
+    public Mono<SearchPage<Staff>> searchAfter(String query, StaffFilter filter, List<Object> searchAfter, int size) {
+        return searchResultCache.pageAfter(
+            Staff.class,
+            query,
+            filter,
+            searchAfter,
+            size,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPageAfter(reactiveElasticsearchTemplate, query, filters(filter), searchAfter, size, Staff.class)
+                )
+        );
     }
 
     @Override
     public Flux<Staff> search(Query query) {
-        return reactiveElasticsearchTemplate.search(query, Staff.class).map(SearchHit::getContent);
+        return searchCircuitBreaker.protect(reactiveElasticsearchTemplate.search(query, Staff.class).map(SearchHit::getContent));
+    }
+
+    private static List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters(StaffFilter filter) {
+        List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters = new ArrayList<>();
+        if (filter.getCity() != null) {
+            // the city is analyzed, so all its terms must match
+            filters.add(MatchQuery.of(match -> match.field("city").query(filter.getCity()).operator(Operator.And))._toQuery());
+        }
+        if (filter.getStatus() != null) {
+            filters.add(TermQuery.of(term -> term.field("status").value(filter.getStatus()))._toQuery());
+        }
+        return filters;
     }
 }
@@ -1,12 +1,13 @@
 package com.pilatesapp.app.repository.search;
 
-import co.elastic.clients.elasticsearch._types.query_dsl.QueryStringQuery;
 import com.pilatesapp.app.domain.User;
-import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the User entity.
@@ -15,19 +16,58 @@ public interface UserSearchRepository extends ReactiveElasticsearchRepository<Us
 
 interface UserSearchRepositoryInternal {
     Flux<User> search(String query);
+
+    Mono<SearchPage<User>> search(String query, Pageable pageable);
+
+    Mono<SearchPage<User>> searchAfter(String query, List<Object> searchAfter, int size);
 }
 
 class UserSearchRepositoryInternalImpl implements UserSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    UserSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    UserSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
     }
 
     @Override
     public Flux<User> search(String query) {
-        NativeQuery nativeQuery = new NativeQuery(QueryStringQuery.of(qs -> qs.query(query))._toQuery());
-        return reactiveElasticsearchTemplate.search(nativeQuery, User.class).map(SearchHit::getContent);
+        return searchCircuitBreaker.protect(SearchQueries.stream(reactiveElasticsearchTemplate, query, User.class));
+    }
+
+    @Override
+    public Mono<SearchPage<User>> search(String query, Pageable pageable) {
+        return searchResultCache.page(
+            User.class,
+            query,
+            null,
+            pageable,
+            () -> searchCircuitBreaker.protect(SearchQueries.searchPage(reactiveElasticsearchTemplate, query, pageable, User.class))
+        );
+    }
+
+    @Override
+    public Mono<SearchPage<User>> searchAfter(String query, List<Object> searchAfter, int size) {
+        return searchResultCache.pageAfter(
+            User.class,
+            query,
+            null,
+            searchAfter,
+            size,
+            () ->
+                searchCircuitBreaker.protect(
+                    SearchQueries.searchPageAfter(reactiveElasticsearchTemplate, query, searchAfter, size, User.class)
+                )
+        );
     }
 }
@@ -0,0 +1,84 @@
+package com.pilatesapp.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decoder of the tokens of the API requests, caching the tokens already verified, so that the requests of the same
+ * session do not each parse the token and verify its signature again.
+ * <p>
+ * Tokens are cached by their SHA-256 digest, at most {@code maxSize} of them, until their expiry and at most for
+ * {@code maxTimeToLive}. Only the tokens verified by the delegate are cached, so the invalid ones are verified, and
+ * counted, on every request.
+ * <p>
+ * The hits, misses and evictions are published as the {@code cache.*} meters of the {@value #CACHE_NAME} cache.
+ */
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    public static final String CACHE_NAME = "jwt";
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final ReactiveJwtDecoder delegate;
+
+    private final Cache<ByteBuffer, Jwt> cache;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, long maxSize, Duration maxTimeToLive, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new UntilExpiry(maxTimeToLive)).recordStats().build();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        ByteBuffer key = ByteBuffer.wrap(digest().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        Jwt jwt = cache.getIfPresent(key);
+        if (jwt != null) {
+            return Mono.just(jwt);
+        }
+        return Mono.defer(() -> delegate.decode(token)).doOnNext(verified -> cache.put(key, verified));
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported by the JVM", e);
+        }
+    }
+
+    // a token is cached until it expires, so an expired token is never served from the cache
+    private record UntilExpiry(Duration maxTimeToLive) implements Expiry<ByteBuffer, Jwt> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maxTimeToLive.toNanos();
+            }
+            Duration timeToExpiry = Duration.between(Instant.now(), expiresAt);
+            return Math.max(0, (timeToExpiry.compareTo(maxTimeToLive) < 0 ? timeToExpiry : maxTimeToLive).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
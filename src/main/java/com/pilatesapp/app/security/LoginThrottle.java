@@ -0,0 +1,309 @@
+package com.pilatesapp.app.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Mono;
+
+/**
+ * Throttle of the logins, so that the credential stuffing is rejected before the passwords are verified.
+ * <p>
+ * Each login, and each remote address, has a token bucket of {@code application.login-throttle.login-capacity} and
+ * {@code application.login-throttle.address-capacity} attempts, refilled by one every
+ * {@code application.login-throttle.login-refill-period} and {@code application.login-throttle.address-refill-period}.
+ * A bucket throttled again, before it has stayed full for as long as it takes to fill it, is blocked for twice as long
+ * as the previous time, up to {@code application.login-throttle.max-backoff}. A successful login refills the bucket of its login.
+ * <p>
+ * The buckets are held by a Caffeine cache, whose map is striped, of at most {@code application.login-throttle.max-keys}
+ * logins and as many remote addresses, and dropped once idle long enough to have forgotten their backoff. Each bucket is updated by
+ * compare-and-set, without any lock.
+ * <p>
+ * The remote address of a client is read from the {@code X-Forwarded-For} header when the request comes from one of
+ * the {@code application.login-throttle.trusted-proxies}, so that the clients behind the reverse proxy do not share a
+ * single bucket.
+ * <p>
+ * The throttled attempts are published as the {@value #THROTTLED_METER_NAME} meter.
+ */
+public class LoginThrottle {
+
+    public static final String THROTTLED_METER_NAME = "security.authentication.throttled";
+    public static final String THROTTLED_METER_DESCRIPTION = "Indicates the number of logins throttled before their password was verified.";
+    public static final String THROTTLED_METER_BASE_UNIT = "attempts";
+    public static final String THROTTLED_METER_KEY_DIMENSION = "key";
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final String UNKNOWN_ADDRESS = "unknown";
+
+    /**
+     * The literal addresses, which are parsed without any lookup: the IPv4 addresses in dotted-decimal notation, and the
+     * IPv6 addresses, whose colon keeps {@link InetAddress#getByName(String)} from resolving them.
+     */
+    private static final Pattern IP_ADDRESS = Pattern.compile(
+        "((25[0-5]|2[0-4]\\d|1?\\d?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1?\\d?\\d)|[0-9a-fA-F.]*:[0-9a-fA-F:.]*"
+    );
+
+    private final Ticker ticker;
+
+    private final Limiter logins;
+
+    private final Limiter addresses;
+
+    private final List<Subnet> trustedProxies;
+
+    public LoginThrottle(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this(applicationProperties, registry, Ticker.systemTicker());
+    }
+
+    LoginThrottle(ApplicationProperties applicationProperties, MeterRegistry registry, Ticker ticker) {
+        ApplicationProperties.LoginThrottle properties = applicationProperties.getLoginThrottle();
+        this.ticker = ticker;
+        this.logins =
+            new Limiter(
+                properties.getLoginCapacity(),
+                properties.getLoginRefillPeriod(),
+                properties,
+                ticker,
+                throttledCounter("login", registry)
+            );
+        this.addresses =
+            new Limiter(
+                properties.getAddressCapacity(),
+                properties.getAddressRefillPeriod(),
+                properties,
+                ticker,
+                throttledCounter("address", registry)
+            );
+        this.trustedProxies = properties.getTrustedProxies().stream().map(Subnet::new).toList();
+    }
+
+    /**
+     * Take a login attempt from the buckets of the remote address, then of the login.
+     *
+     * @param login the login or email of the user.
+     * @param address the remote address of the client.
+     * @return an empty {@link Mono}, or a {@link LoginThrottledException} if either bucket is empty or blocked.
+     */
+    public Mono<Void> acquire(String login, String address) {
+        return Mono.defer(() -> {
+            long now = ticker.read();
+            long wait = addresses.tryAcquire(address, now);
+            if (wait == 0) {
+                wait = logins.tryAcquire(normalize(login), now);
+            }
+            return wait == 0 ? Mono.empty() : Mono.error(new LoginThrottledException(Duration.ofNanos(wait)));
+        });
+    }
+
+    /**
+     * Get the address of the client of a request. When the request comes from a trusted proxy, the addresses of its
+     * {@code X-Forwarded-For} header are walked from the last one, appended by that proxy, to the first one which is
+     * not a trusted proxy. The addresses before it were sent by the client, which could choose them to escape its bucket.
+     *
+     * @param request the request.
+     * @return the address of the client.
+     */
+    public String getClientAddress(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return UNKNOWN_ADDRESS;
+        }
+        InetAddress address = remoteAddress.getAddress();
+        if (address == null) {
+            return remoteAddress.getHostString();
+        }
+        List<String> forwardedFor = request
+            .getHeaders()
+            .getOrEmpty(FORWARDED_FOR_HEADER)
+            .stream()
+            .flatMap(header -> Arrays.stream(header.split(",")))
+            .map(String::trim)
+            .toList();
+        for (int i = forwardedFor.size() - 1; i >= 0 && isTrustedProxy(address); i--) {
+            InetAddress forwarded = parseAddress(forwardedFor.get(i));
+            if (forwarded == null) {
+                // not appended by a proxy, and not resolved, as it could be a host name
+                break;
+            }
+            address = forwarded;
+        }
+        return address.getHostAddress();
+    }
+
+    /**
+     * Refill the bucket of a login, once it has been authenticated.
+     *
+     * @param login the login or email of the user.
+     */
+    public void reset(String login) {
+        logins.reset(normalize(login));
+    }
+
+    private boolean isTrustedProxy(InetAddress address) {
+        return trustedProxies.stream().anyMatch(proxy -> proxy.matches(address));
+    }
+
+    private static InetAddress parseAddress(String address) {
+        if (!IP_ADDRESS.matcher(address).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(address);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static String normalize(String login) {
+        return login.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static Counter throttledCounter(String key, MeterRegistry registry) {
+        return Counter
+            .builder(THROTTLED_METER_NAME)
+            .description(THROTTLED_METER_DESCRIPTION)
+            .baseUnit(THROTTLED_METER_BASE_UNIT)
+            .tag(THROTTLED_METER_KEY_DIMENSION, key)
+            .register(registry);
+    }
+
+    private static final class Limiter {
+
+        private final long capacityNanos;
+
+        private final long refillNanos;
+
+        private final long maxBackoffNanos;
+
+        private final Counter throttled;
+
+        private final Cache<String, TokenBucket> buckets;
+
+        Limiter(int capacity, Duration refillPeriod, ApplicationProperties.LoginThrottle properties, Ticker ticker, Counter throttled) {
+            this.refillNanos = refillPeriod.toNanos();
+            this.capacityNanos = capacity * refillNanos;
+            this.maxBackoffNanos = properties.getMaxBackoff().toNanos();
+            this.throttled = throttled;
+            // a bucket idle for longer than its backoff, and than it takes to fill it after, is a new bucket
+            this.buckets =
+                Caffeine
+                    .newBuilder()
+                    .maximumSize(properties.getMaxKeys())
+                    .expireAfterAccess(Duration.ofNanos(capacityNanos + maxBackoffNanos))
+                    .ticker(ticker)
+                    .build();
+        }
+
+        long tryAcquire(String key, long now) {
+            long wait = buckets.get(key, k -> new TokenBucket(now)).tryAcquire(now, capacityNanos, refillNanos, maxBackoffNanos);
+            if (wait > 0) {
+                throttled.increment();
+            }
+            return wait;
+        }
+
+        void reset(String key) {
+            buckets.invalidate(key);
+        }
+    }
+
+    /**
+     * Token bucket kept as the time at which it is full again, so that taking a token is a single compare-and-set.
+     */
+    private static final class TokenBucket {
+
+        private final AtomicReference<State> state;
+
+        TokenBucket(long now) {
+            this.state = new AtomicReference<>(new State(now, now, 0));
+        }
+
+        // returns 0 when a token was taken, otherwise the time to wait in nanoseconds
+        long tryAcquire(long now, long capacityNanos, long refillNanos, long maxBackoffNanos) {
+            while (true) {
+                State current = state.get();
+                if (now - current.blockedUntil() < 0) {
+                    return current.blockedUntil() - now;
+                }
+                boolean full = current.fullAt() - now <= 0;
+                long fullAt = full ? now : current.fullAt();
+                // the backoff is forgotten once the bucket has stayed full for as long as it takes to fill it
+                int strikes = full && now - current.blockedUntil() >= capacityNanos ? 0 : current.strikes();
+                long wait = fullAt + refillNanos - now - capacityNanos;
+                State next;
+                if (wait <= 0) {
+                    next = new State(fullAt + refillNanos, now, strikes);
+                } else {
+                    wait = backoff(wait, strikes, maxBackoffNanos);
+                    next = new State(fullAt, now + wait, strikes + 1);
+                }
+                if (state.compareAndSet(current, next)) {
+                    return Math.max(0, wait);
+                }
+            }
+        }
+
+        private static long backoff(long wait, int strikes, long maxBackoffNanos) {
+            int shift = Math.min(strikes, Long.numberOfLeadingZeros(wait) - 1);
+            return Math.max(wait, Math.min(wait << shift, maxBackoffNanos));
+        }
+
+        private record State(long fullAt, long blockedUntil, int strikes) {}
+    }
+
+    /**
+     * A range of addresses, in CIDR notation, or a single address.
+     */
+    private static final class Subnet {
+
+        private final byte[] network;
+
+        private final int prefixLength;
+
+        Subnet(String cidr) {
+            int slash = cidr.indexOf('/');
+            String address = slash < 0 ? cidr.trim() : cidr.substring(0, slash).trim();
+            InetAddress parsed = parseAddress(address);
+            if (parsed == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + cidr);
+            }
+            this.network = parsed.getAddress();
+            this.prefixLength = slash < 0 ? network.length * Byte.SIZE : Integer.parseInt(cidr.substring(slash + 1).trim());
+            if (prefixLength < 0 || prefixLength > network.length * Byte.SIZE) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + cidr);
+            }
+        }
+
+        boolean matches(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / Byte.SIZE;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % Byte.SIZE;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = (0xFF << (Byte.SIZE - remainingBits)) & 0xFF;
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pilatesapp.app.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown in case of a login attempted too often, by the same login or from the same remote address.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many login attempts");
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Get the time after which the client may try again.
+     *
+     * @return the time.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
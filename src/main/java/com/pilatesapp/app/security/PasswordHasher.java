@@ -0,0 +1,150 @@
+package com.pilatesapp.app.security;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Hashes and verifies the passwords on a dedicated pool of {@code application.password-hashing.threads} threads, so
+ * that a burst of logins does not starve the other blocking tasks of the shared schedulers.
+ * <p>
+ * The hashes wait in a queue of at most {@code application.password-hashing.queue-capacity} tasks. Once it is full,
+ * the hashes are rejected at once with a {@link PasswordHashingRejectedException}, answered with status
+ * {@code 503 (Service Unavailable)}, rather than waiting longer than the clients would.
+ * <p>
+ * The durations of the hashes, the depth of the queue and the rejected hashes are published as the
+ * {@value #HASHING_METER_NAME}{@code .*} meters.
+ */
+public class PasswordHasher implements DisposableBean {
+
+    public static final String HASHING_METER_NAME = "security.password.hashing";
+    public static final String HASHING_METER_DESCRIPTION = "Indicates the duration of the password hashes and verifications.";
+    public static final String HASHING_METER_OPERATION_DIMENSION = "operation";
+    public static final String QUEUE_METER_NAME = HASHING_METER_NAME + ".queue";
+    public static final String QUEUE_METER_DESCRIPTION = "Indicates the number of password hashes waiting for a thread.";
+    public static final String QUEUE_METER_BASE_UNIT = "tasks";
+    public static final String REJECTED_METER_NAME = HASHING_METER_NAME + ".rejected";
+    public static final String REJECTED_METER_DESCRIPTION = "Indicates the number of password hashes rejected by a full queue.";
+    public static final String REJECTED_METER_BASE_UNIT = "tasks";
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final Scheduler scheduler;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.PasswordHashing properties = applicationProperties.getPasswordHashing();
+        Duration retryAfter = properties.getRetryAfter();
+        Counter rejected = Counter
+            .builder(REJECTED_METER_NAME)
+            .description(REJECTED_METER_DESCRIPTION)
+            .baseUnit(REJECTED_METER_BASE_UNIT)
+            .register(registry);
+        AtomicInteger threads = new AtomicInteger();
+        this.passwordEncoder =
+            new TimedPasswordEncoder(passwordEncoder, hashingTimer("encode", registry), hashingTimer("matches", registry));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            properties.getThreads(),
+            properties.getThreads(),
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            task -> {
+                Thread thread = new Thread(task, "password-hashing-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (task, pool) -> {
+                rejected.increment();
+                throw new PasswordHashingRejectedException(retryAfter);
+            }
+        );
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        Gauge
+            .builder(QUEUE_METER_NAME, executor, pool -> pool.getQueue().size())
+            .description(QUEUE_METER_DESCRIPTION)
+            .baseUnit(QUEUE_METER_BASE_UNIT)
+            .register(registry);
+    }
+
+    /**
+     * Hash a password on the hashing pool.
+     *
+     * @param rawPassword the password.
+     * @return the hash, or a {@link PasswordHashingRejectedException} if the pool is saturated.
+     */
+    public Mono<String> encode(CharSequence rawPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(rawPassword)).subscribeOn(scheduler);
+    }
+
+    /**
+     * Verify a password against its hash on the hashing pool.
+     *
+     * @param rawPassword the password.
+     * @param encodedPassword the hash.
+     * @return whether the password matches, or a {@link PasswordHashingRejectedException} if the pool is saturated.
+     */
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)).subscribeOn(scheduler);
+    }
+
+    /**
+     * Get the scheduler of the hashing pool, for the hashes made by the authentication.
+     *
+     * @return the scheduler.
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get the encoder of the passwords, timing its hashes and verifications, to be called on the hashing pool.
+     *
+     * @return the encoder.
+     */
+    public PasswordEncoder getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private static Timer hashingTimer(String operation, MeterRegistry registry) {
+        return Timer
+            .builder(HASHING_METER_NAME)
+            .description(HASHING_METER_DESCRIPTION)
+            .tag(HASHING_METER_OPERATION_DIMENSION, operation)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private record TimedPasswordEncoder(PasswordEncoder delegate, Timer encodeTimer, Timer matchesTimer) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return encodeTimer.record(() -> delegate.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.pilatesapp.app.security;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This exception is thrown in case of a password hash rejected by the saturated {@link PasswordHasher}.
+ */
+public class PasswordHashingRejectedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public PasswordHashingRejectedException(Duration retryAfter) {
+        super("Too many passwords are being hashed");
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Get the time after which the client may try again.
+     *
+     * @return the time.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
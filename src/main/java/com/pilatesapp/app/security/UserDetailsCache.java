@@ -0,0 +1,136 @@
+package com.pilatesapp.app.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache of the users authenticated by the {@link DomainUserDetailsService}, so that the logins of the check-in rush do
+ * not each join the user with its authorities.
+ * <p>
+ * Users are cached by normalized login or email, at most {@code application.user-details-cache.max-size} of them.
+ * Concurrent lookups of the same user share the same query, and unknown users are not cached. A user is dropped
+ * whenever it is saved or deleted, once its transaction has completed, and otherwise expires after
+ * {@code application.user-details-cache.time-to-live}, which bounds how long a change made by another node takes to
+ * apply to the logins.
+ * <p>
+ * The hits, misses, evictions and load times are published as the {@code cache.*} meters of the {@value #CACHE_NAME}
+ * cache.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String CACHE_NAME = "userDetails";
+
+    private final AsyncCache<String, User> cache;
+
+    public UserDetailsCache(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.UserDetailsCache properties = applicationProperties.getUserDetailsCache();
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Get a user with its authorities, from the cache or from the database. The cached users are shared, so they must
+     * not be modified.
+     *
+     * @param username the login or email of the user.
+     * @param lookup the lookup of the user in the database, run on a miss.
+     * @return the user, or an error if the lookup failed.
+     */
+    public Mono<User> get(String username, Supplier<Mono<User>> lookup) {
+        // the lookup is shared with the other subscribers, so it is not cancelled with one of them
+        return Mono.fromFuture(() -> cache.get(normalize(username), (key, executor) -> lookup.get().toFuture()), true);
+    }
+
+    /**
+     * Drops a user, under all its logins and emails, including the lookups in flight, once it has been saved or
+     * deleted.
+     *
+     * @param user the user.
+     */
+    public void evict(User user) {
+        evictIf(cached -> cached.getId().equals(user.getId()));
+    }
+
+    /**
+     * Drops a user by its login, under all its logins and emails, including the lookups in flight, once its password
+     * has been hashed again.
+     *
+     * @param login the login of the user.
+     */
+    public void evict(String login) {
+        evictIf(cached -> cached.getLogin().equals(login));
+    }
+
+    /**
+     * Drops a user, as {@link #evict(User)} does, once the current transaction has completed, so that a login made
+     * before the commit does not cache the row being replaced again. Without a transaction, the user is dropped at once.
+     *
+     * @param user the user.
+     * @return a {@link Mono} completed once the eviction is done or registered.
+     */
+    public Mono<Void> evictAfterCompletion(User user) {
+        return afterCompletion(() -> evict(user));
+    }
+
+    /**
+     * Drops a user by its login, as {@link #evict(String)} does, once the current transaction has completed.
+     *
+     * @param login the login of the user.
+     * @return a {@link Mono} completed once the eviction is done or registered.
+     */
+    public Mono<Void> evictAfterCompletion(String login) {
+        return afterCompletion(() -> evict(login));
+    }
+
+    static String normalize(String username) {
+        return username.toLowerCase(Locale.ENGLISH);
+    }
+
+    // the eviction also runs after a rollback, which only costs the next login a lookup
+    private static Mono<Void> afterCompletion(Runnable eviction) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(manager ->
+                manager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(eviction);
+                        }
+                    }
+                )
+            )
+            .switchIfEmpty(Mono.fromRunnable(eviction))
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(eviction))
+            .then();
+    }
+
+    private void evictIf(Predicate<User> isUser) {
+        cache
+            .asMap()
+            .values()
+            .removeIf(cached ->
+                !cached.isDone() || cached.isCompletedExceptionally() || cached.join() == null || isUser.test(cached.join())
+            );
+    }
+}
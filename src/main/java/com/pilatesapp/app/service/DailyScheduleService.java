@@ -0,0 +1,130 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.DailyScheduleEntry;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.DailyScheduleRepository;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class maintaining the daily schedule read model, see {@link DailyScheduleEntry}.
+ * <p>
+ * Each write of a session re-projects the entry of that session only, so reading the timetable of a day is a single
+ * indexed lookup on {@code (schedule_date, staff_id)}.
+ */
+@Service
+public class DailyScheduleService {
+
+    private final Logger log = LoggerFactory.getLogger(DailyScheduleService.class);
+
+    private final DailyScheduleRepository dailyScheduleRepository;
+
+    private final String timeZone;
+
+    public DailyScheduleService(DailyScheduleRepository dailyScheduleRepository, ApplicationProperties applicationProperties) {
+        this.dailyScheduleRepository = dailyScheduleRepository;
+        // fail fast on an unknown time zone rather than on the first write
+        this.timeZone = ZoneId.of(applicationProperties.getSchedule().getTimeZone()).getId();
+    }
+
+    /**
+     * Projects the sessions which are missing from the read model, e.g. all of them after it has been created.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissing() {
+        dailyScheduleRepository
+            .insertAllMissing(timeZone)
+            .subscribe(
+                count -> log.info("Added {} sessions to the daily schedule", count),
+                e -> log.error("Could not fill the daily schedule", e)
+            );
+    }
+
+    /**
+     * Re-projects the entry of a created or updated session.
+     *
+     * @param sessionId the id of the session.
+     * @return an empty {@link Mono}.
+     */
+    public Mono<Void> refresh(Long sessionId) {
+        return refreshAll(List.of(sessionId));
+    }
+
+    /**
+     * Re-projects the entries of created or updated sessions.
+     *
+     * @param sessionIds the ids of the sessions.
+     * @return an empty {@link Mono}.
+     */
+    @Transactional
+    public Mono<Void> refreshAll(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return dailyScheduleRepository
+            .deleteAllBySessionIds(sessionIds)
+            .then(dailyScheduleRepository.insertAllBySessionIds(sessionIds, timeZone))
+            .then();
+    }
+
+    /**
+     * Removes the entry of a deleted session.
+     *
+     * @param sessionId the id of the session.
+     * @return an empty {@link Mono}.
+     */
+    @Transactional
+    public Mono<Void> remove(Long sessionId) {
+        return dailyScheduleRepository.deleteAllBySessionIds(List.of(sessionId)).then();
+    }
+
+    /**
+     * Propagates the name of an updated staff to its entries.
+     *
+     * @param staff the updated staff.
+     * @return an empty {@link Mono}.
+     */
+    @Transactional
+    public Mono<Void> rename(Staff staff) {
+        return dailyScheduleRepository.updateStaffName(staff.getId(), staff.getName()).then();
+    }
+
+    /**
+     * Propagates the name of an updated athlete to its entries.
+     *
+     * @param athlete the updated athlete.
+     * @return an empty {@link Mono}.
+     */
+    @Transactional
+    public Mono<Void> rename(Athlete athlete) {
+        return dailyScheduleRepository.updateAthleteName(athlete.getId(), athlete.getName()).then();
+    }
+
+    /**
+     * Get the timetable of a day.
+     *
+     * @param date the local date of the day.
+     * @param staffId the id of a staff to restrict the timetable to, or {@code null} for all the staff.
+     * @return the entries of the day, ordered by start date.
+     */
+    @Transactional(readOnly = true)
+    public Flux<DailyScheduleEntry> findAllByDate(LocalDate date, Long staffId) {
+        log.debug("Request to get the daily schedule of {} for staff {}", date, staffId);
+        if (staffId == null) {
+            return dailyScheduleRepository.findAllByScheduleDate(date);
+        }
+        return dailyScheduleRepository.findAllByScheduleDateAndStaffId(date, staffId);
+    }
+}
@@ -0,0 +1,607 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.IndexOutboxEntry;
+import com.pilatesapp.app.domain.QRCode;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.SessionPackage;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.IndexOutboxRepository;
+import com.pilatesapp.app.repository.QRCodeRepository;
+import com.pilatesapp.app.repository.SessionPackageRepository;
+import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.repository.StaffRepository;
+import com.pilatesapp.app.repository.UserRepository;
+import com.pilatesapp.app.repository.search.AthleteSearchRepository;
+import com.pilatesapp.app.repository.search.QRCodeSearchRepository;
+import com.pilatesapp.app.repository.search.SearchCircuitBreaker;
+import com.pilatesapp.app.repository.search.SearchResultCache;
+import com.pilatesapp.app.repository.search.SessionPackageSearchRepository;
+import com.pilatesapp.app.repository.search.SessionSearchRepository;
+import com.pilatesapp.app.repository.search.StaffSearchRepository;
+import com.pilatesapp.app.repository.search.UserSearchRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service class keeping the search indices in sync with the database through the {@code index_outbox} table.
+ * <p>
+ * Writes only enqueue the changed entities, in their own transaction, so their latency does not depend on
+ * Elasticsearch. A background loop then claims the entries in batches, reads the current state of their entities and
+ * applies it with one bulk request per entity type: found entities are indexed, missing ones are deleted from the
+ * index. A batch is leased in a short transaction, indexed without holding a transaction, then removed from the
+ * outbox in a second short transaction, so an entry is only removed once indexed, nodes draining at the same time skip
+ * each other's batches, and a slow cluster holds no database connection. The entries of a node which stopped are
+ * claimed again once their lease expires. A failure is counted against the entries whose documents failed only, and
+ * the entries which reach {@code application.indexer.max-attempts} are logged and counted as abandoned.
+ * <p>
+ * Sessions are indexed with the names of their athlete, staff and session package. When one of these is renamed, the
+ * new name is copied to the documents of its sessions with a single {@code update_by_query} per batch, rather than
+ * by reindexing the sessions from the database.
+ * <p>
+ * The cached search pages of each written type are dropped at once, and again after the refresh interval of the index,
+ * so that the pages cached before the changes became searchable do not outlive it. With
+ * {@code application.indexer.refresh}, the written indices are refreshed instead before the pages are dropped.
+ * <p>
+ * The requests to Elasticsearch go through the {@link SearchCircuitBreaker}. While it is open, the outbox is not
+ * drained, so the writes wait in the database until Elasticsearch recovers, and the batches it rejects are not counted
+ * as failed attempts.
+ */
+@Service
+public class IndexOutboxService {
+
+    public static final String DOCUMENTS_METER_NAME = "search.indexer.documents";
+    public static final String DOCUMENTS_METER_DESCRIPTION = "Indicates the number of documents written to the search indices.";
+    public static final String DOCUMENTS_METER_BASE_UNIT = "documents";
+    public static final String DOCUMENTS_METER_OPERATION_DIMENSION = "operation";
+    public static final String FAILURES_METER_NAME = "search.indexer.failures";
+    public static final String FAILURES_METER_DESCRIPTION = "Indicates the number of outbox entries which failed to be indexed.";
+    public static final String ABANDONED_METER_NAME = "search.indexer.abandoned";
+    public static final String ABANDONED_METER_DESCRIPTION = "Indicates the number of outbox entries left after their last attempt.";
+
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
+
+    // the default refresh interval of the Elasticsearch indices
+    private static final Duration INDEX_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private final Logger log = LoggerFactory.getLogger(IndexOutboxService.class);
+
+    private final IndexOutboxRepository indexOutboxRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties.Indexer properties;
+
+    private final SessionSearchRepository sessionSearchRepository;
+
+    private final SessionPackageRepository sessionPackageRepository;
+
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    private final ReactiveElasticsearchOperations elasticsearchOperations;
+
+    private final Map<String, Index<?, ?>> indices = new LinkedHashMap<>();
+
+    private final Counter indexedCounter;
+
+    private final Counter deletedCounter;
+
+    private final Counter failuresCounter;
+
+    private final Counter abandonedCounter;
+
+    private Disposable loop;
+
+    /**
+     * The outcome of the sync of entities.
+     *
+     * @param indexed the number of indexed documents.
+     * @param deleted the number of deleted documents.
+     * @param failures the reasons of the failed documents, by id.
+     */
+    private record Synced(int indexed, int deleted, Map<String, String> failures) {}
+
+    /**
+     * The repositories of an indexed entity type.
+     *
+     * @param type the type of the documents.
+     * @param load reads the current documents of entities.
+     * @param propagate applies changed entities to the documents of other types, or {@code null}.
+     */
+    private record Index<T, ID>(
+        Class<T> type,
+        Function<List<ID>, Flux<T>> load,
+        ReactiveElasticsearchRepository<T, ID> searchRepository,
+        Function<String, ID> parseId,
+        Function<T, ID> getId,
+        BiFunction<Map<ID, T>, List<T>, Mono<Void>> propagate
+    ) {
+        Index(
+            Class<T> type,
+            ReactiveCrudRepository<T, ID> repository,
+            ReactiveElasticsearchRepository<T, ID> searchRepository,
+            Function<String, ID> parseId,
+            Function<T, ID> getId
+        ) {
+            this(type, repository::findAllById, searchRepository, parseId, getId, null);
+        }
+
+        /**
+         * Applies the current state of the entities to the index. Changes are propagated from the previously indexed
+         * documents before the entities are indexed, so a retry compares the same documents again. The documents
+         * rejected by the bulk request are reported rather than failing the others.
+         *
+         * @return the outcome of the sync.
+         */
+        Mono<Synced> sync(Collection<String> entityIds) {
+            List<ID> ids = entityIds.stream().map(parseId).toList();
+            return load
+                .apply(ids)
+                .collectList()
+                .flatMap(found -> {
+                    Set<ID> foundIds = found.stream().map(getId).collect(Collectors.toSet());
+                    List<ID> deleted = ids.stream().filter(id -> !foundIds.contains(id)).toList();
+                    Mono<Void> propagation = propagate == null || found.isEmpty()
+                        ? Mono.empty()
+                        : searchRepository.findAllById(foundIds).collectMap(getId).flatMap(previous -> propagate.apply(previous, found));
+                    Mono<Map<String, String>> index = found.isEmpty()
+                        ? Mono.just(Map.of())
+                        : searchRepository
+                            .saveAll(found)
+                            .then(Mono.just(Map.<String, String>of()))
+                            .onErrorResume(BulkFailureException.class, e -> Mono.just(e.getFailedDocuments()));
+                    Mono<Void> delete = deleted.isEmpty() ? Mono.empty() : searchRepository.deleteAllById(deleted);
+                    return propagation
+                        .then(index)
+                        .flatMap(failures -> delete.thenReturn(new Synced(found.size() - failures.size(), deleted.size(), failures)));
+                });
+        }
+    }
+
+    public IndexOutboxService(
+        IndexOutboxRepository indexOutboxRepository,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker,
+        ReactiveElasticsearchOperations elasticsearchOperations,
+        SessionRepository sessionRepository,
+        SessionSearchRepository sessionSearchRepository,
+        SessionPackageRepository sessionPackageRepository,
+        SessionPackageSearchRepository sessionPackageSearchRepository,
+        AthleteRepository athleteRepository,
+        AthleteSearchRepository athleteSearchRepository,
+        StaffRepository staffRepository,
+        StaffSearchRepository staffSearchRepository,
+        QRCodeRepository qRCodeRepository,
+        QRCodeSearchRepository qRCodeSearchRepository,
+        UserRepository userRepository,
+        UserSearchRepository userSearchRepository
+    ) {
+        this.indexOutboxRepository = indexOutboxRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = applicationProperties.getIndexer();
+        this.sessionSearchRepository = sessionSearchRepository;
+        this.sessionPackageRepository = sessionPackageRepository;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
+        this.elasticsearchOperations = elasticsearchOperations;
+        indices.put(
+            entityType(Session.class),
+            new Index<>(
+                SessionDocument.class,
+                sessionRepository::findAllDocumentsById,
+                sessionSearchRepository,
+                Long::valueOf,
+                SessionDocument::getId,
+                null
+            )
+        );
+        indices.put(
+            entityType(SessionPackage.class),
+            new Index<>(
+                SessionPackage.class,
+                sessionPackageRepository::findAllById,
+                sessionPackageSearchRepository,
+                Function.identity(),
+                SessionPackage::getId,
+                this::propagateSessionPackages
+            )
+        );
+        indices.put(
+            entityType(Athlete.class),
+            new Index<>(
+                Athlete.class,
+                athleteRepository::findAllById,
+                athleteSearchRepository,
+                Long::valueOf,
+                Athlete::getId,
+                this::propagateAthletes
+            )
+        );
+        indices.put(
+            entityType(Staff.class),
+            new Index<>(Staff.class, staffRepository::findAllById, staffSearchRepository, Long::valueOf, Staff::getId, this::propagateStaff)
+        );
+        indices.put(
+            entityType(QRCode.class),
+            new Index<>(QRCode.class, qRCodeRepository, qRCodeSearchRepository, Long::valueOf, QRCode::getId)
+        );
+        // users are indexed by the UserService, and only deferred to the outbox while the search breaker is open
+        indices.put(entityType(User.class), new Index<>(User.class, userRepository, userSearchRepository, Long::valueOf, User::getId));
+        this.indexedCounter = documentsCounterForOperationBuilder("index").register(registry);
+        this.deletedCounter = documentsCounterForOperationBuilder("delete").register(registry);
+        this.failuresCounter = Counter.builder(FAILURES_METER_NAME).description(FAILURES_METER_DESCRIPTION).register(registry);
+        this.abandonedCounter = Counter.builder(ABANDONED_METER_NAME).description(ABANDONED_METER_DESCRIPTION).register(registry);
+    }
+
+    private Counter.Builder documentsCounterForOperationBuilder(String operation) {
+        return Counter
+            .builder(DOCUMENTS_METER_NAME)
+            .baseUnit(DOCUMENTS_METER_BASE_UNIT)
+            .description(DOCUMENTS_METER_DESCRIPTION)
+            .tag(DOCUMENTS_METER_OPERATION_DIMENSION, operation);
+    }
+
+    /**
+     * Copies the new names and session packages of athletes to the documents of their sessions.
+     */
+    private Mono<Void> propagateAthletes(Map<Long, Athlete> previous, List<Athlete> athletes) {
+        List<Athlete> changed = athletes
+            .stream()
+            .filter(athlete -> {
+                Athlete indexed = previous.get(athlete.getId());
+                return (
+                    indexed != null &&
+                    (
+                        !Objects.equals(indexed.getName(), athlete.getName()) ||
+                        !Objects.equals(indexed.getSessionPackageId(), athlete.getSessionPackageId())
+                    )
+                );
+            })
+            .toList();
+        if (changed.isEmpty()) {
+            return Mono.empty();
+        }
+        Set<String> packageIds = changed.stream().map(Athlete::getSessionPackageId).filter(Objects::nonNull).collect(Collectors.toSet());
+        return sessionPackageRepository
+            .findAllById(packageIds)
+            .collectMap(SessionPackage::getId, SessionPackage::getName)
+            .flatMap(packageNames -> {
+                Map<String, Map<String, Object>> fieldsById = new HashMap<>();
+                for (Athlete athlete : changed) {
+                    Map<String, Object> fields = new HashMap<>();
+                    fields.put("athleteName", athlete.getName());
+                    fields.put("sessionPackageId", athlete.getSessionPackageId());
+                    fields.put("packageName", packageNames.get(athlete.getSessionPackageId()));
+                    fieldsById.put(String.valueOf(athlete.getId()), fields);
+                }
+                return updateSessions("athleteId", fieldsById);
+            });
+    }
+
+    /**
+     * Copies the new names of staff to the documents of their sessions.
+     */
+    private Mono<Void> propagateStaff(Map<Long, Staff> previous, List<Staff> staff) {
+        Map<String, Map<String, Object>> fieldsById = new HashMap<>();
+        for (Staff member : staff) {
+            Staff indexed = previous.get(member.getId());
+            if (indexed != null && !Objects.equals(indexed.getName(), member.getName())) {
+                fieldsById.put(String.valueOf(member.getId()), Collections.singletonMap("staffName", member.getName()));
+            }
+        }
+        return updateSessions("staffId", fieldsById);
+    }
+
+    /**
+     * Copies the new names of session packages to the documents of the sessions of their athletes.
+     */
+    private Mono<Void> propagateSessionPackages(Map<String, SessionPackage> previous, List<SessionPackage> sessionPackages) {
+        Map<String, Map<String, Object>> fieldsById = new HashMap<>();
+        for (SessionPackage sessionPackage : sessionPackages) {
+            SessionPackage indexed = previous.get(sessionPackage.getId());
+            if (indexed != null && !Objects.equals(indexed.getName(), sessionPackage.getName())) {
+                fieldsById.put(sessionPackage.getId(), Collections.singletonMap("packageName", sessionPackage.getName()));
+            }
+        }
+        return updateSessions("sessionPackageId", fieldsById);
+    }
+
+    private Mono<Void> updateSessions(String idField, Map<String, Map<String, Object>> fieldsById) {
+        return sessionSearchRepository
+            .updateAll(idField, fieldsById)
+            .doOnNext(updated -> {
+                if (updated > 0) {
+                    searchResultCache.invalidate(SessionDocument.class);
+                }
+            })
+            .then();
+    }
+
+    private static String entityType(Class<?> entityClass) {
+        return entityClass.getSimpleName();
+    }
+
+    /**
+     * Enqueues a created, updated or deleted entity for reindexing, within the transaction of the change.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     * @return an empty {@link Mono}.
+     */
+    public Mono<Void> enqueue(Class<?> entityClass, Object id) {
+        return enqueueAll(entityClass, List.of(id));
+    }
+
+    /**
+     * Enqueues created, updated or deleted entities of the same type for reindexing with a single statement, within the
+     * transaction of the change.
+     *
+     * @param entityClass the class of the entities.
+     * @param ids the ids of the entities.
+     * @return an empty {@link Mono}.
+     */
+    public Mono<Void> enqueueAll(Class<?> entityClass, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        String entityType = entityType(entityClass);
+        if (!indices.containsKey(entityType)) {
+            return Mono.error(new IllegalArgumentException("No search index for " + entityType));
+        }
+        return indexOutboxRepository.enqueueAll(entityType, ids.stream().map(String::valueOf).toArray(String[]::new)).then();
+    }
+
+    /**
+     * Starts recording the ids of the entities of a type indexed from the outbox by any node, until
+     * {@link #replayTracked(Class)}. An index rebuilt meanwhile may have missed these changes, which are then enqueued
+     * again. The changes recorded for a rebuild which did not finish are dropped, as this one covers them.
+     *
+     * @param entityClass the class of the entities.
+     * @return an empty {@link Mono}, completed once the recording is committed.
+     */
+    public Mono<Void> startTracking(Class<?> entityClass) {
+        String entityType = entityType(entityClass);
+        return indexOutboxRepository
+            .markRebuild(entityType)
+            .thenMany(indexOutboxRepository.takeRebuildChanges(entityType))
+            .then()
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Stops recording the ids of the entities of a type indexed from the outbox, and enqueues them again.
+     *
+     * @param entityClass the class of the entities.
+     * @return an empty {@link Mono}, completed once the entities are enqueued.
+     */
+    public Mono<Void> replayTracked(Class<?> entityClass) {
+        String entityType = entityType(entityClass);
+        // the marker is removed first, waiting for the batches still recording changes under it
+        return indexOutboxRepository
+            .unmarkRebuild(entityType)
+            .thenMany(indexOutboxRepository.takeRebuildChanges(entityType))
+            .collectList()
+            .flatMap(ids -> enqueueAll(entityClass, ids))
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Stops recording the ids of the entities of a type indexed from the outbox, and drops them.
+     *
+     * @param entityClass the class of the entities.
+     * @return an empty {@link Mono}.
+     */
+    public Mono<Void> stopTracking(Class<?> entityClass) {
+        String entityType = entityType(entityClass);
+        return indexOutboxRepository
+            .unmarkRebuild(entityType)
+            .thenMany(indexOutboxRepository.takeRebuildChanges(entityType))
+            .then()
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Starts draining the outbox once the application is ready, waiting for the linger time whenever it is empty.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loop =
+            Mono
+                .defer(this::drain)
+                .onErrorResume(e -> {
+                    log.warn("Could not drain the index outbox, retrying", e);
+                    return Mono.just(0L);
+                })
+                .repeatWhen(drained -> drained.delayElements(properties.getLinger()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (loop != null) {
+            loop.dispose();
+        }
+    }
+
+    /**
+     * Indexes the entities of the outbox, batch by batch, until it is empty, unless the search breaker is open.
+     *
+     * @return the number of drained entries.
+     */
+    public Mono<Long> drain() {
+        return Mono.defer(() -> {
+            if (searchCircuitBreaker.isOpen()) {
+                return Mono.just(0L);
+            }
+            return drainBatch()
+                .expand(count -> count == properties.getBatchSize() ? drainBatch() : Mono.empty())
+                .reduce(0L, Long::sum);
+        });
+    }
+
+    private Mono<Integer> drainBatch() {
+        return claim().flatMap(entries -> entries.isEmpty() ? Mono.just(0) : index(entries).thenReturn(entries.size()));
+    }
+
+    /**
+     * Leases a batch of entries. The entities of the types whose index is being rebuilt are recorded with the claim,
+     * as their documents may be written to the previous index; the markers are locked meanwhile, so a rebuild which
+     * starts later reads the changes of the batch, already committed, from the database.
+     */
+    private Mono<List<IndexOutboxEntry>> claim() {
+        return indexOutboxRepository
+            .claim(properties.getMaxAttempts(), properties.getBatchSize(), properties.getLease().toSeconds())
+            .collectList()
+            .flatMap(entries -> {
+                if (entries.isEmpty()) {
+                    return Mono.just(entries);
+                }
+                return indexOutboxRepository
+                    .lockRebuilds()
+                    .concatMap(entityType -> {
+                        String[] entityIds = entries
+                            .stream()
+                            .filter(entry -> entry.getEntityType().equals(entityType))
+                            .map(IndexOutboxEntry::getEntityId)
+                            .distinct()
+                            .toArray(String[]::new);
+                        if (entityIds.length == 0) {
+                            return Mono.empty();
+                        }
+                        return indexOutboxRepository.recordRebuildChanges(entityType, entityIds);
+                    })
+                    .then(Mono.just(entries));
+            })
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Indexes the entities of a batch, type by type, then removes the indexed entries from the outbox.
+     *
+     * @return an empty {@link Mono}, or the errors of the types which failed once all the types are done.
+     */
+    private Mono<Void> index(List<IndexOutboxEntry> entries) {
+        Map<String, Map<String, List<Long>>> entryIdsByType = new LinkedHashMap<>();
+        for (IndexOutboxEntry entry : entries) {
+            entryIdsByType
+                .computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+                .computeIfAbsent(entry.getEntityId(), id -> new ArrayList<>())
+                .add(entry.getId());
+        }
+        return Flux
+            .fromIterable(entryIdsByType.entrySet())
+            .concatMapDelayError(idsOfType -> index(idsOfType.getKey(), idsOfType.getValue()))
+            .then();
+    }
+
+    private Mono<Void> index(String entityType, Map<String, List<Long>> entryIdsByEntityId) {
+        List<Long> entryIds = entryIdsByEntityId.values().stream().flatMap(List::stream).toList();
+        Index<?, ?> index = indices.get(entityType);
+        if (index == null) {
+            log.warn("Skipping {} entries of the index outbox of unknown type {}", entryIds.size(), entityType);
+            return indexOutboxRepository.deleteAllById(entryIds);
+        }
+        Mono<Synced> sync = index.sync(entryIdsByEntityId.keySet());
+        if (properties.isRefresh()) {
+            sync = sync.flatMap(synced -> elasticsearchOperations.indexOps(index.type()).refresh().thenReturn(synced));
+        }
+        return searchCircuitBreaker
+            .protect(sync)
+            .retryWhen(Retry.backoff(properties.getRetries(), RETRY_BACKOFF).filter(e -> !(e instanceof CallNotPermittedException)))
+            .onErrorResume(e -> {
+                if (e instanceof CallNotPermittedException) {
+                    // rejected by the open breaker, which does not count as an attempt
+                    return indexOutboxRepository.release(entryIds).then(Mono.error(e));
+                }
+                return complete(List.of(), entryIds).then(Mono.error(e));
+            })
+            .flatMap(synced -> {
+                indexedCounter.increment(synced.indexed());
+                deletedCounter.increment(synced.deleted());
+                invalidate(index.type());
+                if (synced.failures().isEmpty()) {
+                    return complete(entryIds, List.of());
+                }
+                log.warn("Could not index {} documents of type {}: {}", synced.failures().size(), entityType, synced.failures());
+                Set<Long> failed = synced
+                    .failures()
+                    .keySet()
+                    .stream()
+                    .flatMap(entityId -> entryIdsByEntityId.getOrDefault(entityId, List.of()).stream())
+                    .collect(Collectors.toSet());
+                return complete(entryIds.stream().filter(entryId -> !failed.contains(entryId)).toList(), failed);
+            });
+    }
+
+    /**
+     * Removes the indexed entries from the outbox, and gives the failed ones back, counting their failure.
+     */
+    private Mono<Void> complete(Collection<Long> indexed, Collection<Long> failed) {
+        Mono<Void> remove = indexed.isEmpty() ? Mono.empty() : indexOutboxRepository.deleteAllById(indexed);
+        Mono<Void> retry = failed.isEmpty()
+            ? Mono.empty()
+            : indexOutboxRepository
+                .incrementAttempts(failed)
+                .filter(entry -> entry.getAttempts() >= properties.getMaxAttempts())
+                .map(entry -> entry.getEntityType() + " " + entry.getEntityId())
+                .collectList()
+                .doOnNext(abandoned -> {
+                    if (!abandoned.isEmpty()) {
+                        abandonedCounter.increment(abandoned.size());
+                        int attempts = properties.getMaxAttempts();
+                        log.warn("Gave up indexing {} entities after {} attempts: {}", abandoned.size(), attempts, abandoned);
+                    }
+                })
+                .then();
+        failuresCounter.increment(failed.size());
+        return remove.then(retry).as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Drops the cached search pages of a type, and again once the index has refreshed unless it already was.
+     */
+    private void invalidate(Class<?> type) {
+        searchResultCache.invalidate(type);
+        if (!properties.isRefresh()) {
+            Mono.delay(INDEX_REFRESH_INTERVAL).subscribe(tick -> searchResultCache.invalidate(type));
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.pilatesapp.app.service;
 
 import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.projection.SessionReminder;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
 import java.util.Locale;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +35,12 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    private static final String REMINDER = "reminder";
+
+    private static final String START_DATE = "startDate";
+
+    private static final String END_DATE = "endDate";
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -59,6 +67,10 @@ public class MailService {
 
     @Async
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        send(to, subject, content, isMultipart, isHtml);
+    }
+
+    private boolean send(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
             "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
@@ -78,8 +90,10 @@ public class MailService {
             message.setText(content, isHtml);
             javaMailSender.send(mimeMessage);
             log.debug("Sent email to User '{}'", to);
+            return true;
         } catch (MailException | MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
+            return false;
         }
     }
 
@@ -115,4 +129,25 @@ public class MailService {
         log.debug("Sending password reset email to '{}'", user.getEmail());
         self.sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
     }
+
+    /**
+     * Sends the reminder of a session to its athlete, synchronously, so that the caller bounds the number of emails
+     * being sent and knows which ones were sent.
+     *
+     * @param reminder the session to remind.
+     * @param locale the locale of the email.
+     * @param zone the time zone of the dates of the email.
+     * @return whether the email was sent.
+     */
+    public boolean sendSessionReminder(SessionReminder reminder, Locale locale, ZoneId zone) {
+        log.debug("Sending reminder email of session {} to '{}'", reminder.sessionId(), reminder.athleteEmail());
+        Context context = new Context(locale);
+        context.setVariable(REMINDER, reminder);
+        context.setVariable(START_DATE, reminder.startDate().atZone(zone));
+        context.setVariable(END_DATE, reminder.endDate() == null ? null : reminder.endDate().atZone(zone));
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        String content = templateEngine.process("mail/sessionReminderEmail", context);
+        String subject = messageSource.getMessage("email.reminder.title", null, locale);
+        return send(reminder.athleteEmail(), subject, content, false, true);
+    }
 }
@@ -0,0 +1,409 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.QRCode;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.SessionPackage;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.repository.search.SearchResultCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.ReactiveIndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service class rebuilding the search indices from the database, without interrupting the searches.
+ * <p>
+ * The entities are searched and indexed through an alias named after their index. A rebuild streams the table in
+ * pages of {@code application.indexer.batch-size} rows ordered by id, each written with one bulk request into a new
+ * versioned index, so a single page is held in memory whatever the size of the table. Once all the pages are written,
+ * the alias is moved to the new index with a single atomic request, and the previous index is deleted. The changes
+ * indexed from the outbox meanwhile, by any node, went to the previous index: they are recorded in the
+ * {@code index_rebuild_change} table while the {@code index_rebuild} marker of the type exists, and enqueued again
+ * once the alias is moved. A marker left by a rebuild which did not finish is replaced by the next rebuild of its
+ * type.
+ * <p>
+ * Sessions are read with the names of their athlete, staff and session package, as {@link SessionDocument}s.
+ */
+@Service
+public class SearchReindexService {
+
+    public static final String DOCUMENTS_METER_NAME = "search.reindex.documents";
+    public static final String DOCUMENTS_METER_DESCRIPTION = "Indicates the number of documents written by the index rebuilds.";
+    public static final String DOCUMENTS_METER_BASE_UNIT = "documents";
+    public static final String ERRORS_METER_NAME = "search.reindex.errors";
+    public static final String ERRORS_METER_DESCRIPTION = "Indicates the number of documents the index rebuilds failed to write.";
+    public static final String PROGRESS_METER_NAME = "search.reindex.progress";
+    public static final String PROGRESS_METER_DESCRIPTION = "Indicates the ratio of the rows written by the running or last rebuild.";
+    public static final String THROUGHPUT_METER_NAME = "search.reindex.throughput";
+    public static final String THROUGHPUT_METER_DESCRIPTION = "Indicates the documents written per second by the running or last rebuild.";
+    public static final String THROUGHPUT_METER_BASE_UNIT = "documents/s";
+    public static final String INDEX_DIMENSION = "index";
+
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    private final ReactiveElasticsearchOperations elasticsearchOperations;
+
+    private final IndexOutboxService indexOutboxService;
+
+    private final SearchResultCache searchResultCache;
+
+    private final ApplicationProperties.Indexer properties;
+
+    private final Map<String, Target<?>> targets = new LinkedHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * A page written to the new index.
+     */
+    private record Page(Object lastId, int size) {}
+
+    /**
+     * An index to rebuild, and the progress of its last rebuild.
+     */
+    private static final class Target<T> {
+
+        private final Class<?> entityClass;
+        private final Class<T> documentClass;
+        private final BiFunction<Object, Integer, Flux<T>> page;
+        private final Function<T, Object> getId;
+        private final boolean outboxed;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private Counter documentsCounter;
+        private Counter errorsCounter;
+
+        private Target(
+            Class<?> entityClass,
+            Class<T> documentClass,
+            BiFunction<Object, Integer, Flux<T>> page,
+            Function<T, Object> getId,
+            boolean outboxed
+        ) {
+            this.entityClass = entityClass;
+            this.documentClass = documentClass;
+            this.page = page;
+            this.getId = getId;
+            this.outboxed = outboxed;
+        }
+
+        private void start(long rows) {
+            total.set(rows);
+            written.set(0);
+            endNanos = 0;
+            startNanos = System.nanoTime();
+        }
+
+        private void written(int documents) {
+            written.addAndGet(documents);
+            documentsCounter.increment(documents);
+        }
+
+        private void finish() {
+            endNanos = System.nanoTime();
+        }
+
+        private double progress() {
+            if (startNanos == 0) {
+                return Double.NaN;
+            }
+            long rows = total.get();
+            return rows == 0 ? 1 : Math.min(1, (double) written.get() / rows);
+        }
+
+        private double throughput() {
+            long start = startNanos;
+            if (start == 0) {
+                return Double.NaN;
+            }
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            return end > start ? written.get() * 1e9 / (end - start) : 0;
+        }
+    }
+
+    public SearchReindexService(
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        SessionRepository sessionRepository,
+        ReactiveElasticsearchOperations elasticsearchOperations,
+        IndexOutboxService indexOutboxService,
+        SearchResultCache searchResultCache,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.indexOutboxService = indexOutboxService;
+        this.searchResultCache = searchResultCache;
+        this.properties = applicationProperties.getIndexer();
+        register(
+            new Target<>(
+                Session.class,
+                SessionDocument.class,
+                (after, limit) -> sessionRepository.findAllDocumentsAfter(after != null ? (Long) after : 0L, limit),
+                SessionDocument::getId,
+                true
+            ),
+            registry
+        );
+        register(target(Athlete.class, Athlete::getId, true), registry);
+        register(target(Staff.class, Staff::getId, true), registry);
+        register(target(QRCode.class, QRCode::getId, true), registry);
+        register(target(SessionPackage.class, SessionPackage::getId, true), registry);
+        // users are indexed by the UserService, and through the outbox while the search breaker is open
+        register(target(User.class, User::getId, true), registry);
+    }
+
+    /**
+     * Get an index whose documents are the rows of the table of an entity.
+     */
+    private <T> Target<T> target(Class<T> entityClass, Function<T, Object> getId, boolean outboxed) {
+        return new Target<>(
+            entityClass,
+            entityClass,
+            (after, limit) -> {
+                Criteria criteria = after != null ? Criteria.where("id").greaterThan(after) : Criteria.empty();
+                return r2dbcEntityTemplate.select(Query.query(criteria).sort(Sort.by("id")).limit(limit), entityClass);
+            },
+            getId,
+            outboxed
+        );
+    }
+
+    private void register(Target<?> target, MeterRegistry registry) {
+        String index = elasticsearchOperations.getIndexCoordinatesFor(target.documentClass).getIndexName();
+        target.documentsCounter =
+            Counter
+                .builder(DOCUMENTS_METER_NAME)
+                .baseUnit(DOCUMENTS_METER_BASE_UNIT)
+                .description(DOCUMENTS_METER_DESCRIPTION)
+                .tag(INDEX_DIMENSION, index)
+                .register(registry);
+        target.errorsCounter =
+            Counter
+                .builder(ERRORS_METER_NAME)
+                .baseUnit(DOCUMENTS_METER_BASE_UNIT)
+                .description(ERRORS_METER_DESCRIPTION)
+                .tag(INDEX_DIMENSION, index)
+                .register(registry);
+        Gauge
+            .builder(PROGRESS_METER_NAME, target, Target::progress)
+            .description(PROGRESS_METER_DESCRIPTION)
+            .tag(INDEX_DIMENSION, index)
+            .register(registry);
+        Gauge
+            .builder(THROUGHPUT_METER_NAME, target, Target::throughput)
+            .baseUnit(THROUGHPUT_METER_BASE_UNIT)
+            .description(THROUGHPUT_METER_DESCRIPTION)
+            .tag(INDEX_DIMENSION, index)
+            .register(registry);
+        targets.put(index, target);
+    }
+
+    /**
+     * Get the names of the indices which can be rebuilt.
+     *
+     * @return the names of the indices, which are also the names of their aliases.
+     */
+    public Set<String> getIndices() {
+        return Collections.unmodifiableSet(targets.keySet());
+    }
+
+    /**
+     * Rebuilds indices in the background, one after the other, unless a rebuild is already running.
+     *
+     * @param indices the names of the indices to rebuild, or all of them if empty.
+     * @return {@code true} if the rebuild started, or {@code false} if another one is running.
+     * @throws IllegalArgumentException if an index is unknown.
+     */
+    public boolean start(Collection<String> indices) {
+        List<Target<?>> selected = select(indices);
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildAll(selected)
+            .subscribe(
+                count -> log.info("Rebuilt the search indices with {} documents", count),
+                e -> log.error("Could not rebuild the search indices", e)
+            );
+        return true;
+    }
+
+    /**
+     * Rebuilds indices, one after the other.
+     *
+     * @param indices the names of the indices to rebuild, or all of them if empty.
+     * @return the number of written documents, or an {@link IllegalStateException} if another rebuild is running.
+     */
+    public Mono<Long> reindex(Collection<String> indices) {
+        return Mono.defer(() -> {
+            List<Target<?>> selected = select(indices);
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("A rebuild of the search indices is already running"));
+            }
+            return rebuildAll(selected);
+        });
+    }
+
+    private List<Target<?>> select(Collection<String> indices) {
+        if (indices == null || indices.isEmpty()) {
+            return List.copyOf(targets.values());
+        }
+        return indices
+            .stream()
+            .distinct()
+            .<Target<?>>map(index -> {
+                Target<?> target = targets.get(index);
+                if (target == null) {
+                    throw new IllegalArgumentException("Unknown search index " + index);
+                }
+                return target;
+            })
+            .toList();
+    }
+
+    private Mono<Long> rebuildAll(List<Target<?>> selected) {
+        return Flux.fromIterable(selected).concatMap(this::rebuild).reduce(0L, Long::sum).doFinally(signal -> running.set(false));
+    }
+
+    private <T> Mono<Long> rebuild(Target<T> target) {
+        return Mono.defer(() -> {
+            String alias = elasticsearchOperations.getIndexCoordinatesFor(target.documentClass).getIndexName();
+            String index = alias + "-" + System.currentTimeMillis();
+            IndexCoordinates coordinates = IndexCoordinates.of(index);
+            ReactiveIndexOperations entityOperations = elasticsearchOperations.indexOps(target.documentClass);
+            ReactiveIndexOperations indexOperations = elasticsearchOperations.indexOps(coordinates);
+            log.info("Rebuilding the search index {} into {}", alias, index);
+            Mono<Void> tracking = target.outboxed ? indexOutboxService.startTracking(target.entityClass) : Mono.empty();
+            return tracking
+                .then(Mono.zip(entityOperations.createSettings(), entityOperations.createMapping()))
+                .flatMap(settingsAndMapping -> indexOperations.create(settingsAndMapping.getT1(), settingsAndMapping.getT2()))
+                .then(r2dbcEntityTemplate.count(Query.empty(), target.entityClass))
+                .doOnNext(target::start)
+                .thenMany(copy(target, coordinates))
+                .reduce(0L, (count, page) -> count + page.size())
+                .flatMap(count -> indexOperations.refresh().then(swap(alias, index)).thenReturn(count))
+                .doOnNext(count -> searchResultCache.invalidate(target.documentClass))
+                .flatMap(count -> replay(target).thenReturn(count))
+                .doOnNext(count -> log.info("Rebuilt the search index {} with {} documents", alias, count))
+                .onErrorResume(e ->
+                    indexOperations
+                        .delete()
+                        .onErrorResume(deleteError -> {
+                            log.warn("Could not delete the incomplete search index {}", index, deleteError);
+                            return Mono.empty();
+                        })
+                        .then(target.outboxed ? indexOutboxService.stopTracking(target.entityClass) : Mono.empty())
+                        .onErrorResume(stopError -> {
+                            log.warn("Could not stop tracking the changes of the search index {}", alias, stopError);
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e))
+                )
+                .doFinally(signal -> target.finish());
+        });
+    }
+
+    private <T> Flux<Page> copy(Target<T> target, IndexCoordinates coordinates) {
+        return copyPage(target, coordinates, null)
+            .expand(page -> page.size() == properties.getBatchSize() ? copyPage(target, coordinates, page.lastId()) : Mono.empty());
+    }
+
+    private <T> Mono<Page> copyPage(Target<T> target, IndexCoordinates coordinates, Object after) {
+        return target.page
+            .apply(after, properties.getBatchSize())
+            .collectList()
+            .flatMap(rows -> {
+                if (rows.isEmpty()) {
+                    return Mono.just(new Page(after, 0));
+                }
+                return elasticsearchOperations
+                    .saveAll(Mono.just(rows), coordinates)
+                    .then()
+                    .retryWhen(Retry.backoff(properties.getRetries(), RETRY_BACKOFF))
+                    .doOnError(e -> target.errorsCounter.increment(rows.size()))
+                    .then(
+                        Mono.fromSupplier(() -> {
+                            target.written(rows.size());
+                            return new Page(target.getId.apply(rows.get(rows.size() - 1)), rows.size());
+                        })
+                    );
+            });
+    }
+
+    /**
+     * Moves the alias to the new index with a single request, and deletes the indices it pointed to. An index created
+     * under the name of the alias, before the indices were versioned, is removed within the same request.
+     */
+    private Mono<Void> swap(String alias, String index) {
+        ReactiveIndexOperations aliasOperations = elasticsearchOperations.indexOps(IndexCoordinates.of(alias));
+        return aliasOperations
+            .getAliases(alias)
+            // Elasticsearch answers 404 when no index holds the alias
+            .onErrorReturn(Map.of())
+            .zipWith(aliasOperations.exists())
+            .flatMap(aliasesAndExists -> {
+                Set<String> previous = aliasesAndExists.getT1().keySet();
+                AliasActions actions = new AliasActions();
+                if (!previous.isEmpty()) {
+                    actions.add(
+                        new AliasAction.Remove(
+                            AliasActionParameters.builder().withIndices(previous.toArray(String[]::new)).withAliases(alias).build()
+                        )
+                    );
+                } else if (aliasesAndExists.getT2()) {
+                    actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(alias).build()));
+                }
+                actions.add(new AliasAction.Add(AliasActionParameters.builder().withIndices(index).withAliases(alias).build()));
+                return aliasOperations
+                    .alias(actions)
+                    .thenMany(
+                        Flux.fromIterable(previous).concatMap(old -> elasticsearchOperations.indexOps(IndexCoordinates.of(old)).delete())
+                    )
+                    .then();
+            });
+    }
+
+    private <T> Mono<Void> replay(Target<T> target) {
+        if (!target.outboxed) {
+            return Mono.empty();
+        }
+        return indexOutboxService.replayTracked(target.entityClass);
+    }
+}
@@ -0,0 +1,243 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.domain.SessionChange;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import com.pilatesapp.app.repository.SessionChangeRepository;
+import com.pilatesapp.app.repository.SessionRepository;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+/**
+ * Service class publishing the changes of the sessions, see {@link SessionChange}.
+ * <p>
+ * Changes are notified by Postgres on commit to every node, which listens on a single dedicated connection and fans
+ * them out to all its subscribers, so the number of subscribers does not change the load of the database. A
+ * subscriber which resumes the feed first gets the logged changes it missed, then the live ones, unless they are too
+ * many or older than a day: it then gets a {@link SessionChangeType#RESET} change instead, and must reload the sessions.
+ */
+@Service
+public class SessionChangeService {
+
+    private final Logger log = LoggerFactory.getLogger(SessionChangeService.class);
+
+    /**
+     * The number of live changes buffered for a slow subscriber, which is disconnected beyond it, and then resumes.
+     */
+    static final int SUBSCRIBER_BUFFER_SIZE = 1024;
+
+    /**
+     * The maximum number of logged changes replayed to a resuming subscriber, which is reset beyond it.
+     */
+    static final int MAX_REPLAY_SIZE = 10_000;
+
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final ConnectionFactory connectionFactory;
+
+    private final SessionChangeRepository sessionChangeRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final Sinks.Many<SessionChange> changes = Sinks.many().multicast().directBestEffort();
+
+    private Disposable listener;
+
+    public SessionChangeService(
+        ConnectionFactory connectionFactory,
+        SessionChangeRepository sessionChangeRepository,
+        SessionRepository sessionRepository
+    ) {
+        this.connectionFactory = connectionFactory;
+        this.sessionChangeRepository = sessionChangeRepository;
+        this.sessionRepository = sessionRepository;
+    }
+
+    /**
+     * Logs and notifies a change of a session, within the transaction of the change.
+     *
+     * @param sessionId the id of the changed session.
+     * @param changeType the type of the change.
+     * @return an empty {@link Mono}.
+     */
+    public Mono<Void> publish(Long sessionId, SessionChangeType changeType) {
+        return publishAll(List.of(sessionId), changeType);
+    }
+
+    /**
+     * Logs and notifies the same change of several sessions with a single statement, within the transaction of the change.
+     *
+     * @param sessionIds the ids of the changed sessions.
+     * @param changeType the type of the change.
+     * @return an empty {@link Mono}.
+     */
+    public Mono<Void> publishAll(Collection<Long> sessionIds, SessionChangeType changeType) {
+        if (sessionIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return sessionChangeRepository.publishAll(sessionIds.toArray(Long[]::new), changeType.name()).then();
+    }
+
+    /**
+     * Get the feed of the session changes.
+     *
+     * @param lastEventId the id of the last change received by the subscriber, or {@code null} for the live changes only.
+     * @return the changes, with the current state of the session unless it is deleted, starting with a
+     * {@link SessionChangeType#RESET} change if the changes missed by the subscriber cannot be replayed.
+     */
+    public Flux<SessionChange> changes(Long lastEventId) {
+        Flux<SessionChange> live = changes.asFlux().onBackpressureBuffer(SUBSCRIBER_BUFFER_SIZE, BufferOverflowStrategy.ERROR);
+        if (lastEventId == null) {
+            return live;
+        }
+        return Flux.defer(() -> {
+            // the live changes are subscribed along with the replay, and delivered after it, so that nothing committed
+            // in between is lost, and the changes both replayed and notified are delivered once
+            Set<Long> replayed = new HashSet<>();
+            Flux<Tuple2<Boolean, SessionChange>> replay = sessionChangeRepository
+                .findLastIdChangedBefore(Instant.now().minus(RETENTION))
+                // the changes after the last expired one are kept, the ones before it may have been purged
+                .map(expiredId -> expiredId > lastEventId)
+                .defaultIfEmpty(false)
+                .flatMapMany(expired -> expired ? reset(lastEventId) : replay(lastEventId))
+                .map(change -> Tuples.of(true, change));
+            return Flux
+                .mergeSequential(replay, live.map(change -> Tuples.of(false, change)))
+                .filter(change -> change.getT1() ? replayed.add(change.getT2().getId()) : !replayed.contains(change.getT2().getId()))
+                .map(Tuple2::getT2);
+        });
+    }
+
+    /**
+     * Listens to the notifications of the changes once the application is ready, and keeps listening across connection
+     * failures. The listening connection is taken from the pool for the lifetime of the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void listen() {
+        listener =
+            Flux
+                .usingWhen(
+                    Mono.<Connection>from(connectionFactory.create()),
+                    connection -> {
+                        PostgresqlConnection postgresqlConnection = unwrap(connection);
+                        return postgresqlConnection
+                            .createStatement("LISTEN " + SessionChangeRepository.CHANNEL)
+                            .execute()
+                            .flatMap(result -> result.getRowsUpdated())
+                            .thenMany(postgresqlConnection.getNotifications());
+                    },
+                    Connection::close
+                )
+                .mapNotNull(Notification::getParameter)
+                .map(SessionChangeService::parse)
+                .concatMap(this::withSession)
+                .retryWhen(
+                    Retry
+                        .backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> log.warn("Listening to the session changes failed, retrying", signal.failure()))
+                )
+                // the listener is the only emitter, so emissions cannot fail on concurrent emissions
+                .subscribe(changes::tryEmitNext, e -> log.error("Stopped listening to the session changes", e));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (listener != null) {
+            listener.dispose();
+        }
+    }
+
+    /**
+     * Purges the changes older than a day, which are not replayed anymore, but the last one, which marks where the
+     * replayable changes start.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purge() {
+        sessionChangeRepository
+            .deleteAllByChangedAtBefore(Instant.now().minus(RETENTION))
+            .subscribe(count -> log.debug("Purged {} session changes", count), e -> log.warn("Could not purge the session changes", e));
+    }
+
+    /**
+     * Parse the payload of a notification, see {@link SessionChangeRepository}.
+     *
+     * @param payload the payload.
+     * @return the change.
+     */
+    static SessionChange parse(String payload) {
+        String[] fields = payload.split(",");
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Invalid session change notification: " + payload);
+        }
+        return new SessionChange()
+            .id(Long.valueOf(fields[0]))
+            .sessionId(Long.valueOf(fields[1]))
+            .changeType(SessionChangeType.valueOf(fields[2]))
+            .changedAt(Instant.ofEpochMilli(Long.parseLong(fields[3])));
+    }
+
+    private Flux<SessionChange> replay(Long lastEventId) {
+        // one more change than replayed is read to tell whether the replay would be cut off
+        return sessionChangeRepository
+            .findAllByIdAfter(lastEventId, MAX_REPLAY_SIZE + 1)
+            .collectList()
+            .flatMapMany(missed ->
+                missed.size() > MAX_REPLAY_SIZE ? reset(lastEventId) : Flux.fromIterable(missed).concatMap(this::withSession)
+            );
+    }
+
+    private Flux<SessionChange> reset(Long lastEventId) {
+        log.debug("Resetting the session change feed resumed after {}", lastEventId);
+        // the reset carries the id of the last logged change, which the subscriber resumes from once it reloaded
+        return sessionChangeRepository
+            .findFirstByOrderByIdDesc()
+            .map(SessionChange::getId)
+            .defaultIfEmpty(lastEventId)
+            .map(id -> new SessionChange().id(id).changeType(SessionChangeType.RESET).changedAt(Instant.now()))
+            .flux();
+    }
+
+    private Mono<SessionChange> withSession(SessionChange change) {
+        if (change.getChangeType() == SessionChangeType.DELETE) {
+            return Mono.just(change);
+        }
+        // the session is read once per node, whatever the number of subscribers
+        return sessionRepository.findById(change.getSessionId()).map(change::session).defaultIfEmpty(change);
+    }
+
+    private static PostgresqlConnection unwrap(Connection connection) {
+        Connection unwrapped = connection;
+        while (!(unwrapped instanceof PostgresqlConnection) && unwrapped instanceof Wrapped<?> wrapped) {
+            unwrapped = (Connection) wrapped.unwrap();
+        }
+        if (unwrapped instanceof PostgresqlConnection postgresqlConnection) {
+            return postgresqlConnection;
+        }
+        throw new IllegalStateException("The session change feed requires a Postgres connection");
+    }
+}
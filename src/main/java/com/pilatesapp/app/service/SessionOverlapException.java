@@ -0,0 +1,10 @@
+package com.pilatesapp.app.service;
+
+public class SessionOverlapException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SessionOverlapException() {
+        super("Session overlaps another session of the same staff or athlete!");
+    }
+}
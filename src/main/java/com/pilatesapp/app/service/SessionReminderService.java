@@ -0,0 +1,193 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.repository.projection.SessionReminder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service class reminding the athletes of their upcoming sessions by email, and flagging the reminded sessions as
+ * notified.
+ * <p>
+ * Sessions are read in chunks ordered by id, so a run holds one chunk in memory whatever the number of sessions. A
+ * chunk is locked, flagged and enqueued for reindexing within a single transaction, and locked rows are skipped by the
+ * other nodes, so a session is reminded once even when the pipeline runs on several nodes. The emails are only sent
+ * once that transaction has committed, so the connection and the row locks are not held while the mail server
+ * answers. Failed emails have their session unflagged again, to be retried by the next run; a node stopped between
+ * the commit and the emails loses the reminders of its chunk rather than sending them twice.
+ */
+@Service
+public class SessionReminderService {
+
+    public static final String REMINDERS_METER_NAME = "session.reminders";
+    public static final String REMINDERS_METER_DESCRIPTION = "Indicates the number of session reminders sent by email.";
+    public static final String REMINDERS_METER_BASE_UNIT = "emails";
+    public static final String REMINDERS_METER_RESULT_DIMENSION = "result";
+
+    /**
+     * The maximum number of sessions locked and flagged at once.
+     */
+    static final int CHUNK_SIZE = 200;
+
+    private final Logger log = LoggerFactory.getLogger(SessionReminderService.class);
+
+    private final SessionRepository sessionRepository;
+
+    private final IndexOutboxService indexOutboxService;
+
+    private final SessionChangeService sessionChangeService;
+
+    private final MailService mailService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties.Reminder properties;
+
+    private final Locale locale;
+
+    private final ZoneId zone;
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private record Chunk(long lastId, int size, int notified) {}
+
+    public SessionReminderService(
+        SessionRepository sessionRepository,
+        IndexOutboxService indexOutboxService,
+        SessionChangeService sessionChangeService,
+        MailService mailService,
+        TransactionalOperator transactionalOperator,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.sessionRepository = sessionRepository;
+        this.indexOutboxService = indexOutboxService;
+        this.sessionChangeService = sessionChangeService;
+        this.mailService = mailService;
+        this.transactionalOperator = transactionalOperator;
+        this.properties = applicationProperties.getReminder();
+        this.locale = Locale.forLanguageTag(properties.getLangKey());
+        this.zone = ZoneId.of(applicationProperties.getSchedule().getTimeZone());
+        this.sentCounter = remindersCounterForResultBuilder("sent").register(registry);
+        this.failedCounter = remindersCounterForResultBuilder("failed").register(registry);
+    }
+
+    private Counter.Builder remindersCounterForResultBuilder(String result) {
+        return Counter
+            .builder(REMINDERS_METER_NAME)
+            .baseUnit(REMINDERS_METER_BASE_UNIT)
+            .description(REMINDERS_METER_DESCRIPTION)
+            .tag(REMINDERS_METER_RESULT_DIMENSION, result);
+    }
+
+    @Scheduled(fixedDelayString = "${application.reminder.interval:PT5M}", initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void scheduledSendReminders() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        sendReminders()
+            .subscribe(
+                count -> {
+                    if (count > 0) {
+                        log.info("Sent {} session reminders", count);
+                    }
+                },
+                e -> log.error("Could not send the session reminders", e)
+            );
+    }
+
+    /**
+     * Reminds the athletes of all the waiting sessions starting within the horizon which have not been reminded yet.
+     *
+     * @return the number of sent reminders.
+     */
+    public Mono<Long> sendReminders() {
+        return sendChunk(0L)
+            .expand(chunk -> chunk.size() == CHUNK_SIZE ? sendChunk(chunk.lastId()) : Mono.empty())
+            .reduce(0L, (count, chunk) -> count + chunk.notified());
+    }
+
+    private Mono<Chunk> sendChunk(long after) {
+        return lockChunk(after).flatMap(reminders -> {
+            if (reminders.isEmpty()) {
+                return Mono.just(new Chunk(after, 0, 0));
+            }
+            long lastId = reminders.get(reminders.size() - 1).sessionId();
+            return Flux
+                .fromIterable(reminders)
+                .flatMap(this::send, properties.getConcurrency())
+                .collectList()
+                .flatMap(this::clearNotified)
+                .map(failed -> new Chunk(lastId, reminders.size(), reminders.size() - failed));
+        });
+    }
+
+    /**
+     * Locks and flags the next chunk of due sessions, in a transaction committed before their reminders are sent.
+     */
+    private Mono<List<SessionReminder>> lockChunk(long after) {
+        return sessionRepository
+            .lockDueReminders(properties.getHorizon().toSeconds(), after, CHUNK_SIZE)
+            .collectList()
+            .flatMap(reminders ->
+                updateNotified(reminders.stream().map(SessionReminder::sessionId).toList(), sessionRepository::markNotified)
+                    .thenReturn(reminders)
+            )
+            .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Sends a reminder on the bounded elastic scheduler, as the mail sender blocks.
+     *
+     * @return the id of the session if the reminder failed, or an empty {@link Mono}.
+     */
+    private Mono<Long> send(SessionReminder reminder) {
+        return Mono
+            .fromCallable(() -> mailService.sendSessionReminder(reminder, locale, zone))
+            .subscribeOn(Schedulers.boundedElastic())
+            // the session is flagged already, so a reminder which could not be rendered must still be counted as failed
+            .doOnError(e -> log.warn("Could not send the reminder of session {}", reminder.sessionId(), e))
+            .onErrorReturn(false)
+            .flatMap(sent -> {
+                if (Boolean.TRUE.equals(sent)) {
+                    sentCounter.increment();
+                    return Mono.empty();
+                }
+                failedCounter.increment();
+                return Mono.just(reminder.sessionId());
+            });
+    }
+
+    private Mono<Integer> clearNotified(List<Long> ids) {
+        return updateNotified(ids, sessionRepository::clearNotified).as(transactionalOperator::transactional);
+    }
+
+    private Mono<Integer> updateNotified(List<Long> ids, Function<List<Long>, Mono<Long>> update) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        return update
+            .apply(ids)
+            .then(sessionChangeService.publishAll(ids, SessionChangeType.UPDATE))
+            .then(indexOutboxService.enqueueAll(Session.class, ids))
+            .thenReturn(ids.size());
+    }
+}
@@ -0,0 +1,304 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.SessionRepository;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-memory index of the booked time slots of every staff and athlete, used to reject double bookings.
+ * <p>
+ * Each owner keeps its slots as half-open {@code [startDate, endDate)} intervals in sorted primitive arrays,
+ * so an overlap check is a binary search, and a slot costs 24 bytes per owner. Adding or removing a slot shifts the
+ * later slots of its owner, which is linear in the number of slots of that single staff or athlete, but only a copy
+ * of the arrays for a slot booked after all the others, the usual case. Canceled sessions and sessions without a
+ * complete time range never block a slot.
+ * <p>
+ * The index is warmed from the {@code session} table once the application is ready. The reservations made meanwhile
+ * wait for the warm-up, so that they are checked against all the stored sessions, and the slots released meanwhile
+ * are removed once it is done, as the warm-up may have read their session. The writes are not checked if the warm-up
+ * failed.
+ * <p>
+ * Within a transaction, a reservation holds the slot of the new session at once, and keeps the slot of the previous one
+ * until the commit, so that the index never frees a slot still booked in the database. The new slot is freed again if
+ * the transaction rolls back, including when it is canceled.
+ */
+@Service
+public class SessionScheduleIndex {
+
+    private final Logger log = LoggerFactory.getLogger(SessionScheduleIndex.class);
+
+    private final SessionRepository sessionRepository;
+
+    private final Map<Long, IntervalList> staffSlots = new HashMap<>();
+
+    private final Map<Long, IntervalList> athleteSlots = new HashMap<>();
+
+    private final Sinks.Empty<Void> warmedUp = Sinks.empty();
+
+    private volatile boolean ready;
+
+    public SessionScheduleIndex(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        sessionRepository
+            .findAllScheduled()
+            .doOnNext(session -> {
+                synchronized (this) {
+                    add(session);
+                }
+            })
+            .count()
+            .subscribe(
+                count -> {
+                    ready = true;
+                    warmedUp.tryEmitEmpty();
+                    log.info("Indexed {} session slots in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+                },
+                e -> {
+                    warmedUp.tryEmitEmpty();
+                    log.error("Could not warm up the session schedule index", e);
+                }
+            );
+    }
+
+    /**
+     * Atomically replaces the slot of {@code previous} by the slot of {@code next}. Within a transaction, the slot of
+     * {@code previous} is freed once it commits, and the slot of {@code next} once it rolls back.
+     *
+     * @param previous the session as it is currently stored, or {@code null} for a new session.
+     * @param next the session about to be stored.
+     * @return an empty {@link Mono}, or a {@link SessionOverlapException} error if {@code next} overlaps another session
+     * of the same staff or athlete, in which case the index is left unchanged.
+     */
+    public Mono<Void> reserve(Session previous, Session next) {
+        return afterWarmUp(() -> {
+            synchronized (this) {
+                remove(previous);
+                boolean overlaps = overlaps(next);
+                add(previous);
+                if (overlaps) {
+                    return Mono.error(new SessionOverlapException());
+                }
+                add(next);
+            }
+            return TransactionOutcome.afterCompletion(() -> change(() -> remove(previous)), () -> change(() -> remove(next)));
+        });
+    }
+
+    /**
+     * Atomically reserves the slots of several new sessions, which must not overlap each other either. Within a
+     * transaction, the slots are freed again once it rolls back.
+     *
+     * @param sessions the sessions about to be stored.
+     * @return an empty {@link Mono}, or a {@link SessionOverlapException} error if one of the sessions overlaps,
+     * in which case the index is left unchanged.
+     */
+    public Mono<Void> reserveAll(List<Session> sessions) {
+        return afterWarmUp(() -> {
+            synchronized (this) {
+                for (int index = 0; index < sessions.size(); index++) {
+                    Session next = sessions.get(index);
+                    if (overlaps(next)) {
+                        sessions.subList(0, index).forEach(this::remove);
+                        return Mono.error(new SessionOverlapException());
+                    }
+                    add(next);
+                }
+            }
+            return TransactionOutcome.afterCompletion(() -> {}, () -> change(() -> sessions.forEach(this::remove)));
+        });
+    }
+
+    /**
+     * Frees the slot of a deleted session, once the current transaction has committed, or at once without a transaction.
+     *
+     * @param session the deleted session.
+     * @return a {@link Mono} completed once the slot is freed or its release registered.
+     */
+    public Mono<Void> release(Session session) {
+        return TransactionOutcome.afterCommit(() -> afterWarmUp(() -> remove(session)));
+    }
+
+    /**
+     * Runs a check of the index once it is warmed up, at once if it already is, or skips it if the warm-up failed.
+     */
+    private Mono<Void> afterWarmUp(Supplier<Mono<Void>> check) {
+        return warmedUp.asMono().then(Mono.defer(() -> ready ? check.get() : Mono.empty()));
+    }
+
+    /**
+     * Applies a change to the index once it is warmed up, at once if it already is, or drops it if the warm-up failed.
+     */
+    private void afterWarmUp(Runnable change) {
+        warmedUp
+            .asMono()
+            .subscribe(null, null, () -> {
+                if (ready) {
+                    synchronized (this) {
+                        change.run();
+                    }
+                }
+            });
+    }
+
+    private synchronized void change(Runnable change) {
+        change.run();
+    }
+
+    private static boolean isBooked(Session session) {
+        return (
+            session != null &&
+            session.getSessionStatus() != SessionStatus.Canceled &&
+            session.getStartDate() != null &&
+            session.getEndDate() != null &&
+            session.getStartDate().isBefore(session.getEndDate())
+        );
+    }
+
+    private boolean overlaps(Session session) {
+        return (
+            isBooked(session) &&
+            (overlaps(staffSlots, session.getStaffId(), session) || overlaps(athleteSlots, session.getAthleteId(), session))
+        );
+    }
+
+    private static boolean overlaps(Map<Long, IntervalList> slots, Long ownerId, Session session) {
+        if (ownerId == null) {
+            return false;
+        }
+        IntervalList intervals = slots.get(ownerId);
+        return intervals != null && intervals.overlaps(session.getStartDate().toEpochMilli(), session.getEndDate().toEpochMilli());
+    }
+
+    private void add(Session session) {
+        if (isBooked(session)) {
+            add(staffSlots, session.getStaffId(), session);
+            add(athleteSlots, session.getAthleteId(), session);
+        }
+    }
+
+    private static void add(Map<Long, IntervalList> slots, Long ownerId, Session session) {
+        if (ownerId != null) {
+            slots
+                .computeIfAbsent(ownerId, id -> new IntervalList())
+                .add(session.getStartDate().toEpochMilli(), session.getEndDate().toEpochMilli());
+        }
+    }
+
+    private void remove(Session session) {
+        if (isBooked(session)) {
+            remove(staffSlots, session.getStaffId(), session);
+            remove(athleteSlots, session.getAthleteId(), session);
+        }
+    }
+
+    private static void remove(Map<Long, IntervalList> slots, Long ownerId, Session session) {
+        if (ownerId == null) {
+            return;
+        }
+        IntervalList intervals = slots.get(ownerId);
+        if (intervals != null) {
+            intervals.remove(session.getStartDate().toEpochMilli(), session.getEndDate().toEpochMilli());
+            if (intervals.size() == 0) {
+                slots.remove(ownerId);
+            }
+        }
+    }
+
+    /**
+     * Half-open intervals sorted by start, with the running maximum of the ends so that overlaps with
+     * already overlapping legacy data are still found with a single binary search. Not thread-safe.
+     */
+    static final class IntervalList {
+
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private long[] maxEnds = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean overlaps(long start, long end) {
+            int last = firstStartNotBefore(end) - 1;
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        void add(long start, long end) {
+            if (size == starts.length) {
+                int capacity = size + (size >> 1);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+            }
+            int index = firstStartNotBefore(start + 1);
+            System.arraycopy(starts, index, starts, index + 1, size - index);
+            System.arraycopy(ends, index, ends, index + 1, size - index);
+            System.arraycopy(maxEnds, index, maxEnds, index + 1, size - index);
+            starts[index] = start;
+            ends[index] = end;
+            size++;
+            updateMaxEnds(index);
+        }
+
+        boolean remove(long start, long end) {
+            for (int index = firstStartNotBefore(start); index < size && starts[index] == start; index++) {
+                if (ends[index] == end) {
+                    System.arraycopy(starts, index + 1, starts, index, size - index - 1);
+                    System.arraycopy(ends, index + 1, ends, index, size - index - 1);
+                    System.arraycopy(maxEnds, index + 1, maxEnds, index, size - index - 1);
+                    size--;
+                    updateMaxEnds(index);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int firstStartNotBefore(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Recomputes the running maximum of the ends from a changed index. The maxima after it were shifted with their
+         * interval, and the first one left unchanged by the change proves all the following ones are too.
+         */
+        private void updateMaxEnds(int from) {
+            long max = from == 0 ? Long.MIN_VALUE : maxEnds[from - 1];
+            for (int index = from; index < size; index++) {
+                max = Math.max(max, ends[index]);
+                if (index > from && maxEnds[index] == max) {
+                    return;
+                }
+                maxEnds[index] = max;
+            }
+        }
+    }
+}
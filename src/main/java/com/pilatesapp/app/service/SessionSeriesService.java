@@ -0,0 +1,160 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.service.dto.SessionSeriesDTO;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service class for creating recurring series of {@link Session}s.
+ */
+@Service
+public class SessionSeriesService {
+
+    /**
+     * The maximum number of occurrences of a single series, about two years of daily sessions.
+     */
+    public static final int MAX_OCCURRENCES = 750;
+
+    private final Logger log = LoggerFactory.getLogger(SessionSeriesService.class);
+
+    private final SessionRepository sessionRepository;
+
+    private final IndexOutboxService indexOutboxService;
+
+    private final SessionScheduleIndex sessionScheduleIndex;
+
+    private final DailyScheduleService dailyScheduleService;
+
+    private final SessionChangeService sessionChangeService;
+
+    public SessionSeriesService(
+        SessionRepository sessionRepository,
+        IndexOutboxService indexOutboxService,
+        SessionScheduleIndex sessionScheduleIndex,
+        DailyScheduleService dailyScheduleService,
+        SessionChangeService sessionChangeService
+    ) {
+        this.sessionRepository = sessionRepository;
+        this.indexOutboxService = indexOutboxService;
+        this.sessionScheduleIndex = sessionScheduleIndex;
+        this.dailyScheduleService = dailyScheduleService;
+        this.sessionChangeService = sessionChangeService;
+    }
+
+    /**
+     * Expands the recurrence rule of a series into its occurrences.
+     *
+     * @param series the series to expand.
+     * @return the occurrences, ordered by start date.
+     * @throws IllegalArgumentException if the rule is invalid, unbounded, or has more than {@link #MAX_OCCURRENCES} occurrences.
+     */
+    public List<Session> expand(SessionSeriesDTO series) {
+        Duration duration = Duration.between(series.getStartDate(), series.getEndDate());
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("The end date must be after the start date");
+        }
+        if (series.getCount() == null && series.getUntil() == null) {
+            throw new IllegalArgumentException("Either the count or the until date of the series is required");
+        }
+        if (series.getCount() != null && series.getCount() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("A series cannot have more than " + MAX_OCCURRENCES + " occurrences");
+        }
+        ZoneId zone;
+        try {
+            zone = series.getTimeZone() == null ? ZoneOffset.UTC : ZoneId.of(series.getTimeZone());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Invalid time zone " + series.getTimeZone(), e);
+        }
+        ZonedDateTime first = series.getStartDate().atZone(zone);
+        int limit = series.getCount() == null ? MAX_OCCURRENCES + 1 : series.getCount();
+
+        List<Session> occurrences = new ArrayList<>();
+        if (series.getFrequency() == SessionSeriesDTO.Frequency.DAILY) {
+            for (ZonedDateTime start = first; accepts(series, start, occurrences, limit); start = start.plusDays(series.getInterval())) {
+                occurrences.add(occurrence(series, start, duration));
+            }
+        } else {
+            Set<DayOfWeek> days = series.getDaysOfWeek() == null || series.getDaysOfWeek().isEmpty()
+                ? EnumSet.of(first.getDayOfWeek())
+                : EnumSet.copyOf(series.getDaysOfWeek());
+            ZonedDateTime week = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            boolean more = true;
+            while (more) {
+                for (DayOfWeek day : days) {
+                    ZonedDateTime start = week.with(TemporalAdjusters.nextOrSame(day));
+                    if (!start.isBefore(first)) {
+                        more = accepts(series, start, occurrences, limit);
+                        if (!more) {
+                            break;
+                        }
+                        occurrences.add(occurrence(series, start, duration));
+                    }
+                }
+                week = week.plusWeeks(series.getInterval());
+            }
+        }
+        if (occurrences.size() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("A series cannot have more than " + MAX_OCCURRENCES + " occurrences");
+        }
+        return occurrences;
+    }
+
+    /**
+     * Stores all the occurrences of a series with a single multi-row insert, then projects them into the daily schedule,
+     * publishes their creation and enqueues them for indexing with a single statement each.
+     *
+     * @param occurrences the occurrences to store, as returned by {@link #expand(SessionSeriesDTO)}.
+     * @return the stored occurrences, or a {@link SessionOverlapException} error if one of them is double-booked.
+     */
+    @Transactional
+    public Flux<Session> createSeries(List<Session> occurrences) {
+        log.debug("Request to create a series of {} Sessions", occurrences.size());
+        return sessionScheduleIndex
+            .reserveAll(occurrences)
+            .thenMany(Flux.defer(() -> sessionRepository.insertAll(occurrences)))
+            .collectList()
+            .flatMap(sessions -> {
+                List<Long> ids = sessions.stream().map(Session::getId).toList();
+                return dailyScheduleService
+                    .refreshAll(ids)
+                    .then(sessionChangeService.publishAll(ids, SessionChangeType.CREATE))
+                    .then(indexOutboxService.enqueueAll(Session.class, ids))
+                    .thenReturn(sessions);
+            })
+            .flatMapMany(Flux::fromIterable);
+    }
+
+    private static boolean accepts(SessionSeriesDTO series, ZonedDateTime start, List<Session> occurrences, int limit) {
+        return occurrences.size() < limit && (series.getUntil() == null || !start.toInstant().isAfter(series.getUntil()));
+    }
+
+    private static Session occurrence(SessionSeriesDTO series, ZonedDateTime start, Duration duration) {
+        Session session = new Session()
+            .startDate(start.toInstant())
+            .endDate(start.plus(duration).toInstant())
+            .qrCode(series.getQrCode())
+            .sessionStatus(series.getSessionStatus() == null ? SessionStatus.Waiting : series.getSessionStatus())
+            .isNotified(false);
+        session.setStaffId(series.getStaffId());
+        session.setAthleteId(series.getAthleteId());
+        return session;
+    }
+}
@@ -0,0 +1,128 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import com.pilatesapp.app.repository.SessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class moving the sessions still {@code Waiting} after their end to {@code Undone}.
+ * <p>
+ * Each chunk is moved by a single {@code UPDATE ... RETURNING}, and enqueued for reindexing with a single statement.
+ * Rows locked by another node sweeping at the same time are skipped, so sweeps can run on every node.
+ */
+@Service
+public class SessionStatusSweeper {
+
+    public static final String SWEPT_METER_NAME = "session.sweeper.swept";
+    public static final String SWEPT_METER_DESCRIPTION = "Indicates the number of overdue sessions moved to undone.";
+    public static final String SWEPT_METER_BASE_UNIT = "sessions";
+    public static final String DURATION_METER_NAME = "session.sweeper.duration";
+    public static final String DURATION_METER_DESCRIPTION = "Indicates the duration of the sweeps of the overdue sessions.";
+
+    /**
+     * The maximum number of sessions moved by a single statement, which bounds its locks.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(SessionStatusSweeper.class);
+
+    private final SessionRepository sessionRepository;
+
+    private final IndexOutboxService indexOutboxService;
+
+    private final DailyScheduleService dailyScheduleService;
+
+    private final SessionChangeService sessionChangeService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Counter sweptCounter;
+
+    private final Timer durationTimer;
+
+    private final boolean enabled;
+
+    public SessionStatusSweeper(
+        SessionRepository sessionRepository,
+        IndexOutboxService indexOutboxService,
+        DailyScheduleService dailyScheduleService,
+        SessionChangeService sessionChangeService,
+        TransactionalOperator transactionalOperator,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.sessionRepository = sessionRepository;
+        this.indexOutboxService = indexOutboxService;
+        this.dailyScheduleService = dailyScheduleService;
+        this.sessionChangeService = sessionChangeService;
+        this.transactionalOperator = transactionalOperator;
+        this.sweptCounter =
+            Counter
+                .builder(SWEPT_METER_NAME)
+                .baseUnit(SWEPT_METER_BASE_UNIT)
+                .description(SWEPT_METER_DESCRIPTION)
+                .register(registry);
+        this.durationTimer = Timer.builder(DURATION_METER_NAME).description(DURATION_METER_DESCRIPTION).register(registry);
+        this.enabled = applicationProperties.getSessionSweeper().isEnabled();
+    }
+
+    @Scheduled(fixedDelayString = "${application.session-sweeper.interval:PT5M}", initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void scheduledSweep() {
+        if (!enabled) {
+            return;
+        }
+        sweep()
+            .subscribe(
+                count -> {
+                    if (count > 0) {
+                        log.info("Moved {} overdue sessions to undone", count);
+                    }
+                },
+                e -> log.error("Could not sweep the overdue sessions", e)
+            );
+    }
+
+    /**
+     * Moves all the overdue sessions to undone, chunk by chunk, each in its own transaction.
+     *
+     * @return the number of moved sessions.
+     */
+    public Mono<Long> sweep() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return sweepChunk()
+                .expand(count -> count == CHUNK_SIZE ? sweepChunk() : Mono.empty())
+                .reduce(0L, Long::sum)
+                .doFinally(signal -> sample.stop(durationTimer));
+        });
+    }
+
+    private Mono<Long> sweepChunk() {
+        return sessionRepository
+            .sweepOverdue(CHUNK_SIZE)
+            .collectList()
+            .flatMap(ids ->
+                dailyScheduleService
+                    .refreshAll(ids)
+                    .then(sessionChangeService.publishAll(ids, SessionChangeType.UPDATE))
+                    .then(indexOutboxService.enqueueAll(Session.class, ids))
+                    .thenReturn((long) ids.size())
+            )
+            .as(transactionalOperator::transactional)
+            .doOnNext(count -> {
+                log.debug("Moved a chunk of {} overdue sessions to undone", count);
+                sweptCounter.increment(count);
+            });
+    }
+}
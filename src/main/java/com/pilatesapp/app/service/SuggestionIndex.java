@@ -0,0 +1,485 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.StaffRepository;
+import com.pilatesapp.app.service.dto.SuggestionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory typeahead index of the names, emails and phone numbers of the athletes and staff, serving the pickers
+ * without a round trip to Elasticsearch, and while it is down.
+ * <p>
+ * The entries are held in a {@link Snapshot} of packed primitive arrays: the searchable words of all the entries are
+ * normalized UTF-8 tokens sorted in a single byte array, so a prefix lookup is a binary search followed by a scan of
+ * the matching tokens, and an athlete with a two words name, an email and a phone number costs about 90 bytes.
+ * <p>
+ * The snapshot is rebuilt from the database once the application is ready and then periodically, which also picks up
+ * the writes of the other nodes. Local writes apply as pending entries once their transaction has committed, and
+ * override the snapshot until a rebuild started after them has completed, as that rebuild read them from the tables.
+ */
+@Service
+public class SuggestionIndex {
+
+    public static final String ENTRIES_METER_NAME = "suggest.index.entries";
+    public static final String ENTRIES_METER_DESCRIPTION = "Indicates the number of entries of the typeahead index.";
+    public static final String MEMORY_METER_NAME = "suggest.index.memory";
+    public static final String MEMORY_METER_DESCRIPTION = "Indicates the memory used by the arrays of the typeahead index.";
+    public static final String MEMORY_METER_BASE_UNIT = "bytes";
+    public static final String LOOKUP_METER_NAME = "suggest.lookup";
+    public static final String LOOKUP_METER_DESCRIPTION = "Indicates the duration of the typeahead lookups.";
+
+    /**
+     * The maximum number of suggestions of a lookup.
+     */
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern PHONE_NUMBER = Pattern.compile("[+\\d\\s().-]*\\d[+\\d\\s().-]*");
+
+    private final Logger log = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    private final AthleteRepository athleteRepository;
+
+    private final StaffRepository staffRepository;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final Timer lookupTimer;
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    /**
+     * A local write not yet known to be in the snapshot, with a {@code null} entry for a deletion.
+     */
+    private record Pending(long sequence, Entry entry) {}
+
+    /**
+     * A suggested athlete or staff, with its normalized UTF-8 tokens.
+     */
+    record Entry(SuggestionDTO.Type type, long id, String name, byte[][] tokens) {
+        long key() {
+            return key(type, id);
+        }
+
+        static long key(SuggestionDTO.Type type, long id) {
+            return (id << 1) | type.ordinal();
+        }
+
+        static Entry of(SuggestionDTO.Type type, long id, String name, String email, String phone) {
+            return new Entry(type, id, name, SuggestionIndex.tokens(name, email, phone));
+        }
+
+        boolean matches(byte[][] words) {
+            for (byte[] word : words) {
+                boolean found = false;
+                for (byte[] token : tokens) {
+                    if (token.length >= word.length && Arrays.equals(token, 0, word.length, word, 0, word.length)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public SuggestionIndex(AthleteRepository athleteRepository, StaffRepository staffRepository, MeterRegistry registry) {
+        this.athleteRepository = athleteRepository;
+        this.staffRepository = staffRepository;
+        Gauge.builder(ENTRIES_METER_NAME, this, index -> index.snapshot.size()).description(ENTRIES_METER_DESCRIPTION).register(registry);
+        Gauge
+            .builder(MEMORY_METER_NAME, this, index -> index.snapshot.memoryBytes())
+            .baseUnit(MEMORY_METER_BASE_UNIT)
+            .description(MEMORY_METER_DESCRIPTION)
+            .register(registry);
+        this.lookupTimer =
+            Timer.builder(LOOKUP_METER_NAME).description(LOOKUP_METER_DESCRIPTION).publishPercentiles(0.5, 0.99).register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        scheduledRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${application.suggest.refresh-interval:PT10M}", initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void scheduledRebuild() {
+        long start = System.nanoTime();
+        rebuild()
+            .subscribe(
+                count -> log.debug("Indexed {} typeahead entries in {} ms", count, (System.nanoTime() - start) / 1_000_000),
+                e -> log.error("Could not rebuild the typeahead index", e)
+            );
+    }
+
+    /**
+     * Rebuilds the snapshot from the database, unless a rebuild is already running.
+     *
+     * @return the number of entries of the new snapshot, or an empty {@link Mono} if a rebuild is already running.
+     */
+    public Mono<Integer> rebuild() {
+        return Mono.defer(() -> {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            long started = sequence.get();
+            return Flux
+                .concat(
+                    athleteRepository
+                        .findAllSummaries()
+                        .map(athlete ->
+                            Entry.of(SuggestionDTO.Type.ATHLETE, athlete.id(), athlete.name(), athlete.email(), athlete.phone())
+                        ),
+                    staffRepository
+                        .findAllSummaries()
+                        .map(staff -> Entry.of(SuggestionDTO.Type.STAFF, staff.id(), staff.name(), null, null))
+                )
+                .collectList()
+                .map(entries -> {
+                    Snapshot built = Snapshot.build(entries);
+                    snapshot = built;
+                    // a write applied before the start of this rebuild was committed before it read the tables
+                    pending.values().removeIf(write -> write.sequence() <= started);
+                    return built.size();
+                })
+                .doFinally(signal -> rebuilding.set(false));
+        });
+    }
+
+    /**
+     * Applies a created or updated athlete, once the current transaction has committed.
+     *
+     * @param athlete the saved athlete.
+     * @return a {@link Mono} completed once the write is applied or registered.
+     */
+    public Mono<Void> putAthlete(Athlete athlete) {
+        Entry entry = Entry.of(SuggestionDTO.Type.ATHLETE, athlete.getId(), athlete.getName(), athlete.getEmail(), athlete.getPhone());
+        return TransactionOutcome.afterCommit(() -> put(entry));
+    }
+
+    /**
+     * Applies a deleted athlete, once the current transaction has committed.
+     *
+     * @param id the id of the athlete.
+     * @return a {@link Mono} completed once the write is applied or registered.
+     */
+    public Mono<Void> removeAthlete(Long id) {
+        return TransactionOutcome.afterCommit(() -> remove(SuggestionDTO.Type.ATHLETE, id));
+    }
+
+    /**
+     * Applies a created or updated staff, once the current transaction has committed.
+     *
+     * @param staff the saved staff.
+     * @return a {@link Mono} completed once the write is applied or registered.
+     */
+    public Mono<Void> putStaff(Staff staff) {
+        Entry entry = Entry.of(SuggestionDTO.Type.STAFF, staff.getId(), staff.getName(), null, null);
+        return TransactionOutcome.afterCommit(() -> put(entry));
+    }
+
+    /**
+     * Applies a deleted staff, once the current transaction has committed.
+     *
+     * @param id the id of the staff.
+     * @return a {@link Mono} completed once the write is applied or registered.
+     */
+    public Mono<Void> removeStaff(Long id) {
+        return TransactionOutcome.afterCommit(() -> remove(SuggestionDTO.Type.STAFF, id));
+    }
+
+    private void put(Entry entry) {
+        pending.put(entry.key(), new Pending(sequence.incrementAndGet(), entry));
+    }
+
+    private void remove(SuggestionDTO.Type type, long id) {
+        pending.put(Entry.key(type, id), new Pending(sequence.incrementAndGet(), null));
+    }
+
+    /**
+     * Get the athletes and staff having a token starting with each word of a prefix, in the order of their names.
+     * Names are split into words, while emails and phone numbers are tokens of their own; case and diacritics are
+     * ignored, and so are the separators of a phone number.
+     *
+     * @param prefix the prefix typed so far.
+     * @param type the type of the suggestions, or {@code null} for both.
+     * @param size the maximum number of suggestions.
+     * @return the suggestions.
+     */
+    public List<SuggestionDTO> suggest(String prefix, SuggestionDTO.Type type, int size) {
+        long start = System.nanoTime();
+        byte[][] words = words(prefix);
+        if (words.length == 0) {
+            return List.of();
+        }
+        Snapshot current = snapshot;
+        List<Entry> found = new ArrayList<>();
+        BitSet matches = current.matches(words);
+        for (int entry = matches.nextSetBit(0); entry >= 0 && found.size() < size; entry = matches.nextSetBit(entry + 1)) {
+            if ((type == null || current.type(entry) == type) && !pending.containsKey(current.key(entry))) {
+                found.add(new Entry(current.type(entry), current.id(entry), current.name(entry), null));
+            }
+        }
+        for (Pending write : pending.values()) {
+            if (write.entry() != null && (type == null || write.entry().type() == type) && write.entry().matches(words)) {
+                found.add(write.entry());
+            }
+        }
+        List<SuggestionDTO> suggestions = found
+            .stream()
+            .sorted(Snapshot.ORDER)
+            .limit(size)
+            .map(entry -> new SuggestionDTO(entry.type(), entry.id(), entry.name()))
+            .toList();
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    static String normalize(String text) {
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").replace('ı', 'i').toLowerCase(Locale.ROOT);
+    }
+
+    static byte[][] tokens(String name, String email, String phone) {
+        List<String> tokens = new ArrayList<>();
+        if (name != null) {
+            for (String word : WORD_SEPARATORS.split(normalize(name))) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                }
+            }
+        }
+        if (email != null && !email.isBlank()) {
+            tokens.add(normalize(email.strip()));
+        }
+        if (phone != null) {
+            String digits = phone.replaceAll("\\D", "");
+            if (!digits.isEmpty()) {
+                tokens.add(digits);
+            }
+        }
+        return tokens.stream().distinct().map(token -> token.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+    }
+
+    static byte[][] words(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return new byte[0][];
+        }
+        if (PHONE_NUMBER.matcher(prefix).matches()) {
+            return new byte[][] { prefix.replaceAll("\\D", "").getBytes(StandardCharsets.UTF_8) };
+        }
+        return Arrays
+            .stream(normalize(prefix).strip().split("\\s+"))
+            .map(word -> word.getBytes(StandardCharsets.UTF_8))
+            .toArray(byte[][]::new);
+    }
+
+    /**
+     * An immutable set of entries sorted by name, packed in primitive arrays.
+     * <p>
+     * The tokens are stored as {@code [length][bytes][entry]} records, with a one byte length and a three bytes entry
+     * position, sorted in unsigned byte order, which is the code point order of their UTF-8 encoding: the tokens
+     * starting with a word are contiguous. The offset of every {@value #BLOCK_SIZE}th record is kept for the binary
+     * search, which then reads at most a block of records.
+     */
+    static final class Snapshot {
+
+        static final Comparator<Entry> ORDER = Comparator
+            .comparing((Entry entry) -> entry.name() != null ? normalize(entry.name()) : "")
+            .thenComparingLong(Entry::id);
+
+        static final int BLOCK_SIZE = 8;
+
+        private static final int MAX_TOKEN_LENGTH = 0xFF;
+
+        private static final int MAX_ENTRIES = 1 << 24;
+
+        private final long[] ids;
+        private final byte[] types;
+        private final byte[] names;
+        private final int[] nameOffsets;
+        private final byte[] tokens;
+        private final int[] blocks;
+
+        private Snapshot(long[] ids, byte[] types, byte[] names, int[] nameOffsets, byte[] tokens, int[] blocks) {
+            this.ids = ids;
+            this.types = types;
+            this.names = names;
+            this.nameOffsets = nameOffsets;
+            this.tokens = tokens;
+            this.blocks = blocks;
+        }
+
+        private record Token(byte[] bytes, int entry) {}
+
+        static Snapshot build(List<Entry> entries) {
+            if (entries.size() > MAX_ENTRIES) {
+                throw new IllegalArgumentException("The typeahead index is limited to " + MAX_ENTRIES + " entries");
+            }
+            List<Entry> sorted = entries.stream().sorted(ORDER).toList();
+            int size = sorted.size();
+            long[] ids = new long[size];
+            byte[] types = new byte[size];
+            int[] nameOffsets = new int[size + 1];
+            ByteArrayOutputStream names = new ByteArrayOutputStream();
+            List<Token> tokens = new ArrayList<>();
+            for (int index = 0; index < size; index++) {
+                Entry entry = sorted.get(index);
+                ids[index] = entry.id();
+                types[index] = (byte) entry.type().ordinal();
+                if (entry.name() != null) {
+                    names.writeBytes(entry.name().getBytes(StandardCharsets.UTF_8));
+                }
+                nameOffsets[index + 1] = names.size();
+                for (byte[] token : entry.tokens()) {
+                    tokens.add(new Token(token.length > MAX_TOKEN_LENGTH ? Arrays.copyOf(token, MAX_TOKEN_LENGTH) : token, index));
+                }
+            }
+            tokens.sort((left, right) -> {
+                int order = Arrays.compareUnsigned(left.bytes(), right.bytes());
+                return order != 0 ? order : Integer.compare(left.entry(), right.entry());
+            });
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            int[] blocks = new int[(tokens.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            for (int index = 0; index < tokens.size(); index++) {
+                if (index % BLOCK_SIZE == 0) {
+                    blocks[index / BLOCK_SIZE] = records.size();
+                }
+                Token token = tokens.get(index);
+                records.write(token.bytes().length);
+                records.writeBytes(token.bytes());
+                records.write(token.entry() >>> 16);
+                records.write(token.entry() >>> 8);
+                records.write(token.entry());
+            }
+            return new Snapshot(ids, types, names.toByteArray(), nameOffsets, records.toByteArray(), blocks);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        long memoryBytes() {
+            return 8L * ids.length + types.length + names.length + 4L * nameOffsets.length + tokens.length + 4L * blocks.length;
+        }
+
+        long id(int entry) {
+            return ids[entry];
+        }
+
+        SuggestionDTO.Type type(int entry) {
+            return SuggestionDTO.Type.values()[types[entry]];
+        }
+
+        long key(int entry) {
+            return Entry.key(type(entry), ids[entry]);
+        }
+
+        String name(int entry) {
+            int from = nameOffsets[entry];
+            return new String(names, from, nameOffsets[entry + 1] - from, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Get the entries having a token starting with each word.
+         *
+         * @param words the normalized UTF-8 words.
+         * @return the matching entries, by position in the order of the names.
+         */
+        BitSet matches(byte[][] words) {
+            BitSet result = null;
+            for (byte[] word : words) {
+                BitSet found = new BitSet(ids.length);
+                for (int record = seek(word); record < tokens.length && startsWith(record, word); record = next(record)) {
+                    found.set(entry(record));
+                }
+                if (result == null) {
+                    result = found;
+                } else {
+                    result.and(found);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result != null ? result : new BitSet();
+        }
+
+        /**
+         * Get the offset of the first record whose token is not before a word.
+         */
+        private int seek(byte[] word) {
+            int low = 0;
+            int high = blocks.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(blocks[middle], word) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (low == 0) {
+                return 0;
+            }
+            int record = blocks[low - 1];
+            while (record < tokens.length && compare(record, word) < 0) {
+                record = next(record);
+            }
+            return record;
+        }
+
+        private int compare(int record, byte[] word) {
+            return Arrays.compareUnsigned(tokens, record + 1, record + 1 + (tokens[record] & 0xFF), word, 0, word.length);
+        }
+
+        private boolean startsWith(int record, byte[] word) {
+            int from = record + 1;
+            return (tokens[record] & 0xFF) >= word.length && Arrays.equals(tokens, from, from + word.length, word, 0, word.length);
+        }
+
+        private int entry(int record) {
+            int from = record + 1 + (tokens[record] & 0xFF);
+            return ((tokens[from] & 0xFF) << 16) | ((tokens[from + 1] & 0xFF) << 8) | (tokens[from + 2] & 0xFF);
+        }
+
+        private int next(int record) {
+            return record + 4 + (tokens[record] & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pilatesapp.app.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Applies the in-memory changes mirroring a database write once the outcome of its transaction is known, so that the
+ * in-memory state never holds a write which was rolled back.
+ */
+final class TransactionOutcome {
+
+    private TransactionOutcome() {}
+
+    /**
+     * Runs {@code committed} once the current transaction has committed, or {@code rolledBack} once it has not, which
+     * includes a cancellation. Without a transaction, the write is considered committed and {@code committed} runs at
+     * once.
+     *
+     * @return a {@link Mono} completed once the change is done or registered.
+     */
+    static Mono<Void> afterCompletion(Runnable committed, Runnable rolledBack) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(manager ->
+                manager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCompletion(int status) {
+                            return Mono.fromRunnable(status == STATUS_COMMITTED ? committed : rolledBack);
+                        }
+                    }
+                )
+            )
+            .switchIfEmpty(Mono.fromRunnable(committed))
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(committed))
+            .then();
+    }
+
+    /**
+     * Runs {@code committed} once the current transaction has committed, or at once without a transaction.
+     *
+     * @return a {@link Mono} completed once the change is done or registered.
+     */
+    static Mono<Void> afterCommit(Runnable committed) {
+        return afterCompletion(committed, () -> {});
+    }
+}
@@ -3,11 +3,16 @@ package com.pilatesapp.app.service;
 import com.pilatesapp.app.config.Constants;
 import com.pilatesapp.app.domain.Authority;
 import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.AuthorityCache;
 import com.pilatesapp.app.repository.AuthorityRepository;
 import com.pilatesapp.app.repository.UserRepository;
+import com.pilatesapp.app.repository.search.SearchCircuitBreaker;
+import com.pilatesapp.app.repository.search.SearchResultCache;
 import com.pilatesapp.app.repository.search.UserSearchRepository;
 import com.pilatesapp.app.security.AuthoritiesConstants;
+import com.pilatesapp.app.security.PasswordHasher;
 import com.pilatesapp.app.security.SecurityUtils;
+import com.pilatesapp.app.security.UserDetailsCache;
 import com.pilatesapp.app.service.dto.AdminUserDTO;
 import com.pilatesapp.app.service.dto.UserDTO;
 import java.time.Instant;
@@ -18,8 +23,8 @@ import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
@@ -37,22 +42,46 @@ public class UserService {
 
     private final UserRepository userRepository;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
     private final UserSearchRepository userSearchRepository;
 
     private final AuthorityRepository authorityRepository;
 
+    private final AuthorityCache authorityCache;
+
+    private final SearchResultCache searchResultCache;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+
+    private final ReactiveElasticsearchOperations elasticsearchOperations;
+
+    private final IndexOutboxService indexOutboxService;
+
+    private final UserDetailsCache userDetailsCache;
+
     public UserService(
         UserRepository userRepository,
-        PasswordEncoder passwordEncoder,
+        PasswordHasher passwordHasher,
         UserSearchRepository userSearchRepository,
-        AuthorityRepository authorityRepository
+        AuthorityRepository authorityRepository,
+        AuthorityCache authorityCache,
+        SearchResultCache searchResultCache,
+        SearchCircuitBreaker searchCircuitBreaker,
+        ReactiveElasticsearchOperations elasticsearchOperations,
+        IndexOutboxService indexOutboxService,
+        UserDetailsCache userDetailsCache
     ) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.userSearchRepository = userSearchRepository;
         this.authorityRepository = authorityRepository;
+        this.authorityCache = authorityCache;
+        this.searchResultCache = searchResultCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.indexOutboxService = indexOutboxService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Transactional
@@ -64,9 +93,9 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
-                return saveUser(user);
+                return saveUser(user, false);
             })
-            .flatMap(user -> userSearchRepository.save(user).thenReturn(user))
+            .flatMap(this::index)
             .doOnNext(user -> log.debug("Activated user: {}", user));
     }
 
@@ -76,14 +105,17 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetKey(null);
-                user.setResetDate(null);
-                return user;
-            })
-            .flatMap(this::saveUser);
+            .flatMap(user ->
+                passwordHasher
+                    .encode(newPassword)
+                    .map(encryptedPassword -> {
+                        user.setPassword(encryptedPassword);
+                        user.setResetKey(null);
+                        user.setResetDate(null);
+                        return user;
+                    })
+            )
+            .flatMap(user -> saveUser(user, false));
     }
 
     @Transactional
@@ -97,7 +129,7 @@ public class UserService {
                 user.setResetDate(Instant.now());
                 return user;
             })
-            .flatMap(this::saveUser);
+            .flatMap(user -> saveUser(user, false));
     }
 
     @Transactional
@@ -106,7 +138,7 @@ public class UserService {
             .findOneByLogin(userDTO.getLogin().toLowerCase())
             .flatMap(existingUser -> {
                 if (!existingUser.isActivated()) {
-                    return userRepository.delete(existingUser);
+                    return delete(existingUser);
                 } else {
                     return Mono.error(new UsernameAlreadyUsedException());
                 }
@@ -114,44 +146,39 @@ public class UserService {
             .then(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()))
             .flatMap(existingUser -> {
                 if (!existingUser.isActivated()) {
-                    return userRepository.delete(existingUser);
+                    return delete(existingUser);
                 } else {
                     return Mono.error(new EmailAlreadyUsedException());
                 }
             })
-            .publishOn(Schedulers.boundedElastic())
-            .then(
-                Mono.fromCallable(() -> {
-                    User newUser = new User();
-                    String encryptedPassword = passwordEncoder.encode(password);
-                    newUser.setLogin(userDTO.getLogin().toLowerCase());
-                    // new user gets initially a generated password
-                    newUser.setPassword(encryptedPassword);
-                    newUser.setFirstName(userDTO.getFirstName());
-                    newUser.setLastName(userDTO.getLastName());
-                    if (userDTO.getEmail() != null) {
-                        newUser.setEmail(userDTO.getEmail().toLowerCase());
-                    }
-                    newUser.setImageUrl(userDTO.getImageUrl());
-                    newUser.setLangKey(userDTO.getLangKey());
-                    // new user is not active
-                    newUser.setActivated(false);
-                    // new user gets registration key
-                    newUser.setActivationKey(RandomUtil.generateActivationKey());
-                    return newUser;
-                })
-            )
-            .flatMap(newUser -> {
-                Set<Authority> authorities = new HashSet<>();
-                return authorityRepository
-                    .findById(AuthoritiesConstants.USER)
-                    .map(authorities::add)
+            .then(passwordHasher.encode(password))
+            .map(encryptedPassword -> {
+                User newUser = new User();
+                newUser.setLogin(userDTO.getLogin().toLowerCase());
+                // new user gets initially a generated password
+                newUser.setPassword(encryptedPassword);
+                newUser.setFirstName(userDTO.getFirstName());
+                newUser.setLastName(userDTO.getLastName());
+                if (userDTO.getEmail() != null) {
+                    newUser.setEmail(userDTO.getEmail().toLowerCase());
+                }
+                newUser.setImageUrl(userDTO.getImageUrl());
+                newUser.setLangKey(userDTO.getLangKey());
+                // new user is not active
+                newUser.setActivated(false);
+                // new user gets registration key
+                newUser.setActivationKey(RandomUtil.generateActivationKey());
+                return newUser;
+            })
+            .flatMap(newUser ->
+                authorityCache
+                    .resolve(Set.of(AuthoritiesConstants.USER))
+                    .doOnNext(newUser::setAuthorities)
                     .thenReturn(newUser)
-                    .doOnNext(user -> user.setAuthorities(authorities))
-                    .flatMap(this::saveUser)
-                    .flatMap(user -> userSearchRepository.save(user).thenReturn(user))
-                    .doOnNext(user -> log.debug("Created Information for User: {}", user));
-            });
+                    .flatMap(user -> saveUser(user, true))
+                    .flatMap(this::index)
+                    .doOnNext(user -> log.debug("Created Information for User: {}", user))
+            );
     }
 
     @Transactional
@@ -169,22 +196,19 @@ public class UserService {
         } else {
             user.setLangKey(userDTO.getLangKey());
         }
-        return Flux
-            .fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
-            .flatMap(authorityRepository::findById)
-            .doOnNext(authority -> user.getAuthorities().add(authority))
-            .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
-            .map(newUser -> {
-                String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
-                newUser.setPassword(encryptedPassword);
-                newUser.setResetKey(RandomUtil.generateResetKey());
-                newUser.setResetDate(Instant.now());
-                newUser.setActivated(true);
-                return newUser;
+        return authorityCache
+            .resolve(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : Set.of())
+            .doOnNext(user::setAuthorities)
+            .then(passwordHasher.encode(RandomUtil.generatePassword()))
+            .map(encryptedPassword -> {
+                user.setPassword(encryptedPassword);
+                user.setResetKey(RandomUtil.generateResetKey());
+                user.setResetDate(Instant.now());
+                user.setActivated(true);
+                return user;
             })
-            .flatMap(this::saveUser)
-            .flatMap(user1 -> userSearchRepository.save(user1).thenReturn(user1))
+            .flatMap(newUser -> saveUser(newUser, true))
+            .flatMap(this::index)
             .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
     }
 
@@ -208,17 +232,10 @@ public class UserService {
                 user.setImageUrl(userDTO.getImageUrl());
                 user.setActivated(userDTO.isActivated());
                 user.setLangKey(userDTO.getLangKey());
-                Set<Authority> managedAuthorities = user.getAuthorities();
-                managedAuthorities.clear();
-                return userRepository
-                    .deleteUserAuthorities(user.getId())
-                    .thenMany(Flux.fromIterable(userDTO.getAuthorities()))
-                    .flatMap(authorityRepository::findById)
-                    .map(managedAuthorities::add)
-                    .then(Mono.just(user));
+                return authorityCache.resolve(userDTO.getAuthorities()).doOnNext(user::setAuthorities).thenReturn(user);
             })
-            .flatMap(this::saveUser)
-            .flatMap(user -> userSearchRepository.save(user).thenReturn(user))
+            .flatMap(user -> saveUser(user, true))
+            .flatMap(this::index)
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -227,8 +244,8 @@ public class UserService {
     public Mono<Void> deleteUser(String login) {
         return userRepository
             .findOneByLogin(login)
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .flatMap(user -> userSearchRepository.delete(user).thenReturn(user))
+            .flatMap(this::delete)
+            .flatMap(this::unindex)
             .doOnNext(user -> log.debug("Deleted User: {}", user))
             .then();
     }
@@ -256,15 +273,33 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
-                return saveUser(user);
+                return saveUser(user, false);
             })
-            .flatMap(user -> userSearchRepository.save(user).thenReturn(user))
+            .flatMap(this::index)
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .then();
     }
 
+    /**
+     * Save a user with its authorities, which replace the ones it has.
+     *
+     * @param user the user, with its authorities.
+     * @return the saved user.
+     */
     @Transactional
     public Mono<User> saveUser(User user) {
+        return saveUser(user, true);
+    }
+
+    /**
+     * Save a user, and replace its authorities by its current ones if asked to. The users read without their authorities
+     * are saved without them, which keeps the ones they have.
+     *
+     * @param user the user.
+     * @param withAuthorities whether to replace its authorities.
+     * @return the saved user.
+     */
+    private Mono<User> saveUser(User user, boolean withAuthorities) {
         return SecurityUtils
             .getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
@@ -275,14 +310,15 @@ public class UserService {
                 user.setLastModifiedBy(login);
                 // Saving the relationship can be done in an entity callback
                 // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
+                String[] authorities = user.getAuthorities().stream().map(Authority::getName).toArray(String[]::new);
                 return userRepository
                     .save(user)
                     .flatMap(savedUser ->
-                        Flux
-                            .fromIterable(user.getAuthorities())
-                            .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                            .then(Mono.just(savedUser))
-                    );
+                        withAuthorities
+                            ? userRepository.replaceUserAuthorities(savedUser.getId(), authorities).thenReturn(savedUser)
+                            : Mono.just(savedUser)
+                    )
+                    .flatMap(savedUser -> userDetailsCache.evictAfterCompletion(savedUser).thenReturn(savedUser));
             });
     }
 
@@ -291,17 +327,16 @@ public class UserService {
         return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
-            .map(user -> {
-                String currentEncryptedPassword = user.getPassword();
-                if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
-                    throw new InvalidPasswordException();
-                }
-                String encryptedPassword = passwordEncoder.encode(newPassword);
-                user.setPassword(encryptedPassword);
-                return user;
-            })
-            .flatMap(this::saveUser)
+            .flatMap(user ->
+                passwordHasher
+                    .matches(currentClearTextPassword, user.getPassword())
+                    .flatMap(matches -> matches ? passwordHasher.encode(newPassword) : Mono.<String>error(new InvalidPasswordException()))
+                    .map(encryptedPassword -> {
+                        user.setPassword(encryptedPassword);
+                        return user;
+                    })
+            )
+            .flatMap(user -> saveUser(user, false))
             .doOnNext(user -> log.debug("Changed password for User: {}", user))
             .then();
     }
@@ -347,11 +382,42 @@ public class UserService {
             .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
                 LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC)
             )
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .flatMap(user -> userSearchRepository.delete(user).thenReturn(user))
+            .flatMap(this::delete)
+            .flatMap(this::unindex)
             .doOnNext(user -> log.debug("Deleted User: {}", user));
     }
 
+    private Mono<User> delete(User user) {
+        return userRepository.delete(user).then(userDetailsCache.evictAfterCompletion(user)).thenReturn(user);
+    }
+
+    private Mono<User> index(User user) {
+        return searchCircuitBreaker
+            .protect(userSearchRepository.save(user).then(refreshIndex()))
+            .doOnSuccess(refreshed -> searchResultCache.invalidate(User.class))
+            .onErrorResume(SearchCircuitBreaker::isUnavailable, e -> defer(user))
+            .thenReturn(user);
+    }
+
+    private Mono<User> unindex(User user) {
+        return searchCircuitBreaker
+            .protect(userSearchRepository.delete(user).then(refreshIndex()))
+            .doOnSuccess(refreshed -> searchResultCache.invalidate(User.class))
+            .onErrorResume(SearchCircuitBreaker::isUnavailable, e -> defer(user))
+            .thenReturn(user);
+    }
+
+    // the index is refreshed before the cached pages are dropped, or a search run in between would cache the old user
+    private Mono<Void> refreshIndex() {
+        return elasticsearchOperations.indexOps(User.class).refresh();
+    }
+
+    // the user is indexed from the outbox once Elasticsearch recovers, rather than failing the change
+    private Mono<Void> defer(User user) {
+        log.debug("Deferring the indexing of User {} to the index outbox", user.getId());
+        return indexOutboxService.enqueue(User.class, user.getId());
+    }
+
     /**
      * Gets a list of all the authorities.
      * @return a list of all the authorities.
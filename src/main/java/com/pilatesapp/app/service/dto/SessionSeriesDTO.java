@@ -0,0 +1,170 @@
+package com.pilatesapp.app.service.dto;
+
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import jakarta.validation.constraints.*;
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * A DTO representing a recurring series of sessions: the first occurrence, and the rule repeating it.
+ */
+public class SessionSeriesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+    }
+
+    @NotNull
+    private Instant startDate;
+
+    @NotNull
+    private Instant endDate;
+
+    @NotNull
+    private Frequency frequency;
+
+    @Min(1)
+    private int interval = 1;
+
+    /**
+     * The days of the week of the occurrences of a weekly series, the day of the first occurrence if empty.
+     */
+    private Set<DayOfWeek> daysOfWeek;
+
+    @Min(1)
+    private Integer count;
+
+    private Instant until;
+
+    /**
+     * The time zone in which the local time of the first occurrence is kept, {@code UTC} if not set.
+     */
+    private String timeZone;
+
+    @Size(max = 255)
+    private String qrCode;
+
+    private SessionStatus sessionStatus;
+
+    private Long staffId;
+
+    private Long athleteId;
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public Instant getUntil() {
+        return until;
+    }
+
+    public void setUntil(Instant until) {
+        this.until = until;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public String getQrCode() {
+        return qrCode;
+    }
+
+    public void setQrCode(String qrCode) {
+        this.qrCode = qrCode;
+    }
+
+    public SessionStatus getSessionStatus() {
+        return sessionStatus;
+    }
+
+    public void setSessionStatus(SessionStatus sessionStatus) {
+        this.sessionStatus = sessionStatus;
+    }
+
+    public Long getStaffId() {
+        return staffId;
+    }
+
+    public void setStaffId(Long staffId) {
+        this.staffId = staffId;
+    }
+
+    public Long getAthleteId() {
+        return athleteId;
+    }
+
+    public void setAthleteId(Long athleteId) {
+        this.athleteId = athleteId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SessionSeriesDTO{" +
+            "startDate='" + startDate + "'" +
+            ", endDate='" + endDate + "'" +
+            ", frequency='" + frequency + "'" +
+            ", interval=" + interval +
+            ", daysOfWeek=" + daysOfWeek +
+            ", count=" + count +
+            ", until='" + until + "'" +
+            ", timeZone='" + timeZone + "'" +
+            ", staffId=" + staffId +
+            ", athleteId=" + athleteId +
+            "}";
+    }
+}
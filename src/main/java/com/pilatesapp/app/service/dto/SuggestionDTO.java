@@ -0,0 +1,11 @@
+package com.pilatesapp.app.service.dto;
+
+/**
+ * A DTO representing a typeahead suggestion: an athlete or staff whose name, email or phone number matched a prefix.
+ */
+public record SuggestionDTO(Type type, Long id, String name) {
+    public enum Type {
+        ATHLETE,
+        STAFF,
+    }
+}
@@ -1,8 +1,15 @@
 package com.pilatesapp.app.web.rest;
 
 import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.repository.AthleteFilter;
 import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.projection.AthleteSummary;
 import com.pilatesapp.app.repository.search.AthleteSearchRepository;
+import com.pilatesapp.app.repository.search.SearchQueries;
+import com.pilatesapp.app.service.DailyScheduleService;
+import com.pilatesapp.app.service.IndexOutboxService;
+import com.pilatesapp.app.service.SuggestionIndex;
+import com.pilatesapp.app.service.dto.SuggestionDTO;
 import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
 import com.pilatesapp.app.web.rest.errors.ElasticsearchExceptionMapper;
 import java.net.URI;
@@ -12,12 +19,16 @@ import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -42,9 +53,24 @@ public class AthleteResource {
 
     private final AthleteSearchRepository athleteSearchRepository;
 
-    public AthleteResource(AthleteRepository athleteRepository, AthleteSearchRepository athleteSearchRepository) {
+    private final IndexOutboxService indexOutboxService;
+
+    private final DailyScheduleService dailyScheduleService;
+
+    private final SuggestionIndex suggestionIndex;
+
+    public AthleteResource(
+        AthleteRepository athleteRepository,
+        AthleteSearchRepository athleteSearchRepository,
+        IndexOutboxService indexOutboxService,
+        DailyScheduleService dailyScheduleService,
+        SuggestionIndex suggestionIndex
+    ) {
         this.athleteRepository = athleteRepository;
         this.athleteSearchRepository = athleteSearchRepository;
+        this.indexOutboxService = indexOutboxService;
+        this.dailyScheduleService = dailyScheduleService;
+        this.suggestionIndex = suggestionIndex;
     }
 
     /**
@@ -62,7 +88,8 @@ public class AthleteResource {
         }
         return athleteRepository
             .save(athlete)
-            .flatMap(athleteSearchRepository::save)
+            .flatMap(saved -> indexOutboxService.enqueue(Athlete.class, saved.getId()).thenReturn(saved))
+            .flatMap(saved -> suggestionIndex.putAthlete(saved).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -107,7 +134,9 @@ public class AthleteResource {
 
                 return athleteRepository
                     .save(athlete)
-                    .flatMap(athleteSearchRepository::save)
+                    .flatMap(saved -> dailyScheduleService.rename(saved).thenReturn(saved))
+                    .flatMap(saved -> indexOutboxService.enqueue(Athlete.class, saved.getId()).thenReturn(saved))
+                    .flatMap(saved -> suggestionIndex.putAthlete(saved).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -174,10 +203,9 @@ public class AthleteResource {
                         return existingAthlete;
                     })
                     .flatMap(athleteRepository::save)
-                    .flatMap(savedAthlete -> {
-                        athleteSearchRepository.save(savedAthlete);
-                        return Mono.just(savedAthlete);
-                    });
+                    .flatMap(saved -> dailyScheduleService.rename(saved).thenReturn(saved))
+                    .flatMap(savedAthlete -> indexOutboxService.enqueue(Athlete.class, savedAthlete.getId()).thenReturn(savedAthlete))
+                    .flatMap(saved -> suggestionIndex.putAthlete(saved).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -201,6 +229,17 @@ public class AthleteResource {
         return athleteRepository.findAll().collectList();
     }
 
+    /**
+     * {@code GET  /athletes?view=summary} : get the summaries of all the athletes.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of athlete summaries in body.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE, params = "view=summary")
+    public Mono<List<AthleteSummary>> getAllAthleteSummaries() {
+        log.debug("REST request to get all Athlete summaries");
+        return athleteRepository.findAllSummaries().collectList();
+    }
+
     /**
      * {@code GET  /athletes} : get all the athletes as a stream.
      * @return the {@link Flux} of athletes.
@@ -235,7 +274,8 @@ public class AthleteResource {
         log.debug("REST request to delete Athlete : {}", id);
         return athleteRepository
             .deleteById(id)
-            .then(athleteSearchRepository.deleteById(id))
+            .then(indexOutboxService.enqueue(Athlete.class, id))
+            .then(suggestionIndex.removeAthlete(id))
             .then(
                 Mono.just(
                     ResponseEntity
@@ -247,19 +287,92 @@ public class AthleteResource {
     }
 
     /**
-     * {@code SEARCH  /athletes/_search?query=:query} : search for the athlete corresponding
-     * to the query.
+     * {@code GET  /athletes/_suggest?prefix=:prefix} : suggest the athletes and staff whose name, email or phone number
+     * starts with the words of the prefix, in the order of their names.
+     * <p>
+     * Suggestions are served from the in-memory {@link SuggestionIndex}, so they do not depend on Elasticsearch.
      *
-     * @param query the query of the athlete search.
+     * @param prefix the prefix typed so far.
+     * @param type the type of the suggestions, both athletes and staff if not set.
+     * @param size the maximum number of suggestions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggestions in body,
+     * or with status {@code 400 (Bad Request)} if the size is not between 1 and {@value SuggestionIndex#MAX_SUGGESTIONS}.
+     */
+    @GetMapping("/_suggest")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Mono<List<SuggestionDTO>> suggestAthletes(
+        @RequestParam String prefix,
+        @RequestParam(required = false) SuggestionDTO.Type type,
+        @RequestParam(defaultValue = "10") int size
+    ) {
+        log.debug("REST request to suggest Athletes for prefix {}", prefix);
+        if (size < 1 || size > SuggestionIndex.MAX_SUGGESTIONS) {
+            throw new BadRequestAlertException("Invalid suggestion count", ENTITY_NAME, "sizeinvalid");
+        }
+        return Mono.fromSupplier(() -> suggestionIndex.suggest(prefix, type, size));
+    }
+
+    /**
+     * {@code SEARCH  /athletes/_search?query=:query} : search for a page of the athlete corresponding
+     * to the query and the filters.
+     * <p>
+     * The filters are not scored, and are cached by Elasticsearch across requests: only the query ranks the hits, and
+     * it can be left out to only filter. A full page carries a cursor in the {@code X-Search-After} header, to pass
+     * in {@code searchAfter} for the next page.
+     *
+     * @param query the query of the athlete search, if any.
+     * @param city the city of the athletes.
+     * @param searchAfter the cursor of the previous page, if any, instead of the page number.
+     * @param pageable the pagination information, whose sort is ignored as hits are sorted by relevance.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public Mono<List<Athlete>> searchAthletes(@RequestParam String query) {
-        log.debug("REST request to search Athletes for query {}", query);
-        try {
-            return athleteSearchRepository.search(query).collectList();
-        } catch (RuntimeException e) {
-            throw ElasticsearchExceptionMapper.mapException(e);
-        }
+    public Mono<ResponseEntity<List<Athlete>>> searchAthletes(
+        @RequestParam(required = false) String query,
+        @RequestParam(required = false) String city,
+        @RequestParam(required = false) String searchAfter,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        AthleteFilter filter = new AthleteFilter().city(city);
+        log.debug("REST request to search for a page of Athletes for query {} and {}", query, filter);
+        SearchPaginationUtil.checkPage(pageable, searchAfter, ENTITY_NAME);
+        List<Object> cursor = searchAfter == null ? null : SearchPaginationUtil.decodeCursor(searchAfter, ENTITY_NAME);
+        String pattern = SearchQueries.likePattern(query);
+        return SearchPaginationUtil
+            .search(
+                UriComponentsBuilder.fromHttpRequest(request),
+                pageable,
+                cursor,
+                () ->
+                    cursor == null
+                        ? athleteSearchRepository.search(query, filter, pageable)
+                        : athleteSearchRepository.searchAfter(query, filter, cursor, pageable.getPageSize()),
+                0L,
+                Athlete::getId,
+                (after, offset, limit) -> athleteRepository.searchByText(pattern, city, after, offset, limit)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
+    }
+
+    /**
+     * {@code SEARCH  /athletes/_search/stream?query=:query} : stream the athlete corresponding to the query as
+     * newline-delimited JSON, up to {@value com.pilatesapp.app.repository.search.SearchQueries#MAX_STREAMED_HITS}
+     * hits.
+     *
+     * @param query the query of the athlete search.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<Athlete> streamAthletes(@RequestParam String query) {
+        log.debug("REST request to stream Athletes for query {}", query);
+        return SearchPaginationUtil
+            .stream(
+                athleteSearchRepository.search(query),
+                () -> athleteRepository.searchByText(SearchQueries.likePattern(query), null, 0L, 0, SearchQueries.MAX_STREAMED_HITS)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
     }
 }
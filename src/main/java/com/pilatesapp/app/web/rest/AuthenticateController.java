@@ -4,6 +4,7 @@ import static com.pilatesapp.app.security.SecurityUtils.AUTHORITIES_KEY;
 import static com.pilatesapp.app.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pilatesapp.app.security.LoginThrottle;
 import com.pilatesapp.app.web.rest.vm.LoginVM;
 import jakarta.validation.Valid;
 import java.security.Principal;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -47,17 +49,30 @@ public class AuthenticateController {
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public AuthenticateController(JwtEncoder jwtEncoder, ReactiveAuthenticationManager authenticationManager) {
+    private final LoginThrottle loginThrottle;
+
+    public AuthenticateController(JwtEncoder jwtEncoder, ReactiveAuthenticationManager authenticationManager, LoginThrottle loginThrottle) {
         this.jwtEncoder = jwtEncoder;
         this.authenticationManager = authenticationManager;
+        this.loginThrottle = loginThrottle;
     }
 
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
+        String address = loginThrottle.getClientAddress(request);
         return loginVM
             .flatMap(login ->
-                authenticationManager
-                    .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
+                // the attempts are throttled before their password is verified, the costly part of a login
+                loginThrottle
+                    .acquire(login.getUsername(), address)
+                    .then(
+                        Mono.defer(() ->
+                            authenticationManager.authenticate(
+                                new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword())
+                            )
+                        )
+                    )
+                    .doOnNext(auth -> loginThrottle.reset(login.getUsername()))
                     .flatMap(auth -> Mono.fromCallable(() -> this.createToken(auth, login.isRememberMe())))
             )
             .map(jwt -> {
@@ -0,0 +1,122 @@
+package com.pilatesapp.app.web.rest;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.SessionFilter;
+import com.pilatesapp.app.repository.projection.CountBucket;
+import com.pilatesapp.app.repository.projection.StaffWeekCount;
+import com.pilatesapp.app.repository.search.SessionPackageSearchRepository;
+import com.pilatesapp.app.repository.search.SessionSearchRepository;
+import com.pilatesapp.app.security.AuthoritiesConstants;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for the key figures of the studio, counted by search aggregations.
+ * <p>
+ * Only the counts of the buckets are read and returned, so the cost of a dashboard does not grow with the number of
+ * sessions. The weeks, months and hours are those of the time zone of the schedule.
+ * <p>
+ * The counts have no database fallback: while Elasticsearch is unavailable, they fail fast with status
+ * {@code 503 (Service Unavailable)}.
+ */
+@RestController
+@RequestMapping("/api/kpis")
+@PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+public class KpiResource {
+
+    private final Logger log = LoggerFactory.getLogger(KpiResource.class);
+
+    private final SessionSearchRepository sessionSearchRepository;
+
+    private final SessionPackageSearchRepository sessionPackageSearchRepository;
+
+    private final ZoneId zone;
+
+    public KpiResource(
+        SessionSearchRepository sessionSearchRepository,
+        SessionPackageSearchRepository sessionPackageSearchRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.sessionSearchRepository = sessionSearchRepository;
+        this.sessionPackageSearchRepository = sessionPackageSearchRepository;
+        this.zone = ZoneId.of(applicationProperties.getSchedule().getTimeZone());
+    }
+
+    /**
+     * {@code GET  /kpis/sessions/by-status} : count the sessions of each status.
+     *
+     * @param from the instant the sessions start at, inclusive, if any.
+     * @param to the instant the sessions start before, exclusive, if any.
+     * @param staffId the id of the staff of the sessions, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of sessions of each status in body.
+     */
+    @GetMapping("/sessions/by-status")
+    public Mono<List<CountBucket<SessionStatus>>> countSessionsByStatus(
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(required = false) Long staffId
+    ) {
+        log.debug("REST request to count Sessions by status from {} to {} for staff {}", from, to, staffId);
+        return sessionSearchRepository.countByStatus(new SessionFilter().from(from).to(to).staffId(staffId)).collectList();
+    }
+
+    /**
+     * {@code GET  /kpis/sessions/by-staff-week} : count the sessions of each staff per week.
+     *
+     * @param from the instant the sessions start at, inclusive, if any.
+     * @param to the instant the sessions start before, exclusive, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of sessions of each staff per week
+     * in body, for the weeks having any.
+     */
+    @GetMapping("/sessions/by-staff-week")
+    public Mono<List<StaffWeekCount>> countSessionsByStaffAndWeek(
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to
+    ) {
+        log.debug("REST request to count Sessions by staff and week from {} to {}", from, to);
+        return sessionSearchRepository.countByStaffAndWeek(new SessionFilter().from(from).to(to), zone).collectList();
+    }
+
+    /**
+     * {@code GET  /kpis/sessions/by-hour} : count the sessions starting at each hour of the day.
+     *
+     * @param from the instant the sessions start at, inclusive, if any.
+     * @param to the instant the sessions start before, exclusive, if any.
+     * @param staffId the id of the staff of the sessions, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of sessions of each hour in body,
+     * for the hours having any.
+     */
+    @GetMapping("/sessions/by-hour")
+    public Mono<List<CountBucket<Integer>>> countSessionsByHour(
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(required = false) Long staffId
+    ) {
+        log.debug("REST request to count Sessions by hour from {} to {} for staff {}", from, to, staffId);
+        return sessionSearchRepository.countByHour(new SessionFilter().from(from).to(to).staffId(staffId), zone).collectList();
+    }
+
+    /**
+     * {@code GET  /kpis/session-packages/by-month} : count the session packages sold per month.
+     *
+     * @param from the instant the packages start at, inclusive, if any.
+     * @param to the instant the packages start before, exclusive, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of packages of each month in body.
+     */
+    @GetMapping("/session-packages/by-month")
+    public Mono<List<CountBucket<YearMonth>>> countSessionPackagesByMonth(
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to
+    ) {
+        log.debug("REST request to count SessionPackages by month from {} to {}", from, to);
+        return sessionPackageSearchRepository.countByMonth(from, to, zone).collectList();
+    }
+}
@@ -1,8 +1,12 @@
 package com.pilatesapp.app.web.rest;
 
+import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.UserRepository;
+import com.pilatesapp.app.repository.search.SearchQueries;
 import com.pilatesapp.app.repository.search.UserSearchRepository;
 import com.pilatesapp.app.service.UserService;
 import com.pilatesapp.app.service.dto.UserDTO;
+import com.pilatesapp.app.web.rest.errors.ElasticsearchExceptionMapper;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -28,14 +32,18 @@ public class PublicUserResource {
         Arrays.asList("id", "login", "firstName", "lastName", "email", "activated", "langKey")
     );
 
+    private static final String ENTITY_NAME = "userManagement";
+
     private final Logger log = LoggerFactory.getLogger(PublicUserResource.class);
 
     private final UserService userService;
     private final UserSearchRepository userSearchRepository;
+    private final UserRepository userRepository;
 
-    public PublicUserResource(UserSearchRepository userSearchRepository, UserService userService) {
+    public PublicUserResource(UserSearchRepository userSearchRepository, UserService userService, UserRepository userRepository) {
         this.userService = userService;
         this.userSearchRepository = userSearchRepository;
+        this.userRepository = userRepository;
     }
 
     /**
@@ -76,13 +84,44 @@ public class PublicUserResource {
     }
 
     /**
-     * {@code SEARCH /users/_search/:query} : search for the User corresponding to the query.
+     * {@code SEARCH /users/_search/:query} : search for a page of the Users corresponding to the query.
+     * <p>
+     * A full page carries a cursor in the {@code X-Search-After} header, to pass in {@code searchAfter} for the next
+     * page.
      *
      * @param query the query to search.
+     * @param searchAfter the cursor of the previous page, if any, instead of the page number.
+     * @param pageable the pagination information, whose sort is ignored as hits are sorted by relevance.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the result of the search.
      */
     @GetMapping("/users/_search/{query}")
-    public Mono<List<UserDTO>> search(@PathVariable String query) {
-        return userSearchRepository.search(query).map(UserDTO::new).collectList();
+    public Mono<ResponseEntity<List<UserDTO>>> search(
+        @PathVariable String query,
+        @RequestParam(required = false) String searchAfter,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to search for a page of Users for query {}", query);
+        SearchPaginationUtil.checkPage(pageable, searchAfter, ENTITY_NAME);
+        List<Object> cursor = searchAfter == null ? null : SearchPaginationUtil.decodeCursor(searchAfter, ENTITY_NAME);
+        String pattern = SearchQueries.likePattern(query);
+        return SearchPaginationUtil
+            .search(
+                UriComponentsBuilder.fromHttpRequest(request),
+                pageable,
+                cursor,
+                () ->
+                    cursor == null
+                        ? userSearchRepository.search(query, pageable)
+                        : userSearchRepository.searchAfter(query, cursor, pageable.getPageSize()),
+                0L,
+                User::getId,
+                (after, offset, limit) -> userRepository.searchByText(pattern, after, offset, limit)
+            )
+            .map(response ->
+                ResponseEntity.ok().headers(response.getHeaders()).body(response.getBody().stream().map(UserDTO::new).toList())
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
     }
 }
@@ -3,6 +3,8 @@ package com.pilatesapp.app.web.rest;
 import com.pilatesapp.app.domain.QRCode;
 import com.pilatesapp.app.repository.QRCodeRepository;
 import com.pilatesapp.app.repository.search.QRCodeSearchRepository;
+import com.pilatesapp.app.repository.search.SearchQueries;
+import com.pilatesapp.app.service.IndexOutboxService;
 import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
 import com.pilatesapp.app.web.rest.errors.ElasticsearchExceptionMapper;
 import jakarta.validation.Valid;
@@ -14,12 +16,16 @@ import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -44,9 +50,16 @@ public class QRCodeResource {
 
     private final QRCodeSearchRepository qRCodeSearchRepository;
 
-    public QRCodeResource(QRCodeRepository qRCodeRepository, QRCodeSearchRepository qRCodeSearchRepository) {
+    private final IndexOutboxService indexOutboxService;
+
+    public QRCodeResource(
+        QRCodeRepository qRCodeRepository,
+        QRCodeSearchRepository qRCodeSearchRepository,
+        IndexOutboxService indexOutboxService
+    ) {
         this.qRCodeRepository = qRCodeRepository;
         this.qRCodeSearchRepository = qRCodeSearchRepository;
+        this.indexOutboxService = indexOutboxService;
     }
 
     /**
@@ -64,7 +77,7 @@ public class QRCodeResource {
         }
         return qRCodeRepository
             .save(qRCode)
-            .flatMap(qRCodeSearchRepository::save)
+            .flatMap(saved -> indexOutboxService.enqueue(QRCode.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -109,7 +122,7 @@ public class QRCodeResource {
 
                 return qRCodeRepository
                     .save(qRCode)
-                    .flatMap(qRCodeSearchRepository::save)
+                    .flatMap(saved -> indexOutboxService.enqueue(QRCode.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -170,10 +183,7 @@ public class QRCodeResource {
                         return existingQRCode;
                     })
                     .flatMap(qRCodeRepository::save)
-                    .flatMap(savedQRCode -> {
-                        qRCodeSearchRepository.save(savedQRCode);
-                        return Mono.just(savedQRCode);
-                    });
+                    .flatMap(savedQRCode -> indexOutboxService.enqueue(QRCode.class, savedQRCode.getId()).thenReturn(savedQRCode));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -231,7 +241,7 @@ public class QRCodeResource {
         log.debug("REST request to delete QRCode : {}", id);
         return qRCodeRepository
             .deleteById(id)
-            .then(qRCodeSearchRepository.deleteById(id))
+            .then(indexOutboxService.enqueue(QRCode.class, id))
             .then(
                 Mono.just(
                     ResponseEntity
@@ -243,19 +253,62 @@ public class QRCodeResource {
     }
 
     /**
-     * {@code SEARCH  /qr-codes/_search?query=:query} : search for the qRCode corresponding
+     * {@code SEARCH  /qr-codes/_search?query=:query} : search for a page of the qRCode corresponding
      * to the query.
+     * <p>
+     * A full page carries a cursor in the {@code X-Search-After} header, to pass in {@code searchAfter} for the
+     * next page.
      *
      * @param query the query of the qRCode search.
+     * @param searchAfter the cursor of the previous page, if any, instead of the page number.
+     * @param pageable the pagination information, whose sort is ignored as hits are sorted by relevance.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public Mono<List<QRCode>> searchQRCodes(@RequestParam String query) {
-        log.debug("REST request to search QRCodes for query {}", query);
-        try {
-            return qRCodeSearchRepository.search(query).collectList();
-        } catch (RuntimeException e) {
-            throw ElasticsearchExceptionMapper.mapException(e);
-        }
+    public Mono<ResponseEntity<List<QRCode>>> searchQRCodes(
+        @RequestParam String query,
+        @RequestParam(required = false) String searchAfter,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to search for a page of QRCodes for query {}", query);
+        SearchPaginationUtil.checkPage(pageable, searchAfter, ENTITY_NAME);
+        List<Object> cursor = searchAfter == null ? null : SearchPaginationUtil.decodeCursor(searchAfter, ENTITY_NAME);
+        String pattern = SearchQueries.likePattern(query);
+        return SearchPaginationUtil
+            .search(
+                UriComponentsBuilder.fromHttpRequest(request),
+                pageable,
+                cursor,
+                () ->
+                    cursor == null
+                        ? qRCodeSearchRepository.search(query, pageable)
+                        : qRCodeSearchRepository.searchAfter(query, cursor, pageable.getPageSize()),
+                0L,
+                QRCode::getId,
+                (after, offset, limit) -> qRCodeRepository.searchByText(pattern, after, offset, limit)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
+    }
+
+    /**
+     * {@code SEARCH  /qr-codes/_search/stream?query=:query} : stream the qRCode corresponding to the query as
+     * newline-delimited JSON, up to {@value com.pilatesapp.app.repository.search.SearchQueries#MAX_STREAMED_HITS}
+     * hits.
+     *
+     * @param query the query of the qRCode search.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<QRCode> streamQRCodes(@RequestParam String query) {
+        log.debug("REST request to stream QRCodes for query {}", query);
+        return SearchPaginationUtil
+            .stream(
+                qRCodeSearchRepository.search(query),
+                () -> qRCodeRepository.searchByText(SearchQueries.likePattern(query), 0L, 0, SearchQueries.MAX_STREAMED_HITS)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
     }
 }
@@ -0,0 +1,73 @@
+package com.pilatesapp.app.web.rest;
+
+import com.pilatesapp.app.domain.DailyScheduleEntry;
+import com.pilatesapp.app.service.DailyScheduleService;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for reading the daily schedule, see {@link DailyScheduleEntry}.
+ */
+@RestController
+@RequestMapping("/api/schedule")
+@Transactional
+public class ScheduleResource {
+
+    private final Logger log = LoggerFactory.getLogger(ScheduleResource.class);
+
+    private final DailyScheduleService dailyScheduleService;
+
+    public ScheduleResource(DailyScheduleService dailyScheduleService) {
+        this.dailyScheduleService = dailyScheduleService;
+    }
+
+    /**
+     * {@code GET  /schedule/:date} : get the timetable of a day.
+     * <p>
+     * The response carries an {@code ETag} computed from its content, so that polling clients get a
+     * {@code 304 (Not Modified)} while the timetable is unchanged.
+     *
+     * @param date the local date of the day, in the time zone of the schedule.
+     * @param staffId the id of a staff to restrict the timetable to, if any.
+     * @param request the HTTP request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of entries in body, or with status
+     * {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header.
+     */
+    @GetMapping(value = "/{date}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<DailyScheduleEntry>>> getDailySchedule(
+        @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+        @RequestParam(required = false) Long staffId,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get the schedule of {} for staff {}", date, staffId);
+        return dailyScheduleService
+            .findAllByDate(date, staffId)
+            .collectList()
+            .map(entries -> {
+                String eTag = eTag(entries);
+                List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+                if (ifNoneMatch.contains(eTag) || ifNoneMatch.contains("W/" + eTag) || ifNoneMatch.contains("*")) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+                }
+                return ResponseEntity.ok().eTag(eTag).body(entries);
+            });
+    }
+
+    private static String eTag(List<DailyScheduleEntry> entries) {
+        StringBuilder content = new StringBuilder();
+        entries.forEach(entry -> content.append(entry).append('\n'));
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,67 @@
+package com.pilatesapp.app.web.rest;
+
+import com.pilatesapp.app.security.AuthoritiesConstants;
+import com.pilatesapp.app.service.SearchReindexService;
+import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for administrating the search indices.
+ */
+@RestController
+@RequestMapping("/api/admin/search")
+public class SearchIndexResource {
+
+    private static final String ENTITY_NAME = "searchIndex";
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexResource.class);
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchIndexResource(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    /**
+     * {@code GET  /admin/search/indices} : get the names of the search indices.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the names of the indices in body.
+     */
+    @GetMapping("/indices")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public List<String> getIndices() {
+        return List.copyOf(searchReindexService.getIndices());
+    }
+
+    /**
+     * {@code POST  /admin/search/reindex} : rebuild search indices from the database, in the background.
+     * <p>
+     * The progress is reported by the {@code search.reindex.*} metrics.
+     *
+     * @param indices the names of the indices to rebuild, or none to rebuild all of them.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, or with status {@code 400 (Bad Request)}
+     * if an index is unknown, or with status {@code 409 (Conflict)} if a rebuild is already running.
+     */
+    @PostMapping("/reindex")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> reindex(@RequestParam(name = "index", required = false) List<String> indices) {
+        log.debug("REST request to rebuild the search indices : {}", indices);
+        List<String> names = indices != null ? indices : List.of();
+        for (String name : names) {
+            if (!searchReindexService.getIndices().contains(name)) {
+                throw new BadRequestAlertException("Unknown search index", ENTITY_NAME, "unknownindex");
+            }
+        }
+        if (!searchReindexService.start(names)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A rebuild of the search indices is already running");
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.pilatesapp.app.web.rest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pilatesapp.app.repository.search.SearchCircuitBreaker;
+import com.pilatesapp.app.repository.search.SearchQueries;
+import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for the paginated search endpoints.
+ * <p>
+ * A full page of hits carries the {@value #SEARCH_AFTER_HEADER} header, an opaque cursor which the client passes back
+ * in the {@code searchAfter} parameter to get the next page, however deep.
+ * <p>
+ * While Elasticsearch is unavailable, searches fall back to the database: the pages match the text of the query in
+ * the order of the ids rather than by relevance, carry the {@value #SEARCH_DEGRADED_HEADER} header and no total count.
+ * Their cursor only holds the id of the last hit, so the following pages are read from the database too. A cursor of
+ * relevance-ordered hits cannot be resumed from the database, whose pages are in another order: its search fails
+ * with the unavailability of Elasticsearch, and the client starts over from the first page.
+ */
+public final class SearchPaginationUtil {
+
+    public static final String SEARCH_AFTER_HEADER = "X-Search-After";
+
+    public static final String SEARCH_DEGRADED_HEADER = "X-Search-Degraded";
+
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
+
+    private SearchPaginationUtil() {}
+
+    /**
+     * A search of the database, used while Elasticsearch is unavailable.
+     *
+     * @param <T> the type of the documents.
+     * @param <ID> the type of their ids.
+     */
+    @FunctionalInterface
+    public interface Fallback<T, ID> {
+        /**
+         * Get a page of the documents matching the search, in the order of their ids.
+         *
+         * @param after the id after which the page starts.
+         * @param offset the number of matches skipped after it.
+         * @param limit the size of the page.
+         * @return the documents.
+         */
+        Flux<T> search(ID after, long offset, int limit);
+    }
+
+    /**
+     * Checks that a page is within the limits of the searches, see {@link SearchQueries}.
+     *
+     * @param pageable the page.
+     * @param searchAfter the cursor of the page, if any.
+     * @param entityName the name of the searched entity.
+     * @throws BadRequestAlertException if the page is too large, or too deep without a cursor.
+     */
+    public static void checkPage(Pageable pageable, String searchAfter, String entityName) {
+        if (pageable.getPageSize() > SearchQueries.MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException(
+                "Search pages are limited to " + SearchQueries.MAX_PAGE_SIZE + " hits",
+                entityName,
+                "pagetoolarge"
+            );
+        }
+        if (searchAfter == null && pageable.getOffset() + pageable.getPageSize() > SearchQueries.MAX_RESULT_WINDOW) {
+            throw new BadRequestAlertException("Search pages this deep require the searchAfter cursor", entityName, "pagetoodeep");
+        }
+    }
+
+    /**
+     * Decodes a cursor.
+     *
+     * @param searchAfter the cursor sent by the client.
+     * @param entityName the name of the searched entity.
+     * @return the sort values of the last hit of the previous page.
+     * @throws BadRequestAlertException if the cursor is invalid.
+     */
+    public static List<Object> decodeCursor(String searchAfter, String entityName) {
+        try {
+            List<Object> sortValues = CURSOR_MAPPER.readValue(Base64.getUrlDecoder().decode(searchAfter), new TypeReference<>() {});
+            if (sortValues == null || sortValues.isEmpty()) {
+                throw new BadRequestAlertException("Invalid search cursor", entityName, "invalidcursor");
+            }
+            return sortValues;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid search cursor", entityName, "invalidcursor");
+        }
+    }
+
+    /**
+     * Builds the response of a page of hits, with the pagination headers and the cursor of the next page.
+     *
+     * @param uriBuilder the URI of the request.
+     * @param page the page of hits.
+     * @param <T> the type of the documents.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the documents in body.
+     */
+    public static <T> ResponseEntity<List<T>> toResponseEntity(UriComponentsBuilder uriBuilder, SearchPage<T> page) {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        List<SearchHit<T>> hits = page.getContent();
+        if (!hits.isEmpty() && hits.size() == page.getSize()) {
+            headers.add(SEARCH_AFTER_HEADER, encodeCursor(hits.get(hits.size() - 1).getSortValues()));
+        }
+        return ResponseEntity.ok().headers(headers).body(hits.stream().map(SearchHit::getContent).toList());
+    }
+
+    /**
+     * Runs a paginated search, falling back to the database while Elasticsearch is unavailable, and builds its response.
+     *
+     * @param uriBuilder the URI of the request.
+     * @param pageable the page.
+     * @param searchAfter the decoded cursor of the page, if any.
+     * @param search the search.
+     * @param firstId a value lower than all the ids.
+     * @param getId the id of a document.
+     * @param fallback the search of the database.
+     * @param <T> the type of the documents.
+     * @param <ID> the type of their ids.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the documents in body.
+     */
+    public static <T, ID> Mono<ResponseEntity<List<T>>> search(
+        UriComponentsBuilder uriBuilder,
+        Pageable pageable,
+        List<Object> searchAfter,
+        Supplier<Mono<SearchPage<T>>> search,
+        ID firstId,
+        Function<T, ID> getId,
+        Fallback<T, ID> fallback
+    ) {
+        int size = pageable.getPageSize();
+        if (searchAfter != null && searchAfter.size() == 1) {
+            ID after = lastId(searchAfter, firstId);
+            return fallback.search(after, 0, size).collectList().map(hits -> toDegradedResponseEntity(hits, size, getId));
+        }
+        return search
+            .get()
+            .map(page -> toResponseEntity(uriBuilder, page))
+            .onErrorResume(
+                e -> searchAfter == null && SearchCircuitBreaker.isUnavailable(e),
+                e ->
+                    fallback
+                        .search(firstId, pageable.getOffset(), size)
+                        .collectList()
+                        .map(hits -> toDegradedResponseEntity(hits, size, getId))
+            );
+    }
+
+    /**
+     * Streams the hits of a search, or of the database while the breaker of Elasticsearch is open.
+     *
+     * @param search the search.
+     * @param fallback the search of the database.
+     * @param <T> the type of the documents.
+     * @return the documents.
+     */
+    public static <T> Flux<T> stream(Flux<T> search, Supplier<Flux<T>> fallback) {
+        // only raised before the first hit, so the fallback does not repeat hits
+        return search.onErrorResume(CallNotPermittedException.class, e -> fallback.get());
+    }
+
+    private static <T, ID> ResponseEntity<List<T>> toDegradedResponseEntity(List<T> hits, int size, Function<T, ID> getId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(SEARCH_DEGRADED_HEADER, "true");
+        if (!hits.isEmpty() && hits.size() == size) {
+            headers.add(SEARCH_AFTER_HEADER, encodeCursor(List.of(getId.apply(hits.get(hits.size() - 1)))));
+        }
+        return ResponseEntity.ok().headers(headers).body(hits);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <ID> ID lastId(List<Object> sortValues, ID firstId) {
+        return (ID) CURSOR_MAPPER.convertValue(sortValues.get(sortValues.size() - 1), firstId.getClass());
+    }
+
+    private static String encodeCursor(List<Object> sortValues) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(sortValues));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode the search cursor", e);
+        }
+    }
+}
@@ -2,22 +2,29 @@ package com.pilatesapp.app.web.rest;
 
 import com.pilatesapp.app.domain.SessionPackage;
 import com.pilatesapp.app.repository.SessionPackageRepository;
+import com.pilatesapp.app.repository.search.SearchQueries;
 import com.pilatesapp.app.repository.search.SessionPackageSearchRepository;
+import com.pilatesapp.app.service.IndexOutboxService;
 import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
 import com.pilatesapp.app.web.rest.errors.ElasticsearchExceptionMapper;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -42,12 +49,16 @@ public class SessionPackageResource {
 
     private final SessionPackageSearchRepository sessionPackageSearchRepository;
 
+    private final IndexOutboxService indexOutboxService;
+
     public SessionPackageResource(
         SessionPackageRepository sessionPackageRepository,
-        SessionPackageSearchRepository sessionPackageSearchRepository
+        SessionPackageSearchRepository sessionPackageSearchRepository,
+        IndexOutboxService indexOutboxService
     ) {
         this.sessionPackageRepository = sessionPackageRepository;
         this.sessionPackageSearchRepository = sessionPackageSearchRepository;
+        this.indexOutboxService = indexOutboxService;
     }
 
     /**
@@ -63,10 +74,10 @@ public class SessionPackageResource {
         if (sessionPackage.getId() != null) {
             throw new BadRequestAlertException("A new sessionPackage cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        sessionPackage.setId(UUID.randomUUID());
+        sessionPackage.setId(UUID.randomUUID().toString());
         return sessionPackageRepository
             .save(sessionPackage)
-            .flatMap(sessionPackageSearchRepository::save)
+            .flatMap(saved -> indexOutboxService.enqueue(SessionPackage.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -111,7 +122,7 @@ public class SessionPackageResource {
 
                 return sessionPackageRepository
                     .save(sessionPackage.setIsPersisted())
-                    .flatMap(sessionPackageSearchRepository::save)
+                    .flatMap(saved -> indexOutboxService.enqueue(SessionPackage.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -181,10 +192,9 @@ public class SessionPackageResource {
                         return existingSessionPackage;
                     })
                     .flatMap(sessionPackageRepository::save)
-                    .flatMap(savedSessionPackage -> {
-                        sessionPackageSearchRepository.save(savedSessionPackage);
-                        return Mono.just(savedSessionPackage);
-                    });
+                    .flatMap(savedSessionPackage ->
+                        indexOutboxService.enqueue(SessionPackage.class, savedSessionPackage.getId()).thenReturn(savedSessionPackage)
+                    );
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -247,7 +257,7 @@ public class SessionPackageResource {
         log.debug("REST request to delete SessionPackage : {}", id);
         return sessionPackageRepository
             .deleteById(id)
-            .then(sessionPackageSearchRepository.deleteById(id))
+            .then(indexOutboxService.enqueue(SessionPackage.class, id))
             .then(
                 Mono.just(
                     ResponseEntity.noContent().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id)).build()
@@ -256,19 +266,62 @@ public class SessionPackageResource {
     }
 
     /**
-     * {@code SEARCH  /session-packages/_search?query=:query} : search for the sessionPackage corresponding
+     * {@code SEARCH  /session-packages/_search?query=:query} : search for a page of the sessionPackage corresponding
      * to the query.
+     * <p>
+     * A full page carries a cursor in the {@code X-Search-After} header, to pass in {@code searchAfter} for the
+     * next page.
      *
      * @param query the query of the sessionPackage search.
+     * @param searchAfter the cursor of the previous page, if any, instead of the page number.
+     * @param pageable the pagination information, whose sort is ignored as hits are sorted by relevance.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public Mono<List<SessionPackage>> searchSessionPackages(@RequestParam String query) {
-        log.debug("REST request to search SessionPackages for query {}", query);
-        try {
-            return sessionPackageSearchRepository.search(query).collectList();
-        } catch (RuntimeException e) {
-            throw ElasticsearchExceptionMapper.mapException(e);
-        }
+    public Mono<ResponseEntity<List<SessionPackage>>> searchSessionPackages(
+        @RequestParam String query,
+        @RequestParam(required = false) String searchAfter,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to search for a page of SessionPackages for query {}", query);
+        SearchPaginationUtil.checkPage(pageable, searchAfter, ENTITY_NAME);
+        List<Object> cursor = searchAfter == null ? null : SearchPaginationUtil.decodeCursor(searchAfter, ENTITY_NAME);
+        String pattern = SearchQueries.likePattern(query);
+        return SearchPaginationUtil
+            .search(
+                UriComponentsBuilder.fromHttpRequest(request),
+                pageable,
+                cursor,
+                () ->
+                    cursor == null
+                        ? sessionPackageSearchRepository.search(query, pageable)
+                        : sessionPackageSearchRepository.searchAfter(query, cursor, pageable.getPageSize()),
+                "",
+                SessionPackage::getId,
+                (after, offset, limit) -> sessionPackageRepository.searchByText(pattern, after, offset, limit)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
+    }
+
+    /**
+     * {@code SEARCH  /session-packages/_search/stream?query=:query} : stream the sessionPackage corresponding to the query as
+     * newline-delimited JSON, up to {@value com.pilatesapp.app.repository.search.SearchQueries#MAX_STREAMED_HITS}
+     * hits.
+     *
+     * @param query the query of the sessionPackage search.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<SessionPackage> streamSessionPackages(@RequestParam String query) {
+        log.debug("REST request to stream SessionPackages for query {}", query);
+        return SearchPaginationUtil
+            .stream(
+                sessionPackageSearchRepository.search(query),
+                () -> sessionPackageRepository.searchByText(SearchQueries.likePattern(query), "", 0, SearchQueries.MAX_STREAMED_HITS)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
     }
 }
@@ -1,23 +1,51 @@
 package com.pilatesapp.app.web.rest;
 
 import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.SessionChange;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.SessionFilter;
 import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.repository.projection.SessionSummary;
+import com.pilatesapp.app.repository.search.SearchQueries;
 import com.pilatesapp.app.repository.search.SessionSearchRepository;
+import com.pilatesapp.app.service.DailyScheduleService;
+import com.pilatesapp.app.service.IndexOutboxService;
+import com.pilatesapp.app.service.SessionChangeService;
+import com.pilatesapp.app.service.SessionScheduleIndex;
+import com.pilatesapp.app.service.SessionSeriesService;
+import com.pilatesapp.app.service.dto.SessionSeriesDTO;
 import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
 import com.pilatesapp.app.web.rest.errors.ElasticsearchExceptionMapper;
+import jakarta.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -35,6 +63,16 @@ public class SessionResource {
 
     private static final String ENTITY_NAME = "session";
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final char CURSOR_SEPARATOR = '|';
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final Duration CHANGES_KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -42,9 +80,32 @@ public class SessionResource {
 
     private final SessionSearchRepository sessionSearchRepository;
 
-    public SessionResource(SessionRepository sessionRepository, SessionSearchRepository sessionSearchRepository) {
+    private final IndexOutboxService indexOutboxService;
+
+    private final SessionScheduleIndex sessionScheduleIndex;
+
+    private final SessionSeriesService sessionSeriesService;
+
+    private final DailyScheduleService dailyScheduleService;
+
+    private final SessionChangeService sessionChangeService;
+
+    public SessionResource(
+        SessionRepository sessionRepository,
+        SessionSearchRepository sessionSearchRepository,
+        IndexOutboxService indexOutboxService,
+        SessionScheduleIndex sessionScheduleIndex,
+        SessionSeriesService sessionSeriesService,
+        DailyScheduleService dailyScheduleService,
+        SessionChangeService sessionChangeService
+    ) {
         this.sessionRepository = sessionRepository;
         this.sessionSearchRepository = sessionSearchRepository;
+        this.indexOutboxService = indexOutboxService;
+        this.sessionScheduleIndex = sessionScheduleIndex;
+        this.sessionSeriesService = sessionSeriesService;
+        this.dailyScheduleService = dailyScheduleService;
+        this.sessionChangeService = sessionChangeService;
     }
 
     /**
@@ -60,9 +121,8 @@ public class SessionResource {
         if (session.getId() != null) {
             throw new BadRequestAlertException("A new session cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        return sessionRepository
-            .save(session)
-            .flatMap(sessionSearchRepository::save)
+        return saveScheduled(null, session)
+            .flatMap(saved -> indexOutboxService.enqueue(Session.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -75,6 +135,26 @@ public class SessionResource {
             });
     }
 
+    /**
+     * {@code POST  /sessions/series} : Create all the sessions of a recurring series at once.
+     *
+     * @param series the first session of the series and its recurrence rule.
+     * @return the {@link Flux} of created sessions with status {@code 201 (Created)},
+     * or with status {@code 400 (Bad Request)} if the recurrence rule is invalid or if one of the sessions is double-booked.
+     */
+    @PostMapping(value = "/series", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<Session> createSessionSeries(@Valid @RequestBody SessionSeriesDTO series) {
+        log.debug("REST request to save Session series : {}", series);
+        List<Session> occurrences;
+        try {
+            occurrences = sessionSeriesService.expand(series);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "seriesinvalid");
+        }
+        return sessionSeriesService.createSeries(occurrences);
+    }
+
     /**
      * {@code PUT  /sessions/:id} : Updates an existing session.
      *
@@ -99,23 +179,19 @@ public class SessionResource {
         }
 
         return sessionRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                return sessionRepository
-                    .save(session)
-                    .flatMap(sessionSearchRepository::save)
+            .findById(id)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .flatMap(existingSession ->
+                saveScheduled(existingSession, session)
+                    .flatMap(saved -> indexOutboxService.enqueue(Session.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
                             .ok()
                             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
                             .body(result)
-                    );
-            });
+                    )
+            );
     }
 
     /**
@@ -151,7 +227,13 @@ public class SessionResource {
 
                 Mono<Session> result = sessionRepository
                     .findById(session.getId())
-                    .map(existingSession -> {
+                    .flatMap(existingSession -> {
+                        Session previousSession = new Session()
+                            .startDate(existingSession.getStartDate())
+                            .endDate(existingSession.getEndDate())
+                            .sessionStatus(existingSession.getSessionStatus());
+                        previousSession.setStaffId(existingSession.getStaffId());
+                        previousSession.setAthleteId(existingSession.getAthleteId());
                         if (session.getStartDate() != null) {
                             existingSession.setStartDate(session.getStartDate());
                         }
@@ -168,13 +250,9 @@ public class SessionResource {
                             existingSession.setIsNotified(session.getIsNotified());
                         }
 
-                        return existingSession;
+                        return saveScheduled(previousSession, existingSession);
                     })
-                    .flatMap(sessionRepository::save)
-                    .flatMap(savedSession -> {
-                        sessionSearchRepository.save(savedSession);
-                        return Mono.just(savedSession);
-                    });
+                    .flatMap(savedSession -> indexOutboxService.enqueue(Session.class, savedSession.getId()).thenReturn(savedSession));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -189,13 +267,74 @@ public class SessionResource {
 
     /**
      * {@code GET  /sessions} : get all the sessions.
+     * <p>
+     * When any of the window parameters is given, a single page ordered by {@code (startDate, id)} is returned instead,
+     * and the cursor of the next page, if any, is sent in the {@code X-Next-Cursor} and {@code Link} headers.
      *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param from the inclusive lower bound of the session start date.
+     * @param to the exclusive upper bound of the session start date.
+     * @param staffId the id of the staff giving the sessions.
+     * @param athleteId the id of the athlete attending the sessions.
+     * @param status the status of the sessions.
+     * @param cursor the opaque cursor returned with the previous page.
+     * @param size the page size.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sessions in body.
      */
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<List<Session>> getAllSessions() {
-        log.debug("REST request to get all Sessions");
-        return sessionRepository.findAll().collectList();
+    public Mono<ResponseEntity<List<Session>>> getAllSessions(
+        ServerHttpRequest request,
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(required = false) Long staffId,
+        @RequestParam(required = false) Long athleteId,
+        @RequestParam(required = false) SessionStatus status,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
+    ) {
+        if (from == null && to == null && staffId == null && athleteId == null && status == null && cursor == null && size == null) {
+            log.debug("REST request to get all Sessions");
+            return sessionRepository.findAll().collectList().map(ResponseEntity::ok);
+        }
+        log.debug("REST request to get a page of Sessions after cursor {}", cursor);
+        SessionFilter filter = new SessionFilter().from(from).to(to).staffId(staffId).athleteId(athleteId).status(status);
+        return getPage(request, filter, cursor, size, sessionRepository::findAllBy, Session::getStartDate, Session::getId);
+    }
+
+    /**
+     * {@code GET  /sessions?view=summary} : get the summaries of all the sessions.
+     * <p>
+     * Summaries only hold the scalar columns of the {@code session} table, and are read without joining the staff and
+     * athlete tables. The window parameters page them like {@link #getAllSessions}.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param from the inclusive lower bound of the session start date.
+     * @param to the exclusive upper bound of the session start date.
+     * @param staffId the id of the staff giving the sessions.
+     * @param athleteId the id of the athlete attending the sessions.
+     * @param status the status of the sessions.
+     * @param cursor the opaque cursor returned with the previous page.
+     * @param size the page size.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of session summaries in body.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE, params = "view=summary")
+    public Mono<ResponseEntity<List<SessionSummary>>> getAllSessionSummaries(
+        ServerHttpRequest request,
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(required = false) Long staffId,
+        @RequestParam(required = false) Long athleteId,
+        @RequestParam(required = false) SessionStatus status,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size
+    ) {
+        if (from == null && to == null && staffId == null && athleteId == null && status == null && cursor == null && size == null) {
+            log.debug("REST request to get all Session summaries");
+            return sessionRepository.findAllSummaries().collectList().map(ResponseEntity::ok);
+        }
+        log.debug("REST request to get a page of Session summaries after cursor {}", cursor);
+        SessionFilter filter = new SessionFilter().from(from).to(to).staffId(staffId).athleteId(athleteId).status(status);
+        return getPage(request, filter, cursor, size, sessionRepository::findAllSummariesBy, SessionSummary::startDate, SessionSummary::id);
     }
 
     /**
@@ -208,6 +347,39 @@ public class SessionResource {
         return sessionRepository.findAll();
     }
 
+    /**
+     * {@code GET  /sessions/changes} : get the changes of the sessions as Server-Sent Events.
+     * <p>
+     * The id of each event is the id of the change, so a reconnecting client resumes the feed from the
+     * {@code Last-Event-ID} header, within the last day. A client which missed too many or older changes gets a
+     * {@code reset} event instead, and must reload the sessions. The feed is not transactional, so it does not hold a
+     * database connection while it is open.
+     *
+     * @param lastEventId the id of the last change received by the client, if it is resuming the feed.
+     * @return the {@link Flux} of the changes, with the current state of the session unless it is deleted, and a
+     * periodic comment keeping idle connections open.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<ServerSentEvent<SessionChange>> getSessionChanges(
+        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        log.debug("REST request to get the changes of the Sessions after {}", lastEventId);
+        Flux<ServerSentEvent<SessionChange>> changes = sessionChangeService
+            .changes(lastEventId)
+            .map(change ->
+                ServerSentEvent
+                    .builder(change)
+                    .id(change.getId().toString())
+                    .event(change.getChangeType().name().toLowerCase(Locale.ROOT))
+                    .build()
+            );
+        Flux<ServerSentEvent<SessionChange>> keepAlive = Flux
+            .interval(CHANGES_KEEP_ALIVE_INTERVAL)
+            .map(tick -> ServerSentEvent.<SessionChange>builder().comment("keep-alive").build());
+        return Flux.merge(changes, keepAlive);
+    }
+
     /**
      * {@code GET  /sessions/:id} : get the "id" session.
      *
@@ -231,8 +403,15 @@ public class SessionResource {
     public Mono<ResponseEntity<Void>> deleteSession(@PathVariable Long id) {
         log.debug("REST request to delete Session : {}", id);
         return sessionRepository
-            .deleteById(id)
-            .then(sessionSearchRepository.deleteById(id))
+            .findById(id)
+            .flatMap(existingSession ->
+                sessionRepository
+                    .deleteById(id)
+                    .then(sessionScheduleIndex.release(existingSession))
+                    .then(sessionChangeService.publish(id, SessionChangeType.DELETE))
+            )
+            .then(dailyScheduleService.remove(id))
+            .then(indexOutboxService.enqueue(Session.class, id))
             .then(
                 Mono.just(
                     ResponseEntity
@@ -244,19 +423,176 @@ public class SessionResource {
     }
 
     /**
-     * {@code SEARCH  /sessions/_search?query=:query} : search for the session corresponding
-     * to the query.
+     * Saves the session once its time slot has been reserved in the {@link SessionScheduleIndex}, refreshes its entry in
+     * the daily schedule, and publishes the change.
      *
-     * @param query the query of the session search.
-     * @return the result of the search.
+     * @param previous the session as it is currently stored, or {@code null} for a new session.
+     * @param session the session to save.
+     * @return the saved session, or a {@link com.pilatesapp.app.service.SessionOverlapException} error on a double booking.
      */
-    @GetMapping("/_search")
-    public Mono<List<Session>> searchSessions(@RequestParam String query) {
-        log.debug("REST request to search Sessions for query {}", query);
+    private Mono<Session> saveScheduled(Session previous, Session session) {
+        return sessionScheduleIndex
+            .reserve(previous, session)
+            .then(Mono.defer(() -> sessionRepository.save(session)))
+            .flatMap(saved -> dailyScheduleService.refresh(saved.getId()).thenReturn(saved))
+            .flatMap(saved ->
+                sessionChangeService
+                    .publish(saved.getId(), previous == null ? SessionChangeType.CREATE : SessionChangeType.UPDATE)
+                    .thenReturn(saved)
+            );
+    }
+
+    /**
+     * Reads a single page of a time window, ordered by {@code (startDate, id)}.
+     *
+     * @param request a {@link ServerHttpRequest} request, used to build the link to the next page.
+     * @param filter the time window.
+     * @param cursor the opaque cursor returned with the previous page, or {@code null} for the first page.
+     * @param size the page size, or {@code null} for the default page size.
+     * @param query the query returning at most the given number of rows of the window.
+     * @param startDate the start date of a row.
+     * @param id the id of a row.
+     * @return the {@link ResponseEntity} with the page in body, and the cursor of the next page in headers.
+     */
+    private <T> Mono<ResponseEntity<List<T>>> getPage(
+        ServerHttpRequest request,
+        SessionFilter filter,
+        String cursor,
+        Integer size,
+        BiFunction<SessionFilter, Integer, Flux<T>> query,
+        Function<T, Instant> startDate,
+        Function<T, Long> id
+    ) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Invalid page size", ENTITY_NAME, "sizeinvalid");
+        }
+        if (cursor != null) {
+            decodeCursor(cursor, filter);
+        }
+        // one extra row tells whether there is a next page without a count query
+        return query
+            .apply(filter, pageSize + 1)
+            .collectList()
+            .map(rows -> {
+                if (rows.size() <= pageSize) {
+                    return ResponseEntity.ok().body(rows);
+                }
+                List<T> page = rows.subList(0, pageSize);
+                T last = page.get(pageSize - 1);
+                String nextCursor = encodeCursor(startDate.apply(last), id.apply(last));
+                String nextLink = UriComponentsBuilder
+                    .fromHttpRequest(request)
+                    .replaceQueryParam("cursor", nextCursor)
+                    .replaceQueryParam("size", pageSize)
+                    .toUriString();
+                HttpHeaders headers = new HttpHeaders();
+                headers.add(NEXT_CURSOR_HEADER, nextCursor);
+                headers.add(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+                return ResponseEntity.ok().headers(headers).body(List.copyOf(page));
+            });
+    }
+
+    private static String encodeCursor(Instant startDate, Long id) {
+        String keyset = startDate.toString() + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(keyset.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void decodeCursor(String cursor, SessionFilter filter) {
         try {
-            return sessionSearchRepository.search(query).collectList();
-        } catch (RuntimeException e) {
-            throw ElasticsearchExceptionMapper.mapException(e);
+            String keyset = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = keyset.indexOf(CURSOR_SEPARATOR);
+            filter.after(Instant.parse(keyset.substring(0, separator)), Long.valueOf(keyset.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
         }
     }
+
+    /**
+     * {@code SEARCH  /sessions/_search?query=:query} : search for a page of the session corresponding
+     * to the query and the filters.
+     * <p>
+     * The sessions are indexed with the names of their athlete, staff and session package, so the query can match
+     * them, for instance {@code staffName:Ayşe}.
+     * <p>
+     * The filters are not scored, and are cached by Elasticsearch across requests: only the query ranks the hits, and
+     * it can be left out to only filter. A full page carries a cursor in the {@code X-Search-After} header, to pass
+     * in {@code searchAfter} for the next page.
+     *
+     * @param query the query of the session search, if any.
+     * @param from the inclusive lower bound of the session start date.
+     * @param to the exclusive upper bound of the session start date.
+     * @param staffId the id of the staff giving the sessions.
+     * @param athleteId the id of the athlete attending the sessions.
+     * @param status the status of the sessions.
+     * @param searchAfter the cursor of the previous page, if any, instead of the page number.
+     * @param pageable the pagination information, whose sort is ignored as hits are sorted by relevance.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the result of the search.
+     */
+    @GetMapping("/_search")
+    public Mono<ResponseEntity<List<SessionDocument>>> searchSessions(
+        @RequestParam(required = false) String query,
+        @RequestParam(required = false) Instant from,
+        @RequestParam(required = false) Instant to,
+        @RequestParam(required = false) Long staffId,
+        @RequestParam(required = false) Long athleteId,
+        @RequestParam(required = false) SessionStatus status,
+        @RequestParam(required = false) String searchAfter,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        SessionFilter filter = new SessionFilter().from(from).to(to).staffId(staffId).athleteId(athleteId).status(status);
+        log.debug("REST request to search for a page of Sessions for query {} and {}", query, filter);
+        SearchPaginationUtil.checkPage(pageable, searchAfter, ENTITY_NAME);
+        List<Object> cursor = searchAfter == null ? null : SearchPaginationUtil.decodeCursor(searchAfter, ENTITY_NAME);
+        String pattern = SearchQueries.likePattern(query);
+        String statusName = status == null ? null : status.name();
+        return SearchPaginationUtil
+            .search(
+                UriComponentsBuilder.fromHttpRequest(request),
+                pageable,
+                cursor,
+                () ->
+                    cursor == null
+                        ? sessionSearchRepository.search(query, filter, pageable)
+                        : sessionSearchRepository.searchAfter(query, filter, cursor, pageable.getPageSize()),
+                0L,
+                SessionDocument::getId,
+                (after, offset, limit) ->
+                    sessionRepository.searchDocuments(pattern, from, to, staffId, athleteId, statusName, after, offset, limit)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
+    }
+
+    /**
+     * {@code SEARCH  /sessions/_search/stream?query=:query} : stream the session corresponding to the query as
+     * newline-delimited JSON, up to {@value com.pilatesapp.app.repository.search.SearchQueries#MAX_STREAMED_HITS}
+     * hits.
+     *
+     * @param query the query of the session search.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<SessionDocument> streamSessions(@RequestParam String query) {
+        log.debug("REST request to stream Sessions for query {}", query);
+        return SearchPaginationUtil
+            .stream(
+                sessionSearchRepository.search(query),
+                () ->
+                    sessionRepository.searchDocuments(
+                        SearchQueries.likePattern(query),
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        0L,
+                        0,
+                        SearchQueries.MAX_STREAMED_HITS
+                    )
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
+    }
 }
@@ -1,8 +1,14 @@
 package com.pilatesapp.app.web.rest;
 
 import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.StaffFilter;
 import com.pilatesapp.app.repository.StaffRepository;
+import com.pilatesapp.app.repository.projection.StaffSummary;
+import com.pilatesapp.app.repository.search.SearchQueries;
 import com.pilatesapp.app.repository.search.StaffSearchRepository;
+import com.pilatesapp.app.service.DailyScheduleService;
+import com.pilatesapp.app.service.IndexOutboxService;
+import com.pilatesapp.app.service.SuggestionIndex;
 import com.pilatesapp.app.web.rest.errors.BadRequestAlertException;
 import com.pilatesapp.app.web.rest.errors.ElasticsearchExceptionMapper;
 import java.net.URI;
@@ -12,12 +18,16 @@ import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -42,9 +52,24 @@ public class StaffResource {
 
     private final StaffSearchRepository staffSearchRepository;
 
-    public StaffResource(StaffRepository staffRepository, StaffSearchRepository staffSearchRepository) {
+    private final IndexOutboxService indexOutboxService;
+
+    private final DailyScheduleService dailyScheduleService;
+
+    private final SuggestionIndex suggestionIndex;
+
+    public StaffResource(
+        StaffRepository staffRepository,
+        StaffSearchRepository staffSearchRepository,
+        IndexOutboxService indexOutboxService,
+        DailyScheduleService dailyScheduleService,
+        SuggestionIndex suggestionIndex
+    ) {
         this.staffRepository = staffRepository;
         this.staffSearchRepository = staffSearchRepository;
+        this.indexOutboxService = indexOutboxService;
+        this.dailyScheduleService = dailyScheduleService;
+        this.suggestionIndex = suggestionIndex;
     }
 
     /**
@@ -62,7 +87,8 @@ public class StaffResource {
         }
         return staffRepository
             .save(staff)
-            .flatMap(staffSearchRepository::save)
+            .flatMap(saved -> indexOutboxService.enqueue(Staff.class, saved.getId()).thenReturn(saved))
+            .flatMap(saved -> suggestionIndex.putStaff(saved).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -105,7 +131,9 @@ public class StaffResource {
 
                 return staffRepository
                     .save(staff)
-                    .flatMap(staffSearchRepository::save)
+                    .flatMap(saved -> dailyScheduleService.rename(saved).thenReturn(saved))
+                    .flatMap(saved -> indexOutboxService.enqueue(Staff.class, saved.getId()).thenReturn(saved))
+                    .flatMap(saved -> suggestionIndex.putStaff(saved).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -184,10 +212,9 @@ public class StaffResource {
                         return existingStaff;
                     })
                     .flatMap(staffRepository::save)
-                    .flatMap(savedStaff -> {
-                        staffSearchRepository.save(savedStaff);
-                        return Mono.just(savedStaff);
-                    });
+                    .flatMap(saved -> dailyScheduleService.rename(saved).thenReturn(saved))
+                    .flatMap(savedStaff -> indexOutboxService.enqueue(Staff.class, savedStaff.getId()).thenReturn(savedStaff))
+                    .flatMap(saved -> suggestionIndex.putStaff(saved).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -211,6 +238,17 @@ public class StaffResource {
         return staffRepository.findAll().collectList();
     }
 
+    /**
+     * {@code GET  /staff?view=summary} : get the summaries of all the staff.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of staff summaries in body.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE, params = "view=summary")
+    public Mono<List<StaffSummary>> getAllStaffSummaries() {
+        log.debug("REST request to get all Staff summaries");
+        return staffRepository.findAllSummaries().collectList();
+    }
+
     /**
      * {@code GET  /staff} : get all the staff as a stream.
      * @return the {@link Flux} of staff.
@@ -245,7 +283,8 @@ public class StaffResource {
         log.debug("REST request to delete Staff : {}", id);
         return staffRepository
             .deleteById(id)
-            .then(staffSearchRepository.deleteById(id))
+            .then(indexOutboxService.enqueue(Staff.class, id))
+            .then(suggestionIndex.removeStaff(id))
             .then(
                 Mono.just(
                     ResponseEntity
@@ -257,19 +296,68 @@ public class StaffResource {
     }
 
     /**
-     * {@code SEARCH  /staff/_search?query=:query} : search for the staff corresponding
-     * to the query.
+     * {@code SEARCH  /staff/_search?query=:query} : search for a page of the staff corresponding
+     * to the query and the filters.
+     * <p>
+     * The filters are not scored, and are cached by Elasticsearch across requests: only the query ranks the hits, and
+     * it can be left out to only filter. A full page carries a cursor in the {@code X-Search-After} header, to pass
+     * in {@code searchAfter} for the next page.
      *
-     * @param query the query of the staff search.
+     * @param query the query of the staff search, if any.
+     * @param city the city of the staff.
+     * @param status the status of the staff.
+     * @param searchAfter the cursor of the previous page, if any, instead of the page number.
+     * @param pageable the pagination information, whose sort is ignored as hits are sorted by relevance.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the result of the search.
      */
     @GetMapping("/_search")
-    public Mono<List<Staff>> searchStaff(@RequestParam String query) {
-        log.debug("REST request to search Staff for query {}", query);
-        try {
-            return staffSearchRepository.search(query).collectList();
-        } catch (RuntimeException e) {
-            throw ElasticsearchExceptionMapper.mapException(e);
-        }
+    public Mono<ResponseEntity<List<Staff>>> searchStaff(
+        @RequestParam(required = false) String query,
+        @RequestParam(required = false) String city,
+        @RequestParam(required = false) Boolean status,
+        @RequestParam(required = false) String searchAfter,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        StaffFilter filter = new StaffFilter().city(city).status(status);
+        log.debug("REST request to search for a page of Staff for query {} and {}", query, filter);
+        SearchPaginationUtil.checkPage(pageable, searchAfter, ENTITY_NAME);
+        List<Object> cursor = searchAfter == null ? null : SearchPaginationUtil.decodeCursor(searchAfter, ENTITY_NAME);
+        String pattern = SearchQueries.likePattern(query);
+        return SearchPaginationUtil
+            .search(
+                UriComponentsBuilder.fromHttpRequest(request),
+                pageable,
+                cursor,
+                () ->
+                    cursor == null
+                        ? staffSearchRepository.search(query, filter, pageable)
+                        : staffSearchRepository.searchAfter(query, filter, cursor, pageable.getPageSize()),
+                0L,
+                Staff::getId,
+                (after, offset, limit) -> staffRepository.searchByText(pattern, city, status, after, offset, limit)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
+    }
+
+    /**
+     * {@code SEARCH  /staff/_search/stream?query=:query} : stream the staff corresponding to the query as
+     * newline-delimited JSON, up to {@value com.pilatesapp.app.repository.search.SearchQueries#MAX_STREAMED_HITS}
+     * hits.
+     *
+     * @param query the query of the staff search.
+     * @return the result of the search.
+     */
+    @GetMapping(value = "/_search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<Staff> streamStaff(@RequestParam String query) {
+        log.debug("REST request to stream Staff for query {}", query);
+        return SearchPaginationUtil
+            .stream(
+                staffSearchRepository.search(query),
+                () -> staffRepository.searchByText(SearchQueries.likePattern(query), null, null, 0L, 0, SearchQueries.MAX_STREAMED_HITS)
+            )
+            .onErrorMap(RuntimeException.class, ElasticsearchExceptionMapper::mapException);
     }
 }
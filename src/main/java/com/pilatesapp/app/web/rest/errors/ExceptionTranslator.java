@@ -2,17 +2,25 @@ package com.pilatesapp.app.web.rest.errors;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 
+import com.pilatesapp.app.security.LoginThrottledException;
+import com.pilatesapp.app.security.PasswordHashingRejectedException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -102,6 +110,9 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler implemen
         if (
             ex instanceof com.pilatesapp.app.service.InvalidPasswordException
         ) return (ProblemDetailWithCause) new InvalidPasswordException().getBody();
+        if (
+            ex instanceof com.pilatesapp.app.service.SessionOverlapException
+        ) return (ProblemDetailWithCause) new SessionOverlapException().getBody();
 
         if (ex instanceof AuthenticationException) {
             // Ensure no information about existing users is revealed via failed authentication attempts
@@ -234,6 +245,11 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler implemen
         if (err instanceof ConcurrencyFailureException) return HttpStatus.CONFLICT;
         if (err instanceof BadCredentialsException) return HttpStatus.UNAUTHORIZED;
         if (err instanceof UsernameNotFoundException) return HttpStatus.UNAUTHORIZED;
+        if (err instanceof CallNotPermittedException) return HttpStatus.SERVICE_UNAVAILABLE;
+        if (err instanceof TimeoutException) return HttpStatus.SERVICE_UNAVAILABLE;
+        if (err instanceof RejectedExecutionException) return HttpStatus.SERVICE_UNAVAILABLE;
+        if (err instanceof DataAccessResourceFailureException) return HttpStatus.SERVICE_UNAVAILABLE;
+        if (err instanceof LoginThrottledException) return HttpStatus.TOO_MANY_REQUESTS;
         return null;
     }
 
@@ -243,6 +259,14 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler implemen
     }
 
     private HttpHeaders buildHeaders(Throwable err) {
+        Duration retryAfter = getRetryAfter(err);
+        if (retryAfter != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+            // in whole seconds, rounded up so that the client does not come back too early
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+            return headers;
+        }
         return err instanceof BadRequestAlertException badRequestAlertException
             ? HeaderUtil.createFailureAlert(
                 applicationName,
@@ -254,6 +278,12 @@ public class ExceptionTranslator extends ResponseEntityExceptionHandler implemen
             : null;
     }
 
+    private Duration getRetryAfter(Throwable err) {
+        if (err instanceof LoginThrottledException loginThrottledException) return loginThrottledException.getRetryAfter();
+        PasswordHashingRejectedException rejected = ExceptionUtils.throwableOfType(err, PasswordHashingRejectedException.class);
+        return rejected != null ? rejected.getRetryAfter() : null;
+    }
+
     private HttpHeaders updateContentType(HttpHeaders headers) {
         if (headers == null) {
             headers = new HttpHeaders();
@@ -0,0 +1,11 @@
+package com.pilatesapp.app.web.rest.errors;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class SessionOverlapException extends BadRequestAlertException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SessionOverlapException() {
+        super(ErrorConstants.SESSION_OVERLAP_TYPE, "Session overlaps another session!", "session", "sessionoverlap");
+    }
+}
@@ -36,9 +36,11 @@ class SecurityMetersServiceTests {
 
         meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter();
 
+        meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-claims").counter();
+
         Collection<Counter> counters = meterRegistry.find(INVALID_TOKENS_METER_EXPECTED_NAME).counters();
 
-        assertThat(counters).hasSize(4);
+        assertThat(counters).hasSize(5);
     }
 
     @Test
@@ -66,5 +68,11 @@ class SecurityMetersServiceTests {
         securityMetersService.trackTokenMalformed();
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
+
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-claims").counter().count()).isZero();
+
+        securityMetersService.trackTokenInvalidClaims();
+
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "invalid-claims").counter().count()).isEqualTo(1);
     }
 }
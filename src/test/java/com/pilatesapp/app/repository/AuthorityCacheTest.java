@@ -0,0 +1,62 @@
+package com.pilatesapp.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Authority;
+import com.pilatesapp.app.security.AuthoritiesConstants;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+
+/**
+ * Test class for the {@link AuthorityCache}.
+ */
+class AuthorityCacheTest {
+
+    private AtomicInteger reads;
+
+    private AuthorityCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        reads = new AtomicInteger();
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll())
+            .thenReturn(
+                Flux.defer(() -> {
+                    if (reads.incrementAndGet() == 1) {
+                        return Flux.error(new DataAccessResourceFailureException("Failed to obtain R2DBC Connection"));
+                    }
+                    return Flux.just(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.USER));
+                })
+            );
+        cache = new AuthorityCache(authorityRepository, new ApplicationProperties());
+    }
+
+    @Test
+    void resolvesTheKnownNamesFromASuccessfulRead() {
+        assertThatThrownBy(() -> cache.resolve(List.of(AuthoritiesConstants.USER)).block())
+            .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(cache.resolve(List.of(AuthoritiesConstants.USER, "ROLE_UNKNOWN")).block())
+            .containsExactly(authority(AuthoritiesConstants.USER));
+        assertThat(cache.resolve(Set.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER)).block())
+            .containsExactlyInAnyOrder(authority(AuthoritiesConstants.ADMIN), authority(AuthoritiesConstants.USER));
+        assertThat(cache.resolve(Set.of()).block()).isEmpty();
+        assertThat(reads).hasValue(2);
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pilatesapp.app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.SQL;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+
+/**
+ * Test class for the select cache of the {@link EntityManager}.
+ */
+class EntityManagerTest {
+
+    private static final Table TABLE = Table.aliased("staff", EntityManager.ENTITY_ALIAS);
+
+    private MeterRegistry meterRegistry;
+
+    private EntityManager entityManager;
+
+    private AtomicInteger renderings;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        R2dbcEntityTemplate template = mock(R2dbcEntityTemplate.class, RETURNS_DEEP_STUBS);
+        entityManager = new EntityManager(SqlRenderer.create(), mock(UpdateMapper.class), template, meterRegistry);
+        renderings = new AtomicInteger();
+    }
+
+    @Test
+    void rendersEachShapeOnce() {
+        String first = entityManager.createSelect(this::selectById, Object.class, "id", null);
+        String second = entityManager.createSelect(this::selectById, Object.class, "id", null);
+
+        assertThat(second).isSameAs(first).contains(":id");
+        assertThat(renderings).hasValue(1);
+        assertThat(meterRegistry.get(EntityManager.SELECT_CACHE_METER_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(EntityManager.SELECT_CACHE_METER_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sharesTheSelectOfAllPages() {
+        String first = entityManager.createSelect(this::selectById, Object.class, "id", PageRequest.of(0, 20));
+        String second = entityManager.createSelect(this::selectById, Object.class, "id", PageRequest.of(3, 50));
+
+        assertThat(second).isSameAs(first).endsWith("LIMIT :pageLimit OFFSET :pageOffset");
+        assertThat(renderings).hasValue(1);
+    }
+
+    @Test
+    void keysByEntityAndShape() {
+        entityManager.createSelect(this::selectById, Object.class, "id", null);
+        entityManager.createSelect(this::selectById, String.class, "id", null);
+        entityManager.createSelect(this::selectById, Object.class, "other", null);
+        entityManager.createSelect(this::selectById, Object.class, "id", PageRequest.of(0, 20));
+
+        assertThat(renderings).hasValue(4);
+    }
+
+    private SelectOrdered selectById() {
+        renderings.incrementAndGet();
+        return Select.builder().select(TABLE.column("id")).from(TABLE).where(Conditions.isEqual(TABLE.column("id"), SQL.bindMarker(":id")));
+    }
+}
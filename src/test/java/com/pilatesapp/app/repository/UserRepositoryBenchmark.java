@@ -0,0 +1,158 @@
+package com.pilatesapp.app.repository;
+
+import com.pilatesapp.app.config.DatabaseConfiguration;
+import com.pilatesapp.app.domain.User;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionCommandStep;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * JMH benchmark of the pages of the user management, sampled to report their percentiles, with studio-sized to very
+ * large numbers of users having one or two authorities each, in a PostgreSQL test container.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.pilatesapp.app.repository.UserRepositoryBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    @Param({ "1000", "100000" })
+    int users;
+
+    private PostgreSQLContainer<?> container;
+
+    private UserRepositoryInternalImpl repository;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, LiquibaseException {
+        container = new PostgreSQLContainer<>("postgres:16.0").withDatabaseName("pilatesapplication");
+        container.start();
+        String url = container.getJdbcUrl();
+        try (Connection connection = DriverManager.getConnection(url, container.getUsername(), container.getPassword())) {
+            // the changelog is read through the class loader, the resource accessor of the root Liquibase scope
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                .addArgumentValue(
+                    DbUrlConnectionCommandStep.DATABASE_ARG,
+                    DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection))
+                )
+                .addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, "config/liquibase/master.xml")
+                .addArgumentValue(UpdateCommandStep.CONTEXTS_ARG, "test")
+                .execute();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(
+                    "INSERT INTO jhi_user (login, password_hash, first_name, last_name, email, activated, lang_key, created_by," +
+                    " created_date, last_modified_date) SELECT 'user-' || i, repeat('x', 60), md5(i::text), md5((i * 7)::text)," +
+                    " 'user-' || i || '@localhost', true, 'en', 'system', now() - i * interval '1 minute'," +
+                    " now() - (i % 997) * interval '1 hour' FROM generate_series(1, " +
+                    users +
+                    ") i"
+                );
+                statement.execute("INSERT INTO jhi_user_authority SELECT id, 'ROLE_USER' FROM jhi_user ON CONFLICT DO NOTHING");
+                statement.execute(
+                    "INSERT INTO jhi_user_authority SELECT id, 'ROLE_ADMIN' FROM jhi_user WHERE id % 50 = 0 ON CONFLICT DO NOTHING"
+                );
+                statement.execute("ANALYZE");
+            }
+        }
+
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+            String.format(
+                "r2dbc:postgresql://%s:%s@%s:%d/%s",
+                container.getUsername(),
+                container.getPassword(),
+                container.getHost(),
+                container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                container.getDatabaseName()
+            )
+        );
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(
+            PostgresDialect.INSTANCE,
+            List.of(DatabaseConfiguration.InstantWriteConverter.INSTANCE, DatabaseConfiguration.InstantReadConverter.INSTANCE)
+        );
+        R2dbcMappingContext mappingContext = new R2dbcMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingR2dbcConverter converter = new MappingR2dbcConverter(mappingContext, conversions);
+        DatabaseClient db = DatabaseClient.create(connectionFactory);
+        repository = new UserRepositoryInternalImpl(db, new R2dbcEntityTemplate(db, PostgresDialect.INSTANCE, converter), converter);
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        container.stop();
+    }
+
+    /**
+     * Gets the first page of users, as opened by the user management.
+     */
+    @Benchmark
+    public List<User> firstPage() {
+        return repository.findAllWithAuthorities(PageRequest.of(0, 20, Sort.by("id"))).collectList().block();
+    }
+
+    /**
+     * Gets a random one of the first fifty pages of users sorted by login.
+     */
+    @Benchmark
+    public List<User> pageByLogin() {
+        return repository.findAllWithAuthorities(PageRequest.of(random.nextInt(50), 20, Sort.by("login"))).collectList().block();
+    }
+
+    /**
+     * Gets a random one of the first fifty pages of users sorted by last modification, most recent first.
+     */
+    @Benchmark
+    public List<User> pageByLastModifiedDate() {
+        return repository
+            .findAllWithAuthorities(PageRequest.of(random.nextInt(50), 20, Sort.by(Sort.Direction.DESC, "lastModifiedDate")))
+            .collectList()
+            .block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserRepositoryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
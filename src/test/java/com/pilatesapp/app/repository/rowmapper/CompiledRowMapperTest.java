@@ -0,0 +1,86 @@
+package com.pilatesapp.app.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CompiledRowMapper} and the compiled {@link SessionRowMapper}.
+ */
+class CompiledRowMapperTest {
+
+    private static final LocalDateTime START = LocalDateTime.parse("2023-11-20T09:00:00");
+
+    private ColumnConverter converter;
+
+    private SessionRowMapper sessionMapper;
+
+    private StubRow.Metadata metadata;
+
+    @BeforeEach
+    public void setUp() {
+        converter = StubRow.columnConverter();
+        sessionMapper = new SessionRowMapper(converter);
+        metadata =
+            new StubRow.Metadata()
+                .column("e_id", Long.class)
+                .column("e_start_date", LocalDateTime.class)
+                .column("e_end_date", LocalDateTime.class)
+                .column("e_qr_code", String.class)
+                .column("e_session_status", String.class)
+                .column("e_is_notified", Boolean.class)
+                .column("e_staff_id", Long.class)
+                .column("e_athlete_id", Long.class);
+    }
+
+    @Test
+    void decodesLikeTheNamedMapper() {
+        StubRow row = new StubRow(metadata, 1L, START, START.plusHours(1), "qr", "Waiting", false, 2L, null);
+        CompiledRowMapper<Session> mapper = new CompiledRowMapper<>(converter, layout -> sessionMapper.compile(layout, "e"));
+
+        Session compiled = mapper.apply(row, metadata);
+        Session named = sessionMapper.apply(row, "e");
+
+        assertThat(compiled).usingRecursiveComparison().isEqualTo(named);
+        assertThat(compiled.getStartDate()).isEqualTo(Instant.parse("2023-11-20T09:00:00Z"));
+        assertThat(compiled.getSessionStatus()).isEqualTo(SessionStatus.Waiting);
+        assertThat(compiled.getAthleteId()).isNull();
+    }
+
+    @Test
+    void compilesOncePerShape() {
+        AtomicInteger compilations = new AtomicInteger();
+        CompiledRowMapper<Session> mapper = new CompiledRowMapper<>(
+            converter,
+            layout -> {
+                compilations.incrementAndGet();
+                return sessionMapper.compile(layout, "e");
+            }
+        );
+
+        mapper.apply(new StubRow(metadata, 1L, START, null, null, null, null, null, null), metadata);
+        mapper.apply(new StubRow(metadata, 2L, START, null, null, null, null, null, null), metadata);
+        // a new result of the same query shape
+        StubRow.Metadata sameShape = new StubRow.Metadata();
+        metadata.getColumnMetadatas().forEach(column -> sameShape.column(column.getName(), column.getJavaType()));
+        Session last = mapper.apply(new StubRow(sameShape, 3L, START, null, null, null, null, null, null), sameShape);
+
+        assertThat(compilations).hasValue(1);
+        assertThat(last.getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsMissingColumn() {
+        StubRow.Metadata partial = new StubRow.Metadata().column("e_id", Long.class);
+        CompiledRowMapper<Session> mapper = new CompiledRowMapper<>(converter, layout -> sessionMapper.compile(layout, "e"));
+
+        assertThatThrownBy(() -> mapper.apply(new StubRow(partial, 1L), partial)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,149 @@
+package com.pilatesapp.app.repository.rowmapper;
+
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.Staff;
+import io.r2dbc.spi.Row;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the mapping of a session row joined with its staff and athlete, as read by the session repository,
+ * by the named mappers and by the mappers compiled once for the query shape.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.pilatesapp.app.repository.rowmapper.RowMapperBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private SessionRowMapper sessionMapper;
+
+    private StaffRowMapper staffMapper;
+
+    private AthleteRowMapper athleteMapper;
+
+    private CompiledRowMapper<Session> compiledMapper;
+
+    private StubRow.Metadata metadata;
+
+    private StubRow row;
+
+    @Setup
+    public void setUp() {
+        ColumnConverter converter = StubRow.columnConverter();
+        sessionMapper = new SessionRowMapper(converter);
+        staffMapper = new StaffRowMapper(converter);
+        athleteMapper = new AthleteRowMapper(converter);
+        compiledMapper = new CompiledRowMapper<>(converter, this::compile);
+
+        LocalDateTime start = LocalDateTime.parse("2023-11-20T09:00:00");
+        metadata =
+            new StubRow.Metadata()
+                .column("e_id", Long.class)
+                .column("e_start_date", LocalDateTime.class)
+                .column("e_end_date", LocalDateTime.class)
+                .column("e_qr_code", String.class)
+                .column("e_session_status", String.class)
+                .column("e_is_notified", Boolean.class)
+                .column("e_staff_id", Long.class)
+                .column("e_athlete_id", Long.class)
+                .column("staff_id", Long.class)
+                .column("staff_name", String.class)
+                .column("staff_email", String.class)
+                .column("staff_phone", String.class)
+                .column("staff_city", String.class)
+                .column("staff_address", String.class)
+                .column("staff_birthday", LocalDateTime.class)
+                .column("staff_hire_date", LocalDateTime.class)
+                .column("staff_salary", Long.class)
+                .column("staff_role", LocalDateTime.class)
+                .column("staff_status", Boolean.class)
+                .column("athlete_id", Long.class)
+                .column("athlete_name", String.class)
+                .column("athlete_email", String.class)
+                .column("athlete_phone", String.class)
+                .column("athlete_city", String.class)
+                .column("athlete_address", String.class)
+                .column("athlete_birthday", LocalDateTime.class)
+                .column("athlete_session_package_id", String.class);
+        row =
+            new StubRow(
+                metadata,
+                1L,
+                start,
+                start.plusHours(1),
+                "qr",
+                "Waiting",
+                false,
+                2L,
+                3L,
+                2L,
+                "Staff",
+                "staff@localhost",
+                "555",
+                "City",
+                "Address",
+                start.minusYears(40),
+                start.minusYears(2),
+                1000L,
+                start,
+                true,
+                3L,
+                "Athlete",
+                "athlete@localhost",
+                "556",
+                "City",
+                "Address",
+                start.minusYears(30),
+                "package"
+            );
+    }
+
+    @Benchmark
+    public Session named() {
+        Session entity = sessionMapper.apply(row, "e");
+        entity.setStaff(staffMapper.apply(row, "staff"));
+        entity.setAthlete(athleteMapper.apply(row, "athlete"));
+        return entity;
+    }
+
+    @Benchmark
+    public Session compiled() {
+        return compiledMapper.apply(row, metadata);
+    }
+
+    private Function<Row, Session> compile(RowLayout layout) {
+        Function<Row, Session> session = sessionMapper.compile(layout, "e");
+        Function<Row, Staff> staff = staffMapper.compile(layout, "staff");
+        Function<Row, Athlete> athlete = athleteMapper.compile(layout, "athlete");
+        return entityRow -> {
+            Session entity = session.apply(entityRow);
+            entity.setStaff(staff.apply(entityRow));
+            entity.setAthlete(athlete.apply(entityRow));
+            return entity;
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+}
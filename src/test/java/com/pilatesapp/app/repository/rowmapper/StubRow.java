@@ -0,0 +1,123 @@
+package com.pilatesapp.app.repository.rowmapper;
+
+import com.pilatesapp.app.config.DatabaseConfiguration;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * A {@link Row} holding the values a Postgres driver returns by default, which like the driver fails to decode
+ * a value to a type it has no codec for, e.g. a {@code varchar} to an enum.
+ */
+final class StubRow implements Row {
+
+    private final Metadata metadata;
+
+    private final Object[] values;
+
+    StubRow(Metadata metadata, Object... values) {
+        this.metadata = metadata;
+        this.values = values;
+    }
+
+    static ColumnConverter columnConverter() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(
+            PostgresDialect.INSTANCE,
+            List.of(DatabaseConfiguration.InstantReadConverter.INSTANCE, DatabaseConfiguration.InstantWriteConverter.INSTANCE)
+        );
+        return new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+    }
+
+    @Override
+    public RowMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        Object value = values[index];
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw new IllegalArgumentException("Cannot decode value of type " + value.getClass().getName() + " to " + type.getName());
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        return get(metadata.indexOf(name), type);
+    }
+
+    static final class Metadata implements RowMetadata {
+
+        private final List<Column> columns = new ArrayList<>();
+
+        Metadata column(String name, Class<?> javaType) {
+            columns.add(new Column(name, javaType));
+            return this;
+        }
+
+        int indexOf(String name) {
+            for (int index = 0; index < columns.size(); index++) {
+                if (columns.get(index).getName().equalsIgnoreCase(name)) {
+                    return index;
+                }
+            }
+            throw new NoSuchElementException("Column name '" + name + "' does not exist");
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+
+        @Override
+        public boolean contains(String name) {
+            return columns.stream().anyMatch(column -> column.getName().equalsIgnoreCase(name));
+        }
+    }
+
+    private static final class Column implements ColumnMetadata, Type {
+
+        private final String name;
+
+        private final Class<?> javaType;
+
+        Column(String name, Class<?> javaType) {
+            this.name = name;
+            this.javaType = javaType;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+
+        @Override
+        public Type getType() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.pilatesapp.app.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link SearchCircuitBreaker}.
+ */
+class SearchCircuitBreakerTest {
+
+    private SimpleMeterRegistry registry;
+
+    private SearchCircuitBreaker breaker;
+
+    @BeforeEach
+    public void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.SearchBreaker properties = applicationProperties.getSearchBreaker();
+        properties.setTimeout(Duration.ofMillis(100));
+        properties.setSlowCallDuration(Duration.ofMillis(50));
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setWaitDurationInOpenState(Duration.ofMinutes(1));
+        registry = new SimpleMeterRegistry();
+        breaker = new SearchCircuitBreaker(applicationProperties, registry);
+    }
+
+    @Test
+    void opensOnFailuresAndRejectsWithoutCallingElasticsearch() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> breaker.protect(Mono.error(new DataAccessResourceFailureException("unreachable"))).block())
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        }
+
+        assertThat(breaker.isOpen()).isTrue();
+        AtomicInteger requests = new AtomicInteger();
+        Mono<String> request = Mono.fromCallable(() -> {
+            requests.incrementAndGet();
+            return "hits";
+        });
+        assertThatThrownBy(() -> breaker.protect(request).block()).isInstanceOf(CallNotPermittedException.class);
+        assertThatThrownBy(() -> breaker.protect(Flux.just("hit")).blockLast()).isInstanceOf(CallNotPermittedException.class);
+        assertThat(requests).hasValue(0);
+        assertThat(
+            registry
+                .get("resilience4j.circuitbreaker.state")
+                .tag("name", SearchCircuitBreaker.NAME)
+                .tag("state", CircuitBreaker.State.OPEN.name().toLowerCase())
+                .gauge()
+                .value()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void opensOnSlowRequests() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.protect(Mono.just("hits").delayElement(Duration.ofMillis(60))).block()).isEqualTo("hits");
+        }
+
+        assertThat(breaker.isOpen()).isTrue();
+    }
+
+    @Test
+    void timesOutHangingRequests() {
+        assertThatThrownBy(() -> breaker.protect(Mono.never()).block()).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void doesNotCountInvalidQueries() {
+        for (int i = 0; i < 8; i++) {
+            assertThatThrownBy(() -> breaker.protect(Mono.error(new IllegalArgumentException("Pages are limited to 100 hits"))).block())
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThat(breaker.isOpen()).isFalse();
+    }
+}
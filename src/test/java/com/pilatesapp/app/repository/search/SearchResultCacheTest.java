@@ -0,0 +1,119 @@
+package com.pilatesapp.app.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.repository.AthleteFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link SearchResultCache}.
+ */
+class SearchResultCacheTest {
+
+    private SimpleMeterRegistry registry;
+
+    private SearchResultCache cache;
+
+    private AtomicInteger searches;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new SearchResultCache(new ApplicationProperties(), registry);
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    void cachesByNormalizedQueryFilterAndPage() {
+        SearchPage<Athlete> page = athletes(" name:ayse   kaya", null, 0);
+
+        assertThat(athletes("name:ayse kaya ", null, 0)).isSameAs(page);
+        assertThat(searches).hasValue(1);
+
+        athletes("name:ayse kaya", null, 1);
+        athletes("name:ayse kaya", new AthleteFilter().city("Izmir"), 0);
+        cache.pageAfter(Athlete.class, "name:ayse kaya", null, List.of(1.0f, 42L), 20, search()).block();
+        assertThat(searches).hasValue(4);
+
+        assertThat(registry.get("cache.gets").tag("cache", SearchResultCache.CACHE_NAME).tag("result", "hit").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", SearchResultCache.CACHE_NAME).tag("result", "miss").functionCounter().count())
+            .isEqualTo(4);
+    }
+
+    @Test
+    void invalidatesOnlyTheWrittenType() {
+        athletes("*", null, 0);
+        cache.page(Staff.class, "*", null, PageRequest.of(0, 20), search()).block();
+
+        cache.invalidate(Athlete.class);
+        athletes("*", null, 0);
+        cache.page(Staff.class, "*", null, PageRequest.of(0, 20), search()).block();
+
+        assertThat(searches).hasValue(3);
+    }
+
+    @Test
+    void sharesConcurrentSearches() {
+        Sinks.One<SearchPage<Athlete>> response = Sinks.one();
+        Supplier<Mono<SearchPage<Athlete>>> search = () -> {
+            searches.incrementAndGet();
+            return response.asMono();
+        };
+        CompletableFuture<SearchPage<Athlete>> first = cache.page(Athlete.class, "*", null, PageRequest.of(0, 20), search).toFuture();
+        CompletableFuture<SearchPage<Athlete>> second = cache.page(Athlete.class, "*", null, PageRequest.of(0, 20), search).toFuture();
+
+        SearchPage<Athlete> page = page();
+        response.tryEmitValue(page);
+
+        assertThat(first.join()).isSameAs(page);
+        assertThat(second.join()).isSameAs(page);
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void doesNotCacheFailedSearches() {
+        Supplier<Mono<SearchPage<Athlete>>> failing = () -> {
+            searches.incrementAndGet();
+            return Mono.error(new IllegalStateException("unavailable"));
+        };
+        assertThatThrownBy(() -> cache.page(Athlete.class, "*", null, PageRequest.of(0, 20), failing).block())
+            .isInstanceOf(IllegalStateException.class);
+
+        athletes("*", null, 0);
+
+        assertThat(searches).hasValue(2);
+    }
+
+    private SearchPage<Athlete> athletes(String query, AthleteFilter filter, int page) {
+        return cache.page(Athlete.class, query, filter, PageRequest.of(page, 20), search()).block();
+    }
+
+    private <T> Supplier<Mono<SearchPage<T>>> search() {
+        return () ->
+            Mono.fromCallable(() -> {
+                searches.incrementAndGet();
+                return page();
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> SearchPage<T> page() {
+        return mock(SearchPage.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.pilatesapp.app.security;
+
+import static com.pilatesapp.app.security.SecurityUtils.AUTHORITIES_KEY;
+import static com.pilatesapp.app.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+/**
+ * JMH benchmark of the decoding of the tokens of the API requests, verified on every request and cached once verified,
+ * for a thousand sessions each sending its token again.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.pilatesapp.app.security.CachingJwtDecoderBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingJwtDecoderBenchmark {
+
+    private static final int SESSIONS = 1000;
+
+    private ReactiveJwtDecoder verifyingDecoder;
+
+    private ReactiveJwtDecoder cachingDecoder;
+
+    private String[] tokens;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new SplittableRandom(42);
+        byte[] keyBytes = new byte[64];
+        random.nextBytes(keyBytes);
+        SecretKey key = new SecretKeySpec(keyBytes, JWT_ALGORITHM.getName());
+        verifyingDecoder = NimbusReactiveJwtDecoder.withSecretKey(key).macAlgorithm(JWT_ALGORITHM).build();
+        cachingDecoder = new CachingJwtDecoder(verifyingDecoder, 10_000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        Instant now = Instant.now();
+        tokens = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            JwtClaimsSet claims = JwtClaimsSet
+                .builder()
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofDays(1)))
+                .subject("user-" + i)
+                .claim(AUTHORITIES_KEY, List.of("ROLE_USER"))
+                .build();
+            tokens[i] = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).build(), claims)).getTokenValue();
+        }
+    }
+
+    /**
+     * Parses a token and verifies its signature, as done for every request without the cache.
+     */
+    @Benchmark
+    public Jwt verify() {
+        return verifyingDecoder.decode(tokens[random.nextInt(SESSIONS)]).block();
+    }
+
+    /**
+     * Decodes a token already verified by an earlier request of its session.
+     */
+    @Benchmark
+    public Jwt cached() {
+        return cachingDecoder.decode(tokens[random.nextInt(SESSIONS)]).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CachingJwtDecoderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.pilatesapp.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link CachingJwtDecoder}.
+ */
+class CachingJwtDecoderTest {
+
+    private AtomicInteger verifications;
+
+    private Instant expiresAt;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    public void setUp() {
+        verifications = new AtomicInteger();
+        expiresAt = Instant.now().plusSeconds(60);
+        decoder =
+            new CachingJwtDecoder(
+                token -> {
+                    verifications.incrementAndGet();
+                    if (token.startsWith("invalid")) {
+                        return Mono.error(new BadJwtException("Failed to validate the token"));
+                    }
+                    return Mono.just(Jwt.withTokenValue(token).header("alg", "HS512").subject("admin").expiresAt(expiresAt).build());
+                },
+                100,
+                Duration.ofMinutes(10),
+                new SimpleMeterRegistry()
+            );
+    }
+
+    @Test
+    void verifiesEachTokenOnce() {
+        Jwt jwt = decoder.decode("token-one").block();
+
+        assertThat(decoder.decode("token-one").block()).isSameAs(jwt);
+        decoder.decode("token-two").block();
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void verifiesInvalidTokensEveryTime() {
+        assertThatThrownBy(() -> decoder.decode("invalid-token").block()).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("invalid-token").block()).isInstanceOf(BadJwtException.class);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheTokensPastTheirExpiry() {
+        expiresAt = Instant.now().minusSeconds(1);
+
+        decoder.decode("token-one").block();
+        decoder.decode("token-one").block();
+
+        assertThat(verifications).hasValue(2);
+    }
+}
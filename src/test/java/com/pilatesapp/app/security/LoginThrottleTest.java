@@ -0,0 +1,177 @@
+package com.pilatesapp.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+/**
+ * Test class for the {@link LoginThrottle}.
+ */
+class LoginThrottleTest {
+
+    private SimpleMeterRegistry registry;
+
+    private AtomicLong now;
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        now = new AtomicLong();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.LoginThrottle properties = applicationProperties.getLoginThrottle();
+        properties.setLoginCapacity(2);
+        properties.setLoginRefillPeriod(Duration.ofMinutes(1));
+        properties.setAddressCapacity(4);
+        properties.setAddressRefillPeriod(Duration.ofSeconds(10));
+        properties.setMaxBackoff(Duration.ofMinutes(5));
+        properties.setTrustedProxies(List.of("127.0.0.0/8", "10.0.0.0/8", "192.168.0.0/16"));
+        loginThrottle = new LoginThrottle(applicationProperties, registry, now::get);
+    }
+
+    @Test
+    void throttlesTheLoginOnceItsBucketIsEmpty() {
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("Ayse", "10.0.0.2").block();
+
+        assertThrottledFor("ayse", "10.0.0.3", Duration.ofMinutes(1));
+        loginThrottle.acquire("deniz", "10.0.0.3").block();
+        assertThat(throttledCount("login")).isEqualTo(1);
+    }
+
+    @Test
+    void throttlesTheAddressOnceItsBucketIsEmpty() {
+        for (int i = 0; i < 4; i++) {
+            loginThrottle.acquire("user-" + i, "10.0.0.1").block();
+        }
+
+        assertThrottledFor("user-4", "10.0.0.1", Duration.ofSeconds(10));
+        assertThat(throttledCount("address")).isEqualTo(1);
+        assertThat(throttledCount("login")).isZero();
+    }
+
+    @Test
+    void refillsTheBucketOverTime() {
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+
+        advance(Duration.ofMinutes(1));
+
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void doublesTheBackoffOfAKeyThrottledAgain() {
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(1));
+        advance(Duration.ofSeconds(30));
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofSeconds(30));
+        advance(Duration.ofSeconds(30));
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(2));
+        // the bucket is full again after the backoff, but the backoff is not forgotten yet
+        advance(Duration.ofMinutes(2));
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(4));
+        advance(Duration.ofMinutes(4));
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void forgetsTheBackoffOfAKeyLeftAlone() {
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(1));
+
+        advance(Duration.ofMinutes(3));
+
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        assertThrottledFor("ayse", "10.0.0.1", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void refillsTheBucketOfAnAuthenticatedLogin() {
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+
+        loginThrottle.reset("Ayse");
+
+        loginThrottle.acquire("ayse", "10.0.0.1").block();
+    }
+
+    @Test
+    void throttlesTheClientsForwardedByATrustedProxyApart() {
+        String first = loginThrottle.getClientAddress(forwarded("10.0.0.1", "203.0.113.5"));
+        String second = loginThrottle.getClientAddress(forwarded("10.0.0.1", "198.51.100.7"));
+        assertThat(first).isEqualTo("203.0.113.5");
+        assertThat(second).isEqualTo("198.51.100.7");
+
+        for (int i = 0; i < 4; i++) {
+            loginThrottle.acquire("user-" + i, first).block();
+        }
+
+        assertThrottledFor("user-4", first, Duration.ofSeconds(10));
+        loginThrottle.acquire("user-4", second).block();
+    }
+
+    @Test
+    void readsTheLastAddressNotAppendedByATrustedProxy() {
+        assertThat(loginThrottle.getClientAddress(forwarded("10.0.0.1", "198.51.100.1, 203.0.113.5, 192.168.1.2")))
+            .isEqualTo("203.0.113.5");
+        assertThat(loginThrottle.getClientAddress(forwarded("10.0.0.1", "evil.example.com, 192.168.1.2"))).isEqualTo("192.168.1.2");
+    }
+
+    @Test
+    void ignoresTheForwardedAddressOfAnUntrustedClient() {
+        assertThat(loginThrottle.getClientAddress(forwarded("203.0.113.5", "198.51.100.7"))).isEqualTo("203.0.113.5");
+        assertThat(loginThrottle.getClientAddress(MockServerHttpRequest.post("/api/authenticate").build())).isEqualTo("unknown");
+    }
+
+    @Test
+    void onlyTrustsTheLoopbackProxiesByDefault() {
+        LoginThrottle defaultThrottle = new LoginThrottle(new ApplicationProperties(), registry, now::get);
+        assertThat(defaultThrottle.getClientAddress(forwarded("127.0.0.1", "203.0.113.5"))).isEqualTo("203.0.113.5");
+        assertThat(defaultThrottle.getClientAddress(forwarded("10.0.0.1", "203.0.113.5"))).isEqualTo("10.0.0.1");
+        assertThat(defaultThrottle.getClientAddress(forwarded("192.168.1.2", "203.0.113.5"))).isEqualTo("192.168.1.2");
+    }
+
+    private static MockServerHttpRequest forwarded(String remoteAddress, String forwardedFor) {
+        return MockServerHttpRequest
+            .post("/api/authenticate")
+            .remoteAddress(new InetSocketAddress(remoteAddress, 443))
+            .header("X-Forwarded-For", forwardedFor)
+            .build();
+    }
+
+    private void assertThrottledFor(String login, String address, Duration retryAfter) {
+        assertThatThrownBy(() -> loginThrottle.acquire(login, address).block())
+            .isInstanceOf(LoginThrottledException.class)
+            .extracting(e -> ((LoginThrottledException) e).getRetryAfter())
+            .isEqualTo(retryAfter);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private double throttledCount(String key) {
+        return registry.get(LoginThrottle.THROTTLED_METER_NAME).tag(LoginThrottle.THROTTLED_METER_KEY_DIMENSION, key).counter().count();
+    }
+}
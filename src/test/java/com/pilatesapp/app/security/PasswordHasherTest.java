@@ -0,0 +1,107 @@
+package com.pilatesapp.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for the {@link PasswordHasher}.
+ */
+class PasswordHasherTest {
+
+    private SimpleMeterRegistry registry;
+
+    private CountDownLatch started;
+
+    private CountDownLatch released;
+
+    private PasswordHasher passwordHasher;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        started = new CountDownLatch(1);
+        released = new CountDownLatch(1);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.PasswordHashing properties = applicationProperties.getPasswordHashing();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        passwordHasher = new PasswordHasher(new BlockingPasswordEncoder(), applicationProperties, registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        released.countDown();
+        passwordHasher.destroy();
+    }
+
+    @Test
+    void hashesOnTheHashingPool() {
+        released.countDown();
+
+        assertThat(passwordHasher.encode("secret").block()).isEqualTo("hash:secret");
+        assertThat(passwordHasher.matches("secret", "hash:secret").block()).isTrue();
+        assertThat(hashingCount("encode")).isEqualTo(1);
+        assertThat(hashingCount("matches")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsTheHashesOnceTheQueueIsFull() throws InterruptedException {
+        CompletableFuture<String> running = passwordHasher.encode("first").toFuture();
+        started.await();
+        CompletableFuture<String> queued = passwordHasher.encode("second").toFuture();
+
+        assertThat(registry.get(PasswordHasher.QUEUE_METER_NAME).gauge().value()).isEqualTo(1);
+        assertThatThrownBy(() -> passwordHasher.encode("third").block())
+            .isInstanceOf(RejectedExecutionException.class)
+            .satisfies(e ->
+                assertThat(ExceptionUtils.throwableOfType(e, PasswordHashingRejectedException.class))
+                    .extracting(PasswordHashingRejectedException::getRetryAfter)
+                    .isEqualTo(Duration.ofSeconds(2))
+            );
+        assertThat(registry.get(PasswordHasher.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        released.countDown();
+        assertThat(running.join()).isEqualTo("hash:first");
+        assertThat(queued.join()).isEqualTo("hash:second");
+    }
+
+    private long hashingCount(String operation) {
+        return registry
+            .get(PasswordHasher.HASHING_METER_NAME)
+            .tag(PasswordHasher.HASHING_METER_OPERATION_DIMENSION, operation)
+            .timer()
+            .count();
+    }
+
+    private class BlockingPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.pilatesapp.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.config.Constants;
+import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.UserRepository;
+import com.pilatesapp.app.service.UserService;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Integration tests for the {@link UserDetailsCache}, with users cached long enough to outlive their changes.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.user-details-cache.time-to-live=PT5M")
+class UserDetailsCacheIT {
+
+    private static final String LOGIN = "test-user-cached";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    @Qualifier("userDetailsService")
+    private ReactiveUserDetailsService userDetailsService;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        userRepository.deleteAllUserAuthorities().block();
+        userRepository.deleteAll().block();
+        user = new User();
+        user.setLogin(LOGIN);
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail(LOGIN + "@localhost");
+        user.setLangKey("en");
+        user.setCreatedBy(Constants.SYSTEM);
+        userRepository.save(user).block();
+    }
+
+    @Test
+    void assertThatALoginBeforeTheCommitDoesNotCacheTheReplacedUser() {
+        assertThat(userDetailsService.findByUsername(LOGIN).block()).isNotNull();
+        String hash = RandomStringUtils.randomAlphanumeric(60);
+        user.setPassword(hash);
+
+        // the login runs on its own connection, so it reads the user as it was before the commit
+        TransactionalOperator
+            .create(transactionManager)
+            .execute(status -> userService.saveUser(user).then(userDetailsService.findByUsername(LOGIN)))
+            .blockLast();
+
+        assertThat(userDetailsService.findByUsername(LOGIN).block().getPassword()).isEqualTo(hash);
+    }
+
+    @Test
+    void assertThatADeletedUserCannotLogIn() {
+        assertThat(userDetailsService.findByUsername(LOGIN).block()).isNotNull();
+
+        userService.deleteUser(LOGIN).block();
+
+        assertThatExceptionOfType(UsernameNotFoundException.class).isThrownBy(() -> userDetailsService.findByUsername(LOGIN).block());
+    }
+}
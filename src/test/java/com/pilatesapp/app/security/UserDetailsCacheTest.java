@@ -0,0 +1,127 @@
+package com.pilatesapp.app.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.config.ApplicationProperties;
+import com.pilatesapp.app.domain.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link UserDetailsCache}.
+ */
+class UserDetailsCacheTest {
+
+    private SimpleMeterRegistry registry;
+
+    private UserDetailsCache cache;
+
+    private AtomicInteger lookups;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new UserDetailsCache(new ApplicationProperties(), registry);
+        lookups = new AtomicInteger();
+    }
+
+    @Test
+    void cachesByNormalizedUsername() {
+        User user = user(1L, "ayse");
+
+        assertThat(cache.get("Ayse", lookup(user)).block()).isSameAs(user);
+        assertThat(cache.get("ayse", lookup(user)).block()).isSameAs(user);
+        cache.get("ayse@localhost", lookup(user)).block();
+
+        assertThat(lookups).hasValue(2);
+        assertThat(registry.get("cache.gets").tag("cache", UserDetailsCache.CACHE_NAME).tag("result", "hit").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", UserDetailsCache.CACHE_NAME).tag("result", "miss").functionCounter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void evictsTheSavedUserUnderAllItsUsernames() {
+        User ayse = user(1L, "ayse");
+        User deniz = user(2L, "deniz");
+        cache.get("ayse", lookup(ayse)).block();
+        cache.get("ayse@localhost", lookup(ayse)).block();
+        cache.get("deniz", lookup(deniz)).block();
+
+        // the login of the user was changed
+        cache.evict(user(1L, "ayse.kaya"));
+        cache.get("ayse", lookup(ayse)).block();
+        cache.get("ayse@localhost", lookup(ayse)).block();
+        cache.get("deniz", lookup(deniz)).block();
+
+        assertThat(lookups).hasValue(5);
+    }
+
+    @Test
+    void evictsTheRehashedUserByLogin() {
+        User ayse = user(1L, "ayse");
+        User deniz = user(2L, "deniz");
+        cache.get("ayse@localhost", lookup(ayse)).block();
+        cache.get("deniz", lookup(deniz)).block();
+
+        cache.evict("ayse");
+        cache.get("ayse@localhost", lookup(ayse)).block();
+        cache.get("deniz", lookup(deniz)).block();
+
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void evictsTheLookupsInFlight() {
+        Sinks.One<User> response = Sinks.one();
+        Supplier<Mono<User>> lookup = () -> {
+            lookups.incrementAndGet();
+            return response.asMono();
+        };
+        CompletableFuture<User> inFlight = cache.get("ayse", lookup).toFuture();
+
+        cache.evict(user(2L, "deniz"));
+        response.tryEmitValue(user(1L, "ayse"));
+        inFlight.join();
+        cache.get("ayse", lookup(user(1L, "ayse"))).block();
+
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    void doesNotCacheUnknownUsers() {
+        Supplier<Mono<User>> unknown = () -> {
+            lookups.incrementAndGet();
+            return Mono.error(new UsernameNotFoundException("User ayse was not found in the database"));
+        };
+        assertThatThrownBy(() -> cache.get("ayse", unknown).block()).isInstanceOf(UsernameNotFoundException.class);
+
+        cache.get("ayse", lookup(user(1L, "ayse"))).block();
+
+        assertThat(lookups).hasValue(2);
+    }
+
+    private Supplier<Mono<User>> lookup(User user) {
+        return () ->
+            Mono.fromCallable(() -> {
+                lookups.incrementAndGet();
+                return user;
+            });
+    }
+
+    private static User user(Long id, String login) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin(login);
+        user.setEmail(login + "@localhost");
+        return user;
+    }
+}
@@ -5,11 +5,14 @@ import static com.pilatesapp.app.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
 import com.pilatesapp.app.repository.UserRepository;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.Date;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -81,6 +84,32 @@ public class JwtAuthenticationTestUtils {
         return encoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
     }
 
+    public static String createNotYetValidToken(String jwtKey) {
+        JwtEncoder encoder = jwtEncoder(jwtKey);
+
+        var now = Instant.now();
+        var future = now.plusSeconds(600);
+
+        JwtClaimsSet claims = JwtClaimsSet
+            .builder()
+            .issuedAt(now)
+            .notBefore(future)
+            .expiresAt(future.plusSeconds(60))
+            .subject("anonymous")
+            .build();
+
+        JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
+        return encoder.encode(JwtEncoderParameters.from(jwsHeader, claims)).getTokenValue();
+    }
+
+    public static String createUnsignedToken() {
+        var now = Instant.now();
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder().subject("anonymous").expirationTime(Date.from(now.plusSeconds(60))).build();
+
+        return new PlainJWT(claims).serialize();
+    }
+
     public static String createInvalidToken(String jwtKey) throws Exception {
         return createValidToken(jwtKey).substring(1);
     }
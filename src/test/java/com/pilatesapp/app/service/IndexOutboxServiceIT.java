@@ -0,0 +1,199 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.IndexOutboxEntry;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.Staff;
+import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.EntityManager;
+import com.pilatesapp.app.repository.IndexOutboxRepository;
+import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.repository.StaffRepository;
+import com.pilatesapp.app.repository.search.AthleteSearchRepository;
+import com.pilatesapp.app.repository.search.SessionSearchRepository;
+import com.pilatesapp.app.repository.search.StaffSearchRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link IndexOutboxService}.
+ */
+@IntegrationTest
+class IndexOutboxServiceIT {
+
+    @Autowired
+    private IndexOutboxService indexOutboxService;
+
+    @Autowired
+    private AthleteRepository athleteRepository;
+
+    @Autowired
+    private AthleteSearchRepository athleteSearchRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Autowired
+    private StaffSearchRepository staffSearchRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionSearchRepository sessionSearchRepository;
+
+    @Autowired
+    private IndexOutboxRepository indexOutboxRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Session.class).block();
+        em.deleteAll(Athlete.class).block();
+        em.deleteAll(Staff.class).block();
+        sessionSearchRepository.deleteAll().block();
+        athleteSearchRepository.deleteAll().block();
+        staffSearchRepository.deleteAll().block();
+    }
+
+    @Test
+    void indexesAndDeletesEnqueuedEntities() {
+        Athlete athlete = athleteRepository.save(athlete("Deniz")).block();
+
+        indexOutboxService.enqueue(Athlete.class, athlete.getId()).block();
+
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNotNull());
+
+        athleteRepository.deleteById(athlete.getId()).block();
+        indexOutboxService.enqueue(Athlete.class, athlete.getId()).block();
+
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNull());
+    }
+
+    @Test
+    void indexesSessionsWithNamesAndPropagatesRenames() {
+        Athlete athlete = athleteRepository.save(athlete("Deniz")).block();
+        Staff staff = staffRepository.save(staff("Ayşe")).block();
+        Session session = sessionRepository.save(session().athlete(athlete).staff(staff)).block();
+
+        indexOutboxService.enqueue(Athlete.class, athlete.getId()).block();
+        indexOutboxService.enqueue(Staff.class, staff.getId()).block();
+        indexOutboxService.enqueue(Session.class, session.getId()).block();
+
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                SessionDocument document = sessionSearchRepository.findById(session.getId()).block();
+                assertThat(document).isNotNull();
+                assertThat(document.getAthleteName()).isEqualTo("Deniz");
+                assertThat(document.getStaffName()).isEqualTo("Ayşe");
+                assertThat(staffSearchRepository.findById(staff.getId()).block()).isNotNull();
+                assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNotNull();
+            });
+
+        athleteRepository.save(athlete.name("Deniz Yılmaz")).block();
+        staffRepository.save(staff.name("Ayşe Kaya")).block();
+        indexOutboxService.enqueue(Athlete.class, athlete.getId()).block();
+        indexOutboxService.enqueue(Staff.class, staff.getId()).block();
+
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                SessionDocument document = sessionSearchRepository.findById(session.getId()).block();
+                assertThat(document.getAthleteName()).isEqualTo("Deniz Yılmaz");
+                assertThat(document.getStaffName()).isEqualTo("Ayşe Kaya");
+            });
+    }
+
+    @Test
+    void replaysTheEntitiesIndexedWhileTracked() {
+        Athlete athlete = athleteRepository.save(athlete("Deniz")).block();
+        indexOutboxService.startTracking(Athlete.class).block();
+
+        indexOutboxService.enqueue(Athlete.class, athlete.getId()).block();
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNotNull());
+
+        // as a rebuilt index which missed the change
+        athleteSearchRepository.deleteById(athlete.getId()).block();
+        indexOutboxService.replayTracked(Athlete.class).block();
+
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNotNull());
+    }
+
+    @Test
+    void leavesTheEntriesLeasedByAnotherNodeUntilTheLeaseExpires() {
+        Athlete athlete = athleteRepository.save(athlete("Deniz")).block();
+        IndexOutboxEntry entry = indexOutboxRepository
+            .save(
+                new IndexOutboxEntry()
+                    .entityType(Athlete.class.getSimpleName())
+                    .entityId(String.valueOf(athlete.getId()))
+                    .attempts(0)
+                    .createdAt(Instant.now())
+                    .claimedUntil(Instant.now().plus(1, ChronoUnit.HOURS))
+            )
+            .block();
+
+        await()
+            .during(2, TimeUnit.SECONDS)
+            .atMost(3, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNull());
+
+        indexOutboxRepository.save(entry.claimedUntil(Instant.now().minus(1, ChronoUnit.SECONDS))).block();
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                assertThat(athleteSearchRepository.findById(athlete.getId()).block()).isNotNull();
+                assertThat(indexOutboxRepository.findById(entry.getId()).block()).isNull();
+            });
+    }
+
+    @Test
+    void enqueueRejectsEntitiesWithoutIndex() {
+        assertThatThrownBy(() -> indexOutboxService.enqueueAll(User.class, List.of(1L)).block())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Athlete athlete(String name) {
+        return new Athlete().name(name).email(name.toLowerCase() + "@localhost").phone("5550000000").city("Istanbul");
+    }
+
+    private static Staff staff(String name) {
+        return new Staff().name(name).email(name.toLowerCase() + "@localhost").phone("5550000001").city("Istanbul").status(true);
+    }
+
+    private static Session session() {
+        Instant startDate = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        return new Session()
+            .startDate(startDate)
+            .endDate(startDate.plus(1, ChronoUnit.HOURS))
+            .qrCode("QR-INDEX")
+            .sessionStatus(SessionStatus.Waiting)
+            .isNotified(false);
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.*;
 import com.pilatesapp.app.IntegrationTest;
 import com.pilatesapp.app.config.Constants;
 import com.pilatesapp.app.domain.User;
+import com.pilatesapp.app.repository.projection.SessionReminder;
 import jakarta.mail.Multipart;
 import jakarta.mail.Session;
 import jakarta.mail.internet.MimeBodyPart;
@@ -19,6 +20,9 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -141,6 +145,35 @@ class MailServiceIT {
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testSendSessionReminder() throws Exception {
+        SessionReminder reminder = new SessionReminder(
+            1L,
+            Instant.parse("2023-11-21T09:00:00Z"),
+            Instant.parse("2023-11-21T10:00:00Z"),
+            "john",
+            "john.doe@example.com",
+            "jane"
+        );
+        boolean sent = mailService.sendSessionReminder(reminder, Locale.ENGLISH, ZoneId.of("Europe/Paris"));
+        verify(javaMailSender).send(messageCaptor.capture());
+        MimeMessage message = messageCaptor.getValue();
+        assertThat(sent).isTrue();
+        assertThat(message.getSubject()).isEqualTo("pilatesapplication session reminder");
+        assertThat(message.getAllRecipients()[0]).hasToString(reminder.athleteEmail());
+        assertThat(message.getContent().toString())
+            .contains("Dear john")
+            .contains("Tuesday 21 November 2023, from 10:00 to 11:00")
+            .contains("Your coach will be jane.");
+    }
+
+    @Test
+    void testSendSessionReminderWithException() {
+        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        SessionReminder reminder = new SessionReminder(1L, Instant.now(), null, "john", "john.doe@example.com", null);
+        assertThat(mailService.sendSessionReminder(reminder, Locale.ENGLISH, ZoneId.of("UTC"))).isFalse();
+    }
+
     @Test
     void testSendActivationEmail() throws Exception {
         User user = new User();
@@ -0,0 +1,87 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.EntityManager;
+import com.pilatesapp.app.repository.search.AthleteSearchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+/**
+ * Integration tests for {@link SearchReindexService}.
+ */
+@IntegrationTest
+class SearchReindexServiceIT {
+
+    @Autowired
+    private SearchReindexService searchReindexService;
+
+    @Autowired
+    private AthleteRepository athleteRepository;
+
+    @Autowired
+    private AthleteSearchRepository athleteSearchRepository;
+
+    @Autowired
+    private ReactiveElasticsearchOperations elasticsearchOperations;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Athlete.class).block();
+        athleteSearchRepository.deleteAll().block();
+    }
+
+    @Test
+    void rebuildsTheIndexBehindTheAlias() {
+        Athlete first = athleteRepository.save(athlete("Deniz")).block();
+        Athlete second = athleteRepository.save(athlete("Ayşe")).block();
+
+        assertThat(searchReindexService.reindex(List.of("athlete")).block()).isEqualTo(2L);
+
+        Set<String> indices = aliasedIndices();
+        assertThat(indices).hasSize(1).allMatch(index -> index.startsWith("athlete-"));
+        assertThat(athleteSearchRepository.findById(first.getId()).block()).isNotNull();
+        assertThat(athleteSearchRepository.findById(second.getId()).block()).isNotNull();
+        assertThat(meterRegistry.get(SearchReindexService.PROGRESS_METER_NAME).tag("index", "athlete").gauge().value()).isEqualTo(1.0);
+
+        // a second rebuild moves the alias, and deletes the previous index
+        athleteRepository.deleteById(second.getId()).block();
+        assertThat(searchReindexService.reindex(List.of("athlete")).block()).isEqualTo(1L);
+
+        Set<String> rebuilt = aliasedIndices();
+        assertThat(rebuilt).hasSize(1).doesNotContainAnyElementsOf(indices);
+        assertThat(elasticsearchOperations.indexOps(IndexCoordinates.of(indices.iterator().next())).exists().block()).isFalse();
+        assertThat(athleteSearchRepository.findById(second.getId()).block()).isNull();
+    }
+
+    @Test
+    void rejectsUnknownIndices() {
+        assertThatThrownBy(() -> searchReindexService.reindex(List.of("unknown")).block()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Set<String> aliasedIndices() {
+        return elasticsearchOperations.indexOps(IndexCoordinates.of("athlete")).getAliases("athlete").block().keySet();
+    }
+
+    private static Athlete athlete(String name) {
+        return new Athlete().name(name).email(name.toLowerCase() + "@localhost").phone("5550000000").city("Istanbul");
+    }
+}
@@ -0,0 +1,32 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.domain.SessionChange;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the notification payloads of the {@link SessionChangeService}.
+ */
+class SessionChangeServiceTest {
+
+    @Test
+    void parsesNotificationPayload() {
+        SessionChange change = SessionChangeService.parse("42,1001,UPDATE,1700557200123");
+
+        assertThat(change.getId()).isEqualTo(42L);
+        assertThat(change.getSessionId()).isEqualTo(1001L);
+        assertThat(change.getChangeType()).isEqualTo(SessionChangeType.UPDATE);
+        assertThat(change.getChangedAt()).isEqualTo(Instant.parse("2023-11-21T09:00:00.123Z"));
+        assertThat(change.getSession()).isNull();
+    }
+
+    @Test
+    void rejectsInvalidNotificationPayload() {
+        assertThatThrownBy(() -> SessionChangeService.parse("42,1001,UPDATE")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SessionChangeService.parse("42,1001,RENAME,1700557200123")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.EntityManager;
+import com.pilatesapp.app.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Integration tests for {@link SessionReminderService}.
+ */
+@IntegrationTest
+class SessionReminderServiceIT {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private AthleteRepository athleteRepository;
+
+    @Autowired
+    private SessionReminderService sessionReminderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    @MockBean
+    private JavaMailSender javaMailSender;
+
+    private Athlete athlete;
+
+    @BeforeEach
+    public void setup() {
+        cleanup();
+        doNothing().when(javaMailSender).send(any(MimeMessage.class));
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((jakarta.mail.Session) null));
+        athlete = athleteRepository.save(new Athlete().name("john").email("john.doe@example.com")).block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Session.class).block();
+        em.deleteAll(Athlete.class).block();
+    }
+
+    @Test
+    void remindsDueSessionsOnce() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Session due = sessionRepository.save(session(now.plus(2, ChronoUnit.HOURS))).block();
+        Session later = sessionRepository.save(session(now.plus(3, ChronoUnit.DAYS))).block();
+        Session past = sessionRepository.save(session(now.minus(2, ChronoUnit.HOURS))).block();
+        double sentBefore = meterRegistry.get(SessionReminderService.REMINDERS_METER_NAME).tag("result", "sent").counter().count();
+
+        assertThat(sessionReminderService.sendReminders().block()).isEqualTo(1L);
+
+        verify(javaMailSender, times(1)).send(any(MimeMessage.class));
+        assertThat(sessionRepository.findById(due.getId()).block().getIsNotified()).isTrue();
+        assertThat(sessionRepository.findById(later.getId()).block().getIsNotified()).isFalse();
+        assertThat(sessionRepository.findById(past.getId()).block().getIsNotified()).isFalse();
+        assertThat(meterRegistry.get(SessionReminderService.REMINDERS_METER_NAME).tag("result", "sent").counter().count())
+            .isEqualTo(sentBefore + 1);
+
+        // a reminded session is not reminded again
+        assertThat(sessionReminderService.sendReminders().block()).isZero();
+        verify(javaMailSender, times(1)).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void retriesFailedReminders() {
+        Session due = sessionRepository.save(session(Instant.now().plus(2, ChronoUnit.HOURS))).block();
+        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+
+        assertThat(sessionReminderService.sendReminders().block()).isZero();
+        assertThat(sessionRepository.findById(due.getId()).block().getIsNotified()).isFalse();
+
+        doNothing().when(javaMailSender).send(any(MimeMessage.class));
+        assertThat(sessionReminderService.sendReminders().block()).isEqualTo(1L);
+        assertThat(sessionRepository.findById(due.getId()).block().getIsNotified()).isTrue();
+    }
+
+    @Test
+    void sendsRemindersOnceTheirSessionsAreFlagged() {
+        Session due = sessionRepository.save(session(Instant.now().plus(2, ChronoUnit.HOURS))).block();
+        AtomicReference<Boolean> notifiedWhenSent = new AtomicReference<>();
+        doAnswer(invocation -> {
+                // read on another connection, which only sees the committed flag
+                notifiedWhenSent.set(sessionRepository.findById(due.getId()).toFuture().get().getIsNotified());
+                return null;
+            })
+            .when(javaMailSender)
+            .send(any(MimeMessage.class));
+
+        assertThat(sessionReminderService.sendReminders().block()).isEqualTo(1L);
+        assertThat(notifiedWhenSent.get()).isTrue();
+    }
+
+    private Session session(Instant start) {
+        return new Session()
+            .startDate(start)
+            .endDate(start.plus(1, ChronoUnit.HOURS))
+            .sessionStatus(SessionStatus.Waiting)
+            .isNotified(false)
+            .athlete(athlete);
+    }
+}
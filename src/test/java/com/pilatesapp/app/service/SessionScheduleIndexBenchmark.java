@@ -0,0 +1,83 @@
+package com.pilatesapp.app.service;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the {@link SessionScheduleIndex.IntervalList} lookups and inserts with 1M indexed sessions,
+ * either all booked by a single owner or spread over a studio-sized number of owners.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.pilatesapp.app.service.SessionScheduleIndexBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionScheduleIndexBenchmark {
+
+    private static final int SESSIONS = 1_000_000;
+
+    private static final long SLOT = TimeUnit.HOURS.toMillis(1);
+
+    @Param({ "1", "1000" })
+    int owners;
+
+    private SessionScheduleIndex.IntervalList[] intervals;
+
+    private SplittableRandom random;
+
+    private long horizon;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new SplittableRandom(42);
+        intervals = new SessionScheduleIndex.IntervalList[owners];
+        for (int owner = 0; owner < owners; owner++) {
+            intervals[owner] = new SessionScheduleIndex.IntervalList();
+        }
+        int perOwner = SESSIONS / owners;
+        // every owner has back-to-back one hour sessions, leaving every other hour free
+        for (int owner = 0; owner < owners; owner++) {
+            for (int slot = 0; slot < perOwner; slot++) {
+                long start = 2 * slot * SLOT;
+                intervals[owner].add(start, start + SLOT);
+            }
+        }
+        horizon = 2L * perOwner * SLOT;
+    }
+
+    @Benchmark
+    public boolean lookup() {
+        long start = random.nextLong(horizon);
+        return intervals[random.nextInt(owners)].overlaps(start, start + SLOT);
+    }
+
+    @Benchmark
+    public boolean insertAndRemove() {
+        SessionScheduleIndex.IntervalList list = intervals[random.nextInt(owners)];
+        long start = random.nextLong(horizon);
+        list.add(start, start + SLOT);
+        return list.remove(start, start + SLOT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SessionScheduleIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,179 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.SessionRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Test class for the {@link SessionScheduleIndex}.
+ */
+class SessionScheduleIndexTest {
+
+    private static final Instant NINE = Instant.parse("2023-11-20T09:00:00Z");
+    private static final Instant TEN = Instant.parse("2023-11-20T10:00:00Z");
+    private static final Instant ELEVEN = Instant.parse("2023-11-20T11:00:00Z");
+
+    private SessionScheduleIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.findAllScheduled()).thenReturn(Flux.just(session(1L, 1L, NINE, TEN)));
+        index = new SessionScheduleIndex(sessionRepository);
+        index.warmUp();
+    }
+
+    @Test
+    void rejectsOverlapWithWarmedSession() {
+        assertThatThrownBy(() -> index.reserve(null, session(1L, 2L, NINE.plusSeconds(1800), ELEVEN)).block())
+            .isInstanceOf(SessionOverlapException.class);
+        assertThatThrownBy(() -> index.reserve(null, session(2L, 1L, NINE, TEN)).block()).isInstanceOf(SessionOverlapException.class);
+    }
+
+    @Test
+    void acceptsAdjacentAndUnrelatedSessions() {
+        assertAccepted(null, session(1L, 1L, TEN, ELEVEN));
+        assertAccepted(null, session(2L, 2L, NINE, TEN));
+        assertAccepted(null, session(null, null, NINE, ELEVEN));
+
+        // the accepted slots are booked for their staff and athlete
+        assertOverlaps(session(1L, 3L, TEN, ELEVEN));
+        assertOverlaps(session(3L, 2L, NINE, TEN));
+    }
+
+    @Test
+    void movesSessionSlot() {
+        Session previous = session(1L, 1L, NINE, TEN);
+        assertAccepted(previous, session(1L, 1L, NINE.plusSeconds(1800), TEN.plusSeconds(1800)));
+
+        assertAccepted(null, session(1L, 1L, NINE, NINE.plusSeconds(1800)));
+        assertOverlaps(session(2L, 1L, TEN, ELEVEN));
+    }
+
+    @Test
+    void canceledSessionsDoNotBlockSlots() {
+        Session canceled = session(1L, 1L, NINE, TEN).sessionStatus(SessionStatus.Canceled);
+        assertAccepted(session(1L, 1L, NINE, TEN), canceled);
+        assertAccepted(null, canceled);
+
+        assertAccepted(null, session(1L, 1L, NINE, TEN));
+        assertOverlaps(session(1L, 2L, NINE, TEN));
+    }
+
+    @Test
+    void releasesSlots() {
+        index.release(session(1L, 1L, NINE, TEN)).block();
+        assertAccepted(null, session(1L, 1L, NINE, TEN));
+        assertOverlaps(session(1L, 2L, NINE, TEN));
+    }
+
+    @Test
+    void freesTheReservedSlotsWhenTheTransactionRollsBack() {
+        TransactionalOperator transaction = TransactionalOperator.create(new SynchronizationOnlyTransactionManager());
+        Session moved = session(1L, 1L, TEN, ELEVEN);
+        assertThatThrownBy(() ->
+                transaction
+                    .transactional(index.reserve(session(1L, 1L, NINE, TEN), moved).then(Mono.error(new IllegalStateException())))
+                    .block()
+            )
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() ->
+                transaction
+                    .transactional(index.reserveAll(List.of(session(2L, 2L, NINE, TEN))).then(Mono.error(new IllegalStateException())))
+                    .block()
+            )
+            .isInstanceOf(IllegalStateException.class);
+        transaction.transactional(index.reserve(null, session(3L, 3L, NINE, TEN)).then(Mono.never())).subscribe().dispose();
+
+        // the slots of the failed and canceled reservations are free, and the previous slot of the move is still booked
+        assertAccepted(null, session(4L, 1L, TEN, ELEVEN));
+        assertAccepted(null, session(2L, 2L, NINE, TEN));
+        assertAccepted(null, session(3L, 3L, NINE, TEN));
+        assertOverlaps(session(5L, 1L, NINE, TEN));
+    }
+
+    @Test
+    void freesThePreviousSlotOnlyOnceTheTransactionCommits() {
+        TransactionalOperator transaction = TransactionalOperator.create(new SynchronizationOnlyTransactionManager());
+        Session moved = session(1L, 1L, TEN, ELEVEN);
+        transaction
+            .transactional(
+                index.reserve(session(1L, 1L, NINE, TEN), moved).then(Mono.fromRunnable(() -> assertOverlaps(session(2L, 1L, NINE, TEN))))
+            )
+            .block();
+        assertAccepted(null, session(2L, 1L, NINE, TEN));
+
+        transaction
+            .transactional(index.release(moved).then(Mono.fromRunnable(() -> assertOverlaps(session(1L, 2L, TEN, ELEVEN)))))
+            .block();
+        assertAccepted(null, session(1L, 2L, TEN, ELEVEN));
+    }
+
+    @Test
+    void reservationsWaitForTheWarmUp() {
+        Sinks.Many<Session> scheduled = Sinks.many().unicast().onBackpressureBuffer();
+        SessionRepository sessionRepository = mock(SessionRepository.class);
+        when(sessionRepository.findAllScheduled()).thenReturn(scheduled.asFlux());
+        SessionScheduleIndex warming = new SessionScheduleIndex(sessionRepository);
+        warming.warmUp();
+
+        AtomicReference<Throwable> overlap = new AtomicReference<>();
+        AtomicBoolean accepted = new AtomicBoolean();
+        warming.reserve(null, session(1L, 2L, NINE, TEN)).subscribe(null, overlap::set);
+        // released while the warm-up reads it
+        warming.release(session(3L, 3L, TEN, ELEVEN)).block();
+        scheduled.tryEmitNext(session(1L, 1L, NINE, TEN));
+        scheduled.tryEmitNext(session(3L, 3L, TEN, ELEVEN));
+        assertThat(overlap.get()).isNull();
+
+        scheduled.tryEmitComplete();
+        assertThat(overlap.get()).isInstanceOf(SessionOverlapException.class);
+        warming.reserve(null, session(3L, 3L, TEN, ELEVEN)).subscribe(null, overlap::set, () -> accepted.set(true));
+        assertThat(accepted).isTrue();
+    }
+
+    @Test
+    void intervalListFindsOverlapsAcrossOverlappingData() {
+        SessionScheduleIndex.IntervalList intervals = new SessionScheduleIndex.IntervalList();
+        intervals.add(0, 100);
+        intervals.add(10, 20);
+        intervals.add(30, 40);
+        assertThat(intervals.overlaps(50, 60)).isTrue();
+        assertThat(intervals.remove(0, 100)).isTrue();
+        assertThat(intervals.overlaps(50, 60)).isFalse();
+        assertThat(intervals.overlaps(20, 30)).isFalse();
+        assertThat(intervals.overlaps(19, 21)).isTrue();
+        assertThat(intervals.size()).isEqualTo(2);
+    }
+
+    private void assertAccepted(Session previous, Session next) {
+        assertThatCode(() -> index.reserve(previous, next).block()).doesNotThrowAnyException();
+    }
+
+    private void assertOverlaps(Session session) {
+        assertThatThrownBy(() -> index.reserve(null, session).block()).isInstanceOf(SessionOverlapException.class);
+    }
+
+    private static Session session(Long staffId, Long athleteId, Instant start, Instant end) {
+        Session session = new Session().startDate(start).endDate(end).sessionStatus(SessionStatus.Waiting);
+        session.setStaffId(staffId);
+        session.setAthleteId(athleteId);
+        return session;
+    }
+}
@@ -0,0 +1,87 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.service.dto.SessionSeriesDTO;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the recurrence expansion of the {@link SessionSeriesService}.
+ */
+class SessionSeriesServiceTest {
+
+    // a Tuesday
+    private static final Instant START = Instant.parse("2023-11-21T09:00:00Z");
+
+    private final SessionSeriesService sessionSeriesService = new SessionSeriesService(null, null, null, null, null);
+
+    @Test
+    void expandsWeeklySeriesOnSeveralDays() {
+        SessionSeriesDTO series = series(SessionSeriesDTO.Frequency.WEEKLY);
+        series.setDaysOfWeek(EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.MONDAY, DayOfWeek.THURSDAY));
+        series.setCount(4);
+
+        List<Session> sessions = sessionSeriesService.expand(series);
+
+        assertThat(sessions)
+            .extracting(Session::getStartDate)
+            .containsExactly(
+                START,
+                Instant.parse("2023-11-23T09:00:00Z"),
+                Instant.parse("2023-11-27T09:00:00Z"),
+                Instant.parse("2023-11-28T09:00:00Z")
+            );
+        assertThat(sessions.get(3).getEndDate()).isEqualTo(Instant.parse("2023-11-28T10:00:00Z"));
+        assertThat(sessions).allMatch(session -> session.getStaffId() == 1L && session.getAthleteId() == 2L);
+    }
+
+    @Test
+    void expandsDailySeriesUntilDate() {
+        SessionSeriesDTO series = series(SessionSeriesDTO.Frequency.DAILY);
+        series.setInterval(2);
+        series.setUntil(Instant.parse("2023-11-25T09:00:00Z"));
+
+        assertThat(sessionSeriesService.expand(series))
+            .extracting(Session::getStartDate)
+            .containsExactly(START, Instant.parse("2023-11-23T09:00:00Z"), Instant.parse("2023-11-25T09:00:00Z"));
+    }
+
+    @Test
+    void keepsLocalTimeAcrossDaylightSavingChange() {
+        SessionSeriesDTO series = series(SessionSeriesDTO.Frequency.WEEKLY);
+        series.setStartDate(Instant.parse("2023-10-24T08:00:00Z"));
+        series.setEndDate(Instant.parse("2023-10-24T09:00:00Z"));
+        series.setTimeZone("Europe/Paris");
+        series.setCount(2);
+
+        assertThat(sessionSeriesService.expand(series))
+            .extracting(Session::getStartDate)
+            .containsExactly(Instant.parse("2023-10-24T08:00:00Z"), Instant.parse("2023-10-31T09:00:00Z"));
+    }
+
+    @Test
+    void rejectsUnboundedAndOversizedSeries() {
+        SessionSeriesDTO unbounded = series(SessionSeriesDTO.Frequency.DAILY);
+        assertThatThrownBy(() -> sessionSeriesService.expand(unbounded)).isInstanceOf(IllegalArgumentException.class);
+
+        SessionSeriesDTO oversized = series(SessionSeriesDTO.Frequency.DAILY);
+        oversized.setUntil(START.plusSeconds(3600L * 24 * (SessionSeriesService.MAX_OCCURRENCES + 1)));
+        assertThatThrownBy(() -> sessionSeriesService.expand(oversized)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SessionSeriesDTO series(SessionSeriesDTO.Frequency frequency) {
+        SessionSeriesDTO series = new SessionSeriesDTO();
+        series.setStartDate(START);
+        series.setEndDate(START.plusSeconds(3600));
+        series.setFrequency(frequency);
+        series.setStaffId(1L);
+        series.setAthleteId(2L);
+        return series;
+    }
+}
@@ -0,0 +1,66 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.EntityManager;
+import com.pilatesapp.app.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SessionStatusSweeper}.
+ */
+@IntegrationTest
+class SessionStatusSweeperIT {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionStatusSweeper sessionStatusSweeper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(Session.class).block();
+    }
+
+    @Test
+    void movesOverdueWaitingSessionsToUndone() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Session overdue = sessionRepository.save(session(now.minus(2, ChronoUnit.HOURS), SessionStatus.Waiting)).block();
+        Session done = sessionRepository.save(session(now.minus(4, ChronoUnit.HOURS), SessionStatus.Done)).block();
+        Session upcoming = sessionRepository.save(session(now.plus(2, ChronoUnit.HOURS), SessionStatus.Waiting)).block();
+        double sweptBefore = meterRegistry.get(SessionStatusSweeper.SWEPT_METER_NAME).counter().count();
+
+        Long swept = sessionStatusSweeper.sweep().block();
+
+        assertThat(swept).isEqualTo(1L);
+        assertThat(sessionRepository.findById(overdue.getId()).block().getSessionStatus()).isEqualTo(SessionStatus.Undone);
+        assertThat(sessionRepository.findById(done.getId()).block().getSessionStatus()).isEqualTo(SessionStatus.Done);
+        assertThat(sessionRepository.findById(upcoming.getId()).block().getSessionStatus()).isEqualTo(SessionStatus.Waiting);
+        assertThat(meterRegistry.get(SessionStatusSweeper.SWEPT_METER_NAME).counter().count()).isEqualTo(sweptBefore + 1);
+        assertThat(meterRegistry.get(SessionStatusSweeper.DURATION_METER_NAME).timer().count()).isPositive();
+
+        // a second sweep has nothing left to move
+        assertThat(sessionStatusSweeper.sweep().block()).isZero();
+    }
+
+    private static Session session(Instant start, SessionStatus status) {
+        return new Session().startDate(start).endDate(start.plus(1, ChronoUnit.HOURS)).sessionStatus(status).isNotified(false);
+    }
+}
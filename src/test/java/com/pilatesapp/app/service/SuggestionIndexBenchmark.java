@@ -0,0 +1,92 @@
+package com.pilatesapp.app.service;
+
+import com.pilatesapp.app.service.dto.SuggestionDTO;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the {@link SuggestionIndex.Snapshot} prefix lookups, sampled to report their percentiles, with
+ * studio-sized to very large numbers of athletes with random names, emails and phone numbers.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.pilatesapp.app.service.SuggestionIndexBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionIndexBenchmark {
+
+    @Param({ "10000", "1000000" })
+    int athletes;
+
+    private SuggestionIndex.Snapshot snapshot;
+
+    private String[] names;
+
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new SplittableRandom(42);
+        names = new String[athletes];
+        List<SuggestionIndex.Entry> entries = new ArrayList<>(athletes);
+        for (int id = 0; id < athletes; id++) {
+            String first = word(4 + random.nextInt(5));
+            String last = word(4 + random.nextInt(6));
+            names[id] = first + " " + last;
+            String phone = "05" + (100_000_000L + random.nextInt(900_000_000));
+            entries.add(SuggestionIndex.Entry.of(SuggestionDTO.Type.ATHLETE, id, names[id], first + "." + last + "@mail.com", phone));
+        }
+        snapshot = SuggestionIndex.Snapshot.build(entries);
+    }
+
+    /**
+     * Looks up a prefix of one to five characters of a random name, as typed in a picker.
+     */
+    @Benchmark
+    public BitSet prefix() {
+        String name = names[random.nextInt(athletes)];
+        return snapshot.matches(SuggestionIndex.words(name.substring(0, 1 + random.nextInt(5))));
+    }
+
+    /**
+     * Looks up the first name and the start of the last name of a random athlete.
+     */
+    @Benchmark
+    public BitSet twoWords() {
+        String name = names[random.nextInt(athletes)];
+        return snapshot.matches(SuggestionIndex.words(name.substring(0, name.indexOf(' ') + 3)));
+    }
+
+    private String word(int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SuggestionIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
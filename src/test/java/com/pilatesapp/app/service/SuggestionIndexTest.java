@@ -0,0 +1,134 @@
+package com.pilatesapp.app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pilatesapp.app.domain.Athlete;
+import com.pilatesapp.app.repository.AthleteRepository;
+import com.pilatesapp.app.repository.StaffRepository;
+import com.pilatesapp.app.repository.projection.AthleteSummary;
+import com.pilatesapp.app.repository.projection.StaffSummary;
+import com.pilatesapp.app.service.dto.SuggestionDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link SuggestionIndex}.
+ */
+class SuggestionIndexTest {
+
+    private AthleteRepository athleteRepository;
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        athleteRepository = mock(AthleteRepository.class);
+        StaffRepository staffRepository = mock(StaffRepository.class);
+        when(athleteRepository.findAllSummaries())
+            .thenReturn(
+                Flux.just(
+                    new AthleteSummary(1L, "Ayşe Kaya", "ayse.kaya@example.com", "+90 532 123 45 67"),
+                    new AthleteSummary(2L, "Ahmet Yılmaz", "ahmet@example.com", "0555 987 65 43")
+                )
+            );
+        when(staffRepository.findAllSummaries()).thenReturn(Flux.just(new StaffSummary(3L, "Ayla Demir", null, null, true)));
+        index = new SuggestionIndex(athleteRepository, staffRepository, new SimpleMeterRegistry());
+        index.rebuild().block();
+    }
+
+    @Test
+    void suggestsByPrefixOfNamesEmailsAndPhones() {
+        assertThat(index.suggest("ay", null, 10)).extracting(SuggestionDTO::id).containsExactly(3L, 1L);
+        assertThat(index.suggest("AYŞE", null, 10)).extracting(SuggestionDTO::id).containsExactly(1L);
+        assertThat(index.suggest("yilm", null, 10)).extracting(SuggestionDTO::id).containsExactly(2L);
+        assertThat(index.suggest("ayse.k", null, 10)).extracting(SuggestionDTO::id).containsExactly(1L);
+        assertThat(index.suggest("90 532", null, 10)).extracting(SuggestionDTO::id).containsExactly(1L);
+        assertThat(index.suggest("ka ay", null, 10)).extracting(SuggestionDTO::id).containsExactly(1L);
+        assertThat(index.suggest("kaya z", null, 10)).isEmpty();
+        assertThat(index.suggest(" ", null, 10)).isEmpty();
+    }
+
+    @Test
+    void filtersByTypeAndLimitsSize() {
+        assertThat(index.suggest("a", SuggestionDTO.Type.STAFF, 10))
+            .containsExactly(new SuggestionDTO(SuggestionDTO.Type.STAFF, 3L, "Ayla Demir"));
+        assertThat(index.suggest("a", null, 2)).extracting(SuggestionDTO::id).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void appliesLocalWritesBeforeRebuild() {
+        index.putAthlete(new Athlete().id(1L).name("Zeynep Kaya")).block();
+        index.putAthlete(new Athlete().id(4L).name("Ayten Aksoy")).block();
+        index.removeStaff(3L).block();
+
+        assertThat(index.suggest("ay", null, 10)).extracting(SuggestionDTO::id).containsExactly(4L);
+        assertThat(index.suggest("zey", null, 10)).extracting(SuggestionDTO::name).containsExactly("Zeynep Kaya");
+    }
+
+    @Test
+    void keepsLocalWritesUntilARebuildStartedAfterThem() {
+        // applied while the rebuild reads the tables, which may have missed it
+        when(athleteRepository.findAllSummaries())
+            .thenReturn(Flux.defer(() -> index.putAthlete(new Athlete().id(4L).name("Ayten Aksoy")).thenMany(Flux.empty())));
+        index.rebuild().block();
+        assertThat(index.suggest("ayten", null, 10)).extracting(SuggestionDTO::id).containsExactly(4L);
+
+        when(athleteRepository.findAllSummaries()).thenReturn(Flux.just(new AthleteSummary(4L, "Ayten Aksoy", null, null)));
+        index.rebuild().block();
+        assertThat(index.suggest("ayten", null, 10)).extracting(SuggestionDTO::id).containsExactly(4L);
+        assertThat(index.suggest("ahmet", null, 10)).isEmpty();
+    }
+
+    @Test
+    void appliesLocalWritesOnceCommitted() {
+        TransactionalOperator transaction = TransactionalOperator.create(new SynchronizationOnlyTransactionManager());
+        Mono<Void> rename = index
+            .putAthlete(new Athlete().id(1L).name("Zeynep Kaya"))
+            .then(Mono.fromRunnable(() -> assertThat(index.suggest("zey", null, 10)).isEmpty()));
+        assertThatThrownBy(() -> transaction.transactional(rename.then(Mono.error(new IllegalStateException()))).block())
+            .isInstanceOf(IllegalStateException.class);
+        transaction.transactional(index.removeAthlete(2L).then(Mono.never())).subscribe().dispose();
+
+        // the rolled back and canceled writes are never applied
+        assertThat(index.suggest("zey", null, 10)).isEmpty();
+        assertThat(index.suggest("ahmet", null, 10)).extracting(SuggestionDTO::id).containsExactly(2L);
+
+        transaction.transactional(rename).block();
+        assertThat(index.suggest("zey", null, 10)).extracting(SuggestionDTO::id).containsExactly(1L);
+    }
+
+    @Test
+    void packsEntriesInUnderOneHundredBytes() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<SuggestionIndex.Entry> entries = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            String first = word(random, 4 + random.nextInt(5));
+            String last = word(random, 4 + random.nextInt(6));
+            String phone = "05" + (100_000_000L + random.nextInt(900_000_000));
+            String email = first + "." + last + "@mail.com";
+            entries.add(SuggestionIndex.Entry.of(SuggestionDTO.Type.ATHLETE, id, first + " " + last, email, phone));
+        }
+
+        SuggestionIndex.Snapshot snapshot = SuggestionIndex.Snapshot.build(entries);
+
+        assertThat(snapshot.memoryBytes() / snapshot.size()).isLessThan(100);
+    }
+
+    private static String word(SplittableRandom random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
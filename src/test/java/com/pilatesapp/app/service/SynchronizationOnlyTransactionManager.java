@@ -0,0 +1,38 @@
+package com.pilatesapp.app.service;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A transaction manager whose transactions only run their synchronizations, for the unit tests of the in-memory state
+ * applied once a transaction completes.
+ */
+class SynchronizationOnlyTransactionManager extends AbstractReactiveTransactionManager {
+
+    @Override
+    protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+        return new Object();
+    }
+
+    @Override
+    protected Mono<Void> doBegin(
+        TransactionSynchronizationManager synchronizationManager,
+        Object transaction,
+        TransactionDefinition definition
+    ) {
+        return Mono.empty();
+    }
+
+    @Override
+    protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+        return Mono.empty();
+    }
+
+    @Override
+    protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+        return Mono.empty();
+    }
+}
@@ -7,15 +7,19 @@ import static org.mockito.Mockito.verify;
 
 import com.pilatesapp.app.IntegrationTest;
 import com.pilatesapp.app.config.Constants;
+import com.pilatesapp.app.domain.Authority;
 import com.pilatesapp.app.domain.User;
 import com.pilatesapp.app.repository.UserRepository;
 import com.pilatesapp.app.repository.search.UserSearchRepository;
+import com.pilatesapp.app.security.AuthoritiesConstants;
+import com.pilatesapp.app.service.dto.AdminUserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -184,4 +188,42 @@ class UserServiceIT {
         // Verify Elasticsearch mock
         verify(spiedUserSearchRepository, never()).delete(user);
     }
+
+    @Test
+    void assertThatUpdateUserReplacesTheAuthorities() {
+        userRepository.save(user).block();
+        userRepository.saveUserAuthority(user.getId(), AuthoritiesConstants.USER).block();
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.ADMIN, "ROLE_UNKNOWN"));
+
+        userService.updateUser(userDTO).block();
+
+        User updatedUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        assertThat(updatedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void assertThatSaveUserSavesItsAuthorities() {
+        userRepository.save(user).block();
+        userRepository.saveUserAuthority(user.getId(), AuthoritiesConstants.USER).block();
+        Authority admin = new Authority();
+        admin.setName(AuthoritiesConstants.ADMIN);
+        user.setAuthorities(Set.of(admin));
+
+        userService.saveUser(user).block();
+
+        User updatedUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        assertThat(updatedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void assertThatSavingAUserReadWithoutItsAuthoritiesKeepsThem() {
+        userRepository.save(user).block();
+        userRepository.saveUserAuthority(user.getId(), AuthoritiesConstants.USER).block();
+
+        userService.requestPasswordReset(DEFAULT_EMAIL).block();
+
+        User updatedUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        assertThat(updatedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+    }
 }
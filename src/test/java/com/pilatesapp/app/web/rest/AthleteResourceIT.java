@@ -11,9 +11,12 @@ import com.pilatesapp.app.domain.Athlete;
 import com.pilatesapp.app.repository.AthleteRepository;
 import com.pilatesapp.app.repository.EntityManager;
 import com.pilatesapp.app.repository.search.AthleteSearchRepository;
+import com.pilatesapp.app.repository.search.SearchCircuitBreaker;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -25,6 +28,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -68,6 +72,9 @@ class AthleteResourceIT {
     @Autowired
     private AthleteSearchRepository athleteSearchRepository;
 
+    @Autowired
+    private SearchCircuitBreaker searchCircuitBreaker;
+
     @Autowired
     private EntityManager em;
 
@@ -255,6 +262,30 @@ class AthleteResourceIT {
             .value(hasItem(DEFAULT_BIRTHDAY.toString()));
     }
 
+    @Test
+    void getAllAthleteSummaries() {
+        // Initialize the database
+        athleteRepository.save(athlete).block();
+
+        // Get the summaries of all the athletes
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?view=summary")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(athlete.getId().intValue()))
+            .jsonPath("$.[*].name")
+            .value(hasItem(DEFAULT_NAME))
+            .jsonPath("$.[*].address")
+            .doesNotExist();
+    }
+
     @Test
     void getAthlete() {
         // Initialize the database
@@ -588,8 +619,12 @@ class AthleteResourceIT {
         // Validate the database contains one less item
         List<Athlete> athleteList = athleteRepository.findAll().collectList().block();
         assertThat(athleteList).hasSize(databaseSizeBeforeDelete - 1);
-        int searchDatabaseSizeAfter = IterableUtil.sizeOf(athleteSearchRepository.findAll().collectList().block());
-        assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore - 1);
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                int searchDatabaseSizeAfter = IterableUtil.sizeOf(athleteSearchRepository.findAll().collectList().block());
+                assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore - 1);
+            });
     }
 
     @Test
@@ -623,4 +658,92 @@ class AthleteResourceIT {
             .jsonPath("$.[*].birthday")
             .value(hasItem(DEFAULT_BIRTHDAY.toString()));
     }
+
+    @Test
+    void searchAthleteFromDatabaseWhileElasticsearchIsUnavailable() {
+        // Initialize the database only, as the index would be written from the outbox
+        athlete = athleteRepository.save(athlete.name("Derya Fallback")).block();
+
+        searchCircuitBreaker.getCircuitBreaker().transitionToForcedOpenState();
+        try {
+            String cursor = webTestClient
+                .get()
+                .uri(ENTITY_SEARCH_API_URL + "?query=name:fallback&size=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(SearchPaginationUtil.SEARCH_DEGRADED_HEADER, "true")
+                .expectBody()
+                .jsonPath("$.length()")
+                .isEqualTo(1)
+                .jsonPath("$.[0].id")
+                .isEqualTo(athlete.getId().intValue())
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(SearchPaginationUtil.SEARCH_AFTER_HEADER);
+            assertThat(cursor).isNotNull();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_SEARCH_API_URL + "?query=name:fallback&size=1&searchAfter=" + cursor)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.length()")
+                .isEqualTo(0);
+        } finally {
+            searchCircuitBreaker.getCircuitBreaker().transitionToClosedState();
+        }
+    }
+
+    @Test
+    void searchAthleteFromARelevanceCursorWhileElasticsearchIsUnavailable() {
+        // the sort values of a hit ordered by relevance, then id
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("[1.5,42]".getBytes(StandardCharsets.UTF_8));
+
+        searchCircuitBreaker.getCircuitBreaker().transitionToForcedOpenState();
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_SEARCH_API_URL + "?query=name:fallback&size=1&searchAfter=" + cursor)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        } finally {
+            searchCircuitBreaker.getCircuitBreaker().transitionToClosedState();
+        }
+    }
+
+    @Test
+    void suggestAthletes() throws Exception {
+        // Create the athlete through the API, which applies it to the typeahead index at once
+        Athlete created = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(athlete.name("Şebnem Suggest")))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Athlete.class)
+            .returnResult()
+            .getResponseBody();
+
+        // Suggest the athlete, ignoring case and diacritics
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/_suggest?prefix=sugg seb&type=ATHLETE")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(created.getId().intValue()))
+            .jsonPath("$.[*].name")
+            .value(hasItem("Şebnem Suggest"));
+
+        webTestClient.get().uri(ENTITY_API_URL + "/_suggest?prefix=sugg&size=0").exchange().expectStatus().isBadRequest();
+    }
 }
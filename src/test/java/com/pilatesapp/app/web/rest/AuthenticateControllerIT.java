@@ -8,6 +8,8 @@ import com.pilatesapp.app.web.rest.vm.LoginVM;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -106,4 +108,33 @@ class AuthenticateControllerIT {
             .jsonPath("$.id_token")
             .doesNotExist();
     }
+
+    @Test
+    void testAuthorizeThrottled() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("throttled-user");
+        login.setPassword("wrong password");
+        for (int i = 0; i < 5; i++) {
+            webTestClient
+                .post()
+                .uri("/api/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+        }
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader()
+            .exists(HttpHeaders.RETRY_AFTER)
+            .expectHeader()
+            .doesNotExist("Authorization");
+    }
 }
@@ -0,0 +1,202 @@
+package com.pilatesapp.app.web.rest;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.SessionPackage;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.search.SearchCircuitBreaker;
+import com.pilatesapp.app.repository.search.SessionPackageSearchRepository;
+import com.pilatesapp.app.repository.search.SessionSearchRepository;
+import com.pilatesapp.app.security.AuthoritiesConstants;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link KpiResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class KpiResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/kpis";
+
+    // a Monday, in the UTC time zone of the test schedule
+    private static final Instant MONDAY = Instant.parse("2031-03-03T00:00:00Z");
+
+    private static final String WINDOW = "?from=2031-01-01T00:00:00Z&to=2031-04-01T00:00:00Z";
+
+    private static final List<Long> SESSION_IDS = List.of(900_001L, 900_002L, 900_003L);
+
+    private static final List<String> SESSION_PACKAGE_IDS = List.of("kpi-january", "kpi-march");
+
+    @Autowired
+    private SessionSearchRepository sessionSearchRepository;
+
+    @Autowired
+    private SessionPackageSearchRepository sessionPackageSearchRepository;
+
+    @Autowired
+    private SearchCircuitBreaker searchCircuitBreaker;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void initTest() {
+        sessionSearchRepository
+            .saveAll(
+                List.of(
+                    session(SESSION_IDS.get(0), MONDAY.plus(Duration.ofHours(9)), SessionStatus.Done, 1L, "Ayla Demir"),
+                    session(SESSION_IDS.get(1), MONDAY.plus(Duration.ofHours(24 + 9)), SessionStatus.Waiting, 1L, "Ayla Demir"),
+                    session(SESSION_IDS.get(2), MONDAY.plus(Duration.ofHours(7 * 24 + 18)), SessionStatus.Waiting, 2L, "Deniz Aksoy")
+                )
+            )
+            .blockLast();
+        sessionPackageSearchRepository
+            .saveAll(
+                List.of(
+                    new SessionPackage().id(SESSION_PACKAGE_IDS.get(0)).name("January").startDate(Instant.parse("2031-01-15T10:00:00Z")),
+                    new SessionPackage().id(SESSION_PACKAGE_IDS.get(1)).name("March").startDate(Instant.parse("2031-03-20T10:00:00Z"))
+                )
+            )
+            .blockLast();
+    }
+
+    @AfterEach
+    public void cleanupElasticSearchRepository() {
+        sessionSearchRepository.deleteAllById(SESSION_IDS).block();
+        sessionPackageSearchRepository.deleteAllById(SESSION_PACKAGE_IDS).block();
+    }
+
+    @Test
+    void countSessionsByStatus() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/sessions/by-status" + WINDOW)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$[?(@.key == 'Waiting')].count")
+            .isEqualTo(2)
+            .jsonPath("$[?(@.key == 'Done')].count")
+            .isEqualTo(1);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/sessions/by-status" + WINDOW + "&staffId=2")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].key")
+            .isEqualTo("Waiting")
+            .jsonPath("$[0].count")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void countSessionsByStaffAndWeek() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/sessions/by-staff-week" + WINDOW)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$[?(@.staffId == 1)].staffName")
+            .isEqualTo("Ayla Demir")
+            .jsonPath("$[?(@.staffId == 1)].week")
+            .isEqualTo("2031-03-03")
+            .jsonPath("$[?(@.staffId == 1)].count")
+            .isEqualTo(2)
+            .jsonPath("$[?(@.staffId == 2)].week")
+            .isEqualTo("2031-03-10")
+            .jsonPath("$[?(@.staffId == 2)].count")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void countSessionsByHour() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/sessions/by-hour" + WINDOW)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$[0].key")
+            .isEqualTo(9)
+            .jsonPath("$[0].count")
+            .isEqualTo(2)
+            .jsonPath("$[1].key")
+            .isEqualTo(18)
+            .jsonPath("$[1].count")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void countSessionPackagesByMonth() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/session-packages/by-month" + WINDOW)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(3)
+            .jsonPath("$[0].key")
+            .isEqualTo("2031-01")
+            .jsonPath("$[0].count")
+            .isEqualTo(1)
+            .jsonPath("$[1].key")
+            .isEqualTo("2031-02")
+            .jsonPath("$[1].count")
+            .isEqualTo(0)
+            .jsonPath("$[2].key")
+            .isEqualTo("2031-03")
+            .jsonPath("$[2].count")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void countSessionsByStatusIsUnavailableWhileElasticsearchIs() {
+        searchCircuitBreaker.getCircuitBreaker().transitionToForcedOpenState();
+        try {
+            webTestClient.get().uri(ENTITY_API_URL + "/sessions/by-status" + WINDOW).exchange().expectStatus().isEqualTo(503);
+        } finally {
+            searchCircuitBreaker.getCircuitBreaker().transitionToClosedState();
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void countSessionsByStatusIsForbiddenToUsers() {
+        webTestClient.get().uri(ENTITY_API_URL + "/sessions/by-status").exchange().expectStatus().isForbidden();
+    }
+
+    private static SessionDocument session(Long id, Instant startDate, SessionStatus status, Long staffId, String staffName) {
+        SessionDocument session = new SessionDocument().staffName(staffName);
+        session.setId(id);
+        session.setStartDate(startDate);
+        session.setSessionStatus(status);
+        session.setStaffId(staffId);
+        return session;
+    }
+}
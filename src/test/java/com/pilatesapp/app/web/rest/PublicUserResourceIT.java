@@ -7,6 +7,7 @@ import com.pilatesapp.app.IntegrationTest;
 import com.pilatesapp.app.domain.User;
 import com.pilatesapp.app.repository.EntityManager;
 import com.pilatesapp.app.repository.UserRepository;
+import com.pilatesapp.app.repository.search.SearchQueries;
 import com.pilatesapp.app.repository.search.UserSearchRepository;
 import com.pilatesapp.app.security.AuthoritiesConstants;
 import com.pilatesapp.app.service.dto.UserDTO;
@@ -122,4 +123,15 @@ class PublicUserResourceIT {
             .isBadRequest();
         webTestClient.get().uri("/api/users?sort=id,desc").accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isOk();
     }
+
+    @Test
+    void searchUsersRejectsPagesAboveTheLimit() {
+        webTestClient
+            .get()
+            .uri("/api/users/_search/" + DEFAULT_LOGIN + "?size=" + (SearchQueries.MAX_PAGE_SIZE + 1))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
 }
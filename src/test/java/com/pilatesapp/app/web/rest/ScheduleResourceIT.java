@@ -0,0 +1,154 @@
+package com.pilatesapp.app.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+
+import com.pilatesapp.app.IntegrationTest;
+import com.pilatesapp.app.domain.DailyScheduleEntry;
+import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.enumeration.SessionStatus;
+import com.pilatesapp.app.repository.EntityManager;
+import com.pilatesapp.app.repository.SessionRepository;
+import java.util.Objects;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link ScheduleResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient(timeout = IntegrationTest.DEFAULT_ENTITY_TIMEOUT)
+@WithMockUser
+class ScheduleResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/schedule/{date}";
+
+    // the sessions created by SessionResourceIT start on the epoch, in UTC
+    private static final String SCHEDULE_DATE = "1970-01-01";
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Session session;
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(DailyScheduleEntry.class).block();
+        SessionResourceIT.deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void initTest() {
+        cleanup();
+        session = SessionResourceIT.createEntity(em);
+    }
+
+    @Test
+    void getDailySchedule() throws Exception {
+        // Create the session through the API, which projects it to the schedule
+        Session created = webTestClient
+            .post()
+            .uri("/api/sessions")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(session))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Session.class)
+            .returnResult()
+            .getResponseBody();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, SCHEDULE_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists(HttpHeaders.ETAG)
+            .expectBody()
+            .jsonPath("$.[*].sessionId")
+            .value(hasItem(created.getId().intValue()))
+            .jsonPath("$.[*].sessionStatus")
+            .value(hasItem(created.getSessionStatus().toString()));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, "1970-01-02")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$")
+            .isEmpty();
+    }
+
+    @Test
+    void getUnchangedDailySchedule() throws Exception {
+        webTestClient
+            .post()
+            .uri("/api/sessions")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(session))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+
+        String eTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL, SCHEDULE_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, SCHEDULE_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, Objects.requireNonNull(eTag))
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+
+        // A change of the session changes the schedule
+        Session saved = sessionRepository.findAll().blockLast();
+        webTestClient
+            .put()
+            .uri("/api/sessions/{id}", saved.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(saved.sessionStatus(SessionStatus.Done)))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, SCHEDULE_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .value(HttpHeaders.ETAG, value -> assertThat(value).isNotEqualTo(eTag));
+    }
+}
@@ -2,16 +2,23 @@ package com.pilatesapp.app.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 
 import com.pilatesapp.app.IntegrationTest;
 import com.pilatesapp.app.domain.Session;
+import com.pilatesapp.app.domain.SessionDocument;
+import com.pilatesapp.app.domain.SessionChange;
+import com.pilatesapp.app.domain.enumeration.SessionChangeType;
 import com.pilatesapp.app.domain.enumeration.SessionStatus;
 import com.pilatesapp.app.repository.EntityManager;
+import com.pilatesapp.app.repository.SessionChangeRepository;
 import com.pilatesapp.app.repository.SessionRepository;
+import com.pilatesapp.app.repository.search.SearchQueries;
 import com.pilatesapp.app.repository.search.SessionSearchRepository;
+import com.pilatesapp.app.service.dto.SessionSeriesDTO;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -26,7 +33,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -63,6 +72,9 @@ class SessionResourceIT {
     @Autowired
     private SessionRepository sessionRepository;
 
+    @Autowired
+    private SessionChangeRepository sessionChangeRepository;
+
     @Autowired
     private SessionSearchRepository sessionSearchRepository;
 
@@ -187,6 +199,92 @@ class SessionResourceIT {
         assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore);
     }
 
+    @Test
+    void createSessionSeries() throws Exception {
+        int databaseSizeBeforeCreate = sessionRepository.findAll().collectList().block().size();
+        int searchDatabaseSizeBefore = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
+        SessionSeriesDTO series = new SessionSeriesDTO();
+        series.setStartDate(UPDATED_START_DATE);
+        series.setEndDate(UPDATED_START_DATE.plus(1, ChronoUnit.HOURS));
+        series.setFrequency(SessionSeriesDTO.Frequency.WEEKLY);
+        series.setCount(5);
+        series.setQrCode(DEFAULT_QR_CODE);
+
+        // Create the Session series
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/series")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(series))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(5)
+            .jsonPath("$.[4].startDate")
+            .isEqualTo(UPDATED_START_DATE.plus(28, ChronoUnit.DAYS).toString());
+
+        // Validate the Sessions in the database
+        List<Session> sessionList = sessionRepository.findAll().collectList().block();
+        assertThat(sessionList).hasSize(databaseSizeBeforeCreate + 5);
+        assertThat(sessionList).allMatch(session -> DEFAULT_QR_CODE.equals(session.getQrCode()));
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                int searchDatabaseSizeAfter = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
+                assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore + 5);
+            });
+    }
+
+    @Test
+    void createSessionSeriesReturnsTheIdOfEachOccurrence() throws Exception {
+        SessionSeriesDTO series = new SessionSeriesDTO();
+        series.setStartDate(UPDATED_START_DATE);
+        series.setEndDate(UPDATED_START_DATE.plus(1, ChronoUnit.HOURS));
+        series.setFrequency(SessionSeriesDTO.Frequency.DAILY);
+        series.setCount(20);
+        series.setQrCode(DEFAULT_QR_CODE);
+
+        List<Session> occurrences = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/series")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(series))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBodyList(Session.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(occurrences).hasSize(20);
+        for (int i = 0; i < occurrences.size(); i++) {
+            Session occurrence = occurrences.get(i);
+            assertThat(occurrence.getStartDate()).isEqualTo(UPDATED_START_DATE.plus(i, ChronoUnit.DAYS));
+            assertThat(sessionRepository.findById(occurrence.getId()).block().getStartDate()).isEqualTo(occurrence.getStartDate());
+        }
+    }
+
+    @Test
+    void createUnboundedSessionSeries() throws Exception {
+        SessionSeriesDTO series = new SessionSeriesDTO();
+        series.setStartDate(UPDATED_START_DATE);
+        series.setEndDate(UPDATED_START_DATE.plus(1, ChronoUnit.HOURS));
+        series.setFrequency(SessionSeriesDTO.Frequency.DAILY);
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/series")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(series))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getAllSessionsAsStream() {
         // Initialize the database
@@ -217,6 +315,83 @@ class SessionResourceIT {
         assertThat(testSession.getIsNotified()).isEqualTo(DEFAULT_IS_NOTIFIED);
     }
 
+    @Test
+    void getSessionChangesFromLastEventId() throws Exception {
+        // Create then update a session through the API, which publishes its changes
+        Session created = webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(session))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(Session.class)
+            .returnResult()
+            .getResponseBody();
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, created.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(created.qrCode(UPDATED_QR_CODE)))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        // Resume the feed from its start
+        List<ServerSentEvent<SessionChange>> events = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/changes")
+            .header("Last-Event-ID", "0")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(new ParameterizedTypeReference<ServerSentEvent<SessionChange>>() {})
+            .getResponseBody()
+            .filter(event -> event.data() != null && created.getId().equals(event.data().getSessionId()))
+            .take(2)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("create", "update");
+        // replayed changes carry the current state of the session
+        assertThat(events.get(1).data().getSession().getQrCode()).isEqualTo(UPDATED_QR_CODE);
+        assertThat(Long.valueOf(events.get(1).id())).isGreaterThan(Long.valueOf(events.get(0).id()));
+    }
+
+    @Test
+    void getSessionChangesResetsTheFeedResumedBeforeTheRetention() throws Exception {
+        // Log a change older than the retention, so the changes before it may have been purged
+        SessionChange expired = sessionChangeRepository
+            .save(
+                new SessionChange()
+                    .sessionId(Long.MAX_VALUE)
+                    .changeType(SessionChangeType.UPDATE)
+                    .changedAt(Instant.now().minus(2, ChronoUnit.DAYS))
+            )
+            .block();
+        try {
+            ServerSentEvent<SessionChange> event = webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/changes")
+                .header("Last-Event-ID", String.valueOf(expired.getId() - 1))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<SessionChange>>() {})
+                .getResponseBody()
+                .filter(received -> received.event() != null)
+                .blockFirst(Duration.ofSeconds(5));
+
+            assertThat(event.event()).isEqualTo("reset");
+            assertThat(Long.valueOf(event.id())).isGreaterThanOrEqualTo(expired.getId());
+        } finally {
+            sessionChangeRepository.delete(expired).block();
+        }
+    }
+
     @Test
     void getAllSessions() {
         // Initialize the database
@@ -247,6 +422,89 @@ class SessionResourceIT {
             .value(hasItem(DEFAULT_IS_NOTIFIED.booleanValue()));
     }
 
+    @Test
+    void getSessionsByKeysetPage() {
+        // Initialize the database
+        Session first = sessionRepository.save(createEntity(em).startDate(DEFAULT_START_DATE)).block();
+        Session second = sessionRepository.save(createEntity(em).startDate(DEFAULT_START_DATE.plusSeconds(60))).block();
+        Session third = sessionRepository.save(createEntity(em).startDate(DEFAULT_START_DATE.plusSeconds(120))).block();
+
+        // Get the first page of the window
+        String nextCursor = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?from={from}&size=2", DEFAULT_START_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$.[0].id")
+            .isEqualTo(first.getId().intValue())
+            .jsonPath("$.[1].id")
+            .isEqualTo(second.getId().intValue())
+            .returnResult()
+            .getResponseHeaders()
+            .getFirst("X-Next-Cursor");
+        assertThat(nextCursor).isNotNull();
+
+        // Get the last page of the window
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?from={from}&size=2&cursor={cursor}", DEFAULT_START_DATE, nextCursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Next-Cursor")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$.[0].id")
+            .isEqualTo(third.getId().intValue());
+    }
+
+    @Test
+    void getAllSessionSummaries() {
+        // Initialize the database
+        sessionRepository.save(session).block();
+
+        // Get the summaries of all the sessions
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?view=summary")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(session.getId().intValue()))
+            .jsonPath("$.[*].startDate")
+            .value(hasItem(DEFAULT_START_DATE.toString()))
+            .jsonPath("$.[*].endDate")
+            .value(hasItem(DEFAULT_END_DATE.toString()))
+            .jsonPath("$.[*].sessionStatus")
+            .value(hasItem(DEFAULT_SESSION_STATUS.toString()))
+            .jsonPath("$.[*].qrCode")
+            .doesNotExist();
+    }
+
+    @Test
+    void getSessionsWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=invalid")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getSession() {
         // Initialize the database
@@ -295,7 +553,7 @@ class SessionResourceIT {
         sessionRepository.save(session).block();
 
         int databaseSizeBeforeUpdate = sessionRepository.findAll().collectList().block().size();
-        sessionSearchRepository.save(session).block();
+        sessionSearchRepository.save(SessionDocument.of(session)).block();
         int searchDatabaseSizeBefore = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
 
         // Update the session
@@ -330,7 +588,7 @@ class SessionResourceIT {
             .untilAsserted(() -> {
                 int searchDatabaseSizeAfter = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
                 assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore);
-                List<Session> sessionSearchList = IterableUtils.toList(sessionSearchRepository.findAll().collectList().block());
+                List<SessionDocument> sessionSearchList = IterableUtils.toList(sessionSearchRepository.findAll().collectList().block());
                 Session testSessionSearch = sessionSearchList.get(searchDatabaseSizeAfter - 1);
                 assertThat(testSessionSearch.getStartDate()).isEqualTo(UPDATED_START_DATE);
                 assertThat(testSessionSearch.getEndDate()).isEqualTo(UPDATED_END_DATE);
@@ -552,7 +810,7 @@ class SessionResourceIT {
         // Initialize the database
         sessionRepository.save(session).block();
         sessionRepository.save(session).block();
-        sessionSearchRepository.save(session).block();
+        sessionSearchRepository.save(SessionDocument.of(session)).block();
 
         int databaseSizeBeforeDelete = sessionRepository.findAll().collectList().block().size();
         int searchDatabaseSizeBefore = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
@@ -570,15 +828,19 @@ class SessionResourceIT {
         // Validate the database contains one less item
         List<Session> sessionList = sessionRepository.findAll().collectList().block();
         assertThat(sessionList).hasSize(databaseSizeBeforeDelete - 1);
-        int searchDatabaseSizeAfter = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
-        assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore - 1);
+        await()
+            .atMost(5, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                int searchDatabaseSizeAfter = IterableUtil.sizeOf(sessionSearchRepository.findAll().collectList().block());
+                assertThat(searchDatabaseSizeAfter).isEqualTo(searchDatabaseSizeBefore - 1);
+            });
     }
 
     @Test
     void searchSession() {
         // Initialize the database
         session = sessionRepository.save(session).block();
-        sessionSearchRepository.save(session).block();
+        sessionSearchRepository.save(SessionDocument.of(session)).block();
 
         // Search the session
         webTestClient
@@ -603,4 +865,113 @@ class SessionResourceIT {
             .jsonPath("$.[*].isNotified")
             .value(hasItem(DEFAULT_IS_NOTIFIED.booleanValue()));
     }
+
+    @Test
+    void searchSessionsWithSearchAfter() {
+        // Initialize the database
+        Session first = sessionRepository.save(createEntity(em)).block();
+        Session second = sessionRepository.save(createEntity(em)).block();
+        sessionSearchRepository.saveAll(List.of(SessionDocument.of(first), SessionDocument.of(second))).blockLast();
+        String query = "?query=id:(" + first.getId() + " OR " + second.getId() + ")&size=1";
+
+        // Get the first page, which carries the cursor of the next one
+        var firstPage = webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + query)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "2")
+            .expectBodyList(Session.class)
+            .hasSize(1)
+            .returnResult();
+        String searchAfter = firstPage.getResponseHeaders().getFirst(SearchPaginationUtil.SEARCH_AFTER_HEADER);
+        assertThat(searchAfter).isNotBlank();
+
+        // Get the next page from the cursor
+        List<Session> secondPage = webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + query + "&searchAfter=" + searchAfter)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Session.class)
+            .hasSize(1)
+            .returnResult()
+            .getResponseBody();
+        assertThat(List.of(firstPage.getResponseBody().get(0).getId(), secondPage.get(0).getId()))
+            .containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    @Test
+    void searchSessionsWithFilters() {
+        // Initialize the database
+        Session matching = sessionRepository.save(createEntity(em)).block();
+        Session other = sessionRepository.save(createEntity(em).sessionStatus(UPDATED_SESSION_STATUS)).block();
+        sessionSearchRepository.saveAll(List.of(SessionDocument.of(matching), SessionDocument.of(other))).blockLast();
+
+        // Filter without a free-text query
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_SEARCH_API_URL + "?status={status}&from={from}&to={to}",
+                DEFAULT_SESSION_STATUS,
+                DEFAULT_START_DATE,
+                DEFAULT_START_DATE.plusSeconds(1)
+            )
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(matching.getId().intValue()))
+            .jsonPath("$.[*].sessionStatus")
+            .value(everyItem(is(DEFAULT_SESSION_STATUS.toString())));
+
+        // Filter out everything
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + matching.getId() + "&status=" + UPDATED_SESSION_STATUS)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Session.class)
+            .hasSize(0);
+    }
+
+    @Test
+    void searchSessionsWithTooLargePage() {
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=*&size=" + (SearchQueries.MAX_PAGE_SIZE + 1))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+        webTestClient.get().uri(ENTITY_SEARCH_API_URL + "?query=*&searchAfter=invalid").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamSessions() {
+        // Initialize the database
+        session = sessionRepository.save(session).block();
+        sessionSearchRepository.save(SessionDocument.of(session)).block();
+
+        // Stream the search
+        List<Session> sessions = webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "/stream?query=id:" + session.getId())
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Session.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(sessions).extracting(Session::getId).containsExactly(session.getId());
+    }
 }
@@ -296,6 +296,38 @@ class UserResourceIT {
         userSearchRepository.deleteAll();
     }
 
+    @Test
+    void getAllUsersSortedAndPaged() {
+        // Initialize the database
+        for (String lastName : List.of("adams", "brown", "clark")) {
+            User other = createEntity(em);
+            other.setLastName(lastName);
+            userRepository.save(other).block();
+            userRepository.saveUserAuthority(other.getId(), AuthoritiesConstants.USER).block();
+            userRepository.saveUserAuthority(other.getId(), AuthoritiesConstants.ADMIN).block();
+        }
+
+        // Get the second page of one user, by last name descending
+        webTestClient
+            .get()
+            .uri("/api/admin/users?sort=lastName,desc&page=1&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$[0].lastName")
+            .isEqualTo("brown")
+            .jsonPath("$[0].authorities.length()")
+            .isEqualTo(2);
+
+        webTestClient.get().uri("/api/admin/users?sort=password,asc").exchange().expectStatus().isBadRequest();
+    }
+
     @Test
     void getUser() {
         // Initialize the database